@@ -3,6 +3,8 @@ package com.sk.matching.client;
 import com.sk.matching.engine.BasicMatchingEngine;
 import com.sk.matching.exception.OrderCreationException;
 import com.sk.matching.exception.SymbolNotSupportedException;
+import com.sk.matching.exchange.executions.ExecutionReportListener;
+import com.sk.matching.exchange.executions.ExecutionReports;
 import com.sk.matching.exchange.order.GenOrder;
 import com.sk.matching.exchange.order.Order;
 import com.sk.matching.types.OrderType;
@@ -26,6 +28,8 @@ public class ClientWorker implements Client {
 
     private static final AtomicInteger incrementallyUnique = new AtomicInteger(0);
 
+    private final long clientId = ExecutionReports.newClientId();
+
     private final List<GenOrder> genOrderList = new ArrayList<>();
 
     private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
@@ -40,6 +44,7 @@ public class ClientWorker implements Client {
                 builder.setQty(qty);
                 builder.setCurrency(USD);
                 builder.setVisibleQty(visibleQty);
+                builder.setClientId(clientId);
             }) .build();
             genOrderList.add(genOrder);
             submitOrder(genOrder);
@@ -58,6 +63,17 @@ public class ClientWorker implements Client {
         this.createAndSubmitOrder( symbol,  side,  px,  qty, ot, clOrdId );
     }
 
+    public long getClientId() {
+        return clientId;
+    }
+
+    /**
+     * Pushes the execution reports of this client's orders to the listener, on the execution report publisher thread
+     */
+    public void setExecutionReportListener(ExecutionReportListener listener) {
+        ExecutionReports.register(clientId, listener);
+    }
+
     /**
      * Returns copy of orders to save the original copy from external mutations
      * @return
@@ -82,11 +98,18 @@ public class ClientWorker implements Client {
 
     @Override
     public void replaceOrder(Order order) {
-        throw new UnsupportedOperationException("Service is Not yet implemented");
+        GenOrder genOrder = (GenOrder) order;
+        log.info("Replacing Client Order Id {}, order id {}, px {}, qty {}",
+                genOrder::getClientOrderId, genOrder::getOrderId,
+                genOrder::getOrdPx, genOrder::getOrdQty);
+        EQUITY_MATCHING_ENGINE.amendOrder(genOrder);
     }
 
     @Override
     public void cancelOrder(Order order) {
-        throw new UnsupportedOperationException("Service is Not yet implemented");
+        GenOrder genOrder = (GenOrder) order;
+        log.info("Cancelling Client Order Id {}, order id {}",
+                genOrder::getClientOrderId, genOrder::getOrderId);
+        EQUITY_MATCHING_ENGINE.cancelOrder(genOrder);
     }
 }
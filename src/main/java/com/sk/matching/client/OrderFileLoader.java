@@ -0,0 +1,219 @@
+package com.sk.matching.client;
+
+import com.sk.matching.engine.BasicMatchingEngine;
+import com.sk.matching.exception.OrderCreationException;
+import com.sk.matching.exchange.executions.ExecutionReports;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Bulk loader of clOrdId,side,price,qty[,visibleQty] order files into the engine, e.g. replays of order captures.
+ *
+ * The file is memory mapped one window at a time and parsed byte by byte: prices and quantities go straight to
+ * Symbol units, the only String created per line is the clOrdId the order keeps. Each order is submitted as soon
+ * as its line is parsed, a full shard ring slows the loader down instead of the file piling up on the heap.
+ * Lines which can't be parsed or built into an order are logged and skipped. Not thread safe.
+ */
+@Log4j2
+public class OrderFileLoader {
+
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 28;
+    private static final int MAX_CL_ORD_ID_LENGTH = 64;
+    private static final long INVALID = Long.MIN_VALUE;    //Unparsable decimal
+
+    private final Symbol symbol;
+    private final int windowSize;
+    private final long clientId = ExecutionReports.newClientId();
+    private final BasicMatchingEngine engine = BasicMatchingEngine.getInstance();
+    private final byte[] clOrdIdBytes = new byte[MAX_CL_ORD_ID_LENGTH];
+
+    private long lineNumber;
+    private long submitted;
+    private long skipped;
+    private int cursor;         //Parse position inside the current line
+
+    public OrderFileLoader(Symbol symbol) {
+        this(symbol, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize bytes mapped at once, must hold the longest line
+     */
+    public OrderFileLoader(Symbol symbol, int windowSize) {
+        this.symbol = symbol;
+        this.windowSize = windowSize > 0 ? windowSize : DEFAULT_WINDOW_SIZE;
+    }
+
+    /**
+     * Submits every order of the file as limit orders on the loader's symbol
+     * @return number of orders submitted
+     */
+    public long load(Path file) throws IOException {
+        long start = System.nanoTime();
+        long before = submitted;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(windowSize, size - position);
+                boolean last = position + length == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int consumed = parseWindow(window, last);
+                if (consumed == 0) {
+                    throw new IOException("Line " + (lineNumber + 1) + " of " + file + " is longer than the "
+                            + windowSize + " bytes window");
+                }
+                position += consumed;
+            }
+        }
+        log.info("Loaded {} orders on {} from {} in {} ms, {} lines skipped", submitted - before, symbol.getName(),
+                file, (System.nanoTime() - start) / 1_000_000, skipped);
+        return submitted - before;
+    }
+
+    /**
+     * @return bytes of the window up to the end of its last complete line, all of it for the file's last window
+     */
+    private int parseWindow(MappedByteBuffer window, boolean last) {
+        int limit = window.limit();
+        int lineStart = 0;
+        for (int pos = 0; pos < limit; pos++) {
+            if (window.get(pos) == '\n') {
+                parseLine(window, lineStart, pos);
+                lineStart = pos + 1;
+            }
+        }
+        if (last && lineStart < limit) {
+            parseLine(window, lineStart, limit);
+            lineStart = limit;
+        }
+        return lineStart;
+    }
+
+    private void parseLine(MappedByteBuffer buffer, int start, int end) {
+        lineNumber++;
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (end == start) {
+            return;     //Blank line
+        }
+        cursor = start;
+        int clOrdIdEnd = nextField(buffer, end);
+        int clOrdIdLength = clOrdIdEnd - start;
+        if (clOrdIdLength == 0 || clOrdIdLength > MAX_CL_ORD_ID_LENGTH || cursor >= end) {
+            skip("invalid clOrdId");
+            return;
+        }
+        byte sideChar = buffer.get(cursor);
+        int sideEnd = nextField(buffer, end);
+        long price = parseDecimal(buffer, end, symbol.getPriceScale());
+        long qty = parseDecimal(buffer, end, symbol.getQtyScale());
+        boolean iceberg = cursor < end;
+        long visibleQty = iceberg ? parseDecimal(buffer, end, symbol.getQtyScale()) : GenOrder.NO_QTY;
+        if (sideEnd - (clOrdIdEnd + 1) != 1 || price == INVALID || qty == INVALID
+                || iceberg && visibleQty == INVALID) {
+            skip("invalid side, price or qty");
+            return;
+        }
+        for (int i = 0; i < clOrdIdLength; i++) {
+            clOrdIdBytes[i] = buffer.get(start + i);
+        }
+        String clOrdId = new String(clOrdIdBytes, 0, clOrdIdLength, StandardCharsets.US_ASCII);
+        try {
+            Side side = Side.valueOf((char) sideChar);
+            GenOrder genOrder = new GenOrder.Builder(clOrdId, symbol, side, OrderType.LIMIT)
+                    .with(builder -> {
+                        builder.setPriceUnits(price);
+                        builder.setQtyUnits(qty);
+                        builder.setVisibleQtyUnits(visibleQty);
+                        builder.setClientId(clientId);
+                    })
+                    .build();
+            engine.addOrder(genOrder);
+            submitted++;
+        } catch (OrderCreationException | UnsupportedOperationException e) {
+            skip(e.getMessage());
+        }
+    }
+
+    /**
+     * Moves the cursor past the next comma
+     * @return end of the field the cursor was on
+     */
+    private int nextField(MappedByteBuffer buffer, int end) {
+        int pos = cursor;
+        while (pos < end && buffer.get(pos) != ',') {
+            pos++;
+        }
+        cursor = pos < end ? pos + 1 : end;
+        return pos;
+    }
+
+    /**
+     * Parses the field at the cursor as a decimal in units of the given power of ten scale, rounded half up
+     * @return INVALID if the field is empty, not a decimal or doesn't fit a long in units
+     */
+    private long parseDecimal(MappedByteBuffer buffer, int end, long scale) {
+        int pos = cursor;
+        int fieldEnd = nextField(buffer, end);
+        if (pos == fieldEnd) {
+            return INVALID;
+        }
+        long value = 0;
+        long fractionScale = 0;     //0 while in the integer part
+        boolean roundUp = false;
+        for (; pos < fieldEnd; pos++) {
+            byte b = buffer.get(pos);
+            if (b == '.' && fractionScale == 0) {
+                fractionScale = 1;
+            } else if (b < '0' || b > '9') {
+                return INVALID;
+            } else if (fractionScale == 0 || fractionScale < scale) {
+                if (value > (Long.MAX_VALUE - (b - '0')) / 10) {
+                    return INVALID;
+                }
+                value = value * 10 + (b - '0');
+                fractionScale *= 10;
+            } else if (fractionScale == scale) {
+                roundUp = b >= '5';
+                fractionScale *= 10;
+            }
+        }
+        fractionScale = Math.min(Math.max(fractionScale, 1), scale);
+        if (value > (Long.MAX_VALUE - 1) / (scale / fractionScale)) {
+            return INVALID;
+        }
+        return value * (scale / fractionScale) + (roundUp ? 1 : 0);
+    }
+
+    private void skip(String reason) {
+        skipped++;
+        log.warn("Skipping order line {}, {}", lineNumber, reason);
+    }
+
+    /**
+     * @return client id of the loaded orders, to listen to their execution reports
+     */
+    public long getClientId() {
+        return clientId;
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+}
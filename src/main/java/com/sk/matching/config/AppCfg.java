@@ -15,8 +15,43 @@ public class AppCfg {
     private String dataDir;
     private String symbolFile;
     private String symbolFileContentSeparator;
+    private String symbolImageFile;     //Binary reference data image in the data dir, re-used while sources are unchanged
+    private int symbolLoaderThreads;    //Threads loading the historical price files, 0 for one per core
 
-    private String aeronDriverDir;
+    private boolean historyEnabled; //Columnar store of the historical prices, imported from the data dir CSVs
+    private String historyDir;
+
+    private String aeronDriverDir;  //Shared memory IPC channel files
+    private boolean ipcEnabled;     //Order entry from other processes over shared memory
+
+    private int matchingThreads;    //Matching shards, each thread owns a disjoint set of order books
+    private int ringBufferSize;     //Events per shard ring, power of two
+
+    private int orderPoolMinSize;   //Orders pre-allocated at startup
+    private int orderPoolMaxSize;   //Orders alive at once, borrowed or idle
+    private int tradePoolMinSize;
+    private int tradePoolMaxSize;
+    private long poolMaxWaitMillis; //Wait for a return when a pool is exhausted before order creation fails
+    private long orderPurgeIntervalMillis;  //Closed orders go back to the pools this often, 0 to disable
+
+    private boolean journalEnabled; //Journal accepted events and replay them on startup
+    private String journalDir;
+    private int journalSegmentSize; //Bytes per memory mapped journal file
+    private int snapshotIntervalSeconds;    //Book snapshots into the journal dir, 0 to disable, needs the journal
+
+    private int l2FeedCapacity;     //L2 updates buffered per book, power of two
+    private int l2RefreshInterval;  //L2 updates between two full refreshes
+    private int l3FeedCapacity;     //L3 records buffered per book, power of two
+    private int marketDataDepth;    //Levels per side kept by the conflated depth snapshots
+    private int marketDataPushThreads;  //Threads shared by all push depth subscriptions
+    private String barIntervals;    //OHLCV bar intervals aggregated from the trades, e.g. 1s,1m,1d
+    private int barHistorySize;     //Bars kept per symbol and interval, power of two
+
+    private int executionReportRingSize;    //Execution reports in flight to the publisher thread, power of two
+
+    private boolean gatewayEnabled; //Binary order entry over TCP
+    private int gatewayPort;
+    private int gatewaySessionBufferSize;   //Inbound and outbound bytes buffered per gateway session
 
 
 }
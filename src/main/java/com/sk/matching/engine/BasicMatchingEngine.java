@@ -1,6 +1,9 @@
 package com.sk.matching.engine;
 
 import com.sk.matching.exception.OrderCreationException;
+import com.sk.matching.exchange.executions.ExecutionReports;
+import com.sk.matching.exchange.executions.TradeStatistics;
+import com.sk.matching.exchange.executions.TradeStore;
 import com.sk.matching.exchange.order.GenOrder;
 import com.sk.matching.exchange.orderbook.OrderBook;
 import com.sk.matching.exchange.order.Order;
@@ -9,10 +12,8 @@ import com.sk.matching.symbols.Symbol;
 import com.sk.matching.symbols.SymbolCache;
 import lombok.extern.log4j.Log4j2;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static com.sk.matching.types.OrderType.LIMIT;
@@ -25,8 +26,6 @@ public class BasicMatchingEngine implements MatchingEngine {
 
     private static final AtomicLong atomicOrderId = new AtomicLong();
 
-    private static final ExecutorService executorForMatching = Executors.newFixedThreadPool(20 );
-
     private BasicMatchingEngine() {
          for(Symbol symbol : SymbolCache.getAllSymbols() ) {
             OrderBook.getBook(symbol);//Pre initialization
@@ -43,53 +42,203 @@ public class BasicMatchingEngine implements MatchingEngine {
         return OrderBook.getBook(symbol);
     }
 
+    /**
+     * @return copy of every execution on the symbol so far, in time order
+     */
     @Override
     public List<Trade> getTrades(Symbol symbol) {
+        TradeStore tradeStore = OrderBook.getBook(symbol).getTradeStore();
+        return tradeStore.getTrades(0, tradeStore.size());
+    }
 
-        List<Trade> tradeList = new ArrayList<>();
-        OrderBook ordBook = OrderBook.getBook(symbol);
-        ordBook.getOrderHistory();
+    /**
+     * @return executions on the symbol with fromEpochNanos <= trade time < toEpochNanos, at most limit of them,
+     * the next page starts one nano after the trade time of the last one returned
+     */
+    @Override
+    public List<Trade> getTrades(Symbol symbol, long fromEpochNanos, long toEpochNanos, int limit) {
+        return OrderBook.getBook(symbol).getTradeStore().getTradesBetween(fromEpochNanos, toEpochNanos, limit);
+    }
 
-        return tradeList;
+    /**
+     * @return session VWAP, volume, turnover, trade count, high / low and last of the symbol, O(1) lock free reads
+     */
+    @Override
+    public TradeStatistics getTradeStatistics(Symbol symbol) {
+        return OrderBook.getBook(symbol).getTradeStatistics();
     }
 
     @Override
     public void addOrder(Order order) throws OrderCreationException {
         GenOrder genOrder = (GenOrder) order;
 
-        if(genOrder.getSide() != BUY && genOrder.getSide() != SELL) {
-            log.error("Invalid SIDE {} for clOrdId {} ",
-                    genOrder::getSide, genOrder::getClientOrderId);
-            return ;
-        }
-        if(genOrder.getOrderType() != LIMIT && genOrder.getOrderType() != MARKET) {
-            log.error("Invalid ORDER TYPE {} for clOrdId {} ",
-                    genOrder::getOrderType, genOrder::getClientOrderId);
-            return ;
+        if (!isValid(genOrder)) {
+            genOrder.release();     //Rejected, the engine owns a pooled order from here on
+            return;
         }
         //Locate the order book
-        OrderBook orderBook = getOrderBook(genOrder.getSymbol());
-        if(null == orderBook ) {
-            throw new OrderCreationException("Unknown security/security received symbol in order " + genOrder.getSymbol());
-        }
+        OrderBook orderBook = locateBook(genOrder);
         genOrder.setOrderId(atomicOrderId.incrementAndGet());
         log.info("Received to add clOrdId {}, side {}, price {}, qty {}, order id {} ",
                 genOrder::getClientOrderId, genOrder::getSide, genOrder::getOrdPx, genOrder::getOrdQty, genOrder::getOrderId);
 
-        executorForMatching.submit( ()-> orderBook.processOrder(genOrder));//Submitted for possible execution
+        orderBook.processOrder(genOrder);//Sequenced on the book's ring for possible execution
 
     }
 
+    /**
+     * Adds a batch of orders, e.g. a market maker's quotes, at a fraction of the per order cost of addOrder.
+     * Invalid orders are rejected as by addOrder, the others get a contiguous block of order ids in list order from
+     * one atomic add and each run of consecutive orders on the same book is sequenced on its ring with one claim.
+     * @throws OrderCreationException an order's book can't be located, nothing of the batch is added
+     */
+    @Override
+    public void addOrders(List<? extends Order> orders) throws OrderCreationException {
+        GenOrder[] batch = new GenOrder[orders.size()];
+        OrderBook[] books = new OrderBook[batch.length];
+        int count = 0;
+        for (Order order : orders) {
+            GenOrder genOrder = (GenOrder) Objects.requireNonNull(order);
+            books[count] = locateBook(genOrder);
+            batch[count] = genOrder;
+            count++;
+        }
+        int valid = 0;
+        for (int i = 0; i < count; i++) {
+            if (isValid(batch[i])) {
+                books[valid] = books[i];
+                batch[valid++] = batch[i];
+            } else {
+                batch[i].release();
+            }
+        }
+        if (valid == 0) return;
+        long firstOrderId = atomicOrderId.getAndAdd(valid) + 1;
+        for (int i = 0; i < valid; i++) {
+            batch[i].setOrderId(firstOrderId + i);
+        }
+        log.info("Received to add a batch of {} orders, order ids {} to {}", valid, firstOrderId, firstOrderId + valid - 1);
+
+        int runStart = 0;
+        for (int i = 1; i <= valid; i++) {
+            if (i == valid || books[i] != books[runStart]) {
+                books[runStart].processOrders(batch, runStart, i);
+                runStart = i;
+            }
+        }
+    }
 
+    /**
+     * Cancels the remaining quantity of a resting order
+     * @param order previously added order, located on its book by the engine assigned order id
+     */
     @Override
     public void cancelOrder(Order order) {
-        throw new UnsupportedOperationException("Order Cancellation is not supported. This project is for execution demo only");
+        GenOrder genOrder = (GenOrder) Objects.requireNonNull(order);
+        if (!hasOrderId(genOrder)) return;
+        log.info("Received to cancel clOrdId {}, order id {}", genOrder::getClientOrderId, genOrder::getOrderId);
+
+        OrderBook orderBook = getOrderBook(genOrder.getSymbol());
+        orderBook.processCancel(genOrder.getOrderId());
+    }
+
+    /**
+     * Cancels a batch of resting orders, each run of consecutive orders on the same book sequenced with one claim
+     * @param orders previously added orders, the ones without an order id are skipped
+     */
+    @Override
+    public void cancelOrders(List<? extends Order> orders) {
+        long[] orderIds = new long[orders.size()];
+        OrderBook[] books = new OrderBook[orderIds.length];
+        int count = 0;
+        for (Order order : orders) {
+            GenOrder genOrder = (GenOrder) Objects.requireNonNull(order);
+            if (!hasOrderId(genOrder)) continue;
+            books[count] = getOrderBook(genOrder.getSymbol());
+            orderIds[count++] = genOrder.getOrderId();
+        }
+        if (count == 0) return;
+        log.info("Received to cancel a batch of {} orders", count);
+
+        int runStart = 0;
+        for (int i = 1; i <= count; i++) {
+            if (i == count || books[i] != books[runStart]) {
+                books[runStart].processCancels(orderIds, runStart, i);
+                runStart = i;
+            }
+        }
     }
 
+    /**
+     * Cancel/replace of a resting order
+     * @param order carries the order id of the resting order with the replacement price and total quantity, released
+     *              once read unless it is the resting order itself
+     */
     @Override
     public void amendOrder(Order order) {
-        throw new UnsupportedOperationException("Order Modification is not supported. This project is for execution demo only");
+        GenOrder genOrder = (GenOrder) Objects.requireNonNull(order);
+        if (!hasOrderId(genOrder)) {
+            genOrder.release();
+            return;
+        }
+        log.info("Received to amend clOrdId {}, order id {}, price {}, qty {}",
+                genOrder::getClientOrderId, genOrder::getOrderId, genOrder::getOrdPx, genOrder::getOrdQty);
+
+        OrderBook orderBook = getOrderBook(genOrder.getSymbol());
+        orderBook.processAmend(genOrder.getOrderId(), genOrder.getOrdPxUnits(), genOrder.getOrdQtyUnits());
+        if (orderBook.getOrder(genOrder.getOrderId()) != genOrder) {
+            genOrder.release();     //The amend event carries the values, the carrier is done with
+        }
+    }
+
+    public long getLastOrderId() {
+        return atomicOrderId.get();
+    }
+
+    /**
+     * Moves the order id sequence past an id restored from the journal, so new orders never re-use it
+     */
+    public void recoverOrderId(long orderId) {
+        atomicOrderId.accumulateAndGet(orderId, Math::max);
+    }
+
+    private boolean isValid(GenOrder genOrder) {
+        if(genOrder.getSide() != BUY && genOrder.getSide() != SELL) {
+            log.error("Invalid SIDE {} for clOrdId {} ",
+                    genOrder::getSide, genOrder::getClientOrderId);
+            ExecutionReports.onReject(genOrder, "Invalid side");
+            return false;
+        }
+        if(genOrder.getOrderType() != LIMIT && genOrder.getOrderType() != MARKET) {
+            log.error("Invalid ORDER TYPE {} for clOrdId {} ",
+                    genOrder::getOrderType, genOrder::getClientOrderId);
+            ExecutionReports.onReject(genOrder, "Invalid order type");
+            return false;
+        }
+        if (genOrder.getOrderType() == LIMIT && !genOrder.getSymbol().isOnTick(genOrder.getOrdPxUnits())) {
+            log.error("Price {} is not a multiple of the tick size {} for clOrdId {}",
+                    genOrder::getOrdPx, () -> genOrder.getSymbol().getTickSize(), genOrder::getClientOrderId);
+            ExecutionReports.onReject(genOrder, "Price is not a multiple of the tick size");
+            return false;
+        }
+        return true;
+    }
 
+    private OrderBook locateBook(GenOrder genOrder) throws OrderCreationException {
+        OrderBook orderBook = getOrderBook(genOrder.getSymbol());
+        if(null == orderBook ) {
+            throw new OrderCreationException("Unknown security/security received symbol in order " + genOrder.getSymbol());
+        }
+        return orderBook;
+    }
+
+    private boolean hasOrderId(GenOrder genOrder) {
+        if (genOrder.getOrderId() == Long.MIN_VALUE) {
+            log.error("Order id is not assigned for clOrdId {}, order was never added to the engine",
+                    genOrder::getClientOrderId);
+            return false;
+        }
+        return true;
     }
 
 }
@@ -1,6 +1,7 @@
 package com.sk.matching.engine;
 
 import com.sk.matching.exception.OrderCreationException;
+import com.sk.matching.exchange.executions.TradeStatistics;
 import com.sk.matching.exchange.orderbook.OrderBook;
 import com.sk.matching.exchange.order.Order;
 import com.sk.matching.exchange.order.Trade;
@@ -12,8 +13,12 @@ public interface MatchingEngine {
 
     OrderBook getOrderBook(Symbol symbol);
     List<Trade> getTrades(Symbol symbol);
+    List<Trade> getTrades(Symbol symbol, long fromEpochNanos, long toEpochNanos, int limit);
+    TradeStatistics getTradeStatistics(Symbol symbol);
     void addOrder(Order order) throws OrderCreationException;
+    void addOrders(List<? extends Order> orders) throws OrderCreationException;
     void cancelOrder(Order order);
+    void cancelOrders(List<? extends Order> orders);
     void amendOrder(Order order);
 
 }
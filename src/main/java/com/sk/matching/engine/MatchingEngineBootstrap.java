@@ -0,0 +1,179 @@
+package com.sk.matching.engine;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.exception.OrderCreationException;
+import com.sk.matching.exception.SymbolNotSupportedException;
+import com.sk.matching.exchange.executions.ExecutionReports;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.order.OrderPools;
+import com.sk.matching.exchange.orderbook.L2Feed;
+import com.sk.matching.exchange.orderbook.L3Feed;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.sequencer.MatchingShards;
+import com.sk.matching.journal.BookSnapshots;
+import com.sk.matching.journal.JournalListener;
+import com.sk.matching.journal.JournalReplayer;
+import com.sk.matching.journal.OrderJournal;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine startup: wires the matching runtime from the config once the symbols are loaded, see {@link #configure}.
+ *
+ * Then recovery: with app-cfg.journal-enabled, rebuilds every order book from the journal of the previous runs
+ * and then starts journaling this run, before any order is accepted.
+ *
+ * Replayed events go through the same shard rings as live ones, so books end up exactly as the matching threads
+ * left them, with no execution report sent for them. Price and qty scales of a symbol must not change while its
+ * journal is kept.
+ * With app-cfg.snapshot-interval-seconds the books are also snapshotted periodically, a restart then restores the
+ * latest complete snapshot and only replays the journal written after it.
+ */
+@Component
+@Log4j2
+public class MatchingEngineBootstrap implements JournalListener {
+
+    private static final long REPLAY_DRAIN_TIMEOUT_MILLIS = 60_000L;
+
+    private final AppCfg appCfg;
+    private BookSnapshots bookSnapshots;
+    private ScheduledExecutorService snapshotScheduler;
+
+    //SymbolCache is injected to have reference data loaded before the shards are configured and the replay
+    public MatchingEngineBootstrap(AppCfg appCfg, SymbolCache symbolCache) {
+        this.appCfg = appCfg;
+    }
+
+    /**
+     * Spreads the loaded symbols over the matching threads in load order and sizes the order / trade pools,
+     * the closed order purge, the L2 / L3 feeds and the execution report ring. Called by init, tests running the
+     * engine without Spring call it once the SymbolCache is loaded
+     */
+    public static void configure(AppCfg appCfg) {
+        List<Symbol> loadOrder = SymbolCache.getAllSymbols();
+        loadOrder.sort(Comparator.comparingInt(Symbol::getId));     //Ids are assigned in load order
+        MatchingShards.configure(appCfg.getMatchingThreads(), appCfg.getRingBufferSize());
+        MatchingShards.assign(loadOrder);
+        OrderPools.configure(appCfg.getOrderPoolMinSize(), appCfg.getOrderPoolMaxSize(),
+                appCfg.getTradePoolMinSize(), appCfg.getTradePoolMaxSize(), appCfg.getPoolMaxWaitMillis());
+        MatchingShards.schedulePurge(appCfg.getOrderPurgeIntervalMillis());
+        L2Feed.configure(appCfg.getL2FeedCapacity(), appCfg.getL2RefreshInterval());
+        L3Feed.configure(appCfg.getL3FeedCapacity());
+        ExecutionReports.configure(appCfg.getExecutionReportRingSize());
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        configure(appCfg);
+        if (!appCfg.isJournalEnabled()) {
+            log.info("Journal is disabled, starting with empty books");
+            return;
+        }
+        Path journalDir = Paths.get(appCfg.getJournalDir());
+        long generation = JournalReplayer.nextGeneration(journalDir);
+
+        long start = System.nanoTime();
+        long records;
+        ExecutionReports.setRecovering(true);     //Clients were told about the replayed events in the previous runs
+        try {
+            BookSnapshots.Restored snapshot = BookSnapshots.restore(journalDir);
+            if (null != snapshot) {
+                BasicMatchingEngine.getInstance().recoverOrderId(snapshot.lastOrderId);
+                OrderBook.recoverTradeId(snapshot.currentTradeId);
+                records = JournalReplayer.replay(journalDir, snapshot, this);
+            } else {
+                records = JournalReplayer.replay(journalDir, this);
+            }
+            if (!MatchingShards.awaitDrained(REPLAY_DRAIN_TIMEOUT_MILLIS)) {
+                throw new IllegalStateException("Journal replay did not complete within " + REPLAY_DRAIN_TIMEOUT_MILLIS + "ms");
+            }
+        } finally {
+            ExecutionReports.setRecovering(false);
+        }
+        log.info("Replayed {} journal records from {} in {} ms", records, journalDir,
+                (System.nanoTime() - start) / 1_000_000);
+
+        int segmentSize = appCfg.getJournalSegmentSize() > 0
+                ? appCfg.getJournalSegmentSize() : OrderJournal.DEFAULT_SEGMENT_SIZE;
+        MatchingShards.enableJournal(journalDir, generation, segmentSize);
+
+        int interval = appCfg.getSnapshotIntervalSeconds();
+        if (interval > 0) {
+            bookSnapshots = new BookSnapshots(journalDir, BasicMatchingEngine.getInstance()::getLastOrderId,
+                    OrderBook::getCurrentTradeId);
+            MatchingShards.setSnapshotHandler(bookSnapshots);
+            snapshotScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "snapshot-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotScheduler.scheduleAtFixedRate(bookSnapshots::requestSnapshot, interval, interval, TimeUnit.SECONDS);
+            log.info("Book snapshots every {} seconds into {}", interval, journalDir);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (null != snapshotScheduler) {
+            snapshotScheduler.shutdownNow();
+            bookSnapshots.shutdown();
+        }
+        MatchingShards.forceJournal();
+    }
+
+    @Override
+    public void onNew(String symbolStr, long orderId, String clOrdId, Side side, OrderType orderType,
+                      long price, long qty, long visibleQty, String currency, long clientId) {
+        try {
+            Symbol symbol = SymbolCache.get(symbolStr);
+            GenOrder genOrder = new GenOrder.Builder(clOrdId, symbol, side, orderType)
+                    .with(builder -> {
+                        builder.setPriceUnits(price);
+                        builder.setQtyUnits(qty);
+                        builder.setVisibleQtyUnits(visibleQty);
+                        builder.setCurrency(currency);
+                        builder.setClientId(clientId);
+                    })
+                    .buildPooled();
+            genOrder.setOrderId(orderId);
+            BasicMatchingEngine.getInstance().recoverOrderId(orderId);
+            ExecutionReports.recoverClientId(clientId);
+            OrderBook.getBook(symbol).processOrder(genOrder);
+        } catch (SymbolNotSupportedException | OrderCreationException e) {
+            log.error("Can't replay order id {}, clOrdId {} on {}", orderId, clOrdId, symbolStr, e);
+        }
+    }
+
+    @Override
+    public void onCancel(String symbolStr, long orderId) {
+        try {
+            OrderBook.getBook(SymbolCache.get(symbolStr)).processCancel(orderId);
+        } catch (SymbolNotSupportedException e) {
+            log.error("Can't replay cancel of order id {} on {}", orderId, symbolStr, e);
+        }
+    }
+
+    @Override
+    public void onAmend(String symbolStr, long orderId, long price, long qty) {
+        try {
+            OrderBook.getBook(SymbolCache.get(symbolStr)).processAmend(orderId, price, qty);
+        } catch (SymbolNotSupportedException e) {
+            log.error("Can't replay amend of order id {} on {}", orderId, symbolStr, e);
+        }
+    }
+}
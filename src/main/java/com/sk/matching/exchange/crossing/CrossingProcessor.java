@@ -1,15 +1,15 @@
 package com.sk.matching.exchange.crossing;
 
+import com.sk.matching.exchange.executions.ExecutionReports;
 import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.order.Trade;
 import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.orderbook.PriceLevel;
+import com.sk.matching.exchange.orderbook.TopOfBook;
 import com.sk.matching.types.Side;
 import com.sk.matching.util.DateUtils;
 import lombok.extern.log4j.Log4j2;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.ListIterator;
-
 import static com.sk.matching.types.OrderType.LIMIT;
 import static com.sk.matching.types.OrderType.MARKET;
 import static com.sk.matching.types.Side.BUY;
@@ -27,22 +27,28 @@ public class CrossingProcessor {
             String clOrdId = aggressiveOrder.getClientOrderId();
             log.debug(()-> clOrdId +", side "+ side + " order received... will try to match with opposite side for best price.");
 
-            List<GenOrder> bestOppositeOrderList = orderBook.getBestOppositeOrderList(side);
+            PriceLevel bestOppositeLevel = orderBook.getBestOppositeLevel(side);
 
-            if ( bestOppositeOrderList.isEmpty() ) {
+            if ( null == bestOppositeLevel ) {
                 log.info( ()->"No Opposite Order Exists for side = " + side );
                 return ;
             }
 
-            while (aggressiveOrder.getLeavesQty() > 0 && (!bestOppositeOrderList.isEmpty()) ) {
+            while (aggressiveOrder.getLeavesQtyUnits() > 0 && null != bestOppositeLevel ) {
 
                 log.debug("Started Processing --- {}, {}" , aggressiveOrder::getClientOrderId, aggressiveOrder::getLeavesQty);
-                if (checkIfBestOppositeExists(aggressiveOrder, orderBook, side, bestOppositeOrderList)) break;
+                if (checkIfBestOppositeExists(aggressiveOrder, orderBook, side, bestOppositeLevel)) break;
 
-                List<GenOrder> finalList = bestOppositeOrderList;
-                log.debug( "--- clOrdId {}, Opposite Orders {}" , aggressiveOrder::getClientOrderId, ()-> finalList);
+                PriceLevel finalLevel = bestOppositeLevel;
+                log.debug( "--- clOrdId {}, Opposite Level {}" , aggressiveOrder::getClientOrderId, ()-> finalLevel);
 
-                bestOppositeOrderList = executeOrders(aggressiveOrder, orderBook, side, clOrdId, bestOppositeOrderList);
+                long leavesQtyBefore = aggressiveOrder.getLeavesQtyUnits();
+                PriceLevel nextOppositeLevel = executeOrders(aggressiveOrder, orderBook, side, clOrdId, bestOppositeLevel);
+                if (nextOppositeLevel == bestOppositeLevel && aggressiveOrder.getLeavesQtyUnits() == leavesQtyBefore) {
+                    log.debug(() -> "Nothing left to match at the best opposite level for " + clOrdId);
+                    break;
+                }
+                bestOppositeLevel = nextOppositeLevel;
 
             }
 
@@ -52,92 +58,181 @@ public class CrossingProcessor {
 
     }
 
-    private List<GenOrder> executeOrders(GenOrder genOrder, OrderBook orderBook, Side side, String clOrdId, List<GenOrder> bestOppositeOrderList) {
-        ListIterator<GenOrder> listIterator = bestOppositeOrderList.listIterator();
-        while (listIterator.hasNext()) { //Iterate based on receiving sequence
-            GenOrder bestOppositeOrder = listIterator.next();
+    /**
+     * Cancel/replace of a resting order. A quantity reduction at the same price keeps time priority and is applied
+     * in place, any other change loses priority, the order is re-queued at the back and may cross straight away.
+     * Price and qty are in Symbol units.
+     */
+    public void processAmend(OrderBook orderBook, long orderId, long newPx, long newQty) {
+        try {
+            GenOrder restingOrder = orderBook.getOrder(orderId);
+            if (null == restingOrder || null == restingOrder.getLevel()) {
+                log.warn("Can't amend, order id {} is not resting on book {}", orderId, orderBook.getSymbol());
+                if (null != restingOrder) {
+                    ExecutionReports.onReject(restingOrder, "Order is not resting, can't amend");
+                }
+                return;
+            }
+            if (restingOrder.getOrderType() == LIMIT && !orderBook.getSymbol().isOnTick(newPx)) {
+                log.warn("Can't amend order id {}, new price {} is not on the tick", orderId, newPx);
+                ExecutionReports.onReject(restingOrder, "Price is not a multiple of the tick size");
+                return;
+            }
+            boolean keepsPriority = (restingOrder.getOrderType() == MARKET || newPx == restingOrder.getOrdPxUnits())
+                    && newQty <= restingOrder.getOrdQtyUnits();
+            if (keepsPriority) {
+                if (!orderBook.amendInPlace(restingOrder, newPx, newQty)) {
+                    log.warn("Can't amend order id {} in place, new qty {} is not above executed qty {}",
+                            orderId, newQty, restingOrder.getCumQtyUnits());
+                    ExecutionReports.onReject(restingOrder, "New qty is not above executed qty");
+                    return;
+                }
+                ExecutionReports.onReplace(restingOrder);
+                log.debug("Amended in place, order id {} keeps priority", orderId);
+                return;
+            }
+            if (newQty <= restingOrder.getCumQtyUnits()) {     //Checked before the order leaves the book
+                log.warn("Can't amend order id {}, new qty {} is not above executed qty {}",
+                        orderId, newQty, restingOrder.getCumQtyUnits());
+                ExecutionReports.onReject(restingOrder, "New qty is not above executed qty");
+                return;
+            }
+            orderBook.removeOrder(restingOrder);
+            restingOrder.replace(newPx, newQty);
+            ExecutionReports.onReplace(restingOrder);
+            processOrder(restingOrder);
+        } catch (Exception e) {
+            log.error("Exception while order amendment ", e );
+        }
+    }
+
+    private PriceLevel executeOrders(GenOrder genOrder, OrderBook orderBook, Side side, String clOrdId, PriceLevel bestOppositeLevel) {
+        GenOrder bestOppositeOrder = bestOppositeLevel.head();
+        while (null != bestOppositeOrder && genOrder.getLeavesQtyUnits() > 0) { //Walk the level queue in time priority
+            GenOrder nextOppositeOrder = bestOppositeOrder.getNextInLevel(); //Captured before a fill unlinks the head
             if ( genOrder.getOrderType() == MARKET &&
                     (bestOppositeOrder.getOrderType() == MARKET) ) {
                 log.debug(() -> "Matching can't be done as BUY and SELL both orders are MARKET Order");
-                continue;
+            } else {
+                matchingTransaction(genOrder, orderBook, side, clOrdId, bestOppositeOrder);
             }
-
-            matchingTransaction(genOrder, orderBook, side, clOrdId, listIterator, bestOppositeOrder);
-
+            bestOppositeOrder = nextOppositeOrder;
         }
-        if (genOrder.getLeavesQty() > 0 && bestOppositeOrderList.isEmpty()) {
+        if (genOrder.getLeavesQtyUnits() > 0 && bestOppositeLevel.isEmpty()) {
             log.debug(()->"Check for the next best price opposite side of order " + genOrder);
-            bestOppositeOrderList = orderBook.getBestOppositeOrderList(side);
-            if( null == bestOppositeOrderList || bestOppositeOrderList.isEmpty()) return new ArrayList<>();
+            return orderBook.getBestOppositeLevel(side);
         }
-        return bestOppositeOrderList;
+        return bestOppositeLevel;
     }
 
     private boolean checkIfBestOppositeExists(GenOrder genOrder, OrderBook orderBook,
                                               Side side,
-                                              List<GenOrder> bestOppositeOrderList) {
-        if( genOrder.getLeavesQty() <= 0 || genOrder.isClosed() || bestOppositeOrderList.isEmpty() ) {
+                                              PriceLevel bestOppositeLevel) {
+        if( genOrder.getLeavesQtyUnits() <= 0 || genOrder.isClosed() || bestOppositeLevel.isEmpty() ) {
             return true;
         }
-        double bestOppositePrice = orderBook.getBestOppositePrice(genOrder, side);
-        return (Double.isNaN(bestOppositePrice) ) ;
+        return orderBook.getBestOppositePriceUnits(genOrder, side) == TopOfBook.NO_PRICE;
     }
 
     private boolean matchingTransaction(GenOrder genOrder, OrderBook orderBook,
                                         Side side, String clOrdId,
-                                        ListIterator<GenOrder> listIterator,
                                         GenOrder bestOppositeOrder) {
 
         if ( (genOrder.getOrderType() == MARKET || bestOppositeOrder.getOrderType() == MARKET
-                || genOrder.getOrdPx() == 0.0d || //0.0d => MKT order
-                ( (side == BUY && genOrder.getOrdPx() >= bestOppositeOrder.getOrdPx()) ||
-                        (side == SELL && genOrder.getOrdPx() <= bestOppositeOrder.getOrdPx())
+                || genOrder.getOrdPxUnits() == 0L || //0 => MKT order
+                ( (side == BUY && genOrder.getOrdPxUnits() >= bestOppositeOrder.getOrdPxUnits()) ||
+                        (side == SELL && genOrder.getOrdPxUnits() <= bestOppositeOrder.getOrdPxUnits())
                 )
         )
         ) {
 
-            double matchQty = Math.min(genOrder.getLeavesQty(), bestOppositeOrder.getLeavesQty());
+            long matchQty = Math.min(genOrder.getLeavesQtyUnits(), bestOppositeOrder.getLeavesQtyUnits());
             log.debug("Match qty {} for side {} and clOrdId {} with opposite side {} and clOrdId {}",
                     () -> matchQty, () -> side, () -> clOrdId, bestOppositeOrder::getSide,
                     bestOppositeOrder::getClientOrderId);
 
-            if (matchQty <= 0.0d) {
+            if (matchQty <= 0L) {
                 log.warn(() -> "Match qty should be larger than 0, no matching found");
                 return true;
             }
-            double matchPx = getMatchPx(genOrder, bestOppositeOrder);
+            long matchPx = getMatchPx(genOrder, bestOppositeOrder);
 
             log.debug("Match price {} for side {} and clOrdId {} with opposite side {} and clOrdId {}",
                     () -> matchPx, () -> side, () -> clOrdId, bestOppositeOrder::getSide,
                     bestOppositeOrder::getClientOrderId);
 
+            //Both sides are checked and both trades reserved before either side is executed, a match is applied
+            //whole or not at all
+            if (!genOrder.canExecute(matchPx, matchQty) || !bestOppositeOrder.canExecute(matchPx, matchQty)) {
+                haltMatching(genOrder, orderBook, "Match notional overflow, order cancelled");
+                return true;
+            }
+            Trade reservedAggressive = reserveTrade(orderBook, genOrder);
+            Trade reservedPassive = null != reservedAggressive ? reserveTrade(orderBook, bestOppositeOrder) : null;
+            if (null == reservedPassive) {
+                if (null != reservedAggressive) {
+                    genOrder.releaseTrade(reservedAggressive);
+                }
+                haltMatching(genOrder, orderBook, "No trade available, order cancelled");
+                return true;
+            }
+
             try {
                 log.debug("TRANSACTION STARTS on Symbol {} between {} and {}",
                         orderBook.getSymbol(), genOrder.getClientOrderId(), bestOppositeOrder.getClientOrderId());
                 //Generate aggressive trade
-                genOrder.execute(orderBook.generateTradeId(), matchPx, matchQty, bestOppositeOrder.getClientOrderId());
+                Trade aggressiveTrade = genOrder.execute(reservedAggressive, orderBook.generateTradeId(), matchPx,
+                        matchQty, bestOppositeOrder.getClientOrderId());
+                if (null == aggressiveTrade) {
+                    genOrder.releaseTrade(reservedAggressive);
+                }
 
                 //# Generate the passive executions
-                bestOppositeOrder.execute(orderBook.generateTradeId(), matchPx, matchQty, genOrder.getClientOrderId());
+                Trade passiveTrade = bestOppositeOrder.execute(reservedPassive, orderBook.generateTradeId(), matchPx,
+                        matchQty, genOrder.getClientOrderId());
+                if (null == passiveTrade) {
+                    bestOppositeOrder.releaseTrade(reservedPassive);
+                }
+
+                //Both executions go to the symbol's trade store, queried without scanning order history
+                if (null != aggressiveTrade) {
+                    orderBook.getTradeStore().append(aggressiveTrade, true);
+                }
+                if (null != passiveTrade) {
+                    orderBook.getTradeStore().append(passiveTrade, false);
+                }
+
+                //Session statistics count each match once, at the match price
+                orderBook.getTradeStatistics().onMatch(matchPx, matchQty, DateUtils.getEpochNanos());
+
+                //Level aggregates and published top of book follow the fills
+                orderBook.onFill(genOrder, matchQty);
+                orderBook.onFill(bestOppositeOrder, matchQty);
 
                 long transactionTime = DateUtils.getCurrentNanos();
                 genOrder.setExecutionTS(transactionTime);
                 bestOppositeOrder.setExecutionTS(transactionTime);
+                if (null != aggressiveTrade) {
+                    ExecutionReports.onFill(genOrder, aggressiveTrade);
+                }
+                if (null != passiveTrade) {
+                    ExecutionReports.onFill(bestOppositeOrder, passiveTrade);
+                }
 
-                if (bestOppositeOrder.getLeavesQty() == 0) {
-                    listIterator.remove();
+                if (bestOppositeOrder.getLeavesQtyUnits() == 0) {
+                    orderBook.removeOrder(bestOppositeOrder); //Head pop, O(1) unlink from the level queue
                     log.debug("Removed from matching book as bestOppositeOrder {}, bestOppositeOrderId {}",
                             bestOppositeOrder.getClientOrderId(), bestOppositeOrder.getOrderId());
-                } else if (bestOppositeOrder.getLeavesQty() < 0) {
+                } else if (bestOppositeOrder.getLeavesQtyUnits() < 0) {
                     log.error(() -> "Order over executed [Check fill logic if happened ] eqOrder = " + bestOppositeOrder);
-                    listIterator.remove();
+                    orderBook.removeOrder(bestOppositeOrder);
                 }
 
-                if (genOrder.getLeavesQty() == 0) {
+                if (genOrder.getLeavesQtyUnits() == 0) {
                     boolean isRemoved = orderBook.removeOrder(genOrder);
                     log.debug("Removed from matching book? {}, clOrdId={}, orderId={}",
                             isRemoved, genOrder.getClientOrderId(), genOrder.getOrderId());
-                } else if (genOrder.getLeavesQty() < 0) {
+                } else if (genOrder.getLeavesQtyUnits() < 0) {
                     log.warn("Order over executed [Check fill logic if happened ] eqOrder {}", genOrder);
                     boolean isRemoved = orderBook.removeOrder(genOrder);
                     log.debug(() -> "Overfilled but is Removed bestOppositeOrder " + isRemoved);
@@ -152,12 +247,37 @@ public class CrossingProcessor {
         return false;
     }
 
-    private double getMatchPx(GenOrder genOrder, GenOrder bestOppositeOrder) {
-        double matchPx = bestOppositeOrder.getOrdPx();
+    /**
+     * @return blank trade for a fill of the order, once the book's closed orders are purged if the pool ran dry,
+     * null if there is still none
+     */
+    private Trade reserveTrade(OrderBook orderBook, GenOrder genOrder) {
+        Trade trade = genOrder.tryBorrowTrade();
+        if (null == trade) {
+            int released = orderBook.purgeClosedOrders();
+            log.warn("Trade pool exhausted, released {} closed orders of {}", released, orderBook.getSymbol());
+            trade = genOrder.tryBorrowTrade();
+        }
+        return trade;
+    }
+
+    /**
+     * Cancels what is left of the aggressive order when a match can't be applied, the passive order is untouched
+     */
+    private void haltMatching(GenOrder genOrder, OrderBook orderBook, String reason) {
+        log.error("Match not applied ({}), cancelling the rest of clOrdId {}, leaves qty {}",
+                reason, genOrder.getClientOrderId(), genOrder.getLeavesQtyUnits());
+        orderBook.removeOrder(genOrder);
+        genOrder.cancel();
+        ExecutionReports.onReject(genOrder, reason);
+    }
+
+    private long getMatchPx(GenOrder genOrder, GenOrder bestOppositeOrder) {
+        long matchPx = bestOppositeOrder.getOrdPxUnits();
         if (genOrder.getOrderType() == MARKET || bestOppositeOrder.getOrderType() == LIMIT) {
-            matchPx = bestOppositeOrder.getOrdPx();
+            matchPx = bestOppositeOrder.getOrdPxUnits();
         } else if (genOrder.getOrderType() == LIMIT || bestOppositeOrder.getOrderType() == MARKET) {
-            matchPx = genOrder.getOrdPx();
+            matchPx = genOrder.getOrdPxUnits();
         }
         return matchPx;
     }
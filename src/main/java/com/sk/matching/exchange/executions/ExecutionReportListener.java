@@ -0,0 +1,10 @@
+package com.sk.matching.exchange.executions;
+
+/**
+ * Receives execution reports on the publisher thread. The report is a re-used flyweight, only valid during the call;
+ * a slow listener delays every client, hand the work off if it is more than a copy.
+ */
+@FunctionalInterface
+public interface ExecutionReportListener {
+    void onExecutionReport(GenExecutionReport report);
+}
@@ -0,0 +1,138 @@
+package com.sk.matching.exchange.executions;
+
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.types.ExecType;
+import lombok.extern.log4j.Log4j2;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Pre-allocated, power of two ring of {@link GenExecutionReport} flyweights drained by a single publisher thread.
+ *
+ * Matching threads claim a slot with a CAS, fill the report in place and publish it by storing its sequence into the
+ * slot's publication marker, as the OrderEventRing does. A matching thread never waits: if the publisher is a full
+ * ring behind, the report is dropped and counted instead, the ring must be sized for the worst burst.
+ */
+@Log4j2
+public class ExecutionReportRing {
+
+    public static final int DEFAULT_RING_SIZE = 1 << 16;
+
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int SPIN_TRIES = 1_000;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 20_000L;
+
+    private final int mask;
+    private final GenExecutionReport[] reports;
+    private final long[] published;     //Sequence last published in each slot
+    private final AtomicLong claimSequence = new AtomicLong(-1);
+    private final AtomicLong consumerSequence = new AtomicLong(-1);
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Consumer<GenExecutionReport> publisher;
+    private final Thread publisherThread;
+    private volatile boolean running = true;
+
+    public ExecutionReportRing(int size, Consumer<GenExecutionReport> publisher) {
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two " + size);
+        }
+        this.mask = size - 1;
+        this.reports = new GenExecutionReport[size];
+        for (int i = 0; i < size; i++) {
+            reports[i] = new GenExecutionReport();
+        }
+        this.published = new long[size];
+        Arrays.fill(published, -1L);
+        this.publisher = publisher;
+        this.publisherThread = new Thread(this::consume, "er-publisher");
+        this.publisherThread.setDaemon(true);
+        this.publisherThread.start();
+    }
+
+    /**
+     * Writes a report of the order's current state, never blocks
+     * @return false if the ring was full and the report dropped
+     */
+    public boolean publish(ExecType execType, GenOrder genOrder, long execId, long execPrice, long execQty,
+                           String text, long transactTime) {
+        long sequence;
+        do {
+            sequence = claimSequence.get() + 1;
+            if (sequence - reports.length > consumerSequence.get()) {
+                long count = dropped.incrementAndGet();
+                log.error("Execution report ring full, dropped {} report of order id {}, {} dropped so far",
+                        execType, genOrder.getOrderId(), count);
+                return false;
+            }
+        } while (!claimSequence.compareAndSet(sequence - 1, sequence));
+        reports[(int) sequence & mask].set(sequence, execType, genOrder, execId, execPrice, execQty, text, transactTime);
+        PUBLISHED.setRelease(published, (int) sequence & mask, sequence);
+        return true;
+    }
+
+    private void consume() {
+        long next = consumerSequence.get() + 1;
+        int idle = 0;
+        while (running) {
+            int idx = (int) next & mask;
+            if ((long) PUBLISHED.getAcquire(published, idx) != next) {
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+            GenExecutionReport report = reports[idx];
+            try {
+                publisher.accept(report);
+            } catch (Exception e) {
+                log.error("Exception while publishing execution report {}", report, e);
+            } finally {
+                report.clear();
+                consumerSequence.lazySet(next++);
+            }
+        }
+    }
+
+    private static int idle(int idle) {
+        if (idle < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+            return idle;
+        }
+        return idle + 1;
+    }
+
+    public int getSize() {
+        return reports.length;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return sequence of the last report handed to the publisher and fully delivered
+     */
+    public long getConsumedSequence() {
+        return consumerSequence.get();
+    }
+
+    public long getClaimedSequence() {
+        return claimSequence.get();
+    }
+
+    public void halt() {
+        running = false;
+        LockSupport.unpark(publisherThread);
+    }
+}
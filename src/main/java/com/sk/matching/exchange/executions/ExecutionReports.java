@@ -0,0 +1,181 @@
+package com.sk.matching.exchange.executions;
+
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.order.Trade;
+import com.sk.matching.types.ExecType;
+import com.sk.matching.util.DateUtils;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Execution report pipeline of the engine: the matching threads write NEW / FILL / CANCEL / REPLACE / REJECTED
+ * reports into one {@link ExecutionReportRing}, its publisher thread pushes each to the listener registered for the
+ * order's client id and to every drop copy listener.
+ *
+ * Clients are told about their orders as soon as the matching thread acted instead of polling order state.
+ * The ring is started on the first report; size it with configure before that.
+ * No report is published while recovering: replaying the journal or restoring a snapshot re-applies events the
+ * clients were already told about.
+ */
+@Log4j2
+public final class ExecutionReports {
+
+    private static final Map<Long, ExecutionReportListener> clientListeners = new ConcurrentHashMap<>();
+    private static final List<ExecutionReportListener> dropCopyListeners = new CopyOnWriteArrayList<>();
+
+    private static final AtomicLong nextClientId = new AtomicLong(0);
+
+    private static int ringSize = ExecutionReportRing.DEFAULT_RING_SIZE;
+    private static volatile ExecutionReportRing ring;
+    private static volatile boolean recovering;
+
+    private ExecutionReports() {
+    }
+
+    /**
+     * Sets the ring size, non positive keeps the default. Only effective before the first report
+     */
+    public static synchronized void configure(int executionReportRingSize) {
+        int newRingSize = executionReportRingSize > 0 ? executionReportRingSize : ringSize;
+        if (null != ring) {
+            if (newRingSize != ringSize) {
+                log.warn("Execution report ring already started with size {}, ignoring {}", ringSize, newRingSize);
+            }
+            return;
+        }
+        ringSize = newRingSize;
+    }
+
+    /**
+     * @return a client id never handed out before in this process, shared by every kind of client
+     */
+    public static long newClientId() {
+        return nextClientId.incrementAndGet();
+    }
+
+    /**
+     * Keeps the client ids handed out from now on above the given one, e.g. one restored from the journal
+     */
+    public static void recoverClientId(long clientId) {
+        nextClientId.accumulateAndGet(clientId, Math::max);
+    }
+
+    /**
+     * While recovering the matching threads publish no report, set back once the replayed events are drained
+     */
+    public static void setRecovering(boolean isRecovering) {
+        recovering = isRecovering;
+        log.info("Execution reports {} while recovering", isRecovering ? "suppressed" : "resumed");
+    }
+
+    public static boolean isRecovering() {
+        return recovering;
+    }
+
+    /**
+     * Routes the reports of every order carrying this client id to the listener, replacing any previous one
+     */
+    public static void register(long clientId, ExecutionReportListener listener) {
+        clientListeners.put(clientId, listener);
+    }
+
+    public static void unregister(long clientId) {
+        clientListeners.remove(clientId);
+    }
+
+    /**
+     * Listener receiving every report whatever the client, e.g. audit or risk
+     */
+    public static void addDropCopyListener(ExecutionReportListener listener) {
+        dropCopyListeners.add(listener);
+    }
+
+    public static void removeDropCopyListener(ExecutionReportListener listener) {
+        dropCopyListeners.remove(listener);
+    }
+
+    public static void onNew(GenOrder genOrder) {
+        publish(ExecType.NEW, genOrder, 0L, 0L, 0L, null);
+    }
+
+    public static void onFill(GenOrder genOrder, Trade trade) {
+        publish(ExecType.FILL, genOrder, trade.tradeId, trade.tradePrice, trade.tradeQty, null);
+    }
+
+    public static void onCancel(GenOrder genOrder) {
+        publish(ExecType.CANCEL, genOrder, 0L, 0L, 0L, null);
+    }
+
+    public static void onReplace(GenOrder genOrder) {
+        publish(ExecType.REPLACE, genOrder, 0L, 0L, 0L, null);
+    }
+
+    public static void onReject(GenOrder genOrder, String reason) {
+        publish(ExecType.REJECTED, genOrder, 0L, 0L, 0L, reason);
+    }
+
+    private static void publish(ExecType execType, GenOrder genOrder, long execId, long execPrice, long execQty,
+                                String text) {
+        if (recovering) {
+            return;
+        }
+        getRing().publish(execType, genOrder, execId, execPrice, execQty, text, DateUtils.getEpochNanos());
+    }
+
+    private static void deliver(GenExecutionReport report) {
+        ExecutionReportListener listener = clientListeners.get(report.getClientId());
+        if (null != listener) {
+            listener.onExecutionReport(report);
+        }
+        for (ExecutionReportListener dropCopy : dropCopyListeners) {
+            dropCopy.onExecutionReport(report);
+        }
+    }
+
+    private static ExecutionReportRing getRing() {
+        ExecutionReportRing started = ring;
+        if (null == started) {
+            started = start();
+        }
+        return started;
+    }
+
+    private static synchronized ExecutionReportRing start() {
+        if (null == ring) {
+            ring = new ExecutionReportRing(ringSize, ExecutionReports::deliver);
+            log.info("Execution report pipeline started with ring size {}", ringSize);
+        }
+        return ring;
+    }
+
+    public static long getDroppedCount() {
+        ExecutionReportRing started = ring;
+        return null != started ? started.getDroppedCount() : 0L;
+    }
+
+    /**
+     * Waits until every report published so far has been delivered
+     * @return false on timeout
+     */
+    public static boolean awaitDelivered(long timeoutMillis) {
+        ExecutionReportRing started = ring;
+        if (null == started) {
+            return true;
+        }
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long target = started.getClaimedSequence();
+        while (started.getConsumedSequence() < target) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(50_000L);
+        }
+        return true;
+    }
+}
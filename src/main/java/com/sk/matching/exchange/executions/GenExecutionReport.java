@@ -1,63 +1,199 @@
 package com.sk.matching.exchange.executions;
 
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.symbols.Symbol;
 import com.sk.matching.types.ExecType;
 import com.sk.matching.types.OrderType;
-import lombok.Data;
-
+import com.sk.matching.types.Side;
+
+/**
+ * Execution report flyweight: one pre-allocated instance per slot of the {@link ExecutionReportRing}, filled in
+ * place by the matching thread and read by the publisher thread, never allocated per report.
+ *
+ * Listeners only see a report during their callback, use copy() to keep it.
+ * Prices and quantities are held in Symbol units, the double getters convert.
+ */
 public class GenExecutionReport implements ExectionReport {
-    private final String execId ;
-    private final String orderId ;
-    private final ExecType execType;
-    private final OrderType orderType;
+    private long sequence;
+    private ExecType execType;
+    private long execId;        //Trade id of a FILL, 0 otherwise
+    private long orderId;
+    private long clientId;
+    private String clOrdId;
+    private Symbol symbol;
+    private Side side;
+    private OrderType orderType;
+
+    private long ordPx;
+    private long execPrice;
+    private long execQty;
+    private long cumQty;
+    private long leavesQty;
+    private long avgPx;         //Average execution price of the order so far
+    private String text;        //Reject reason
+    private long transactTime;  //Epoch nanos
+
+    GenExecutionReport() {
+        //Ring slot
+    }
 
-    private final double execQty;
-    private final double execPrice;
+    void set(long sequence, ExecType execType, GenOrder genOrder, long execId, long execPrice, long execQty,
+             String text, long transactTime) {
+        this.sequence = sequence;
+        this.execType = execType;
+        this.execId = execId;
+        this.orderId = genOrder.getOrderId();
+        this.clientId = genOrder.getClientId();
+        this.clOrdId = genOrder.getClientOrderId();
+        this.symbol = genOrder.getSymbol();
+        this.side = genOrder.getSide();
+        this.orderType = genOrder.getOrderType();
+        this.ordPx = genOrder.getOrdPxUnits();
+        this.execPrice = execPrice;
+        this.execQty = execQty;
+        this.cumQty = genOrder.getCumQtyUnits();
+        this.leavesQty = genOrder.getLeavesQtyUnits();
+        this.avgPx = cumQty == 0L ? 0L : Math.round((double) genOrder.getCumNotionalUnits() / cumQty);
+        this.text = text;
+        this.transactTime = transactTime;
+    }
 
-    @Data
-    public static class ERBuilder {
-        private  String execId ;
-        private  String orderId ;
-        private  ExecType execType;
-        private  OrderType orderType;
+    void clear() {
+        execType = null;
+        clOrdId = null;
+        symbol = null;
+        side = null;
+        orderType = null;
+        text = null;
+    }
 
-        private  double execQty;
-        private  double execPrice;
+    /**
+     * @return detached copy, for listeners which keep the report past their callback
+     */
+    public GenExecutionReport copy() {
+        GenExecutionReport report = new GenExecutionReport();
+        report.sequence = sequence;
+        report.execType = execType;
+        report.execId = execId;
+        report.orderId = orderId;
+        report.clientId = clientId;
+        report.clOrdId = clOrdId;
+        report.symbol = symbol;
+        report.side = side;
+        report.orderType = orderType;
+        report.ordPx = ordPx;
+        report.execPrice = execPrice;
+        report.execQty = execQty;
+        report.cumQty = cumQty;
+        report.leavesQty = leavesQty;
+        report.avgPx = avgPx;
+        report.text = text;
+        report.transactTime = transactTime;
+        return report;
+    }
 
+    /**
+     * @return publication sequence, gap free across every report of the engine
+     */
+    public long getSequence() {
+        return sequence;
     }
 
-    public GenExecutionReport(String execId, String orderId, ExecType execType, OrderType ordTyp, double execQty, double execPrice){
+    public ExecType getExecType() {
+        return execType;
+    }
 
-          this.execId = execId;
-          this.orderId = orderId;
-          this.execType = execType;
-          this.orderType = ordTyp;
+    public long getExecId() {
+        return execId;
+    }
 
-          this.execQty = execQty;
-          this.execPrice = execPrice;
+    public long getOrderId() {
+        return orderId;
+    }
 
+    public long getClientId() {
+        return clientId;
     }
 
-    public String getExecId() {
-        return execId;
+    public String getClientOrderId() {
+        return clOrdId;
     }
 
-    public String getOrderId() {
-        return orderId;
+    public Symbol getSymbol() {
+        return symbol;
     }
 
-    public ExecType getExecType() {
-        return execType;
+    public Side getSide() {
+        return side;
     }
 
     public OrderType getOrderType() {
         return orderType;
     }
 
-    public double getExecQty() {
-        return execQty;
+    public long getOrdPxUnits() {
+        return ordPx;
     }
 
     public double getExecPrice() {
+        return symbol.toPrice(execPrice);
+    }
+
+    public long getExecPriceUnits() {
         return execPrice;
     }
+
+    public double getExecQty() {
+        return symbol.toQty(execQty);
+    }
+
+    public long getExecQtyUnits() {
+        return execQty;
+    }
+
+    public double getCumQty() {
+        return symbol.toQty(cumQty);
+    }
+
+    public long getCumQtyUnits() {
+        return cumQty;
+    }
+
+    public double getLeavesQty() {
+        return symbol.toQty(leavesQty);
+    }
+
+    public long getLeavesQtyUnits() {
+        return leavesQty;
+    }
+
+    public long getAvgPxUnits() {
+        return avgPx;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public long getTransactTime() {
+        return transactTime;
+    }
+
+    @Override
+    public String toString() {
+        return "GenExecutionReport{" +
+                "sequence=" + sequence +
+                ", execType=" + execType +
+                ", execId=" + execId +
+                ", orderId=" + orderId +
+                ", clientId=" + clientId +
+                ", clOrdId=" + clOrdId +
+                ", symbol=" + (null != symbol ? symbol.getName() : null) +
+                ", side=" + side +
+                ", exec=" + execQty + "@" + execPrice +
+                ", cumQty=" + cumQty +
+                ", leavesQty=" + leavesQty +
+                (null != text ? ", text=" + text : "") +
+                '}';
+    }
 }
@@ -0,0 +1,219 @@
+package com.sk.matching.exchange.executions;
+
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.util.SeqLock;
+
+import java.math.BigInteger;
+
+/**
+ * Session statistics of one symbol: last, high, low, volume, turnover, trade count and VWAP, updated by the matching
+ * thread of its book once per match and published through a {@link SeqLock}, as
+ * {@link com.sk.matching.exchange.orderbook.TopOfBook} is.
+ *
+ * Each match folds into running totals in O(1), so reads cost the same however many trades happened and never
+ * scan the {@link TradeStore} nor the order history. Readers on any thread never lock, they retry on a torn read.
+ * Prices and volume are fixed point, in the Symbol's price / qty units. Turnover, price units * qty units, is kept
+ * exact in 128 bits since a long overflows within a busy session, VWAP is only rounded when read.
+ */
+public class TradeStatistics {
+
+    public static final long NO_PRICE = Long.MIN_VALUE;  //No trade this session
+
+    private final SeqLock seqLock = new SeqLock();     //Written by the matching thread of the book
+    private final Symbol symbol;
+    private long lastPx = NO_PRICE;
+    private long lastQty;
+    private long lastTime;
+    private long highPx = NO_PRICE;
+    private long lowPx = NO_PRICE;
+    private long volume;
+    private long turnoverHigh;  //Turnover is turnoverHigh * 2^64 + turnoverLow, low word unsigned
+    private long turnoverLow;
+    private long tradeCount;
+
+    /**
+     * Reader side copy of consistent statistics, re-usable by the caller to keep reads allocation free
+     */
+    public static class Stats {
+        public long lastPx = NO_PRICE;
+        public long lastQty;
+        public long lastTime;
+        public long highPx = NO_PRICE;
+        public long lowPx = NO_PRICE;
+        public long volume;
+        public long turnoverHigh;
+        public long turnoverLow;
+        public long tradeCount;
+
+        /**
+         * @return exact turnover in price units * qty units
+         */
+        public BigInteger getTurnover() {
+            return BigInteger.valueOf(turnoverHigh).shiftLeft(Long.SIZE)
+                    .add(new BigInteger(Long.toUnsignedString(turnoverLow)));
+        }
+
+        /**
+         * @return volume weighted average price in price units, NaN before the first trade
+         */
+        public double getVwapUnits() {
+            return vwapUnits(turnoverHigh, turnoverLow, volume);
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{" +
+                    "last=" + lastQty + "@" + lastPx +
+                    ", high=" + highPx +
+                    ", low=" + lowPx +
+                    ", volume=" + volume +
+                    ", turnover=" + getTurnover() +
+                    ", trades=" + tradeCount +
+                    '}';
+        }
+    }
+
+    public TradeStatistics(Symbol symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Folds one match in, single writer, the matching thread of the book
+     * @param timeNanos epoch nanos of the match
+     */
+    public void onMatch(long price, long qty, long timeNanos) {
+        long notionalLow = price * qty;
+        long notionalHigh = Math.multiplyHigh(price, qty);
+        long low = turnoverLow + notionalLow;
+        long carry = Long.compareUnsigned(low, turnoverLow) < 0 ? 1L : 0L;
+        seqLock.beginWrite();
+        lastPx = price;
+        lastQty = qty;
+        lastTime = timeNanos;
+        highPx = highPx == NO_PRICE ? price : Math.max(highPx, price);
+        lowPx = lowPx == NO_PRICE ? price : Math.min(lowPx, price);
+        volume += qty;
+        turnoverHigh += notionalHigh + carry;
+        turnoverLow = low;
+        tradeCount++;
+        seqLock.endWrite();
+    }
+
+    /**
+     * Starts a new session, matching thread of the book only, see OrderBook.reset
+     */
+    public void reset() {
+        seqLock.beginWrite();
+        lastPx = NO_PRICE;
+        lastQty = 0L;
+        lastTime = 0L;
+        highPx = NO_PRICE;
+        lowPx = NO_PRICE;
+        volume = 0L;
+        turnoverHigh = 0L;
+        turnoverLow = 0L;
+        tradeCount = 0L;
+        seqLock.endWrite();
+    }
+
+    /**
+     * Copies consistent statistics into the given stats, never blocks the writer
+     * @return the stats passed in
+     */
+    public Stats read(Stats stats) {
+        long v;
+        do {
+            v = seqLock.beginRead();
+            stats.lastPx = lastPx;
+            stats.lastQty = lastQty;
+            stats.lastTime = lastTime;
+            stats.highPx = highPx;
+            stats.lowPx = lowPx;
+            stats.volume = volume;
+            stats.turnoverHigh = turnoverHigh;
+            stats.turnoverLow = turnoverLow;
+            stats.tradeCount = tradeCount;
+        } while (!seqLock.validate(v));
+        return stats;
+    }
+
+    /**
+     * @return last trade price in price units, NO_PRICE before the first trade
+     */
+    public long getLastPriceUnits() {
+        long v;
+        long px;
+        do {
+            v = seqLock.beginRead();
+            px = lastPx;
+        } while (!seqLock.validate(v));
+        return px;
+    }
+
+    /**
+     * @return session volume in qty units
+     */
+    public long getVolumeUnits() {
+        long v;
+        long qty;
+        do {
+            v = seqLock.beginRead();
+            qty = volume;
+        } while (!seqLock.validate(v));
+        return qty;
+    }
+
+    public long getTradeCount() {
+        long v;
+        long count;
+        do {
+            v = seqLock.beginRead();
+            count = tradeCount;
+        } while (!seqLock.validate(v));
+        return count;
+    }
+
+    /**
+     * @return session VWAP as a price, NaN before the first trade
+     */
+    public double getVwap() {
+        long v;
+        long high;
+        long low;
+        long qty;
+        do {
+            v = seqLock.beginRead();
+            high = turnoverHigh;
+            low = turnoverLow;
+            qty = volume;
+        } while (!seqLock.validate(v));
+        return vwapUnits(high, low, qty) / symbol.getPriceScale();
+    }
+
+    /**
+     * @return last trade price, NaN before the first trade
+     */
+    public double getLastPrice() {
+        long px = getLastPriceUnits();
+        return px == NO_PRICE ? Double.NaN : symbol.toPrice(px);
+    }
+
+    /**
+     * @return session volume
+     */
+    public double getVolume() {
+        return symbol.toQty(getVolumeUnits());
+    }
+
+    public long getVersion() {
+        return seqLock.getVersion();
+    }
+
+    private static double vwapUnits(long turnoverHigh, long turnoverLow, long volume) {
+        if (volume == 0L) {
+            return Double.NaN;
+        }
+        double unsignedLow = (double) (turnoverLow >>> 1) * 2.0d + (turnoverLow & 1L);
+        return (turnoverHigh * 0x1p64 + unsignedLow) / volume;
+    }
+}
@@ -0,0 +1,211 @@
+package com.sk.matching.exchange.executions;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.sk.matching.exchange.order.Trade;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.types.Side;
+import com.sk.matching.util.DateUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Append only store of every execution of one symbol, fed by the matching thread of its book as trades happen.
+ *
+ * Rows are kept column wise in fixed size chunks, so appending never copies what is stored and readers on any
+ * thread see every row below the published size without locking. Trade times (epoch nanos) are unique and strictly
+ * increasing within a symbol, time ranges are a binary search and pages are plain row index ranges, no order history
+ * scan.
+ * Trade ids are indexed in a primitive map, the only structure readers lock for.
+ * Trades handed out are copies owned by the caller, unlike the pooled ones kept by GenOrder.
+ */
+public class TradeStore {
+
+    static final int CHUNK_SHIFT = 14;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static class Chunk {
+        final long[] tradeId = new long[CHUNK_SIZE];
+        final long[] orderId = new long[CHUNK_SIZE];
+        final long[] price = new long[CHUNK_SIZE];
+        final long[] qty = new long[CHUNK_SIZE];
+        final long[] time = new long[CHUNK_SIZE];
+        final byte[] side = new byte[CHUNK_SIZE];
+        final boolean[] aggressive = new boolean[CHUNK_SIZE];
+        final String[] counterClOrdId = new String[CHUNK_SIZE];
+    }
+
+    private final Symbol symbol;
+    private volatile Chunk[] chunks = new Chunk[16];
+    private volatile int size;          //Rows published to readers
+    private volatile int resetCount;    //Sessions started by reset
+    private long lastTime;              //Writer only, keeps the time column strictly increasing
+
+    private final LongIntHashMap tradeIdIndex = new LongIntHashMap();
+    private final StampedLock indexLock = new StampedLock();
+
+    public TradeStore(Symbol symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Stores a copy of the execution as the aggressive side of its match
+     */
+    public void append(Trade trade) {
+        append(trade, true);
+    }
+
+    /**
+     * Stores a copy of the execution, the trade itself may go back to its pool afterwards.
+     * Single writer, the matching thread of the book
+     * @param aggressive execution of the incoming order, each match stores one aggressive and one passive row
+     */
+    public void append(Trade trade, boolean aggressive) {
+        int row = size;
+        int chunkIdx = row >>> CHUNK_SHIFT;
+        Chunk[] current = chunks;
+        if (chunkIdx == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        if (null == current[chunkIdx]) {
+            current[chunkIdx] = new Chunk();
+            chunks = current;   //Published before the size making its rows visible
+        }
+        Chunk chunk = current[chunkIdx];
+        int idx = row & CHUNK_MASK;
+        lastTime = Math.max(lastTime + 1, DateUtils.getEpochNanos());
+        chunk.tradeId[idx] = trade.tradeId;
+        chunk.orderId[idx] = trade.orderId;
+        chunk.price[idx] = trade.tradePrice;
+        chunk.qty[idx] = trade.tradeQty;
+        chunk.time[idx] = lastTime;
+        chunk.side[idx] = null == trade.tradeSide ? 0 : (byte) trade.tradeSide.getFixSide();
+        chunk.counterClOrdId[idx] = trade.counterClOrdIdId;
+        chunk.aggressive[idx] = aggressive;
+
+        long stamp = indexLock.writeLock();
+        try {
+            tradeIdIndex.put(trade.tradeId, row);
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+        size = row + 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Starts a new session: rows are dropped and their storage re-used, trade times keep increasing.
+     * Single writer, the matching thread of the book. A reader racing with it may see rows of either session,
+     * readers tailing the store notice it through getResetCount
+     */
+    public void reset() {
+        long stamp = indexLock.writeLock();
+        try {
+            tradeIdIndex.clear();
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+        size = 0;
+        resetCount++;
+    }
+
+    /**
+     * @return sessions started so far, read before size() to tail the store across resets
+     */
+    public int getResetCount() {
+        return resetCount;
+    }
+
+    /**
+     * Column accessors of a published row, row < size(), e.g. to tail the store without copying trades
+     */
+    public long getPrice(int row) {
+        return chunks[row >>> CHUNK_SHIFT].price[row & CHUNK_MASK];
+    }
+
+    public long getQty(int row) {
+        return chunks[row >>> CHUNK_SHIFT].qty[row & CHUNK_MASK];
+    }
+
+    public long getTime(int row) {
+        return chunks[row >>> CHUNK_SHIFT].time[row & CHUNK_MASK];
+    }
+
+    public boolean isAggressive(int row) {
+        return chunks[row >>> CHUNK_SHIFT].aggressive[row & CHUNK_MASK];
+    }
+
+    /**
+     * @return copy of the trade, null if the trade id is unknown
+     */
+    public Trade getTrade(long tradeId) {
+        int row;
+        long stamp = indexLock.readLock();
+        try {
+            row = tradeIdIndex.getOrDefault(tradeId, -1);
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+        return row < 0 || row >= size ? null : toTrade(chunks, row);
+    }
+
+    /**
+     * Page of trades in time order
+     * @param fromRow first row, 0 based
+     * @param limit max rows returned
+     */
+    public List<Trade> getTrades(int fromRow, int limit) {
+        int published = size;
+        Chunk[] current = chunks;
+        int toRow = (int) Math.min((long) fromRow + limit, published);
+        List<Trade> trades = new ArrayList<>(Math.max(0, toRow - fromRow));
+        for (int row = Math.max(0, fromRow); row < toRow; row++) {
+            trades.add(toTrade(current, row));
+        }
+        return trades;
+    }
+
+    /**
+     * @return trades with fromNanos <= trade time < toNanos, in time order, at most limit of them
+     */
+    public List<Trade> getTradesBetween(long fromNanos, long toNanos, int limit) {
+        int fromRow = rowAtOrAfter(fromNanos);
+        int toRow = rowAtOrAfter(toNanos);
+        return getTrades(fromRow, Math.min(limit, Math.max(0, toRow - fromRow)));
+    }
+
+    /**
+     * @return first row traded at or after the time, size() if none
+     */
+    public int rowAtOrAfter(long epochNanos) {
+        int published = size;
+        Chunk[] current = chunks;
+        int low = 0;
+        int high = published;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (current[mid >>> CHUNK_SHIFT].time[mid & CHUNK_MASK] < epochNanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Trade toTrade(Chunk[] current, int row) {
+        Chunk chunk = current[row >>> CHUNK_SHIFT];
+        int idx = row & CHUNK_MASK;
+        int side = chunk.side[idx];
+        Trade trade = new Trade(chunk.orderId[idx], symbol, chunk.price[idx], chunk.qty[idx],
+                side == 0 ? null : Side.valueOf(side), chunk.tradeId[idx], chunk.counterClOrdId[idx]);
+        trade.tradeTime = chunk.time[idx];
+        return trade;
+    }
+}
@@ -1,7 +1,12 @@
 package com.sk.matching.exchange.order;
 
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.cursors.ObjectCursor;
 import com.sk.matching.exception.OrderCreationException;
+import com.sk.matching.exception.PoolExhaustedException;
+import com.sk.matching.exception.PoolInvalidObjectException;
 import com.sk.matching.exception.SymbolNotSupportedException;
+import com.sk.matching.exchange.orderbook.PriceLevel;
 import com.sk.matching.symbols.Symbol;
 import com.sk.matching.symbols.SymbolCache;
 import com.sk.matching.types.OrderType;
@@ -10,9 +15,10 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -24,30 +30,49 @@ public class GenOrder implements Order {
 
     // Order is serializable for persistence / network (not featured as of today)
 
-    private final String clOrdId;
+    //Not final, pooled instances are recycled through OrderPools and re-initialised on every borrow
+    private String clOrdId;
     private long orderId = Long.MIN_VALUE;
-    private final transient Symbol symbol;
-    private final Side side;
-    private final OrderType orderType;
+    private transient Symbol symbol;
+    private Side side;
+    private OrderType orderType;
 
-    private double ordPx = 0.0d;
-    private double avgPx = 0.0d;     //Average Execution Price
-    private double lastPrice = 0.0d;    //Last Executed Price
+    public static final long NO_QTY = Long.MIN_VALUE;   //Visible qty of a non iceberg order
 
-    private double ordQty = Double.NaN;   //Order Qty
-    private double visibleQty = Double.NaN;   //Order Qty
-    private double cumQty = 0.0d;       // Cumulative executed Qty
-    private double leavesQty = 0.0d;     //Remaining Qty
-    private double lastQty = 0.0d;      //Last Executed Qty
+    //Fixed point, prices in Symbol price units and quantities in Symbol qty units, see Symbol.priceScale / qtyScale.
+    //Double getters convert at the edge for display and clients
+    private long ordPx = 0L;
+    private long lastPrice = 0L;    //Last Executed Price
+    private long cumNotional = 0L;  //Sum of fill price * fill qty, average price is derived from it without drift
+
+    private long ordQty = 0L;       //Order Qty
+    private long visibleQty = NO_QTY;   //Visible Order Qty used in ICE Berg orders
+    private long cumQty = 0L;       // Cumulative executed Qty
+    private long leavesQty = 0L;    //Remaining Qty
+    private long lastQty = 0L;      //Last Executed Qty
 
     private String currency;
+    @Getter @Setter
+    private long clientId;      //Client / session the execution reports of the order are routed to, 0 for none
 
     @Getter @Setter
     private long receivedTS;
     @Getter @Setter
     private long executionTS;
 
-    private final Map<Long,Trade> tradeMap = new ConcurrentHashMap<>();
+    //Primitive keyed, written by the matching thread only, readers copy under its monitor. Cleared not re-allocated on recycle
+    private final LongObjectHashMap<Trade> tradeMap = new LongObjectHashMap<>();
+
+    /**
+     * Intrusive links of the price level queue this order rests on, maintained by PriceLevel only.
+     * Carrying them on the order makes append, head pop and arbitrary removal O(1) without any node allocation.
+     */
+    @Getter @Setter
+    private transient PriceLevel level;
+    @Getter @Setter
+    private transient GenOrder prevInLevel;
+    @Getter @Setter
+    private transient GenOrder nextInLevel;
 
     /**
      * Locking is always an overhead on performance
@@ -57,16 +82,150 @@ public class GenOrder implements Order {
      */
     private AtomicBoolean isOpen = new AtomicBoolean(true);
 
-    private GenOrder(String clOrdId, Symbol symbol, Side side, OrderType orderType) {
+    //Owned by OrderPools, recycled on release. Orders handed to clients are not, see Builder.build
+    private final boolean pooled;
+
+    GenOrder() {
+        this(false);
+    }
+
+    GenOrder(boolean pooled) {
+        this.pooled = pooled;   //Blank instance, see init
+    }
+
+    void init(String clOrdId, Symbol symbol, Side side, OrderType orderType) {
         this.clOrdId = clOrdId;
         this.symbol = symbol;
         this.side = side;
         this.orderType = orderType;
     }
 
+    /**
+     * Clears every field back to the blank state, trades go back to their pool. Called by OrderPools on return of a
+     * pooled order
+     */
+    void reset() {
+        synchronized (tradeMap) {
+            for (ObjectCursor<Trade> cursor : tradeMap.values()) {
+                OrderPools.releaseTrade(cursor.value);
+            }
+            tradeMap.clear();
+        }
+        clOrdId = null;
+        orderId = Long.MIN_VALUE;
+        symbol = null;
+        side = null;
+        orderType = null;
+        ordPx = 0L;
+        lastPrice = 0L;
+        cumNotional = 0L;
+        ordQty = 0L;
+        visibleQty = NO_QTY;
+        cumQty = 0L;
+        leavesQty = 0L;
+        lastQty = 0L;
+        currency = null;
+        clientId = 0L;
+        receivedTS = 0L;
+        executionTS = 0L;
+        level = null;
+        prevInLevel = null;
+        nextInLevel = null;
+        isOpen.set(true);
+    }
+
+    /**
+     * Restores the execution state of a resting order from a book snapshot, before the order is put back on its book.
+     * Quantities and prices in Symbol units
+     */
+    public void restore(long cumQty, long leavesQty, long cumNotional, long lastPrice, long lastQty) {
+        this.cumQty = cumQty;
+        this.leavesQty = leavesQty;
+        this.cumNotional = cumNotional;
+        this.lastPrice = lastPrice;
+        this.lastQty = lastQty;
+        this.isOpen.set(leavesQty > 0);
+    }
+
+    /**
+     * Hands a pooled order and its trades back to the pools, the order must be closed and off the book. Does nothing
+     * for an order which is not pooled, whoever still holds it keeps reading its final state
+     */
+    public void release() {
+        if (pooled) {
+            OrderPools.releaseOrder(this);
+        }
+    }
+
+    public boolean isPooled() {
+        return pooled;
+    }
+
+    /**
+     * Blank trade for a fill of this order, never waits: from OrderPools for a pooled order, a new one otherwise
+     * @return null when the trade pool is exhausted
+     */
+    public Trade tryBorrowTrade() {
+        return pooled ? OrderPools.tryBorrowTrade() : new Trade();
+    }
+
+    /**
+     * Gives back a trade of tryBorrowTrade which was not executed into
+     */
+    public void releaseTrade(Trade trade) {
+        if (pooled) {
+            OrderPools.releaseTrade(trade);
+        }
+    }
+
+    /**
+     * Checked on both sides of a match before either is executed, so a match is applied whole or not at all
+     * @param fillPx fill price in Symbol price units
+     * @param fillQty fill quantity in Symbol qty units
+     * @return true if execute applies the fill, i.e. it is within the leaves qty and the notional does not overflow
+     */
+    public boolean canExecute(long fillPx, long fillQty) {
+        if (fillQty <= 0L || fillQty > leavesQty) {
+            return false;
+        }
+        try {
+            Math.addExact(this.cumNotional, Math.multiplyExact(fillPx, fillQty));
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Borrows the trade from OrderPools before touching the order, which is left unchanged if none is available
+     * @param fillPx fill price in Symbol price units
+     * @param fillQty fill quantity in Symbol qty units
+     * @return the trade, null if nothing was executed
+     */
     @Override
-    public Trade execute(long execId, double fillPx, double fillQty, String ctrbClOrdId) {
-        Trade trade = null;
+    public Trade execute(long execId, long fillPx, long fillQty, String ctrbClOrdId) {
+        Trade trade;
+        try {
+            trade = pooled ? OrderPools.borrowTrade() : new Trade();
+        } catch (PoolExhaustedException | PoolInvalidObjectException e) {
+            log.error("No trade available, clOrdId {} not executed", clOrdId);
+            return null;
+        }
+        Trade executed = execute(trade, execId, fillPx, fillQty, ctrbClOrdId);
+        if (null == executed) {
+            releaseTrade(trade);
+        }
+        return executed;
+    }
+
+    /**
+     * Executes into a blank trade borrowed by the caller, e.g. the matching thread reserving both trades of a match
+     * before executing either side. The caller keeps the trade if nothing was executed
+     * @param fillPx fill price in Symbol price units
+     * @param fillQty fill quantity in Symbol qty units
+     * @return the trade, null if nothing was executed and the order is unchanged
+     */
+    public Trade execute(Trade trade, long execId, long fillPx, long fillQty, String ctrbClOrdId) {
         try {
             log.debug( "START EXECUTING execId,fillPx,fillQty=[{},{},{}] for clOrdId {} leavesQty is {} ",
                                 execId, fillPx, fillQty, clOrdId, leavesQty);
@@ -80,54 +239,54 @@ public class GenOrder implements Order {
                 return null;
             }
 
-            double avgPxComputed = ((this.avgPx * this.cumQty) + fillPx) / (this.cumQty + fillQty);
-            double leavesQtyComputed = this.leavesQty - fillQty;
+            long cumNotionalComputed = Math.addExact(this.cumNotional, Math.multiplyExact(fillPx, fillQty));
+            long leavesQtyComputed = this.leavesQty - fillQty;
 
             this.lastPrice = fillPx;
             this.lastQty = fillQty;
             this.cumQty += fillQty;
             //Post all computation updating the order values with successful execution
-            this.avgPx = avgPxComputed;
+            this.cumNotional = cumNotionalComputed;
             log.debug("Before leaves qty {}, clOrdId {}, orderId {}",
                     this::getLeavesQty, this::getClientOrderId, this::getOrderId );
             this.leavesQty = leavesQtyComputed;
             log.debug("After leaves qty {}, clOrdId {}, orderId {}",
                     this::getLeavesQty, this::getClientOrderId, this::getOrderId );
-            trade = new Trade(getOrderId(), getSymbol(), fillPx, fillQty, getSide(), execId, ctrbClOrdId);
-            addTrade( trade );
+            addTrade( trade.set(getOrderId(), getSymbol(), fillPx, fillQty, getSide(), execId, ctrbClOrdId) );
             if( this.leavesQty <= 0 )
                 isOpen.set(false);
             else if( this.leavesQty > 0 )
                 isOpen.set(true);
-        } catch (Exception e) {
-            log.error(this.toString(), e);
+            return trade;
+        } catch (ArithmeticException e) {
+            log.error(this.toString(), e);  //Notional overflow, detected before the order is touched
+            return null;
         } finally {
             log.debug( "END EXECUTING execId,fillPx,fillQty=[{},{},{}] for clOrdId {} leavesQty is {} ",
                     execId, fillPx, fillQty, clOrdId, leavesQty);
 
         }
-        return trade;
     }
 
 
     @Override
-    public Trade rollback( long execId, double fillPx, double fillQty, String ctrbClOrdId ) {
+    public Trade rollback( long execId, long fillPx, long fillQty, String ctrbClOrdId ) {
         Trade trade = null;
         try {
             log.debug( "START ROLLBACK execId,fillPx,fillQty=[{},{},{}] for clOrdId {} leavesQty is {} ",
                     execId, fillPx, fillQty, clOrdId, leavesQty);
 
-            double avgPxComputed = ((this.avgPx / this.cumQty) - fillPx) / (this.cumQty - fillQty);
-            double leavesQtyComputed = this.leavesQty + fillQty;
+            long cumNotionalComputed = Math.subtractExact(this.cumNotional, Math.multiplyExact(fillPx, fillQty));
+            long leavesQtyComputed = this.leavesQty + fillQty;
+            trade = pooled ? OrderPools.borrowTrade() : new Trade();   //Before the order is touched
 
             this.lastPrice = fillPx;
             this.lastQty = fillQty;
             this.cumQty -= fillQty;
             //Post all computation updating the order values with successful execution
-            this.avgPx = avgPxComputed;
+            this.cumNotional = cumNotionalComputed;
             this.leavesQty = leavesQtyComputed;
-            trade = new Trade(getOrderId(), getSymbol(), fillPx, fillQty, getSide(), execId, ctrbClOrdId);
-            addTrade( trade );
+            addTrade( trade.set(getOrderId(), getSymbol(), fillPx, fillQty, getSide(), execId, ctrbClOrdId) );
         } catch (Exception e) {
             log.error(this.toString(), e);
         } finally {
@@ -137,6 +296,35 @@ public class GenOrder implements Order {
         return trade;
     }
 
+    /**
+     * Closes the order for any further execution, remaining quantity is cancelled
+     */
+    public void cancel() {
+        log.debug("CANCEL clOrdId {}, orderId {}, cancelled leavesQty {}", clOrdId, orderId, leavesQty);
+        this.leavesQty = 0L;
+        this.isOpen.set(false);
+    }
+
+    /**
+     * Applies a cancel/replace, new quantity is the total order quantity including what is already executed
+     * @param newPx in Symbol price units
+     * @param newOrdQty in Symbol qty units
+     * @return false if the new quantity does not leave anything open, order is left unchanged
+     */
+    public boolean replace(long newPx, long newOrdQty) {
+        if (newOrdQty <= this.cumQty) {
+            log.warn("Replace rejected for clOrdId {}, new qty {} is not above executed qty {}", clOrdId, newOrdQty, cumQty);
+            return false;
+        }
+        if (this.orderType == OrderType.LIMIT) {
+            this.ordPx = newPx;
+        }
+        this.ordQty = newOrdQty;
+        this.leavesQty = newOrdQty - this.cumQty;
+        this.isOpen.set(true);
+        return true;
+    }
+
     @Override
     public boolean isOpen() {
         return isOpen.get();
@@ -172,33 +360,74 @@ public class GenOrder implements Order {
     }
 
     public double getOrdPx() {
-        return ordPx;
+        return symbol.toPrice(ordPx);
     }
 
+    /**
+     * Average execution price, derived from the exact fixed point notional so it never drifts over partial fills
+     */
     public double getAvgPx() {
-        return avgPx;
+        return cumQty == 0L ? 0.0d : ((double) cumNotional / cumQty) / symbol.getPriceScale();
     }
 
     public double getLastPrice() {
-        return lastPrice;
+        return symbol.toPrice(lastPrice);
     }
 
     public double getOrdQty() {
-        return ordQty;
+        return symbol.toQty(ordQty);
     }
 
+    /**
+     * @return NaN for a non iceberg order
+     */
     public double getVisibleQty() {
-        return visibleQty;
+        return visibleQty == NO_QTY ? Double.NaN : symbol.toQty(visibleQty);
     }
     public double getCumQty() {
-        return cumQty;
+        return symbol.toQty(cumQty);
     }
 
     public double getLeavesQty() {
-        return leavesQty;
+        return symbol.toQty(leavesQty);
     }
 
     public double getLastQty() {
+        return symbol.toQty(lastQty);
+    }
+
+    public long getOrdPxUnits() {
+        return ordPx;
+    }
+
+    public long getLastPriceUnits() {
+        return lastPrice;
+    }
+
+    /**
+     * @return sum of fill price units * fill qty units
+     */
+    public long getCumNotionalUnits() {
+        return cumNotional;
+    }
+
+    public long getOrdQtyUnits() {
+        return ordQty;
+    }
+
+    public long getVisibleQtyUnits() {
+        return visibleQty;
+    }
+
+    public long getCumQtyUnits() {
+        return cumQty;
+    }
+
+    public long getLeavesQtyUnits() {
+        return leavesQty;
+    }
+
+    public long getLastQtyUnits() {
         return lastQty;
     }
 
@@ -207,21 +436,36 @@ public class GenOrder implements Order {
     }
 
     public void addTrade(Trade trade) {
-        tradeMap.put(trade.tradeId, trade);
+        synchronized (tradeMap) {
+            tradeMap.put(trade.tradeId, trade);
+        }
     }
-    public void removeTrade(Long tradeId) {
-        tradeMap.remove(tradeId);
+    public void removeTrade(long tradeId) {
+        synchronized (tradeMap) {
+            tradeMap.remove(tradeId);
+        }
     }
     public void removeTrade(Trade trade) {
-        tradeMap.remove(trade.tradeId);
+        removeTrade(trade.tradeId);
     }
 
     public int getTradeCount() {
-        return tradeMap.size();
+        synchronized (tradeMap) {
+            return tradeMap.size();
+        }
     }
 
+    /**
+     * @return copy of the trades of this order, valid until the order is released
+     */
     public Collection<Trade> getTrades() {
-        return (tradeMap.values());//Make the Trade objects immutable
+        synchronized (tradeMap) {
+            List<Trade> trades = new ArrayList<>(tradeMap.size());
+            for (ObjectCursor<Trade> cursor : tradeMap.values()) {
+                trades.add(cursor.value);
+            }
+            return trades;
+        }
     }
 
     public AtomicBoolean getIsOpen() {
@@ -230,6 +474,8 @@ public class GenOrder implements Order {
 
     public static class Builder {
 
+        private static final long UNSET = Long.MIN_VALUE;
+
         private final String clOrdId;
         private final Symbol instrument;
         private final Side side;
@@ -247,6 +493,12 @@ public class GenOrder implements Order {
         private double cumQty;
         @Setter
         private double leavesQty;
+        @Setter
+        private long clientId;
+        //Fixed point in the Symbol's units, win over the double attributes when set
+        private long priceUnits = UNSET;
+        private long qtyUnits = UNSET;
+        private long visibleQtyUnits = UNSET;
 
         public Builder(String clOrdId, String symbolStr, Side side, OrderType ordTyp) throws SymbolNotSupportedException {
             this.clOrdId  = clOrdId;
@@ -255,6 +507,16 @@ public class GenOrder implements Order {
             this.ordTyp = ordTyp;
         }
 
+        /**
+         * For callers which resolved the symbol once up front, e.g. a gateway caching it per session
+         */
+        public Builder(String clOrdId, Symbol symbol, Side side, OrderType ordTyp) {
+            this.clOrdId  = clOrdId;
+            this.instrument = Objects.requireNonNull(symbol);
+            this.side = side;
+            this.ordTyp = ordTyp;
+        }
+
         /**
          * Use sample
          * EQOrder fxOrder = new Builder(O001, "BTC/USD", Side.BUY, OrderType.MARKET)
@@ -272,31 +534,82 @@ public class GenOrder implements Order {
             return this;
         }
 
+        /**
+         * Price already in the Symbol's price units, e.g. off the wire, with no round trip through a double
+         */
+        public void setPriceUnits(long priceUnits) {
+            this.priceUnits = priceUnits;
+        }
+
+        public void setQtyUnits(long qtyUnits) {
+            this.qtyUnits = qtyUnits;
+        }
+
+        /**
+         * @param visibleQtyUnits NO_QTY for a non iceberg order
+         */
+        public void setVisibleQtyUnits(long visibleQtyUnits) {
+            this.visibleQtyUnits = visibleQtyUnits;
+        }
+
+        /**
+         * Validates the attributes and initialises a new order which is never recycled, so the caller may keep it,
+         * e.g. a client reading its fills or cancelling it later
+         * @throws OrderCreationException invalid attributes
+         */
         public GenOrder build() throws OrderCreationException {
-            GenOrder genOrder = new GenOrder(this.clOrdId, this.instrument, this.side, this.ordTyp);
+            return build(false);
+        }
+
+        /**
+         * Validates the attributes and initialises an order borrowed from OrderPools, for engine internal callers only
+         * which hand the order to the engine and never refer to it again, e.g. the gateway or the journal replay:
+         * the book recycles it once closed
+         * @throws OrderCreationException invalid attributes, or no pooled order available within the pool max wait
+         */
+        public GenOrder buildPooled() throws OrderCreationException {
+            return build(true);
+        }
+
+        private GenOrder build(boolean pooled) throws OrderCreationException {
+            if (this.ordTyp == OrderType.LIMIT && Double.isNaN(this.price) && UNSET == this.priceUnits) {
+                throw new OrderCreationException("Limit order must have some price");
+            }
+            long ordQtyUnits;
+            if (UNSET != this.qtyUnits) {
+                ordQtyUnits = this.qtyUnits;
+            } else {
+                ordQtyUnits = this.qty > 0.0d ? this.instrument.toQtyUnits(this.qty) : 0L;
+            }
+            if (ordQtyUnits <= 0L) {
+                throw new OrderCreationException("Invalid order Quantity " + (UNSET != this.qtyUnits
+                        ? instrument.toQty(this.qtyUnits) : qty) + " for clOrdId = " + clOrdId );
+            }
+            GenOrder genOrder = pooled ? OrderPools.borrowOrder() : new GenOrder();
+            genOrder.init(this.clOrdId, this.instrument, this.side, this.ordTyp);
             if (this.ordTyp == OrderType.LIMIT) {
-                if(Double.isNaN(this.price)) {
-                    throw new OrderCreationException("Limit order must have some price");
-                }
-                genOrder.ordPx = this.price;
+                genOrder.ordPx = UNSET != this.priceUnits ? this.priceUnits : instrument.toPriceUnits(this.price);
             }
-            if(this.qty <= 0.0d) {
-                throw new OrderCreationException("Invalid order Quantity " + qty + " for clOrdId = " + clOrdId );
+            if (UNSET != this.visibleQtyUnits) {
+                genOrder.visibleQty = this.visibleQtyUnits;
+            } else {
+                genOrder.visibleQty = Double.isNaN(this.visibleQty) ? NO_QTY : instrument.toQtyUnits(this.visibleQty);
             }
-            genOrder.visibleQty = this.visibleQty;
-            genOrder.leavesQty = this.qty;
-            genOrder.ordQty = this.qty;
+            genOrder.leavesQty = ordQtyUnits;
+            genOrder.ordQty = ordQtyUnits;
             genOrder.currency = this.currency;
+            genOrder.clientId = this.clientId;
             return genOrder;
         }
 
     }
 
     public GenOrder copy() {
-        GenOrder genOrder = new GenOrder(this.clOrdId, this.symbol, this.side, this.orderType);
+        GenOrder genOrder = new GenOrder();    //Detached snapshot, never pooled
+        genOrder.init(this.clOrdId, this.symbol, this.side, this.orderType);
         genOrder.orderId = this.orderId;
         genOrder.ordPx = this.ordPx;
-        genOrder.avgPx = this.avgPx;                 //Average Execution Price
+        genOrder.cumNotional = this.cumNotional;     //Average Execution Price is derived from it
         genOrder.lastPrice = this.lastPrice;         //Last Executed Price
         genOrder.ordQty = this.ordQty;               //Order Qty
         genOrder.visibleQty = this.visibleQty;       //Visible Order Qty used in ICE Berg orders
@@ -304,7 +617,10 @@ public class GenOrder implements Order {
         genOrder.leavesQty = this.leavesQty;         //Remaining Qty
         genOrder.lastQty = this.lastQty;             //Last Executed Qty
         genOrder.currency = this.currency;
-        genOrder.tradeMap.putAll(this.tradeMap);     //Trade is immutable class
+        genOrder.clientId = this.clientId;
+        synchronized (this.tradeMap) {
+            genOrder.tradeMap.putAll(this.tradeMap); //Trades are shared, only valid until this order is released
+        }
         genOrder.isOpen.set(this.isOpen.get());
         return genOrder;
     }
@@ -316,17 +632,17 @@ public class GenOrder implements Order {
 
         GenOrder genOrder = (GenOrder) o;
 
-        if (!clOrdId.equals(genOrder.clOrdId)) return false;
-        if (!symbol.equals(genOrder.symbol)) return false;
+        if (!Objects.equals(clOrdId, genOrder.clOrdId)) return false;
+        if (!Objects.equals(symbol, genOrder.symbol)) return false;
         return side == genOrder.side;
 
     }
 
     @Override
     public int hashCode() {
-        int result = clOrdId.hashCode();
-        result = 31 * result + symbol.hashCode();
-        result = 31 * result + side.hashCode();
+        int result = Objects.hashCode(clOrdId);
+        result = 31 * result + Objects.hashCode(symbol);
+        result = 31 * result + Objects.hashCode(side);
         return result;
     }
 
@@ -338,13 +654,14 @@ public class GenOrder implements Order {
                 ", equitySymbol=" + symbol +
                 ", side=" + side +
                 ", orderType=" + orderType +
-                ", ordPx=" + ordPx +
-                ", avgPx=" + avgPx +
-                ", lastPrice=" + lastPrice +
-                ", ordQty=" + ordQty +
-                ", cumQty=" + cumQty +
-                ", leavesQty=" + leavesQty +
-                ", lastQty=" + lastQty +
+                (null != symbol ?
+                        (", ordPx=" + getOrdPx() +
+                        ", avgPx=" + getAvgPx() +
+                        ", lastPrice=" + getLastPrice() +
+                        ", ordQty=" + getOrdQty() +
+                        ", cumQty=" + getCumQty() +
+                        ", leavesQty=" + getLeavesQty() +
+                        ", lastQty=" + getLastQty()) : "") +
                 ", currency='" + currency + '\'' +
                 ", isOpen=" + isOpen +
                 ",\n Trade History " + tradeMap +
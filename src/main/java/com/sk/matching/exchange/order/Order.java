@@ -4,8 +4,11 @@ import java.io.Serializable;
 
 public interface Order extends Serializable {
 
-    Trade execute(long execId, double price, double fillQty, String ctrbClOrdId);
-    Trade rollback(long execId, double price, double fillQty, String ctrbClOrdId);
+    /**
+     * Price and quantity are fixed point, in the units of the order's Symbol (price * priceScale, qty * qtyScale)
+     */
+    Trade execute(long execId, long price, long fillQty, String ctrbClOrdId);
+    Trade rollback(long execId, long price, long fillQty, String ctrbClOrdId);
     boolean isOpen();
 
 }
@@ -0,0 +1,165 @@
+package com.sk.matching.exchange.order;
+
+import com.sk.matching.exception.OrderCreationException;
+import com.sk.matching.exception.PoolExhaustedException;
+import com.sk.matching.exception.PoolInvalidObjectException;
+import com.sk.matching.pool.ObjectFactory;
+import com.sk.matching.pool.ObjectPool;
+import com.sk.matching.pool.PoolConfig;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Engine wide pools of {@link GenOrder} and {@link Trade}, so the steady state order entry and matching path
+ * re-uses instances instead of allocating them.
+ *
+ * Only engine internal orders are pooled, borrowed by GenOrder.Builder.buildPooled, e.g. for the gateway, with the
+ * trades of their fills. Orders built for clients, which may keep them, are never recycled. A pooled order goes back,
+ * with its trades, through GenOrder.release once nobody refers to it any more: books release their closed orders on
+ * the purges MatchingShards publishes periodically, on the spot when a matching thread runs out of trades, and every
+ * order on reset; the engine releases the orders it rejects and the amend carriers.
+ * Pools are created on first use, sized by configure (app-cfg) when called before.
+ */
+@Log4j2
+public final class OrderPools {
+
+    private static PoolConfig orderPoolConfig = new PoolConfig();
+    private static PoolConfig tradePoolConfig = new PoolConfig(PoolConfig.DEFAULT_MIN_SIZE * 2,
+            PoolConfig.DEFAULT_MAX_SIZE * 2, PoolConfig.DEFAULT_MAX_WAIT_MILLISECONDS);
+
+    private static volatile ObjectPool<GenOrder> orderPool;
+    private static volatile ObjectPool<Trade> tradePool;
+
+    private OrderPools() {
+    }
+
+    /**
+     * Sets pool sizes and max wait, non positive values keep the defaults.
+     * Only effective before the pools are first used, later calls are ignored
+     */
+    public static synchronized void configure(int orderPoolMinSize, int orderPoolMaxSize,
+                                              int tradePoolMinSize, int tradePoolMaxSize, long maxWaitMillis) {
+        PoolConfig orderConfig = merge(orderPoolConfig, orderPoolMinSize, orderPoolMaxSize, maxWaitMillis);
+        PoolConfig tradeConfig = merge(tradePoolConfig, tradePoolMinSize, tradePoolMaxSize, maxWaitMillis);
+        if (null != orderPool || null != tradePool) {
+            if (orderConfig.equals(orderPoolConfig) && tradeConfig.equals(tradePoolConfig)) {
+                return;
+            }
+            log.warn("Order and trade pools already started, ignoring {} / {}", orderConfig, tradeConfig);
+            return;
+        }
+        orderPoolConfig = orderConfig;
+        tradePoolConfig = tradeConfig;
+        log.info("Order pool configured with {}, trade pool with {}", orderConfig, tradeConfig);
+    }
+
+    private static PoolConfig merge(PoolConfig current, int minSize, int maxSize, long maxWaitMillis) {
+        int newMaxSize = maxSize > 0 ? maxSize : current.getMaxSize();
+        int newMinSize = Math.min(minSize > 0 ? minSize : current.getMinSize(), newMaxSize);
+        return new PoolConfig(newMinSize, newMaxSize,
+                maxWaitMillis > 0 ? maxWaitMillis : current.getMaxWaitMilliseconds());
+    }
+
+    static GenOrder borrowOrder() throws OrderCreationException {
+        try {
+            return getOrderPool().borrowObject();
+        } catch (PoolExhaustedException | PoolInvalidObjectException e) {
+            throw new OrderCreationException("No order available from pool, " + e.getMessage());
+        }
+    }
+
+    static void releaseOrder(GenOrder genOrder) {
+        getOrderPool().returnObject(genOrder);
+    }
+
+    static Trade borrowTrade() {
+        return getTradePool().borrowObject();
+    }
+
+    /**
+     * Borrows without waiting, a matching thread can't wait for the purges it runs itself
+     * @return blank trade, null when the pool is exhausted
+     */
+    public static Trade tryBorrowTrade() {
+        return getTradePool().tryBorrowObject();
+    }
+
+    public static void releaseTrade(Trade trade) {
+        getTradePool().returnObject(trade);
+    }
+
+    public static ObjectPool<GenOrder> getOrderPool() {
+        ObjectPool<GenOrder> pool = orderPool;
+        return null != pool ? pool : startOrderPool();
+    }
+
+    public static ObjectPool<Trade> getTradePool() {
+        ObjectPool<Trade> pool = tradePool;
+        return null != pool ? pool : startTradePool();
+    }
+
+    private static synchronized ObjectPool<GenOrder> startOrderPool() {
+        if (null == orderPool) {
+            orderPool = newOrderPool(orderPoolConfig);
+        }
+        return orderPool;
+    }
+
+    private static synchronized ObjectPool<Trade> startTradePool() {
+        if (null == tradePool) {
+            tradePool = newTradePool(tradePoolConfig);
+        }
+        return tradePool;
+    }
+
+    /**
+     * Replaces both pools with new ones, while no order nor trade is borrowed, e.g. for a test to run more orders
+     * than a small pool holds
+     */
+    static synchronized void restart(PoolConfig orderConfig, PoolConfig tradeConfig) {
+        orderPoolConfig = orderConfig;
+        tradePoolConfig = tradeConfig;
+        orderPool = newOrderPool(orderConfig);
+        tradePool = newTradePool(tradeConfig);
+    }
+
+    static synchronized PoolConfig getOrderPoolConfig() {
+        return orderPoolConfig;
+    }
+
+    static synchronized PoolConfig getTradePoolConfig() {
+        return tradePoolConfig;
+    }
+
+    private static ObjectPool<GenOrder> newOrderPool(PoolConfig config) {
+        return new ObjectPool<>("orders", config, new ObjectFactory<GenOrder>() {
+            @Override
+            public GenOrder create() {
+                return new GenOrder(true);
+            }
+
+            @Override
+            public boolean validate(GenOrder genOrder) {
+                return null == genOrder.getLevel() && genOrder.getTradeCount() == 0;
+            }
+
+            @Override
+            public void reset(GenOrder genOrder) {
+                genOrder.reset();
+            }
+        });
+    }
+
+    private static ObjectPool<Trade> newTradePool(PoolConfig config) {
+        return new ObjectPool<>("trades", config, new ObjectFactory<Trade>() {
+            @Override
+            public Trade create() {
+                return new Trade();
+            }
+
+            @Override
+            public void reset(Trade trade) {
+                trade.clear();
+            }
+        });
+    }
+}
@@ -5,23 +5,37 @@ import com.sk.matching.types.Side;
 import lombok.extern.log4j.Log4j2;
 
 /**
- * KISS -> keeping final immutable variables public to avoid getter/setter creation..
+ * KISS -> keeping variables public to avoid getter/setter creation..
  * Disclaimer Its not a standard for prod env any delivery however, just ok for small demo
+ *
+ * Treat as immutable: fields are only written by OrderPools when a trade is borrowed, fills re-use released trades
+ * instead of allocating a new one each time.
  */
 
 @Log4j2
 public class Trade {
-    public final long orderId;
-    public final Symbol symbol;
-    public final double tradePrice;
-    public final double tradeQty;
-    public final Side tradeSide;
-    public final long tradeId;
-    public final String counterClOrdIdId;
+    public long orderId;
+    public Symbol symbol;
+    public long tradePrice;     //Symbol price units
+    public long tradeQty;       //Symbol qty units
+    public Side tradeSide;
+    public long tradeId;
+    public String counterClOrdIdId;
+    public long tradeTime;      //Epoch nanos, only set on trades read from a TradeStore
+
+    Trade() {
+        //Blank instance for the pool
+    }
 
     public Trade(long orderId, Symbol symbol,
-                 double tradePrice, double tradeQty,
+                 long tradePrice, long tradeQty,
                  Side tradeSide, long tradeId, String counterClOrdIdId){
+        set(orderId, symbol, tradePrice, tradeQty, tradeSide, tradeId, counterClOrdIdId);
+    }
+
+    Trade set(long orderId, Symbol symbol,
+              long tradePrice, long tradeQty,
+              Side tradeSide, long tradeId, String counterClOrdIdId) {
         this.orderId = orderId;
         this.symbol = symbol;
         this.tradePrice = tradePrice;
@@ -29,6 +43,20 @@ public class Trade {
         this.tradeSide = tradeSide;
         this.tradeId = tradeId;
         this.counterClOrdIdId = counterClOrdIdId;
+        this.tradeTime = 0L;
+        return this;
+    }
+
+    void clear() {
+        set(Long.MIN_VALUE, null, 0L, 0L, null, Long.MIN_VALUE, null);
+    }
+
+    public double getTradePrice() {
+        return symbol.toPrice(tradePrice);
+    }
+
+    public double getTradeQty() {
+        return symbol.toQty(tradeQty);
     }
 
     @Override
@@ -36,11 +64,12 @@ public class Trade {
         return "Trade{" +
                 "orderId=" + orderId +
                 ", equitySymbol=" + symbol +
-                ", tradePrice=" + tradePrice +
-                ", tradeQty=" + tradeQty +
+                ", tradePrice=" + (null != symbol ? getTradePrice() : tradePrice) +
+                ", tradeQty=" + (null != symbol ? getTradeQty() : tradeQty) +
                 ", tradeSide=" + tradeSide +
                 ", tradeId=" + tradeId +
                 ", counterClOrdIdId=" + counterClOrdIdId +
+                ", tradeTime=" + tradeTime +
                 '}';
     }
 }
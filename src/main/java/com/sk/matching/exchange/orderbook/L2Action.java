@@ -0,0 +1,17 @@
+package com.sk.matching.exchange.orderbook;
+
+/**
+ * Kind of an L2 (price level) market data update.
+ *
+ * A full refresh is a SNAPSHOT_START, one SNAPSHOT_LEVEL per active level of both sides and a SNAPSHOT_END, a
+ * mirror book drops its levels on SNAPSHOT_START and is in sync again at SNAPSHOT_END.
+ */
+public enum L2Action {
+    ADD, CHANGE, DELETE, SNAPSHOT_START, SNAPSHOT_LEVEL, SNAPSHOT_END;
+
+    private static final L2Action[] VALUES = values();
+
+    static L2Action valueOf(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
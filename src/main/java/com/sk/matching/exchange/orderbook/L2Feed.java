@@ -0,0 +1,207 @@
+package com.sk.matching.exchange.orderbook;
+
+import com.sk.matching.types.Side;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Incremental price level (L2) updates of one book, published by the book writer into a pre-allocated broadcast ring.
+ *
+ * Every level change made under the book write lock (order added / removed, fill, amend) is written as one update
+ * with the next sequence number. Slots are plain primitive arrays guarded by a per slot seqlock, so the writer never
+ * waits for nor allocates for consumers and any number of {@link Reader}s poll from any thread without touching the
+ * book locks. A reader lapped by the writer sees a gap and re-syncs from the next full refresh, emitted after every
+ * refreshInterval updates or at the next update after a reader asked for one.
+ * A single writer at a time is required, the book publishes while holding its write lock.
+ */
+public class L2Feed {
+
+    public static final int DEFAULT_CAPACITY = 1 << 12;
+    public static final int DEFAULT_REFRESH_INTERVAL = 1 << 10;
+
+    private static final VarHandle SLOT_SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle WRITE_SEQUENCE;
+    static {
+        try {
+            WRITE_SEQUENCE = MethodHandles.lookup().findVarHandle(L2Feed.class, "writeSequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static volatile int capacity = DEFAULT_CAPACITY;
+    private static volatile int refreshInterval = DEFAULT_REFRESH_INTERVAL;
+
+    private final int mask;
+    private final long[] sequences;     //Sequence held by each slot, -1 while being written
+    private final byte[] actions;
+    private final byte[] sides;
+    private final long[] prices;
+    private final long[] qtys;
+    private final int[] orderCounts;
+    private final int updatesPerRefresh;
+
+    private long writeSequence;         //Last published, 0 before the first update
+    private int sinceRefresh;
+    private volatile boolean refreshRequested;
+
+    /**
+     * Sets ring capacity and full refresh interval of the feeds of books created from now on,
+     * non positive values keep the defaults
+     */
+    public static void configure(int ringCapacity, int updatesPerRefresh) {
+        if (ringCapacity > 0) {
+            if (ringCapacity < 2 || Integer.bitCount(ringCapacity) != 1) {
+                throw new IllegalArgumentException("L2 feed capacity must be a power of two " + ringCapacity);
+            }
+            capacity = ringCapacity;
+        }
+        if (updatesPerRefresh > 0) {
+            refreshInterval = updatesPerRefresh;
+        }
+    }
+
+    L2Feed() {
+        this(capacity, refreshInterval);
+    }
+
+    L2Feed(int capacity, int updatesPerRefresh) {
+        this.mask = capacity - 1;
+        this.sequences = new long[capacity];
+        Arrays.fill(sequences, -1L);
+        this.actions = new byte[capacity];
+        this.sides = new byte[capacity];
+        this.prices = new long[capacity];
+        this.qtys = new long[capacity];
+        this.orderCounts = new int[capacity];
+        this.updatesPerRefresh = updatesPerRefresh;
+    }
+
+    /**
+     * Publishes the current state of a level, DELETE once the level ran empty
+     */
+    void onLevelChange(Side side, PriceLevel level, boolean added, PriceLadder bids, PriceLadder asks) {
+        if (level.isEmpty()) {
+            write(L2Action.DELETE, side, level.getPrice(), 0L, 0);
+        } else {
+            write(added ? L2Action.ADD : L2Action.CHANGE, side, level.getPrice(), level.getDisplayedQty(),
+                    level.size());
+        }
+        if (++sinceRefresh >= updatesPerRefresh || refreshRequested) {
+            refresh(bids, asks);
+        }
+    }
+
+    /**
+     * Publishes every active level of both sides as a full refresh
+     */
+    void refresh(PriceLadder bids, PriceLadder asks) {
+        refreshRequested = false;
+        sinceRefresh = 0;
+        write(L2Action.SNAPSHOT_START, null, 0L, 0L, 0);
+        bids.forEachLevel(this::writeBidLevel);
+        asks.forEachLevel(this::writeAskLevel);
+        write(L2Action.SNAPSHOT_END, null, 0L, 0L, 0);
+    }
+
+    private void writeBidLevel(PriceLevel level) {
+        writeSnapshotLevel(Side.BUY, level);
+    }
+
+    private void writeAskLevel(PriceLevel level) {
+        writeSnapshotLevel(Side.SELL, level);
+    }
+
+    private void writeSnapshotLevel(Side side, PriceLevel level) {
+        if (!level.isEmpty()) {
+            write(L2Action.SNAPSHOT_LEVEL, side, level.getPrice(), level.getDisplayedQty(), level.size());
+        }
+    }
+
+    private void write(L2Action action, Side side, long price, long qty, int orderCount) {
+        long sequence = writeSequence + 1;
+        int idx = (int) sequence & mask;
+        SLOT_SEQUENCE.setOpaque(sequences, idx, -1L);
+        VarHandle.storeStoreFence();
+        actions[idx] = (byte) action.ordinal();
+        sides[idx] = null == side ? 0 : (byte) side.getFixSide();
+        prices[idx] = price;
+        qtys[idx] = qty;
+        orderCounts[idx] = orderCount;
+        SLOT_SEQUENCE.setRelease(sequences, idx, sequence);
+        WRITE_SEQUENCE.setRelease(this, sequence);
+    }
+
+    /**
+     * @return sequence of the last published update, 0 if none yet
+     */
+    public long getSequence() {
+        return (long) WRITE_SEQUENCE.getAcquire(this);
+    }
+
+    public int getCapacity() {
+        return sequences.length;
+    }
+
+    /**
+     * Asks the writer for a full refresh with its next update
+     */
+    public void requestRefresh() {
+        refreshRequested = true;
+    }
+
+    /**
+     * @return a reader positioned after the last published update, it starts delivering at the next one
+     */
+    public Reader newReader() {
+        return new Reader(getSequence() + 1);
+    }
+
+    /**
+     * Consumer cursor of a feed, confined to one thread. Readers are independent, a slow one never slows the
+     * writer nor the others, it only risks a gap.
+     */
+    public class Reader {
+        private long next;
+
+        private Reader(long next) {
+            this.next = next;
+        }
+
+        public PollResult poll(L2Update update) {
+            int idx = (int) next & mask;
+            long sequence = (long) SLOT_SEQUENCE.getAcquire(sequences, idx);
+            if (sequence != next) {
+                return sequence > next || (long) WRITE_SEQUENCE.getAcquire(L2Feed.this) >= next + getCapacity()
+                        ? gap() : PollResult.NONE;
+            }
+            update.action = L2Action.valueOf(actions[idx]);
+            int side = sides[idx];
+            update.side = side == 0 ? null : Side.valueOf(side);
+            update.price = prices[idx];
+            update.qty = qtys[idx];
+            update.orderCount = orderCounts[idx];
+            VarHandle.loadLoadFence();
+            if ((long) SLOT_SEQUENCE.getOpaque(sequences, idx) != next) {
+                return gap();    //Overwritten while being read
+            }
+            update.sequence = next++;
+            return PollResult.UPDATE;
+        }
+
+        private PollResult gap() {
+            next = getSequence() + 1;
+            requestRefresh();
+            return PollResult.GAP;
+        }
+
+        /**
+         * @return sequence the next poll expects
+         */
+        public long getNextSequence() {
+            return next;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.sk.matching.exchange.orderbook;
+
+import com.sk.matching.types.Side;
+
+/**
+ * Reader side copy of one L2 update, re-usable by the consumer to keep polling allocation free.
+ * Price and qty are fixed point, in the book Symbol's price / qty units.
+ */
+public class L2Update {
+    public long sequence;
+    public L2Action action;
+    public Side side;       //Null on SNAPSHOT_START / SNAPSHOT_END
+    public long price;
+    public long qty;        //Aggregate displayed qty of the level, iceberg reserves excluded, 0 on DELETE
+    public int orderCount;
+
+    @Override
+    public String toString() {
+        return "L2Update{" +
+                "sequence=" + sequence +
+                ", action=" + action +
+                ", side=" + side +
+                ", " + qty + "@" + price + "(" + orderCount + ")" +
+                '}';
+    }
+}
@@ -0,0 +1,35 @@
+package com.sk.matching.exchange.orderbook;
+
+/**
+ * Kind of an order by order (L3) market data event, encoded as its code in the binary record.
+ *
+ * A full refresh is a SNAPSHOT_START, one SNAPSHOT_ORDER per resting order (bids then asks, each level in time
+ * priority) and a SNAPSHOT_END.
+ */
+public enum L3EventType {
+    ADD(1), MODIFY(2), EXECUTE(3), DELETE(4), SNAPSHOT_START(5), SNAPSHOT_ORDER(6), SNAPSHOT_END(7);
+
+    private static final L3EventType[] BY_CODE = new L3EventType[8];
+    static {
+        for (L3EventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+
+    L3EventType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static L3EventType valueOf(int code) {
+        if (code <= 0 || code >= BY_CODE.length) {
+            throw new UnsupportedOperationException("Unsupported L3 event type " + code);
+        }
+        return BY_CODE[code];
+    }
+}
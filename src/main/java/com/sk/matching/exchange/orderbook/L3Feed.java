@@ -0,0 +1,244 @@
+package com.sk.matching.exchange.orderbook;
+
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.types.Side;
+import com.sk.matching.util.DateUtils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Order by order (L3) events of one book, encoded by the book writer as fixed layout binary records into a
+ * pre-allocated direct buffer used as a broadcast ring.
+ *
+ * Record layout, little endian, RECORD_LENGTH bytes:
+ * sequence(8) type(1) side(1) pad(6) orderId(8) price(8) displayQty(8) execQty(8) timestamp(8).
+ * The sequence is stored last with release semantics and acts as the record's seqlock, so readers on any thread copy
+ * or decode records without locks and the writer never waits for them nor allocates. Icebergs only ever show their
+ * visible qty. A reader lapped by the writer sees a gap and re-syncs from the full refresh it requests.
+ * A single writer at a time is required, the book publishes while holding its write lock.
+ */
+public class L3Feed {
+
+    public static final int RECORD_LENGTH = 56;
+    public static final int DEFAULT_CAPACITY = 1 << 13;
+
+    static final int SEQUENCE_OFFSET = 0;
+    static final int TYPE_OFFSET = 8;
+    static final int SIDE_OFFSET = 9;
+    static final int ORDER_ID_OFFSET = 16;
+    static final int PRICE_OFFSET = 24;
+    static final int DISPLAY_QTY_OFFSET = 32;
+    static final int EXEC_QTY_OFFSET = 40;
+    static final int TIMESTAMP_OFFSET = 48;
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle WRITE_SEQUENCE;
+    static {
+        try {
+            WRITE_SEQUENCE = MethodHandles.lookup().findVarHandle(L3Feed.class, "writeSequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static volatile int capacity = DEFAULT_CAPACITY;
+
+    private final int mask;
+    private final ByteBuffer records;
+
+    private long writeSequence;         //Last published, 0 before the first event
+    private volatile boolean refreshRequested;
+
+    /**
+     * Sets the ring capacity, in records, of the feeds of books created from now on, non positive keeps the default
+     */
+    public static void configure(int ringCapacity) {
+        if (ringCapacity > 0) {
+            if (ringCapacity < 2 || Integer.bitCount(ringCapacity) != 1) {
+                throw new IllegalArgumentException("L3 feed capacity must be a power of two " + ringCapacity);
+            }
+            capacity = ringCapacity;
+        }
+    }
+
+    L3Feed() {
+        this(capacity);
+    }
+
+    L3Feed(int capacity) {
+        this.mask = capacity - 1;
+        this.records = ByteBuffer.allocateDirect(capacity * RECORD_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        for (int idx = 0; idx < capacity; idx++) {
+            LONG_VIEW.setRelease(records, idx * RECORD_LENGTH, -1L);
+        }
+    }
+
+    void onAdd(GenOrder genOrder, PriceLadder bids, PriceLadder asks) {
+        write(L3EventType.ADD, genOrder.getSide(), genOrder.getOrderId(), genOrder.getOrdPxUnits(),
+                PriceLevel.displayQty(genOrder), 0L);
+        refreshIfRequested(bids, asks);
+    }
+
+    void onModify(GenOrder genOrder, PriceLadder bids, PriceLadder asks) {
+        write(L3EventType.MODIFY, genOrder.getSide(), genOrder.getOrderId(), genOrder.getOrdPxUnits(),
+                PriceLevel.displayQty(genOrder), 0L);
+        refreshIfRequested(bids, asks);
+    }
+
+    /**
+     * @param execPx execution price in Symbol price units
+     * @param execQty in Symbol qty units
+     */
+    void onExecute(GenOrder genOrder, long execPx, long execQty, PriceLadder bids, PriceLadder asks) {
+        write(L3EventType.EXECUTE, genOrder.getSide(), genOrder.getOrderId(), execPx, PriceLevel.displayQty(genOrder),
+                execQty);
+        refreshIfRequested(bids, asks);
+    }
+
+    void onDelete(GenOrder genOrder, PriceLadder bids, PriceLadder asks) {
+        write(L3EventType.DELETE, genOrder.getSide(), genOrder.getOrderId(), genOrder.getOrdPxUnits(), 0L, 0L);
+        refreshIfRequested(bids, asks);
+    }
+
+    private void refreshIfRequested(PriceLadder bids, PriceLadder asks) {
+        if (refreshRequested) {
+            refresh(bids, asks);
+        }
+    }
+
+    /**
+     * Publishes every resting order of both sides as a full refresh
+     */
+    void refresh(PriceLadder bids, PriceLadder asks) {
+        refreshRequested = false;
+        write(L3EventType.SNAPSHOT_START, null, 0L, 0L, 0L, 0L);
+        bids.forEachLevel(this::writeSnapshotLevel);
+        asks.forEachLevel(this::writeSnapshotLevel);
+        write(L3EventType.SNAPSHOT_END, null, 0L, 0L, 0L, 0L);
+    }
+
+    private void writeSnapshotLevel(PriceLevel level) {
+        for (GenOrder genOrder = level.head(); null != genOrder; genOrder = genOrder.getNextInLevel()) {
+            write(L3EventType.SNAPSHOT_ORDER, genOrder.getSide(), genOrder.getOrderId(), genOrder.getOrdPxUnits(),
+                    PriceLevel.displayQty(genOrder), 0L);
+        }
+    }
+
+    private void write(L3EventType type, Side side, long orderId, long price, long displayQty, long execQty) {
+        long sequence = writeSequence + 1;
+        int start = ((int) sequence & mask) * RECORD_LENGTH;
+        LONG_VIEW.setOpaque(records, start + SEQUENCE_OFFSET, -1L);
+        VarHandle.storeStoreFence();
+        records.put(start + TYPE_OFFSET, (byte) type.getCode());
+        records.put(start + SIDE_OFFSET, null == side ? 0 : (byte) side.getFixSide());
+        records.putLong(start + ORDER_ID_OFFSET, orderId);
+        records.putLong(start + PRICE_OFFSET, price);
+        records.putLong(start + DISPLAY_QTY_OFFSET, displayQty);
+        records.putLong(start + EXEC_QTY_OFFSET, execQty);
+        records.putLong(start + TIMESTAMP_OFFSET, DateUtils.getCurrentNanos());
+        LONG_VIEW.setRelease(records, start + SEQUENCE_OFFSET, sequence);
+        WRITE_SEQUENCE.setRelease(this, sequence);
+    }
+
+    /**
+     * @return sequence of the last published event, 0 if none yet
+     */
+    public long getSequence() {
+        return (long) WRITE_SEQUENCE.getAcquire(this);
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Asks the writer for a full refresh right after its next event
+     */
+    public void requestRefresh() {
+        refreshRequested = true;
+    }
+
+    /**
+     * @return a reader positioned after the last published event, it starts delivering at the next one
+     */
+    public Reader newReader() {
+        return new Reader(getSequence() + 1);
+    }
+
+    /**
+     * Decodes one record, e.g. copied out by {@link Reader#pollRecord}
+     */
+    public static L3Update decode(ByteBuffer record, int start, L3Update update) {
+        record.order(ByteOrder.LITTLE_ENDIAN);
+        update.sequence = record.getLong(start + SEQUENCE_OFFSET);
+        update.type = L3EventType.valueOf(record.get(start + TYPE_OFFSET));
+        int side = record.get(start + SIDE_OFFSET);
+        update.side = side == 0 ? null : Side.valueOf(side);
+        update.orderId = record.getLong(start + ORDER_ID_OFFSET);
+        update.price = record.getLong(start + PRICE_OFFSET);
+        update.displayQty = record.getLong(start + DISPLAY_QTY_OFFSET);
+        update.execQty = record.getLong(start + EXEC_QTY_OFFSET);
+        update.timestamp = record.getLong(start + TIMESTAMP_OFFSET);
+        return update;
+    }
+
+    /**
+     * Consumer cursor of a feed, confined to one thread. Readers are independent, a slow one never slows the
+     * writer nor the others, it only risks a gap.
+     */
+    public class Reader {
+        private final ByteBuffer source = records.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        private long next;
+
+        private Reader(long next) {
+            this.next = next;
+        }
+
+        /**
+         * Copies the next record as is, RECORD_LENGTH bytes at the destination's position, e.g. to forward it
+         */
+        public PollResult pollRecord(ByteBuffer destination) {
+            int start = ((int) next & mask) * RECORD_LENGTH;
+            long sequence = (long) LONG_VIEW.getAcquire(records, start + SEQUENCE_OFFSET);
+            if (sequence != next) {
+                return sequence > next || getSequence() >= next + getCapacity() ? gap() : PollResult.NONE;
+            }
+            int position = destination.position();
+            source.limit(start + RECORD_LENGTH).position(start);
+            destination.put(source);
+            VarHandle.loadLoadFence();
+            if ((long) LONG_VIEW.getOpaque(records, start + SEQUENCE_OFFSET) != next) {
+                destination.position(position);
+                return gap();    //Overwritten while being copied
+            }
+            next++;
+            return PollResult.UPDATE;
+        }
+
+        /**
+         * Decodes the next record into the update
+         */
+        public PollResult poll(L3Update update) {
+            scratch.clear();
+            PollResult result = pollRecord(scratch);
+            if (result == PollResult.UPDATE) {
+                decode(scratch, 0, update);
+            }
+            return result;
+        }
+
+        private PollResult gap() {
+            next = getSequence() + 1;
+            requestRefresh();
+            return PollResult.GAP;
+        }
+
+        public long getNextSequence() {
+            return next;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.sk.matching.exchange.orderbook;
+
+import com.sk.matching.types.Side;
+
+/**
+ * Reader side decoded copy of one L3 record, re-usable by the consumer to keep polling allocation free.
+ * Price and qty are fixed point, in the book Symbol's price / qty units.
+ */
+public class L3Update {
+    public long sequence;
+    public L3EventType type;
+    public Side side;           //Null on SNAPSHOT_START / SNAPSHOT_END
+    public long orderId;
+    public long price;          //Order price, execution price on EXECUTE
+    public long displayQty;     //Displayed leaves qty after the event, capped at the visible qty of an iceberg
+    public long execQty;        //EXECUTE only
+    public long timestamp;      //Nanos, see DateUtils
+
+    @Override
+    public String toString() {
+        return "L3Update{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", side=" + side +
+                ", orderId=" + orderId +
+                ", price=" + price +
+                ", displayQty=" + displayQty +
+                ", execQty=" + execQty +
+                '}';
+    }
+}
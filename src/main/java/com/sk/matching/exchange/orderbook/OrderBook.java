@@ -1,25 +1,31 @@
 package com.sk.matching.exchange.orderbook;
 
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.cursors.ObjectCursor;
 import com.sk.matching.exchange.crossing.CrossingProcessor;
+import com.sk.matching.exchange.executions.ExecutionReports;
+import com.sk.matching.exchange.executions.TradeStatistics;
+import com.sk.matching.exchange.executions.TradeStore;
 import com.sk.matching.exchange.order.GenOrder;
 import com.sk.matching.exchange.orderbook.display.OrderBookDisplay;
 import com.sk.matching.exchange.orderbook.display.OrderBookDisplayFixedWidth;
+import com.sk.matching.exchange.sequencer.MatchingShards;
+import com.sk.matching.exchange.sequencer.OrderEvent;
+import com.sk.matching.exchange.sequencer.OrderEventRing;
 import com.sk.matching.symbols.Symbol;
 import com.sk.matching.types.Side;
 import com.sk.matching.util.DateUtils;
-import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 
 import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 import static com.sk.matching.types.Side.BUY;
 import static com.sk.matching.types.Side.SELL;
@@ -30,50 +36,130 @@ public class OrderBook implements Serializable {
     private final transient OrderBookDisplay orderBookDisplay = OrderBookDisplayFixedWidth.getInstance();
 
     private static final Map<Symbol, OrderBook> orderBookCache = new ConcurrentHashMap<>();
+    //Books of the SymbolCache symbols by Symbol id, copy on write so the hot path is a single array load
+    private static volatile OrderBook[] booksById = new OrderBook[0];
 
     public static OrderBook getBook(Symbol symbol) {//Flyweight and thread safe
-        return orderBookCache.computeIfAbsent(symbol, OrderBook::new);
+        int id = symbol.getId();
+        OrderBook[] books = booksById;
+        if (id >= 0 && id < books.length && null != books[id]) {
+            return books[id];
+        }
+        return createBook(symbol);
+    }
+
+    /**
+     * @return book of the symbol with this id, null if the symbol has no book yet
+     */
+    public static OrderBook getBook(int symbolId) {
+        OrderBook[] books = booksById;
+        return symbolId >= 0 && symbolId < books.length ? books[symbolId] : null;
+    }
+
+    private static synchronized OrderBook createBook(Symbol symbol) {
+        OrderBook book = orderBookCache.computeIfAbsent(symbol, OrderBook::new);
+        int id = symbol.getId();
+        if (id >= 0) {
+            OrderBook[] books = booksById;
+            if (id >= books.length) {
+                books = Arrays.copyOf(books, Math.max(id + 1, books.length * 2));
+            } else if (null == books[id]) {
+                books = books.clone();
+            } else {
+                return books[id];
+            }
+            books[id] = book;
+            booksById = books;
+        }
+        return book;
+    }
+
+    /**
+     * @return copy of every book created so far
+     */
+    public static List<OrderBook> getBooks() {
+        return new ArrayList<>(orderBookCache.values());
     }
 
     private OrderBook(Symbol symbol) {
         this.symbol = symbol;
+        this.tradeStore = new TradeStore(symbol);
+        this.tradeStatistics = new TradeStatistics(symbol);
     }
 
     private static final AtomicLong currentTradeId = new AtomicLong();
 
-    private final transient ExecutorService executorForCrossing = Executors.newSingleThreadExecutor();
     private final transient CrossingProcessor crossingProcessor = new CrossingProcessor();
+    //Single writer: every event for this book is sequenced through the ring of its matching shard and applied by
+    //that shard's thread only. Resolved on first use
+    private transient volatile OrderEventRing eventRing;
 
     private final transient ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
     public  final transient Lock writeLock = readWriteLock.writeLock();
-    public  final transient Lock readLock = readWriteLock.writeLock();
+    public  final transient Lock readLock = readWriteLock.readLock();
 
+    //Best bid/ask re-published on every book mutation, readers on any thread go lock free through it
+    private final transient TopOfBook topOfBook = new TopOfBook();
+    //Incremental level updates with periodic full refreshes, consumers mirror the book without taking its locks
+    private final transient L2Feed l2Feed = new L2Feed();
+    //Order by order events as fixed layout binary records in a pre-allocated buffer
+    private final transient L3Feed l3Feed = new L3Feed();
 
-    private final Symbol symbol;
-    //Using Red-Black Tree Implementation for auto sorting on insertion O(log N)
-    //https://www.geeksforgeeks.org/introduction-to-red-black-tree/
-    //Comparatively faster than having two phase operation i.e. Keep price in Priority Queue and orders in Price Map of Order List.
-    //Moreover, ConcurrentSkipListMap is thread safe
-    @Getter
-    private final SortedMap<Double,List<GenOrder>> bidOrderSortedMap = new ConcurrentSkipListMap<>();
-    @Getter
-    private final SortedMap<Double,List<GenOrder>> askOrderSortedMap = new ConcurrentSkipListMap<>();
 
-    private final Map<Long, GenOrder> orderHistory = new ConcurrentHashMap<>();
+    private final Symbol symbol;
+    //Every execution on this book, appended by the matching thread, queried by trade id / time without locks
+    private final transient TradeStore tradeStore;
+    //Session last / high / low / volume / VWAP, folded in per match by the matching thread, O(1) lock free reads
+    private final transient TradeStatistics tradeStatistics;
+    //Price ladder per side keyed by long ticks (tick size from Symbol), array window around the touch with a sorted
+    //fallback for far away prices. Best price lookup and near touch level insert are O(1), no boxed Double keys.
+    private final transient PriceLadder bidLadder = new PriceLadder(BUY);
+    private final transient PriceLadder askLadder = new PriceLadder(SELL);
+
+    private static final int INITIAL_ORDER_CAPACITY = 1 << 16;
+    private static final long RESET_WAIT_NANOS = 50_000L;
+
+    //Every order accepted by the book keyed by engine order id, primitive long keys so lookups box nothing.
+    //Resting orders are located here in O(1) by cancel / amend and unlinked from their level through the intrusive links
+    private final transient LongObjectHashMap<GenOrder> orderIndex = new LongObjectHashMap<>(INITIAL_ORDER_CAPACITY);
 
     public Symbol getSymbol() {
         return symbol;
     }
 
 
+    public TradeStore getTradeStore() {
+        return tradeStore;
+    }
+
+    public TradeStatistics getTradeStatistics() {
+        return tradeStatistics;
+    }
+
     public long generateTradeId() {
         return  (DateUtils.getCurrentNanos() + currentTradeId.getAndIncrement()) % Long.MIN_VALUE;
     }
 
+    public static long getCurrentTradeId() {
+        return currentTradeId.get();
+    }
+
+    /**
+     * Moves the trade id counter at least to the value restored from a snapshot
+     */
+    public static void recoverTradeId(long tradeId) {
+        currentTradeId.accumulateAndGet(tradeId, Math::max);
+    }
+
 
     public boolean setOrder(GenOrder genOrder) {
         Objects.requireNonNull(genOrder);
-        orderHistory.put(genOrder.getOrderId(), genOrder);
+        try {
+            writeLock.lock();
+            orderIndex.put(genOrder.getOrderId(), genOrder);
+        } finally {
+            writeLock.unlock();
+        }
         if (genOrder.getSide() == BUY) {
             return setBid(genOrder);
         } else if (genOrder.getSide() == SELL) {
@@ -82,6 +168,18 @@ public class OrderBook implements Serializable {
         return false;
     }
 
+    /**
+     * @return best level of the side opposite to ordSide, null when that side is empty
+     */
+    public PriceLevel getBestOppositeLevel(Side ordSide) {
+        try {
+            readLock.lock();
+            return ordSide == BUY ? askLadder.best() : bidLadder.best();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
     public List<GenOrder> getBestOppositeOrderList(Side ordSide) {
         List<GenOrder> bestOppositeOrderList;
         if( ordSide == BUY) {
@@ -92,34 +190,115 @@ public class OrderBook implements Serializable {
         return bestOppositeOrderList;
     }
 
+    /**
+     * @return best opposite price if the order's limit crosses it, NaN otherwise
+     */
     public double getBestOppositePrice(GenOrder genOrder, Side ordSide) {
-        double bestOppositePrice;
-        try {
-            readLock.lock();
-            if (ordSide == BUY) {
-                bestOppositePrice = this.getBestAskPrice();
-                if (genOrder.getOrdPx() < bestOppositePrice) {
-                    double finalBestOppositePrice = bestOppositePrice;
-                    log.debug("Price can't Match as Bid/BUY price {} is lower than best opposite price {}",
-                            genOrder::getOrdPx, () -> finalBestOppositePrice);
-                    bestOppositePrice = Double.NaN;
-                }
-            } else {
-                bestOppositePrice = this.getBestBidPrice();
-                if (genOrder.getOrdPx() > bestOppositePrice) {
-                    double finalBestOppositePrice = bestOppositePrice;
-                    log.debug("Price can't Match as Ask/SELL price {} is higher than best opposite price {}",
-                            genOrder::getOrdPx, () -> finalBestOppositePrice);
-                    bestOppositePrice = Double.NaN;
-                }
+        long bestOppositePrice = getBestOppositePriceUnits(genOrder, ordSide);
+        return bestOppositePrice == TopOfBook.NO_PRICE ? Double.NaN : symbol.toPrice(bestOppositePrice);
+    }
+
+    /**
+     * @return best opposite price in price units if the order's limit crosses it, TopOfBook.NO_PRICE otherwise
+     */
+    public long getBestOppositePriceUnits(GenOrder genOrder, Side ordSide) {
+        long bestOppositePrice;
+        if (ordSide == BUY) {
+            bestOppositePrice = topOfBook.getBestAskPrice();
+            if (bestOppositePrice == TopOfBook.NO_PRICE || genOrder.getOrdPxUnits() < bestOppositePrice) {
+                long finalBestOppositePrice = bestOppositePrice;
+                log.debug("Price can't Match as Bid/BUY price {} is lower than best opposite price {}",
+                        genOrder::getOrdPxUnits, () -> finalBestOppositePrice);
+                bestOppositePrice = TopOfBook.NO_PRICE;
             }
-            return bestOppositePrice;
+        } else {
+            bestOppositePrice = topOfBook.getBestBidPrice();
+            if (bestOppositePrice == TopOfBook.NO_PRICE || genOrder.getOrdPxUnits() > bestOppositePrice) {
+                long finalBestOppositePrice = bestOppositePrice;
+                log.debug("Price can't Match as Ask/SELL price {} is higher than best opposite price {}",
+                        genOrder::getOrdPxUnits, () -> finalBestOppositePrice);
+                bestOppositePrice = TopOfBook.NO_PRICE;
+            }
+        }
+        return bestOppositePrice;
+    }
+
+    public TopOfBook getTopOfBook() {
+        return topOfBook;
+    }
+
+    /**
+     * Lock free, consistent copy of best bid / ask price and size
+     */
+    public TopOfBook.Quote getQuote(TopOfBook.Quote quote) {
+        return topOfBook.read(quote);
+    }
+
+    public L2Feed getL2Feed() {
+        return l2Feed;
+    }
+
+    public L3Feed getL3Feed() {
+        return l3Feed;
+    }
+
+    /**
+     * Publishes a full L2 refresh now, for a new consumer of a book which may stay quiet for a while
+     */
+    public void publishL2Refresh() {
+        try {
+            writeLock.lock();
+            l2Feed.refresh(bidLadder, askLadder);
         } finally {
-            readLock.unlock();
+            writeLock.unlock();
         }
     }
 
+    private void publishTopOfBook() {
+        topOfBook.publish(bidLadder.best(), askLadder.best());
+    }
+
+    /**
+     * Keeps the level aggregate and top of book in line after a resting order was executed for fillQty
+     * @param fillQty in Symbol qty units
+     */
+    public void onFill(GenOrder genOrder, long fillQty) {
+        try {
+            writeLock.lock();
+            PriceLevel level = genOrder.getLevel();
+            if (null != level) {
+                level.onQtyChange(genOrder, genOrder.getLeavesQtyUnits() + fillQty);
+                l2Feed.onLevelChange(genOrder.getSide(), level, false, bidLadder, askLadder);
+                l3Feed.onExecute(genOrder, genOrder.getLastPriceUnits(), fillQty, bidLadder, askLadder);
+                publishTopOfBook();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
+    /**
+     * Replace of a resting order which keeps its time priority (same price, qty not increased)
+     */
+    public boolean amendInPlace(GenOrder genOrder, long newPx, long newQty) {
+        try {
+            writeLock.lock();
+            long leavesQtyBefore = genOrder.getLeavesQtyUnits();
+            if (!genOrder.replace(newPx, newQty)) {
+                return false;
+            }
+            PriceLevel level = genOrder.getLevel();
+            if (null != level) {
+                level.onQtyChange(genOrder, leavesQtyBefore);
+                l2Feed.onLevelChange(genOrder.getSide(), level, false, bidLadder, askLadder);
+                l3Feed.onModify(genOrder, bidLadder, askLadder);
+                publishTopOfBook();
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
     private boolean setAsk( GenOrder genOrder) {
         if( genOrder.getSide() != SELL ) {
@@ -128,21 +307,29 @@ public class OrderBook implements Serializable {
         }
         try {
             writeLock.lock();
-            List<GenOrder> genOrderList = askOrderSortedMap.computeIfAbsent(genOrder.getOrdPx(), k -> new ArrayList<>());
-            return setOrderToList(genOrderList, genOrder);
+            boolean isSet = setOrderToLevel(askLadder, genOrder);
+            publishTopOfBook();
+            return isSet;
         } finally {
             writeLock.unlock();
         }
     }
 
-    private boolean setOrderToList(List<GenOrder> genOrderList, GenOrder genOrder) {
+    private boolean setOrderToLevel(PriceLadder ladder, GenOrder genOrder) {
 
-        if(genOrderList.contains(genOrder)) {
-            log.error("Duplicate Ask order received {}" , ()-> genOrder);
+        if(null != genOrder.getLevel()) {
+            log.error("Duplicate {} order received {}" , ladder::getSide, ()-> genOrder);
             return false;
         }
         genOrder.setReceivedTS(DateUtils.getCurrentNanos());
-        return genOrderList.add(genOrder);
+        long price = genOrder.getOrdPxUnits();
+        PriceLevel level = ladder.getOrCreate(symbol.unitsToTicks(price), price);
+        if (!level.append(genOrder)) {
+            return false;
+        }
+        l2Feed.onLevelChange(ladder.getSide(), level, level.size() == 1, bidLadder, askLadder);
+        l3Feed.onAdd(genOrder, bidLadder, askLadder);
+        return true;
     }
 
     private boolean setBid(GenOrder genOrder) {
@@ -152,115 +339,279 @@ public class OrderBook implements Serializable {
                 log.error("Wrong side, only BUY can be set for bid eqOrder = {}" , ()-> genOrder);
                 return false;
             }
-            List<GenOrder> genOrderList = bidOrderSortedMap.computeIfAbsent(genOrder.getOrdPx(), k-> new ArrayList<>());
-            return setOrderToList(genOrderList, genOrder);
+            boolean isSet = setOrderToLevel(bidLadder, genOrder);
+            publishTopOfBook();
+            return isSet;
         }finally {
             writeLock.unlock();
         }
     }
 
+    /**
+     * @return copy of the best bid queue in time priority, matching walks the level itself
+     */
     public List<GenOrder> getBestBid() {
         try {
             readLock.lock();
-            if( bidOrderSortedMap.isEmpty() ) return new ArrayList<>();
-            List<GenOrder> bestBid = bidOrderSortedMap.get(bidOrderSortedMap.lastKey());
-            if(bestBid != null && !bestBid.isEmpty())
-                return bestBid;
-
-            while( !bidOrderSortedMap.isEmpty() ) {
-                bidOrderSortedMap.remove(bidOrderSortedMap.lastKey());
-                bestBid = bidOrderSortedMap.get(bidOrderSortedMap.lastKey());
-                if(bestBid != null && !bestBid.isEmpty())
-                    return bestBid;
-            }
+            PriceLevel bestBid = bidLadder.best();
+            return null != bestBid ? bestBid.getOrders() : new ArrayList<>();
         } finally {
             readLock.unlock();
         }
-        return new ArrayList<>();
     }
 
+    /**
+     * Lock free read of the published top of book, NaN when the side is empty
+     */
     public double getBestBidPrice() {
-        if (bidOrderSortedMap.isEmpty()) return Double.NaN;
-        return (bidOrderSortedMap.lastKey());
+        return toPrice(topOfBook.getBestBidPrice());
     }
 
     public boolean removeBid(GenOrder genOrder) {
         Objects.requireNonNull(genOrder);
-        if( bidOrderSortedMap.isEmpty() ) {
-            log.error(" fxBidOrderSortedMap is empty, potential indication of race condition bug, can't removed order {}" , ()-> genOrder);
+        return removeFromLadder(bidLadder, genOrder);
+    }
+
+    /**
+     * @return copy of the best ask queue in time priority, matching walks the level itself
+     */
+    public List<GenOrder> getBestAsk() {
+        try {
+            readLock.lock();
+            PriceLevel bestAsk = askLadder.best();
+            return null != bestAsk ? bestAsk.getOrders() : new ArrayList<>();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Lock free read of the published top of book, NaN when the side is empty
+     */
+    public double getBestAskPrice() {
+        return toPrice(topOfBook.getBestAskPrice());
+    }
+
+    private double toPrice(long priceUnits) {
+        return priceUnits == TopOfBook.NO_PRICE ? Double.NaN : symbol.toPrice(priceUnits);
+    }
+
+    public boolean removeAsk(GenOrder genOrder) {
+        Objects.requireNonNull(genOrder);
+        return removeFromLadder(askLadder, genOrder);
+    }
+
+    private boolean removeFromLadder(PriceLadder ladder, GenOrder genOrder) {
+        if( ladder.isEmpty() ) {
+            log.error(" {} ladder is empty, potential indication of race condition bug, can't removed order {}" ,
+                    ladder::getSide, ()-> genOrder);
             return false;
         }
         try {
             writeLock.lock();
-            List<GenOrder> fxoList = bidOrderSortedMap.computeIfPresent(genOrder.getOrdPx(), (px, fxol)-> {
-                fxol.removeIf(fxo -> fxo.equals(genOrder));
-                return fxol;
-            });
-            Double ordPxKey = genOrder.getOrdPx();
-            List<GenOrder> genOrderList = bidOrderSortedMap.get(ordPxKey);
-            if(genOrderList.isEmpty())
-                bidOrderSortedMap.remove(ordPxKey);
-            log.debug("After Removal, List of Bids on price {}, {} " , ordPxKey, genOrderList);
-            return null!=fxoList && !fxoList.contains(genOrder);
+            PriceLevel level = genOrder.getLevel();
+            if (null == level || ladder.get(level.getTick()) != level || !level.remove(genOrder)) {
+                log.debug("Order is not resting on {} ladder, nothing to remove {}", ladder::getSide, ()-> genOrder);
+                return false;
+            }
+            l2Feed.onLevelChange(ladder.getSide(), level, false, bidLadder, askLadder);
+            l3Feed.onDelete(genOrder, bidLadder, askLadder);
+            if (level.isEmpty()) {
+                ladder.remove(level);
+            }
+            publishTopOfBook();
+            log.debug("After Removal, {} orders left on {} price {}" , level::size, ladder::getSide, genOrder::getOrdPx);
+            return true;
         } finally {
             writeLock.unlock();
         }
+    }
 
+    /**
+     * Puts a resting order restored from a snapshot back on its level without matching, keeping its received time.
+     * Orders of one level must be restored in their original time priority
+     * @return false if an order with the same id is already on the book
+     */
+    public boolean restoreOrder(GenOrder genOrder) {
+        if (null != getOrder(genOrder.getOrderId())) {
+            return false;
+        }
+        long receivedTS = genOrder.getReceivedTS();
+        boolean isSet = setOrder(genOrder);
+        genOrder.setReceivedTS(receivedTS);
+        return isSet;
     }
 
-    public List<GenOrder> getBestAsk() {
+    /**
+     * Visits every resting order, bids then asks, each level in time priority.
+     * Consistent only on the matching thread of the book, which is the only writer
+     */
+    public void forEachRestingOrder(Consumer<GenOrder> consumer) {
         try {
             readLock.lock();
-            if( askOrderSortedMap.isEmpty() ) return new ArrayList<>();
-            List<GenOrder> bestAsk = askOrderSortedMap.get(askOrderSortedMap.firstKey());
-            if(bestAsk != null && !bestAsk.isEmpty())
-                return bestAsk;
-
-            while( !askOrderSortedMap.isEmpty() ) {
-                askOrderSortedMap.remove(askOrderSortedMap.firstKey());
-                bestAsk = askOrderSortedMap.get(askOrderSortedMap.firstKey());
-                if(bestAsk != null && !bestAsk.isEmpty())
-                    return bestAsk;
-            }
+            Consumer<PriceLevel> levelConsumer = level -> {
+                for (GenOrder genOrder = level.head(); null != genOrder; genOrder = genOrder.getNextInLevel()) {
+                    consumer.accept(genOrder);
+                }
+            };
+            bidLadder.forEachLevel(levelConsumer);
+            askLadder.forEachLevel(levelConsumer);
+        } finally {
+            readLock.unlock();
+        }
+    }
 
-            return new ArrayList<>();
+    /**
+     * Point in time copy of the bid ladder keyed by level price, for display and diagnostics only (not the hot path)
+     */
+    public SortedMap<Double, List<GenOrder>> getBidOrderSortedMap() {
+        return copyOf(bidLadder);
+    }
+
+    /**
+     * Point in time copy of the ask ladder keyed by level price, for display and diagnostics only (not the hot path)
+     */
+    public SortedMap<Double, List<GenOrder>> getAskOrderSortedMap() {
+        return copyOf(askLadder);
+    }
+
+    private SortedMap<Double, List<GenOrder>> copyOf(PriceLadder ladder) {
+        SortedMap<Double, List<GenOrder>> levels = new TreeMap<>();
+        try {
+            readLock.lock();
+            ladder.forEachLevel(level -> {
+                if (!level.isEmpty()) {
+                    levels.put(symbol.toPrice(level.getPrice()), level.getOrders());
+                }
+            });
         } finally {
             readLock.unlock();
         }
+        return levels;
+    }
 
+    public void processOrder(GenOrder genOrder) {
+        getEventRing().publishNew(this, genOrder);
     }
 
-    public double getBestAskPrice() {
-        if( askOrderSortedMap.isEmpty() ) return Double.NaN;
-        return (askOrderSortedMap.firstKey());
+    /**
+     * Sequences orders[from, to) back to back, see OrderEventRing.publishNewBatch
+     */
+    public void processOrders(GenOrder[] orders, int from, int to) {
+        getEventRing().publishNewBatch(this, orders, from, to);
     }
 
-    public boolean removeAsk(GenOrder genOrder) {
-        Objects.requireNonNull(genOrder);
-        if( askOrderSortedMap.isEmpty() ) {
-            log.error(" fxAskOrderSortedMap is empty, potential indication of race condition bug, can't removed order {}" , ()-> genOrder);
-            return false;
+    public void processCancel(long orderId) {
+        getEventRing().publishCancel(this, orderId);
+    }
+
+    public void processCancels(long[] orderIds, int from, int to) {
+        getEventRing().publishCancelBatch(this, orderIds, from, to);
+    }
+
+    /**
+     * @param newPx in Symbol price units
+     * @param newQty total order qty in Symbol qty units
+     */
+    public void processAmend(long orderId, long newPx, long newQty) {
+        getEventRing().publishAmend(this, orderId, newPx, newQty);
+    }
+
+    /**
+     * Sequences a purge of the closed orders, see purgeClosedOrders
+     */
+    public void processPurge() {
+        getEventRing().publishPurge(this);
+    }
+
+    private OrderEventRing getEventRing() {
+        OrderEventRing ring = eventRing;
+        if (null == ring) {
+            ring = MatchingShards.ringFor(symbol);
+            eventRing = ring;
         }
+        return ring;
+    }
+
+    /**
+     * Applies a sequenced event, only ever called on the matching thread of the shard owning this book
+     */
+    public void onEvent(OrderEvent orderEvent) {
+        switch (orderEvent.getType()) {
+            case NEW:
+                ExecutionReports.onNew(orderEvent.getGenOrder());
+                crossingProcessor.processOrder(orderEvent.getGenOrder());
+                break;
+            case CANCEL:
+                processCancelEvent(orderEvent.getOrderId());
+                break;
+            case AMEND:
+                crossingProcessor.processAmend(this, orderEvent.getOrderId(), orderEvent.getPrice(), orderEvent.getQty());
+                break;
+            case PURGE:
+                purgeClosedOrders();
+                break;
+            case RESET:
+                applyReset();
+                break;
+            default:
+                log.error("Unsupported event {} on book {}", orderEvent, symbol);
+        }
+    }
+
+    private void processCancelEvent(long orderId) {
+        GenOrder cancelled = cancelOrder(orderId);
+        if (null != cancelled) {
+            ExecutionReports.onCancel(cancelled);
+            return;
+        }
+        GenOrder genOrder = getOrder(orderId);
+        if (null != genOrder) {
+            ExecutionReports.onReject(genOrder, "Order is not resting, can't cancel");
+        }
+    }
+
+    /**
+     * Unlinks the resting order from its level, found through the order id index without any scan
+     * @return cancelled order, null if the order id is unknown or the order is no longer resting
+     */
+    public GenOrder cancelOrder(long orderId) {
         try {
             writeLock.lock();
-            List<GenOrder> fxoList = askOrderSortedMap.computeIfPresent(genOrder.getOrdPx(), (px, fxol) -> {
-                fxol.removeIf(fxo -> fxo.equals(genOrder));
-                return fxol;
-            });
-            Double ordPxKey = genOrder.getOrdPx();
-            List<GenOrder> genOrderList = askOrderSortedMap.get(ordPxKey);
-            if (genOrderList.isEmpty()) {
-                askOrderSortedMap.remove(ordPxKey);
+            GenOrder genOrder = orderIndex.get(orderId);
+            if (null == genOrder || null == genOrder.getLevel()) {
+                log.warn("Can't cancel, order id {} is not resting on book {}", orderId, symbol);
+                return null;
             }
-            log.debug("After Removal, List of Asks on price {}, {} ", ordPxKey, genOrderList);
-            return null != fxoList && !fxoList.contains(genOrder);
+            removeOrder(genOrder);
+            genOrder.cancel();
+            log.debug("Cancelled order id {}, clOrdId {}", orderId, genOrder.getClientOrderId());
+            return genOrder;
         } finally {
             writeLock.unlock();
         }
     }
 
-    public void processOrder(GenOrder genOrder) {
-        executorForCrossing.execute(()->crossingProcessor.processOrder(genOrder));
+    /**
+     * Drops closed (filled / cancelled) orders from the order id index and releases them, pooled ones go back to
+     * OrderPools with their trades. Must run on the matching thread: MatchingShards publishes it periodically (see
+     * processPurge), the crossing runs it when the trade pool runs dry. Orders built for clients are not pooled,
+     * a reference kept by a client stays valid.
+     * @return number of orders released
+     */
+    public int purgeClosedOrders() {
+        try {
+            writeLock.lock();
+            return orderIndex.removeAll((orderId, genOrder) -> {
+                if (genOrder.isClosed() && null == genOrder.getLevel()) {
+                    genOrder.release();
+                    return true;
+                }
+                return false;
+            });
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     public boolean removeOrder(GenOrder genOrder) {
@@ -274,11 +625,25 @@ public class OrderBook implements Serializable {
     }
 
     public Collection<GenOrder> getOrderHistory() {
-        return this.orderHistory.values();
+        try {
+            readLock.lock();
+            List<GenOrder> history = new ArrayList<>(orderIndex.size());
+            for (ObjectCursor<GenOrder> cursor : orderIndex.values()) {
+                history.add(cursor.value);
+            }
+            return history;
+        } finally {
+            readLock.unlock();
+        }
     }
 
-    public GenOrder getOrder(Long orderId) {
-        return this.orderHistory.get(orderId);
+    public GenOrder getOrder(long orderId) {
+        try {
+            readLock.lock();
+            return this.orderIndex.get(orderId);
+        } finally {
+            readLock.unlock();
+        }
     }
 
     @Override
@@ -306,12 +671,39 @@ public class OrderBook implements Serializable {
         }
     }
 
+    /**
+     * Empties the book, releases every order it knows, resting or closed, pooled ones back to OrderPools, and starts
+     * a new trading session of its trade store and statistics. Sequenced on the matching thread like any other event,
+     * returns once applied; called on the book's own matching thread, which could never consume the event it waits
+     * for, it is applied inline.
+     */
     public void reset() {
+        OrderEventRing ring = getEventRing();
+        if (ring.isMatchingThread()) {
+            applyReset();
+            return;
+        }
+        long sequence = ring.publishReset(this);
+        while (ring.getConsumedSequence() < sequence) {
+            LockSupport.parkNanos(RESET_WAIT_NANOS);
+        }
+    }
+
+    private void applyReset() {
         try {
             writeLock.lock();
-            orderHistory.clear();
-            askOrderSortedMap.clear();
-            bidOrderSortedMap.clear();
+            Collection<GenOrder> released = getOrderHistory();
+            orderIndex.clear();
+            askLadder.clear();
+            bidLadder.clear();
+            for (GenOrder genOrder : released) {
+                genOrder.release();
+            }
+            l2Feed.refresh(bidLadder, askLadder);
+            l3Feed.refresh(bidLadder, askLadder);
+            publishTopOfBook();
+            tradeStore.reset();
+            tradeStatistics.reset();
         } finally {
             writeLock.unlock();
         }
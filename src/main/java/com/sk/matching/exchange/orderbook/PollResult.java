@@ -0,0 +1,10 @@
+package com.sk.matching.exchange.orderbook;
+
+/**
+ * Outcome of polling a market data feed reader
+ */
+public enum PollResult {
+    UPDATE,     //The update was filled in
+    NONE,       //Nothing new
+    GAP         //Updates were overwritten before they were read, re-sync from the next full refresh
+}
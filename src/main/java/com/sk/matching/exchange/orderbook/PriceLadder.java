@@ -0,0 +1,281 @@
+package com.sk.matching.exchange.orderbook;
+
+import com.sk.matching.types.Side;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static com.sk.matching.types.Side.BUY;
+
+/**
+ * One side of an order book, levels keyed by price normalised to long ticks.
+ *
+ * Nearly all flow lands a few ticks around the touch, so levels inside a fixed window of ticks are held in a plain
+ * array indexed by (tick - baseTick) with an occupancy bitmap, making level lookup/insert O(1) and the next best
+ * level a scan of a few 64 bit words. Prices outside the window fall back to a sorted map.
+ * The window is re-centred on the best price whenever the best price leaves it, occupied levels migrating between
+ * the array and the map, so the touch stays on the array path however far prices drift.
+ *
+ * Not thread safe, all mutations are expected under the owning book's write lock.
+ */
+public class PriceLadder {
+
+    public static final int DEFAULT_WINDOW_TICKS = 4096;
+
+    private final Side side;
+    private final int windowTicks;
+    private final PriceLevel[] window;
+    private final long[] occupied;  //One bit per window slot holding an active level
+    private final PriceLevel[] migrating;   //Scratch of the window levels while re-centring
+    private long baseTick;
+    private int windowLevelCount;
+
+    private final NavigableMap<Long, PriceLevel> farLevels = new TreeMap<>();
+
+    //Emptied levels are recycled to keep level churn at the touch allocation free
+    private final Deque<PriceLevel> spareLevels = new ArrayDeque<>();
+
+    private PriceLevel best;
+
+    public PriceLadder(Side side) {
+        this(side, DEFAULT_WINDOW_TICKS);
+    }
+
+    public PriceLadder(Side side, int windowTicks) {
+        if (windowTicks < Long.SIZE || Integer.bitCount(windowTicks) != 1) {
+            throw new IllegalArgumentException("Ladder window must be a power of two of at least 64 ticks " + windowTicks);
+        }
+        this.side = side;
+        this.windowTicks = windowTicks;
+        this.window = new PriceLevel[windowTicks];
+        this.occupied = new long[windowTicks >>> 6];
+        this.migrating = new PriceLevel[windowTicks];
+    }
+
+    public Side getSide() {
+        return side;
+    }
+
+    /**
+     * @return existing level at the tick or a newly activated one
+     */
+    public PriceLevel getOrCreate(long tick, long price) {
+        if (windowLevelCount == 0 || !inWindow(tick) && (best == null || isBetter(tick, best.getTick()))) {
+            recentre(tick);
+        }
+        PriceLevel level;
+        if (inWindow(tick)) {
+            int idx = (int) (tick - baseTick);
+            level = window[idx];
+            if (level == null) {
+                level = newLevel(tick, price);
+                window[idx] = level;
+                setOccupied(idx);
+                windowLevelCount++;
+            }
+        } else {
+            level = farLevels.get(tick);
+            if (level == null) {
+                level = newLevel(tick, price);
+                farLevels.put(tick, level);
+            }
+        }
+        if (best == null || isBetter(tick, best.getTick())) {
+            best = level;
+        }
+        return level;
+    }
+
+    public PriceLevel get(long tick) {
+        if (inWindow(tick)) {
+            return window[(int) (tick - baseTick)];
+        }
+        return farLevels.get(tick);
+    }
+
+    /**
+     * Detaches the level from the ladder, recycling it and moving best to the next level if required
+     */
+    public void remove(PriceLevel level) {
+        long tick = level.getTick();
+        int fromIdx;
+        if (inWindow(tick) && window[(int) (tick - baseTick)] == level) {
+            fromIdx = (int) (tick - baseTick);
+            window[fromIdx] = null;
+            clearOccupied(fromIdx);
+            windowLevelCount--;
+        } else if (farLevels.remove(tick, level)) {
+            fromIdx = side == BUY ? windowTicks - 1 : 0;
+        } else {
+            return;
+        }
+        if (level == best) {
+            best = findBest(fromIdx);
+            if (best != null && !inWindow(best.getTick())) {
+                recentre(best.getTick());
+            }
+        }
+        recycle(level);
+    }
+
+    public PriceLevel best() {
+        return best;
+    }
+
+    public boolean isEmpty() {
+        return best == null;
+    }
+
+    public int levelCount() {
+        return windowLevelCount + farLevels.size();
+    }
+
+    /**
+     * @return levels held in the sorted map outside the window, for diagnostics
+     */
+    public int farLevelCount() {
+        return farLevels.size();
+    }
+
+    /**
+     * Visits every active level, in no particular order
+     */
+    public void forEachLevel(Consumer<PriceLevel> consumer) {
+        for (int idx = nextSetBit(0); idx >= 0; idx = nextSetBit(idx + 1)) {
+            consumer.accept(window[idx]);
+        }
+        farLevels.values().forEach(consumer);
+    }
+
+    public void clear() {
+        for (int idx = nextSetBit(0); idx >= 0; idx = nextSetBit(idx + 1)) {
+            recycle(window[idx]);
+            window[idx] = null;
+        }
+        for (PriceLevel level : farLevels.values()) {
+            recycle(level);
+        }
+        farLevels.clear();
+        Arrays.fill(occupied, 0L);
+        windowLevelCount = 0;
+        best = null;
+    }
+
+    private boolean isBetter(long tick, long thanTick) {
+        return side == BUY ? tick > thanTick : tick < thanTick;
+    }
+
+    private boolean inWindow(long tick) {
+        return tick >= baseTick && tick - baseTick < windowTicks;
+    }
+
+    /**
+     * Centres the window on the tick, window levels falling outside move to the sorted map
+     */
+    private void recentre(long tick) {
+        int count = 0;
+        for (int idx = nextSetBit(0); idx >= 0; idx = nextSetBit(idx + 1)) {
+            migrating[count++] = window[idx];
+            window[idx] = null;
+        }
+        Arrays.fill(occupied, 0L);
+        windowLevelCount = 0;
+        baseTick = tick - (windowTicks >>> 1);
+        for (int i = 0; i < count; i++) {
+            PriceLevel level = migrating[i];
+            migrating[i] = null;
+            if (inWindow(level.getTick())) {
+                int idx = (int) (level.getTick() - baseTick);
+                window[idx] = level;
+                setOccupied(idx);
+                windowLevelCount++;
+            } else {
+                farLevels.put(level.getTick(), level);
+            }
+        }
+        if (farLevels.isEmpty()) return;
+        //Pull far levels which now fall inside the window so that a tick is never held in both places
+        Iterator<PriceLevel> farIterator = farLevels.subMap(baseTick, true, baseTick + windowTicks, false)
+                .values().iterator();
+        while (farIterator.hasNext()) {
+            PriceLevel level = farIterator.next();
+            farIterator.remove();
+            int idx = (int) (level.getTick() - baseTick);
+            window[idx] = level;
+            setOccupied(idx);
+            windowLevelCount++;
+        }
+    }
+
+    private PriceLevel findBest(int fromIdx) {
+        PriceLevel windowBest = null;
+        if (windowLevelCount > 0) {
+            int idx = side == BUY ? prevSetBit(fromIdx) : nextSetBit(fromIdx);
+            windowBest = idx >= 0 ? window[idx] : null;
+        }
+        if (farLevels.isEmpty()) {
+            return windowBest;
+        }
+        PriceLevel farBest = farLevels.get(side == BUY ? farLevels.lastKey() : farLevels.firstKey());
+        if (windowBest == null || isBetter(farBest.getTick(), windowBest.getTick())) {
+            return farBest;
+        }
+        return windowBest;
+    }
+
+    private PriceLevel newLevel(long tick, long price) {
+        PriceLevel level = spareLevels.pollFirst();
+        if (level == null) {
+            level = new PriceLevel();
+        }
+        level.activate(tick, price);
+        return level;
+    }
+
+    private void recycle(PriceLevel level) {
+        level.clear();
+        if (spareLevels.size() < windowTicks) {
+            spareLevels.addFirst(level);
+        }
+    }
+
+    private void setOccupied(int idx) {
+        occupied[idx >>> 6] |= 1L << idx;
+    }
+
+    private void clearOccupied(int idx) {
+        occupied[idx >>> 6] &= ~(1L << idx);
+    }
+
+    private int nextSetBit(int fromIdx) {
+        if (fromIdx >= windowTicks) return -1;
+        int wordIdx = fromIdx >>> 6;
+        long word = occupied[wordIdx] & (-1L << fromIdx);
+        while (true) {
+            if (word != 0) {
+                return (wordIdx << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIdx == occupied.length) return -1;
+            word = occupied[wordIdx];
+        }
+    }
+
+    private int prevSetBit(int fromIdx) {
+        if (fromIdx < 0) return -1;
+        int wordIdx = fromIdx >>> 6;
+        long word = occupied[wordIdx] & (-1L >>> (63 - (fromIdx & 63)));
+        while (true) {
+            if (word != 0) {
+                return (wordIdx << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (wordIdx-- == 0) return -1;
+            word = occupied[wordIdx];
+        }
+    }
+
+}
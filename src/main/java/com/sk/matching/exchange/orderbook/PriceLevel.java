@@ -0,0 +1,188 @@
+package com.sk.matching.exchange.orderbook;
+
+import com.sk.matching.exchange.order.GenOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All resting orders of one side at one price, kept in arrival (time priority) sequence.
+ *
+ * The queue is intrusive, prev/next links live on the GenOrder itself, so append, head pop and removal of any
+ * order are O(1) whatever the depth of the level. Level objects are owned and recycled by {@link PriceLadder},
+ * never shared across books. Not thread safe, callers hold the book write lock.
+ */
+public class PriceLevel {
+
+    private long tick;
+    private long price;     //Symbol price units
+
+    private GenOrder head;
+    private GenOrder tail;
+    private int orderCount;
+    private long totalQty;      //Aggregate leaves qty of the queue, Symbol qty units
+    private long displayedQty;  //Aggregate displayed qty, icebergs counted up to their visible qty only
+
+    void activate(long tick, long price) {
+        this.tick = tick;
+        this.price = price;
+    }
+
+    void clear() {
+        GenOrder genOrder = head;
+        while (null != genOrder) {
+            GenOrder next = genOrder.getNextInLevel();
+            unlink(genOrder);
+            genOrder = next;
+        }
+        head = null;
+        tail = null;
+        orderCount = 0;
+        totalQty = 0L;
+        displayedQty = 0L;
+    }
+
+    /**
+     * Appends the order at the back of the queue
+     * @return false if the order already rests on a level
+     */
+    public boolean append(GenOrder genOrder) {
+        if (null != genOrder.getLevel()) {
+            return false;
+        }
+        genOrder.setLevel(this);
+        genOrder.setPrevInLevel(tail);
+        genOrder.setNextInLevel(null);
+        if (null == tail) {
+            head = genOrder;
+        } else {
+            tail.setNextInLevel(genOrder);
+        }
+        tail = genOrder;
+        orderCount++;
+        totalQty += genOrder.getLeavesQtyUnits();
+        displayedQty += displayQty(genOrder);
+        return true;
+    }
+
+    /**
+     * Unlinks the order from wherever it sits in the queue
+     * @return false if the order does not rest on this level
+     */
+    public boolean remove(GenOrder genOrder) {
+        if (genOrder.getLevel() != this) {
+            return false;
+        }
+        GenOrder prev = genOrder.getPrevInLevel();
+        GenOrder next = genOrder.getNextInLevel();
+        if (null == prev) {
+            head = next;
+        } else {
+            prev.setNextInLevel(next);
+        }
+        if (null == next) {
+            tail = prev;
+        } else {
+            next.setPrevInLevel(prev);
+        }
+        unlink(genOrder);
+        orderCount--;
+        totalQty = orderCount == 0 ? 0L : totalQty - genOrder.getLeavesQtyUnits();
+        displayedQty = orderCount == 0 ? 0L : displayedQty - displayQty(genOrder);
+        return true;
+    }
+
+    /**
+     * @return the order with time priority, null if the level is empty
+     */
+    public GenOrder head() {
+        return head;
+    }
+
+    public GenOrder pollHead() {
+        GenOrder genOrder = head;
+        if (null != genOrder) {
+            remove(genOrder);
+        }
+        return genOrder;
+    }
+
+    /**
+     * Keeps the aggregates in line when a resting order's leaves qty changes in place (fill, amend down)
+     * @param leavesQtyBefore leaves qty of the order before the change, Symbol qty units
+     */
+    void onQtyChange(GenOrder genOrder, long leavesQtyBefore) {
+        totalQty += genOrder.getLeavesQtyUnits() - leavesQtyBefore;
+        displayedQty += displayQty(genOrder) - displayQty(leavesQtyBefore, genOrder.getVisibleQtyUnits());
+    }
+
+    /**
+     * @return displayed part of the order's leaves qty, capped at the visible qty of an iceberg
+     */
+    static long displayQty(GenOrder genOrder) {
+        return displayQty(genOrder.getLeavesQtyUnits(), genOrder.getVisibleQtyUnits());
+    }
+
+    private static long displayQty(long leavesQty, long visibleQty) {
+        return visibleQty == GenOrder.NO_QTY ? leavesQty : Math.min(leavesQty, visibleQty);
+    }
+
+    private static void unlink(GenOrder genOrder) {
+        genOrder.setLevel(null);
+        genOrder.setPrevInLevel(null);
+        genOrder.setNextInLevel(null);
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * @return level price in Symbol price units
+     */
+    public long getPrice() {
+        return price;
+    }
+
+    /**
+     * @return leaves qty of the queue including iceberg reserves, Symbol qty units
+     */
+    public long getTotalQty() {
+        return totalQty;
+    }
+
+    /**
+     * @return qty the market sees on the level, iceberg reserves excluded, Symbol qty units
+     */
+    public long getDisplayedQty() {
+        return displayedQty;
+    }
+
+    public int size() {
+        return orderCount;
+    }
+
+    public boolean isEmpty() {
+        return null == head;
+    }
+
+    /**
+     * @return copy of the queue in time priority, for display and diagnostics only
+     */
+    public List<GenOrder> getOrders() {
+        List<GenOrder> orders = new ArrayList<>(orderCount);
+        for (GenOrder genOrder = head; null != genOrder; genOrder = genOrder.getNextInLevel()) {
+            orders.add(genOrder);
+        }
+        return orders;
+    }
+
+    @Override
+    public String toString() {
+        return "PriceLevel{" +
+                "tick=" + tick +
+                ", price=" + price +
+                ", orders=" + orderCount +
+                '}';
+    }
+}
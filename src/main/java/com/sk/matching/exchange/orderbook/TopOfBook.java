@@ -0,0 +1,110 @@
+package com.sk.matching.exchange.orderbook;
+
+import com.sk.matching.util.SeqLock;
+
+/**
+ * Best bid / ask price and size of one book, published by the book writer through a {@link SeqLock}.
+ *
+ * The writer bumps the version to odd, stores the fields and bumps it back to even. Readers (risk, market data,
+ * display, any thread) never lock: they read the version, the fields and the version again and simply retry if
+ * a write was in progress or happened in between, i.e. on a torn read.
+ * A single writer at a time is required, the book publishes while holding its write lock.
+ * Prices and sizes are fixed point, in the book Symbol's price / qty units, sizes are the displayed qty of the level
+ * (iceberg reserves excluded).
+ */
+public class TopOfBook {
+
+    private final SeqLock seqLock = new SeqLock();
+
+    public static final long NO_PRICE = Long.MIN_VALUE;  //Side is empty
+
+    private long bidPx = NO_PRICE;
+    private long bidQty;
+    private int bidOrders;
+    private long askPx = NO_PRICE;
+    private long askQty;
+    private int askOrders;
+
+    /**
+     * Reader side copy of a consistent top of book, re-usable by the caller to keep reads allocation free
+     */
+    public static class Quote {
+        public long version;
+        public long bidPx = NO_PRICE;
+        public long bidQty;
+        public int bidOrders;
+        public long askPx = NO_PRICE;
+        public long askQty;
+        public int askOrders;
+
+        @Override
+        public String toString() {
+            return "Quote{" +
+                    "version=" + version +
+                    ", bid=" + bidQty + "@" + bidPx + "(" + bidOrders + ")" +
+                    ", ask=" + askQty + "@" + askPx + "(" + askOrders + ")" +
+                    '}';
+        }
+    }
+
+    void publish(PriceLevel bestBid, PriceLevel bestAsk) {
+        seqLock.beginWrite();
+        bidPx = null != bestBid ? bestBid.getPrice() : NO_PRICE;
+        bidQty = null != bestBid ? bestBid.getDisplayedQty() : 0L;
+        bidOrders = null != bestBid ? bestBid.size() : 0;
+        askPx = null != bestAsk ? bestAsk.getPrice() : NO_PRICE;
+        askQty = null != bestAsk ? bestAsk.getDisplayedQty() : 0L;
+        askOrders = null != bestAsk ? bestAsk.size() : 0;
+        seqLock.endWrite();
+    }
+
+    /**
+     * Copies a consistent top of book into the given quote, never blocks the writer
+     * @return the quote passed in
+     */
+    public Quote read(Quote quote) {
+        long v;
+        do {
+            v = seqLock.beginRead();
+            quote.bidPx = bidPx;
+            quote.bidQty = bidQty;
+            quote.bidOrders = bidOrders;
+            quote.askPx = askPx;
+            quote.askQty = askQty;
+            quote.askOrders = askOrders;
+        } while (!seqLock.validate(v));
+        quote.version = v;
+        return quote;
+    }
+
+    /**
+     * @return best bid in price units, NO_PRICE when the side is empty
+     */
+    public long getBestBidPrice() {
+        long v;
+        long px;
+        do {
+            v = seqLock.beginRead();
+            px = bidPx;
+        } while (!seqLock.validate(v));
+        return px;
+    }
+
+    /**
+     * @return best ask in price units, NO_PRICE when the side is empty
+     */
+    public long getBestAskPrice() {
+        long v;
+        long px;
+        do {
+            v = seqLock.beginRead();
+            px = askPx;
+        } while (!seqLock.validate(v));
+        return px;
+    }
+
+    public long getVersion() {
+        return seqLock.getVersion();
+    }
+
+}
@@ -0,0 +1,244 @@
+package com.sk.matching.exchange.sequencer;
+
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.journal.OrderJournal;
+import com.sk.matching.symbols.Symbol;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed set of matching threads, each draining one {@link OrderEventRing} and owning a disjoint set of order books.
+ *
+ * Thread count is sized to the physical cores (app-cfg.matching-threads) instead of one thread per symbol, a book is
+ * only ever touched by the thread of its shard which keeps its data hot in that core's cache.
+ * Symbols are assigned round robin in reference data load order at startup, see MatchingEngineBootstrap;
+ * a symbol never seen at startup is assigned on first use. Rings are started on first use.
+ * Once journaling is enabled every shard's matching thread journals each event right before applying it.
+ * A purge of the closed orders is published on every book periodically (app-cfg.order-purge-interval-millis), so the
+ * orders and trades borrowed from OrderPools go back to them.
+ */
+@Log4j2
+public final class MatchingShards {
+
+    private static final Map<Symbol, Integer> shardBySymbol = new ConcurrentHashMap<>();
+
+    private static int shardCount = Runtime.getRuntime().availableProcessors();
+    private static int ringSize = OrderEventRing.DEFAULT_RING_SIZE;
+    private static int nextShard = 0;
+
+    private static volatile OrderEventRing[] rings;
+    private static volatile OrderJournal[] journals;    //One per shard, null while journaling is off
+    private static volatile ShardSnapshotHandler snapshotHandler;
+    private static volatile long purgeIntervalMillis;
+    private static Thread purgeThread;
+
+    private MatchingShards() {
+    }
+
+    /**
+     * Sets thread count and ring size, non positive values keep the defaults.
+     * Only effective before the first ring is started, later calls are ignored.
+     */
+    public static synchronized void configure(int matchingThreads, int ringBufferSize) {
+        int newShardCount = matchingThreads > 0 ? matchingThreads : shardCount;
+        int newRingSize = ringBufferSize > 0 ? ringBufferSize : ringSize;
+        if (null != rings) {
+            if (newShardCount != shardCount || newRingSize != ringSize) {
+                log.warn("Matching shards already started with {} threads and ring size {}, ignoring {} / {}",
+                        shardCount, ringSize, newShardCount, newRingSize);
+            }
+            return;
+        }
+        shardCount = newShardCount;
+        ringSize = newRingSize;
+        log.info("Matching shards configured with {} threads and ring size {}", shardCount, ringSize);
+    }
+
+    /**
+     * Assigns, round robin in the given order, every symbol which has no shard yet
+     */
+    public static synchronized void assign(Collection<Symbol> symbols) {
+        for (Symbol symbol : symbols) {
+            shardOf(symbol);
+        }
+    }
+
+    public static synchronized int shardOf(Symbol symbol) {
+        Integer shard = shardBySymbol.get(symbol);
+        if (null == shard) {
+            shard = nextShard++ % shardCount;
+            shardBySymbol.put(symbol, shard);
+            log.info("Symbol {} assigned to matching shard {}", symbol.getName(), shard);
+        }
+        return shard;
+    }
+
+    /**
+     * Read only lookup, never assigns nor locks, safe on the matching threads
+     * @return shard of the symbol, -1 if it has none yet
+     */
+    public static int findShard(Symbol symbol) {
+        Integer shard = shardBySymbol.get(symbol);
+        return null == shard ? -1 : shard;
+    }
+
+    /**
+     * @return ring of the shard owning the symbol's book, starting the shard threads if not yet running
+     */
+    public static OrderEventRing ringFor(Symbol symbol) {
+        OrderEventRing[] started = rings;
+        if (null == started) {
+            started = start();
+        }
+        return started[shardOf(symbol) % started.length];
+    }
+
+    public static synchronized int getShardCount() {
+        return shardCount;
+    }
+
+    private static synchronized OrderEventRing[] start() {
+        if (null == rings) {
+            OrderEventRing[] newRings = new OrderEventRing[shardCount];
+            for (int shard = 0; shard < shardCount; shard++) {
+                int owner = shard;
+                newRings[shard] = new OrderEventRing("shard-" + shard, ringSize, event -> dispatch(owner, event));
+            }
+            rings = newRings;
+        }
+        return rings;
+    }
+
+    private static void dispatch(int shard, OrderEvent orderEvent) {
+        OrderJournal[] shardJournals = journals;
+        if (orderEvent.getType() == OrderEventType.SNAPSHOT) {
+            ShardSnapshotHandler handler = snapshotHandler;
+            if (null != handler) {
+                handler.onSnapshot(shard, rings.length, orderEvent.getSnapshotId(),
+                        null != shardJournals ? shardJournals[shard] : null);
+            }
+            return;
+        }
+        if (null != shardJournals) {
+            shardJournals[shard].append(orderEvent);    //Journaled before it reaches the book, failure drops the event
+        }
+        orderEvent.getBook().onEvent(orderEvent);
+    }
+
+    /**
+     * Starts journaling every shard into new segment files of the given generation, see OrderJournal
+     */
+    public static synchronized void enableJournal(Path dir, long generation, int segmentSize) throws IOException {
+        if (null != journals) {
+            log.warn("Journal already enabled, ignoring {}", dir);
+            return;
+        }
+        Files.createDirectories(dir);
+        OrderJournal[] newJournals = new OrderJournal[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            newJournals[shard] = new OrderJournal(dir, generation, shard, segmentSize);
+        }
+        journals = newJournals;
+        log.info("Journaling {} matching shards into {}, generation {}", shardCount, dir, generation);
+    }
+
+    public static void setSnapshotHandler(ShardSnapshotHandler handler) {
+        snapshotHandler = handler;
+    }
+
+    /**
+     * Publishes a snapshot point on every shard, each matching thread handles it between two events
+     * @return number of shards, i.e. of shard snapshots to expect
+     */
+    public static int requestSnapshot(long snapshotId) {
+        OrderEventRing[] started = rings;
+        if (null == started) {
+            started = start();
+        }
+        for (OrderEventRing ring : started) {
+            ring.publishSnapshot(snapshotId);
+        }
+        return started.length;
+    }
+
+    /**
+     * Flushes the journal of every shard to the storage device
+     */
+    public static void forceJournal() {
+        OrderJournal[] shardJournals = journals;
+        if (null != shardJournals) {
+            for (OrderJournal journal : shardJournals) {
+                journal.force();
+            }
+        }
+    }
+
+    /**
+     * Publishes a purge of the closed orders on every book at this interval, a new interval applies at once.
+     * 0 or less stops purging
+     */
+    public static synchronized void schedulePurge(long intervalMillis) {
+        purgeIntervalMillis = Math.max(0L, intervalMillis);
+        if (purgeIntervalMillis > 0 && null == purgeThread) {
+            purgeThread = new Thread(MatchingShards::purge, "order-purge");
+            purgeThread.setDaemon(true);
+            purgeThread.start();
+            log.info("Purging closed orders every {} ms", purgeIntervalMillis);
+        } else if (null != purgeThread) {
+            LockSupport.unpark(purgeThread);
+        }
+    }
+
+    private static void purge() {
+        while (true) {
+            long interval = purgeIntervalMillis;
+            if (interval <= 0) {
+                synchronized (MatchingShards.class) {
+                    if (purgeIntervalMillis <= 0) {
+                        purgeThread = null;
+                        log.info("Purging of closed orders stopped");
+                        return;
+                    }
+                }
+                continue;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(interval));
+            if (purgeIntervalMillis > 0) {
+                for (OrderBook book : OrderBook.getBooks()) {
+                    book.processPurge();
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until every event published so far on any shard has been handled
+     * @return false on timeout
+     */
+    public static boolean awaitDrained(long timeoutMillis) {
+        OrderEventRing[] started = rings;
+        if (null == started) {
+            return true;
+        }
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (OrderEventRing ring : started) {
+            long target = ring.getClaimedSequence();
+            while (ring.getConsumedSequence() < target) {
+                if (System.currentTimeMillis() > deadline) {
+                    return false;
+                }
+                LockSupport.parkNanos(100_000L);
+            }
+        }
+        return true;
+    }
+
+}
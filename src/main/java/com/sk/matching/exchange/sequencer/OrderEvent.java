@@ -0,0 +1,108 @@
+package com.sk.matching.exchange.sequencer;
+
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.orderbook.OrderBook;
+
+/**
+ * Pre-allocated, re-used slot of the {@link OrderEventRing}.
+ * Fields are written by the claiming producer before publication and read by the matching thread after it,
+ * the ring's sequence publication provides the happens-before edge.
+ */
+public class OrderEvent {
+
+    private OrderEventType type;
+    private OrderBook book;
+    private GenOrder genOrder;
+    private long orderId;
+    private long price;     //Symbol price units
+    private long qty;       //Symbol qty units
+    private long snapshotId;
+
+    void setNew(OrderBook book, GenOrder genOrder) {
+        this.type = OrderEventType.NEW;
+        this.book = book;
+        this.genOrder = genOrder;
+        this.orderId = genOrder.getOrderId();
+    }
+
+    void setCancel(OrderBook book, long orderId) {
+        this.type = OrderEventType.CANCEL;
+        this.book = book;
+        this.orderId = orderId;
+    }
+
+    void setAmend(OrderBook book, long orderId, long price, long qty) {
+        this.type = OrderEventType.AMEND;
+        this.book = book;
+        this.orderId = orderId;
+        this.price = price;
+        this.qty = qty;
+    }
+
+    void setPurge(OrderBook book) {
+        this.type = OrderEventType.PURGE;
+        this.book = book;
+    }
+
+    void setReset(OrderBook book) {
+        this.type = OrderEventType.RESET;
+        this.book = book;
+    }
+
+    void setSnapshot(long snapshotId) {
+        this.type = OrderEventType.SNAPSHOT;
+        this.snapshotId = snapshotId;
+    }
+
+    /**
+     * Drops the references once consumed so the ring does not keep orders reachable
+     */
+    void clear() {
+        this.type = null;
+        this.book = null;
+        this.genOrder = null;
+        this.orderId = Long.MIN_VALUE;
+        this.price = 0L;
+        this.qty = 0L;
+        this.snapshotId = 0L;
+    }
+
+    public OrderEventType getType() {
+        return type;
+    }
+
+    public OrderBook getBook() {
+        return book;
+    }
+
+    public GenOrder getGenOrder() {
+        return genOrder;
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public long getPrice() {
+        return price;
+    }
+
+    public long getQty() {
+        return qty;
+    }
+
+    public long getSnapshotId() {
+        return snapshotId;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderEvent{" +
+                "type=" + type +
+                ", book=" + (null != book ? book.getSymbol().getName() : null) +
+                ", orderId=" + orderId +
+                ", price=" + price +
+                ", qty=" + qty +
+                '}';
+    }
+}
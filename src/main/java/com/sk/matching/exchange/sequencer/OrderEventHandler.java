@@ -0,0 +1,11 @@
+package com.sk.matching.exchange.sequencer;
+
+/**
+ * Consumer side of the {@link OrderEventRing}, always called on the ring's single matching thread
+ */
+@FunctionalInterface
+public interface OrderEventHandler {
+
+    void onEvent(OrderEvent orderEvent);
+
+}
@@ -0,0 +1,228 @@
+package com.sk.matching.exchange.sequencer;
+
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import lombok.extern.log4j.Log4j2;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pre-allocated, power of two ring of {@link OrderEvent} slots drained by a single matching thread.
+ *
+ * Any number of gateway threads claim a sequence with one atomic increment, fill the slot in place and publish it
+ * by storing the sequence into the slot's publication marker. The matching thread consumes strictly in sequence
+ * order, so events reach the book in arrival order with a single hand-off and no per event allocation.
+ * A producer that laps the consumer spins until the slot is released, i.e. a full ring applies back pressure.
+ * Batches claim a contiguous run of sequences with one atomic add, so they are handled back to back.
+ */
+@Log4j2
+public class OrderEventRing {
+
+    public static final int DEFAULT_RING_SIZE = 1 << 14;
+
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int SPIN_TRIES = 1_000;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 50_000L;
+
+    private final String name;
+    private final int mask;
+    private final OrderEvent[] events;
+    private final long[] published;     //Sequence last published in each slot
+    private final AtomicLong claimSequence = new AtomicLong(-1);
+    private final AtomicLong consumerSequence = new AtomicLong(-1);
+
+    private final OrderEventHandler handler;
+    private final Thread matchingThread;
+    private volatile boolean running = true;
+
+    public OrderEventRing(String name, int size, OrderEventHandler handler) {
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two " + size);
+        }
+        this.name = name;
+        this.mask = size - 1;
+        this.events = new OrderEvent[size];
+        for (int i = 0; i < size; i++) {
+            events[i] = new OrderEvent();
+        }
+        this.published = new long[size];
+        Arrays.fill(published, -1L);
+        this.handler = handler;
+        this.matchingThread = new Thread(this::consume, "matching-" + name);
+        this.matchingThread.setDaemon(true);
+        this.matchingThread.start();
+    }
+
+    public void publishNew(OrderBook book, GenOrder genOrder) {
+        long sequence = claim();
+        events[(int) sequence & mask].setNew(book, genOrder);
+        publish(sequence);
+    }
+
+    /**
+     * Publishes orders[from, to) as consecutive events, one claim per ring size worth of orders
+     */
+    public void publishNewBatch(OrderBook book, GenOrder[] orders, int from, int to) {
+        while (from < to) {
+            int count = Math.min(to - from, events.length);
+            long last = claim(count);
+            long sequence = last - count + 1;
+            for (int i = 0; i < count; i++) {
+                events[(int) (sequence + i) & mask].setNew(book, orders[from + i]);
+            }
+            publish(sequence, last);
+            from += count;
+        }
+    }
+
+    public void publishCancel(OrderBook book, long orderId) {
+        long sequence = claim();
+        events[(int) sequence & mask].setCancel(book, orderId);
+        publish(sequence);
+    }
+
+    /**
+     * Publishes cancels of orderIds[from, to) as consecutive events, one claim per ring size worth of ids
+     */
+    public void publishCancelBatch(OrderBook book, long[] orderIds, int from, int to) {
+        while (from < to) {
+            int count = Math.min(to - from, events.length);
+            long last = claim(count);
+            long sequence = last - count + 1;
+            for (int i = 0; i < count; i++) {
+                events[(int) (sequence + i) & mask].setCancel(book, orderIds[from + i]);
+            }
+            publish(sequence, last);
+            from += count;
+        }
+    }
+
+    public void publishAmend(OrderBook book, long orderId, long price, long qty) {
+        long sequence = claim();
+        events[(int) sequence & mask].setAmend(book, orderId, price, qty);
+        publish(sequence);
+    }
+
+    public void publishPurge(OrderBook book) {
+        long sequence = claim();
+        events[(int) sequence & mask].setPurge(book);
+        publish(sequence);
+    }
+
+    /**
+     * @return sequence of the reset, applied once getConsumedSequence reaches it
+     */
+    public long publishReset(OrderBook book) {
+        long sequence = claim();
+        events[(int) sequence & mask].setReset(book);
+        publish(sequence);
+        return sequence;
+    }
+
+    /**
+     * Marks a snapshot point, handled by the matching thread of the ring for all the books it owns
+     */
+    public void publishSnapshot(long snapshotId) {
+        long sequence = claim();
+        events[(int) sequence & mask].setSnapshot(snapshotId);
+        publish(sequence);
+    }
+
+    private long claim() {
+        return claim(1);
+    }
+
+    /**
+     * @param count at most the ring size
+     * @return last of the count sequences claimed
+     */
+    private long claim(int count) {
+        long sequence = claimSequence.addAndGet(count);
+        long wrapPoint = sequence - events.length;
+        while (wrapPoint > consumerSequence.get()) {
+            Thread.onSpinWait();    //Ring is full, wait for the matching thread to free the slots
+        }
+        return sequence;
+    }
+
+    private void publish(long sequence) {
+        PUBLISHED.setRelease(published, (int) sequence & mask, sequence);
+    }
+
+    private void publish(long first, long last) {
+        for (long sequence = first; sequence <= last; sequence++) {
+            publish(sequence);
+        }
+    }
+
+    private void consume() {
+        long next = consumerSequence.get() + 1;
+        int idle = 0;
+        while (running) {
+            int idx = (int) next & mask;
+            if ((long) PUBLISHED.getAcquire(published, idx) != next) {
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+            OrderEvent orderEvent = events[idx];
+            try {
+                handler.onEvent(orderEvent);
+            } catch (Exception e) {
+                log.error("Exception while handling event {} on ring {}", orderEvent, name, e);
+            } finally {
+                orderEvent.clear();
+                consumerSequence.lazySet(next++);
+            }
+        }
+    }
+
+    private static int idle(int idle) {
+        if (idle < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+            return idle;
+        }
+        return idle + 1;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSize() {
+        return events.length;
+    }
+
+    /**
+     * @return sequence of the last event handed to the matching thread and fully handled
+     */
+    public long getConsumedSequence() {
+        return consumerSequence.get();
+    }
+
+    public long getClaimedSequence() {
+        return claimSequence.get();
+    }
+
+    /**
+     * @return true when called by the ring's own matching thread, e.g. from an event handler
+     */
+    public boolean isMatchingThread() {
+        return Thread.currentThread() == matchingThread;
+    }
+
+    public void halt() {
+        running = false;
+        LockSupport.unpark(matchingThread);
+    }
+}
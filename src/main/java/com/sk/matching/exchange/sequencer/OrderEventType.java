@@ -0,0 +1,5 @@
+package com.sk.matching.exchange.sequencer;
+
+public enum OrderEventType {
+    NEW, CANCEL, AMEND, PURGE, RESET, SNAPSHOT
+}
@@ -0,0 +1,16 @@
+package com.sk.matching.exchange.sequencer;
+
+import com.sk.matching.journal.OrderJournal;
+
+/**
+ * Called on a shard's matching thread when it reaches a snapshot point, no event of the shard is applied meanwhile
+ */
+@FunctionalInterface
+public interface ShardSnapshotHandler {
+
+    /**
+     * @param shardCount number of running shards, each handles the same snapshot id
+     * @param journal the shard's journal, positioned right after the last event applied; null if journaling is off
+     */
+    void onSnapshot(int shard, int shardCount, long snapshotId, OrderJournal journal);
+}
@@ -0,0 +1,307 @@
+package com.sk.matching.fix;
+
+import com.sk.matching.types.MsgType;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static com.sk.matching.fix.FixTags.*;
+
+/**
+ * Zero copy FIX 4.4 tag=value decoder, a flyweight over the bytes of one message at a time.
+ *
+ * decode frames the message (BeginString, BodyLength, CheckSum) and indexes where each field value sits in the
+ * buffer; values are only parsed by the typed getters, straight from the buffer bytes. Nothing is allocated per
+ * message or per field, except by getString which a caller uses only for the values it has to keep (e.g. ClOrdID).
+ * Tags from MAX_TAG up are skipped, a repeated tag keeps its last value.
+ * Not thread safe, one decoder per session / reading thread.
+ */
+public class FixDecoder {
+
+    public static final int INCOMPLETE = 0;     //Not a whole message yet, read more
+    public static final int MALFORMED = -1;     //Framing or checksum error, the stream can't be trusted
+
+    public static final long NO_VALUE = Long.MIN_VALUE;    //Numeric getters, tag is absent
+    public static final int MAX_TAG = 1024;
+
+    private static final byte SOH = 0x01;
+    private static final byte[] BEGIN_STRING_FIX44 = "8=FIX.4.4\u00019=".getBytes(StandardCharsets.US_ASCII);
+    private static final int CHECKSUM_FIELD_LENGTH = 7;     //10=nnn<SOH>
+
+    private final int[] valueOffset = new int[MAX_TAG];
+    private final int[] valueLength = new int[MAX_TAG];
+    private final int[] stamp = new int[MAX_TAG];       //Message count when the tag was last seen, saves a clear
+    private int messageCount;
+    private ByteBuffer buffer;
+    private String error;
+
+    /**
+     * Decodes the message starting at offset, the buffer position and limit are left untouched
+     * @param limit end of the readable bytes
+     * @return length of the message, INCOMPLETE or MALFORMED (see getError)
+     */
+    public int decode(ByteBuffer buffer, int offset, int limit) {
+        this.buffer = buffer;
+        this.messageCount++;
+        int available = limit - offset;
+        int prefixLength = BEGIN_STRING_FIX44.length;
+        for (int i = 0; i < Math.min(prefixLength, available); i++) {
+            if (buffer.get(offset + i) != BEGIN_STRING_FIX44[i]) {
+                return malformed("Message does not start with 8=FIX.4.4|9=");
+            }
+        }
+        if (available <= prefixLength) {
+            return INCOMPLETE;
+        }
+        int bodyLength = 0;
+        int pos = offset + prefixLength;
+        for (; pos < limit; pos++) {
+            byte b = buffer.get(pos);
+            if (b == SOH) {
+                break;
+            }
+            if (b < '0' || b > '9' || bodyLength > 1_000_000) {
+                return malformed("Invalid BodyLength");
+            }
+            bodyLength = bodyLength * 10 + (b - '0');
+        }
+        if (pos >= limit) {
+            return INCOMPLETE;
+        }
+        int bodyStart = pos + 1;
+        int checksumStart = bodyStart + bodyLength;
+        int messageEnd = checksumStart + CHECKSUM_FIELD_LENGTH;
+        if (messageEnd > limit) {
+            return INCOMPLETE;
+        }
+        if (buffer.get(checksumStart) != '1' || buffer.get(checksumStart + 1) != '0'
+                || buffer.get(checksumStart + 2) != '=' || buffer.get(messageEnd - 1) != SOH) {
+            return malformed("CheckSum is not where BodyLength says");
+        }
+        int sum = 0;
+        for (int i = offset; i < checksumStart; i++) {
+            sum += buffer.get(i);
+        }
+        int checksum = digit(checksumStart + 3) * 100 + digit(checksumStart + 4) * 10 + digit(checksumStart + 5);
+        if ((sum & 0xFF) != checksum) {
+            return malformed("CheckSum mismatch");
+        }
+        index(BEGIN_STRING, offset + 2, 7);
+        index(BODY_LENGTH, offset + prefixLength, bodyStart - 1 - offset - prefixLength);
+        return parseBody(bodyStart, checksumStart) ? messageEnd - offset : MALFORMED;
+    }
+
+    private boolean parseBody(int pos, int end) {
+        while (pos < end) {
+            int tag = 0;
+            int tagStart = pos;
+            byte b;
+            while (pos < end && (b = buffer.get(pos)) != '=') {
+                if (b < '0' || b > '9' || tag > MAX_TAG * 1_000) {
+                    malformed("Invalid tag");
+                    return false;
+                }
+                tag = tag * 10 + (b - '0');
+                pos++;
+            }
+            if (pos >= end || pos == tagStart) {
+                malformed("Invalid tag");
+                return false;
+            }
+            int start = ++pos;
+            while (pos < end && buffer.get(pos) != SOH) {
+                pos++;
+            }
+            if (pos >= end) {
+                malformed("Field of tag " + tag + " is not terminated");
+                return false;
+            }
+            if (tag < MAX_TAG) {
+                index(tag, start, pos - start);
+            }
+            pos++;
+        }
+        return true;
+    }
+
+    private void index(int tag, int offset, int length) {
+        valueOffset[tag] = offset;
+        valueLength[tag] = length;
+        stamp[tag] = messageCount;
+    }
+
+    private int malformed(String reason) {
+        error = reason;
+        return MALFORMED;
+    }
+
+    private int digit(int pos) {
+        return buffer.get(pos) - '0';
+    }
+
+    /**
+     * @return reason of the last MALFORMED
+     */
+    public String getError() {
+        return error;
+    }
+
+    public boolean has(int tag) {
+        return tag >= 0 && tag < MAX_TAG && stamp[tag] == messageCount;
+    }
+
+    public boolean isMsgType(MsgType msgType) {
+        return equals(MSG_TYPE, msgType.getFixValue());
+    }
+
+    /**
+     * @return first character of the value, 0 if absent
+     */
+    public char getChar(int tag) {
+        return has(tag) && valueLength[tag] > 0 ? (char) buffer.get(valueOffset[tag]) : 0;
+    }
+
+    /**
+     * @return integer value, NO_VALUE if absent or not a number
+     */
+    public long getLong(int tag) {
+        if (!has(tag) || valueLength[tag] == 0) {
+            return NO_VALUE;
+        }
+        int pos = valueOffset[tag];
+        int end = pos + valueLength[tag];
+        boolean negative = buffer.get(pos) == '-';
+        if (negative) {
+            pos++;
+        }
+        long value = 0;
+        for (; pos < end; pos++) {
+            byte b = buffer.get(pos);
+            if (b < '0' || b > '9') {
+                return NO_VALUE;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a decimal into fixed point units without going through a double, e.g. 12.345 at scale 100 is 1235
+     * @param scale power of ten, see Symbol price / qty scale
+     * @return value * scale rounded half up, NO_VALUE if absent or not a decimal
+     */
+    public long getDecimal(int tag, long scale) {
+        if (!has(tag) || valueLength[tag] == 0) {
+            return NO_VALUE;
+        }
+        int pos = valueOffset[tag];
+        int end = pos + valueLength[tag];
+        boolean negative = buffer.get(pos) == '-';
+        if (negative) {
+            pos++;
+        }
+        long value = 0;
+        long fractionScale = 0;     //0 while in the integer part
+        boolean roundUp = false;
+        for (; pos < end; pos++) {
+            byte b = buffer.get(pos);
+            if (b == '.' && fractionScale == 0) {
+                fractionScale = 1;
+                continue;
+            }
+            if (b < '0' || b > '9') {
+                return NO_VALUE;
+            }
+            if (fractionScale == 0) {
+                value = value * 10 + (b - '0');
+            } else if (fractionScale < scale) {
+                value = value * 10 + (b - '0');
+                fractionScale *= 10;
+            } else if (fractionScale == scale) {
+                roundUp = b >= '5';     //First dropped digit
+                fractionScale *= 10;
+            }
+        }
+        if (fractionScale == 0) {
+            fractionScale = 1;
+        }
+        if (fractionScale > scale) {
+            fractionScale = scale;
+        }
+        value = value * (scale / fractionScale) + (roundUp ? 1 : 0);
+        return negative ? -value : value;
+    }
+
+    /**
+     * @throws UnsupportedOperationException side is absent or unknown
+     */
+    public Side getSide() {
+        return Side.valueOf((int) getLong(SIDE));
+    }
+
+    /**
+     * @throws UnsupportedOperationException order type is absent or unknown
+     */
+    public OrderType getOrderType() {
+        return OrderType.valueOf((int) getLong(ORD_TYPE));
+    }
+
+    /**
+     * @return whether the value is exactly the given ASCII text, without allocating
+     */
+    public boolean equals(int tag, CharSequence value) {
+        if (!has(tag) || valueLength[tag] != value.length()) {
+            return false;
+        }
+        int offset = valueOffset[tag];
+        for (int i = 0; i < value.length(); i++) {
+            if (buffer.get(offset + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return up to the first 8 bytes of the value packed little endian into a long, a map key free of String
+     * allocation, e.g. for symbols. 0 if absent
+     */
+    public long getAsciiKey(int tag) {
+        if (!has(tag)) {
+            return 0L;
+        }
+        int offset = valueOffset[tag];
+        int length = Math.min(valueLength[tag], Long.BYTES);
+        long key = 0L;
+        for (int i = 0; i < length; i++) {
+            key |= (buffer.get(offset + i) & 0xFFL) << (8 * i);
+        }
+        return key;
+    }
+
+    /**
+     * Allocates, for values which have to outlive the message
+     * @return the value, null if absent
+     */
+    public String getString(int tag) {
+        if (!has(tag)) {
+            return null;
+        }
+        byte[] bytes = new byte[valueLength[tag]];
+        int offset = valueOffset[tag];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    public int getValueOffset(int tag) {
+        return has(tag) ? valueOffset[tag] : -1;
+    }
+
+    public int getValueLength(int tag) {
+        return has(tag) ? valueLength[tag] : 0;
+    }
+}
@@ -0,0 +1,254 @@
+package com.sk.matching.fix;
+
+import com.sk.matching.exchange.executions.GenExecutionReport;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.types.ExecType;
+import com.sk.matching.types.MsgType;
+import com.sk.matching.types.OrderType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static com.sk.matching.fix.FixTags.*;
+
+/**
+ * FIX 4.4 tag=value encoder of execution reports for one session, i.e. one SenderCompID / TargetCompID pair.
+ *
+ * The body is written into a re-used scratch array with numbers, fixed point decimals and timestamps formatted
+ * digit by digit, then framed (BeginString, BodyLength, CheckSum) into the caller's buffer. No String or other
+ * object is created per report. Not thread safe, one encoder per session / writing thread.
+ */
+public class FixEncoder {
+
+    private static final byte SOH = 0x01;
+    private static final byte[] BEGIN_STRING = "8=FIX.4.4\u00019=".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_BODY_LENGTH = 1 << 10;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final byte[] senderCompId;
+    private final byte[] targetCompId;
+    private final byte[] body = new byte[MAX_BODY_LENGTH];
+    private final byte[] digits = new byte[20];
+    private int length;
+
+    public FixEncoder(String senderCompId, String targetCompId) {
+        this.senderCompId = senderCompId.getBytes(StandardCharsets.US_ASCII);
+        this.targetCompId = targetCompId.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Writes the report as an ExecutionReport (35=8) at the buffer's position, which is moved past it.
+     * ExecID is the engine wide report sequence, a fill also carries its trade id as TrdMatchID.
+     * @param sendingTimeMillis SendingTime as epoch millis
+     * @return message length
+     * @throws java.nio.BufferOverflowException not enough room left in the buffer
+     */
+    public int encodeExecutionReport(ByteBuffer buffer, GenExecutionReport report, long msgSeqNum,
+                                     long sendingTimeMillis) {
+        Symbol symbol = report.getSymbol();
+        ExecType execType = report.getExecType();
+        length = 0;
+        putHeader(MsgType.EXEC_REPORT, msgSeqNum, sendingTimeMillis);
+        putLong(ORDER_ID, report.getOrderId());
+        putAscii(CL_ORD_ID, report.getClientOrderId());
+        putLong(EXEC_ID, report.getSequence());
+        putAscii(EXEC_TYPE, execType.getFixValue());
+        putChar(ORD_STATUS, ordStatus(report));
+        putAscii(SYMBOL, symbol.getName());
+        putLong(SIDE, report.getSide().getFixSide());
+        putLong(ORD_TYPE, report.getOrderType().getFixValue());
+        if (report.getOrderType() == OrderType.LIMIT) {
+            putDecimal(PRICE, report.getOrdPxUnits(), symbol.getPriceScale());
+        }
+        putDecimal(ORDER_QTY, report.getCumQtyUnits() + report.getLeavesQtyUnits(), symbol.getQtyScale());
+        if (execType == ExecType.FILL) {
+            putDecimal(LAST_QTY, report.getExecQtyUnits(), symbol.getQtyScale());
+            putDecimal(LAST_PX, report.getExecPriceUnits(), symbol.getPriceScale());
+            putLong(TRD_MATCH_ID, report.getExecId());
+        }
+        putDecimal(LEAVES_QTY, report.getLeavesQtyUnits(), symbol.getQtyScale());
+        putDecimal(CUM_QTY, report.getCumQtyUnits(), symbol.getQtyScale());
+        putDecimal(AVG_PX, report.getAvgPxUnits(), symbol.getPriceScale());
+        putTimestamp(TRANSACT_TIME, report.getTransactTime() / 1_000_000L);
+        if (null != report.getText()) {
+            putAscii(TEXT, report.getText());
+        }
+        return frame(buffer);
+    }
+
+    /**
+     * OrdStatus (39) after the report, a rejected cancel / amend reports the state the order is left in
+     */
+    static char ordStatus(GenExecutionReport report) {
+        switch (report.getExecType()) {
+            case NEW:
+                return '0';
+            case CANCEL:
+                return '4';
+            case REJECTED:
+                if (report.getOrderId() <= 0L) {
+                    return '8';     //The order itself was refused
+                }
+                if (report.getLeavesQtyUnits() == 0L) {
+                    return report.getCumQtyUnits() > 0L ? '2' : '4';
+                }
+                return partialOrNew(report);
+            case DFD:
+                return '3';
+            case PENDING_CAN:
+                return '6';
+            default:
+                return report.getLeavesQtyUnits() == 0L && report.getCumQtyUnits() > 0L ? '2' : partialOrNew(report);
+        }
+    }
+
+    private static char partialOrNew(GenExecutionReport report) {
+        return report.getCumQtyUnits() > 0L ? '1' : '0';
+    }
+
+    private void putHeader(MsgType msgType, long msgSeqNum, long sendingTimeMillis) {
+        putAscii(MSG_TYPE, msgType.getFixValue());
+        putBytes(SENDER_COMP_ID, senderCompId);
+        putBytes(TARGET_COMP_ID, targetCompId);
+        putLong(MSG_SEQ_NUM, msgSeqNum);
+        putTimestamp(SENDING_TIME, sendingTimeMillis);
+    }
+
+    private int frame(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.put(BEGIN_STRING);
+        int count = formatLong(length);
+        buffer.put(digits, digits.length - count, count);
+        buffer.put(SOH);
+        buffer.put(body, 0, length);
+        int sum = 0;
+        for (int i = start; i < buffer.position(); i++) {
+            sum += buffer.get(i);
+        }
+        sum &= 0xFF;
+        buffer.put((byte) '1').put((byte) '0').put((byte) '=')
+                .put((byte) ('0' + sum / 100)).put((byte) ('0' + sum / 10 % 10)).put((byte) ('0' + sum % 10))
+                .put(SOH);
+        return buffer.position() - start;
+    }
+
+    private void putTag(int tag) {
+        int count = formatLong(tag);
+        System.arraycopy(digits, digits.length - count, body, length, count);
+        length += count;
+        body[length++] = '=';
+    }
+
+    private void putLong(int tag, long value) {
+        putTag(tag);
+        int count = formatLong(value);
+        System.arraycopy(digits, digits.length - count, body, length, count);
+        length += count;
+        body[length++] = SOH;
+    }
+
+    private void putChar(int tag, char value) {
+        putTag(tag);
+        body[length++] = (byte) value;
+        body[length++] = SOH;
+    }
+
+    private void putAscii(int tag, CharSequence value) {
+        putTag(tag);
+        int count = Math.min(value.length(), MAX_BODY_LENGTH / 4);
+        for (int i = 0; i < count; i++) {
+            char c = value.charAt(i);
+            body[length++] = c < 0x80 && c != SOH ? (byte) c : (byte) '?';
+        }
+        body[length++] = SOH;
+    }
+
+    private void putBytes(int tag, byte[] value) {
+        putTag(tag);
+        System.arraycopy(value, 0, body, length, value.length);
+        length += value.length;
+        body[length++] = SOH;
+    }
+
+    /**
+     * Fixed point units as a decimal, trailing fraction zeros dropped, e.g. 1234500 at scale 10000 is 123.45
+     */
+    private void putDecimal(int tag, long units, long scale) {
+        putTag(tag);
+        if (units < 0) {
+            body[length++] = '-';
+            units = -units;
+        }
+        int count = formatLong(units / scale);
+        System.arraycopy(digits, digits.length - count, body, length, count);
+        length += count;
+        long fraction = units % scale;
+        if (fraction != 0) {
+            body[length++] = '.';
+            for (long div = scale / 10; div > 0 && fraction != 0; div /= 10) {
+                body[length++] = (byte) ('0' + fraction / div);
+                fraction %= div;
+            }
+        }
+        body[length++] = SOH;
+    }
+
+    /**
+     * UTCTimestamp YYYYMMDD-HH:MM:SS.sss
+     */
+    private void putTimestamp(int tag, long epochMillis) {
+        putTag(tag);
+        long days = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        long millisOfDay = Math.floorMod(epochMillis, MILLIS_PER_DAY);
+        //Civil date from days since the epoch, H. Hinnant's algorithm
+        long z = days + 719_468L;
+        long era = Math.floorDiv(z, 146_097L);
+        long doe = z - era * 146_097L;
+        long yoe = (doe - doe / 1_460 + doe / 36_524 - doe / 146_096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long day = doy - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        putDigits(year, 4);
+        putDigits(month, 2);
+        putDigits(day, 2);
+        body[length++] = '-';
+        putDigits(millisOfDay / 3_600_000L, 2);
+        body[length++] = ':';
+        putDigits(millisOfDay / 60_000L % 60, 2);
+        body[length++] = ':';
+        putDigits(millisOfDay / 1_000L % 60, 2);
+        body[length++] = '.';
+        putDigits(millisOfDay % 1_000L, 3);
+        body[length++] = SOH;
+    }
+
+    private void putDigits(long value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            body[length + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += width;
+    }
+
+    /**
+     * Formats right aligned into digits
+     * @return number of characters
+     */
+    private int formatLong(long value) {
+        int pos = digits.length;
+        boolean negative = value < 0;
+        if (value == 0) {
+            digits[--pos] = '0';
+        }
+        while (value != 0) {
+            digits[--pos] = (byte) ('0' + Math.abs(value % 10));
+            value /= 10;
+        }
+        if (negative) {
+            digits[--pos] = '-';
+        }
+        return digits.length - pos;
+    }
+}
@@ -0,0 +1,40 @@
+package com.sk.matching.fix;
+
+/**
+ * FIX 4.4 tags used by order entry
+ */
+public final class FixTags {
+
+    public static final int BEGIN_STRING = 8;
+    public static final int BODY_LENGTH = 9;
+    public static final int CHECKSUM = 10;
+    public static final int MSG_TYPE = 35;
+    public static final int SENDER_COMP_ID = 49;
+    public static final int TARGET_COMP_ID = 56;
+    public static final int MSG_SEQ_NUM = 34;
+    public static final int SENDING_TIME = 52;
+
+    public static final int AVG_PX = 6;
+    public static final int CL_ORD_ID = 11;
+    public static final int CUM_QTY = 14;
+    public static final int EXEC_ID = 17;
+    public static final int LAST_PX = 31;
+    public static final int LAST_QTY = 32;
+    public static final int ORDER_ID = 37;
+    public static final int ORDER_QTY = 38;
+    public static final int ORD_STATUS = 39;
+    public static final int ORD_TYPE = 40;
+    public static final int ORIG_CL_ORD_ID = 41;
+    public static final int PRICE = 44;
+    public static final int SIDE = 54;
+    public static final int SYMBOL = 55;
+    public static final int TEXT = 58;
+    public static final int TRANSACT_TIME = 60;
+    public static final int MAX_FLOOR = 111;    //Iceberg visible qty
+    public static final int EXEC_TYPE = 150;
+    public static final int LEAVES_QTY = 151;
+    public static final int TRD_MATCH_ID = 880;
+
+    private FixTags() {
+    }
+}
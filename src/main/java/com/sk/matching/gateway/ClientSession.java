@@ -0,0 +1,20 @@
+package com.sk.matching.gateway;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Transport side of a client connection, TCP or shared memory, as seen by the {@link GatewayRequestHandler}
+ */
+public interface ClientSession {
+
+    /**
+     * @return client id carried by the session's orders, see ExecutionReports.newClientId
+     */
+    long getClientId();
+
+    /**
+     * Reports back a request that never reached the engine, see GatewayProtocol.encodeReject
+     */
+    void reject(byte side, long orderId, ByteBuffer request, int clOrdIdOffset, long price, long symbolKey,
+                long transactTime);
+}
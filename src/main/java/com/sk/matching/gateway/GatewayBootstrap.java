@@ -0,0 +1,48 @@
+package com.sk.matching.gateway;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Starts the {@link OrderGateway} on app-cfg.gateway-port when app-cfg.gateway-enabled is set
+ */
+@Component
+@Log4j2
+public class GatewayBootstrap {
+
+    private final AppCfg appCfg;
+    private OrderGateway orderGateway;
+
+    //MatchingEngineBootstrap is injected to accept orders only once the books are recovered
+    public GatewayBootstrap(AppCfg appCfg, MatchingEngineBootstrap matchingEngineBootstrap) {
+        this.appCfg = appCfg;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!appCfg.isGatewayEnabled()) {
+            log.info("Order gateway is disabled");
+            return;
+        }
+        orderGateway = new OrderGateway(new InetSocketAddress(appCfg.getGatewayPort()), appCfg.getGatewaySessionBufferSize());
+        orderGateway.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (null != orderGateway) {
+            orderGateway.stop();
+        }
+    }
+
+    public OrderGateway getOrderGateway() {
+        return orderGateway;
+    }
+}
@@ -0,0 +1,258 @@
+package com.sk.matching.gateway;
+
+import com.sk.matching.exchange.executions.GenExecutionReport;
+import com.sk.matching.types.ExecType;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed layout, little endian binary messages of the order entry gateway.
+ *
+ * Every message starts with length(2, whole message) type(1) pad(1). Symbol (8) and clOrdId (16) are ASCII, right
+ * padded with zeros. Prices and quantities are fixed point in the Symbol's price / qty units.
+ * <pre>
+ * NEW    56 bytes: header side(1) orderType(1) pad(2) symbol(8) clOrdId(16) price(8) qty(8) visibleQty(8, GenOrder.NO_QTY if none)
+ * CANCEL 24 bytes: header pad(4) symbol(8) orderId(8)
+ * AMEND  40 bytes: header pad(4) symbol(8) orderId(8) price(8) qty(8)
+ * EXEC_REPORT 88 bytes: header execType(1, FIX value) side(1) pad(2) orderId(8) execId(8) clOrdId(16) price(8) execQty(8)
+ *        cumQty(8) leavesQty(8) transactTime(8, epoch nanos) symbol(8)
+ * </pre>
+ * A new order is acknowledged by its NEW execution report, carrying the engine order id later cancels and amends
+ * refer to. Execution report price is the execution price of a FILL and the order price otherwise.
+ */
+public final class GatewayProtocol {
+
+    public static final byte TYPE_NEW = 'D';
+    public static final byte TYPE_CANCEL = 'F';
+    public static final byte TYPE_AMEND = 'G';
+    public static final byte TYPE_EXEC_REPORT = '8';
+
+    public static final int HEADER_LENGTH = 4;
+    public static final int NEW_LENGTH = 56;
+    public static final int CANCEL_LENGTH = 24;
+    public static final int AMEND_LENGTH = 40;
+    public static final int EXEC_REPORT_LENGTH = 88;
+    public static final int MAX_MESSAGE_LENGTH = EXEC_REPORT_LENGTH;
+
+    public static final int SYMBOL_LENGTH = 8;
+    public static final int CL_ORD_ID_LENGTH = 16;
+
+    public static final int NEW_SIDE_OFFSET = 4;
+    public static final int NEW_ORDER_TYPE_OFFSET = 5;
+    public static final int SYMBOL_OFFSET = 8;                  //Same offset in every client message
+    public static final int NEW_CL_ORD_ID_OFFSET = 16;
+    public static final int NEW_PRICE_OFFSET = 32;
+    public static final int NEW_QTY_OFFSET = 40;
+    public static final int NEW_VISIBLE_QTY_OFFSET = 48;
+    public static final int ORDER_ID_OFFSET = 16;               //Cancel and amend
+    public static final int AMEND_PRICE_OFFSET = 24;
+    public static final int AMEND_QTY_OFFSET = 32;
+
+    private static final ExecType[] EXEC_TYPES = ExecType.values();
+
+    private GatewayProtocol() {
+    }
+
+    /**
+     * @return expected length of a client message type, -1 if unknown
+     */
+    public static int lengthOf(byte type) {
+        switch (type) {
+            case TYPE_NEW:
+                return NEW_LENGTH;
+            case TYPE_CANCEL:
+                return CANCEL_LENGTH;
+            case TYPE_AMEND:
+                return AMEND_LENGTH;
+            default:
+                return -1;
+        }
+    }
+
+    public static void encodeNew(ByteBuffer buffer, String symbol, String clOrdId, Side side, OrderType orderType,
+                                 long price, long qty, long visibleQty) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        putHeader(buffer, NEW_LENGTH, TYPE_NEW);
+        buffer.put((byte) side.getFixSide());
+        buffer.put((byte) orderType.getFixValue());
+        buffer.putShort((short) 0);
+        putAscii(buffer, symbol, SYMBOL_LENGTH);
+        putAscii(buffer, clOrdId, CL_ORD_ID_LENGTH);
+        buffer.putLong(price);
+        buffer.putLong(qty);
+        buffer.putLong(visibleQty);
+    }
+
+    public static void encodeCancel(ByteBuffer buffer, String symbol, long orderId) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        putHeader(buffer, CANCEL_LENGTH, TYPE_CANCEL);
+        buffer.putInt(0);
+        putAscii(buffer, symbol, SYMBOL_LENGTH);
+        buffer.putLong(orderId);
+    }
+
+    public static void encodeAmend(ByteBuffer buffer, String symbol, long orderId, long price, long qty) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        putHeader(buffer, AMEND_LENGTH, TYPE_AMEND);
+        buffer.putInt(0);
+        putAscii(buffer, symbol, SYMBOL_LENGTH);
+        buffer.putLong(orderId);
+        buffer.putLong(price);
+        buffer.putLong(qty);
+    }
+
+    public static void encodeExecutionReport(ByteBuffer buffer, GenExecutionReport report) {
+        long price = report.getExecType() == ExecType.FILL ? report.getExecPriceUnits() : report.getOrdPxUnits();
+        putHeader(buffer, EXEC_REPORT_LENGTH, TYPE_EXEC_REPORT);
+        buffer.put((byte) report.getExecType().getFixValue().charAt(0));
+        buffer.put((byte) report.getSide().getFixSide());
+        buffer.putShort((short) 0);
+        buffer.putLong(report.getOrderId());
+        buffer.putLong(report.getExecId());
+        putAscii(buffer, report.getClientOrderId(), CL_ORD_ID_LENGTH);
+        buffer.putLong(price);
+        buffer.putLong(report.getExecQtyUnits());
+        buffer.putLong(report.getCumQtyUnits());
+        buffer.putLong(report.getLeavesQtyUnits());
+        buffer.putLong(report.getTransactTime());
+        putAscii(buffer, report.getSymbol().getName(), SYMBOL_LENGTH);
+    }
+
+    /**
+     * Reject of a request the engine never sequenced, e.g. unknown symbol or invalid attributes
+     * @param clOrdIdOffset absolute offset of the request's clOrdId to echo, -1 if it has none
+     */
+    public static void encodeReject(ByteBuffer buffer, byte side, long orderId, ByteBuffer request, int clOrdIdOffset,
+                             long price, long symbolKey, long transactTime) {
+        putHeader(buffer, EXEC_REPORT_LENGTH, TYPE_EXEC_REPORT);
+        buffer.put((byte) ExecType.REJECTED.getFixValue().charAt(0));
+        buffer.put(side);
+        buffer.putShort((short) 0);
+        buffer.putLong(orderId);
+        buffer.putLong(0L);
+        for (int i = 0; i < CL_ORD_ID_LENGTH; i++) {
+            buffer.put(clOrdIdOffset < 0 ? 0 : request.get(clOrdIdOffset + i));
+        }
+        buffer.putLong(price);
+        buffer.putLong(0L);
+        buffer.putLong(0L);
+        buffer.putLong(0L);
+        buffer.putLong(transactTime);
+        buffer.putLong(symbolKey);
+    }
+
+    /**
+     * Client side decode of an execution report starting at the buffer's position, which is moved past it
+     */
+    public static ExecutionReportMessage decodeExecutionReport(ByteBuffer buffer, ExecutionReportMessage message) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int start = buffer.position();
+        message.execType = execTypeOf((char) buffer.get(start + 4));
+        byte side = buffer.get(start + 5);
+        message.side = 0 == side ? null : Side.valueOf((int) side);
+        message.orderId = buffer.getLong(start + 8);
+        message.execId = buffer.getLong(start + 16);
+        message.clOrdId = getAscii(buffer, start + 24, CL_ORD_ID_LENGTH);
+        message.price = buffer.getLong(start + 40);
+        message.execQty = buffer.getLong(start + 48);
+        message.cumQty = buffer.getLong(start + 56);
+        message.leavesQty = buffer.getLong(start + 64);
+        message.transactTime = buffer.getLong(start + 72);
+        message.symbol = getAscii(buffer, start + 80, SYMBOL_LENGTH);
+        buffer.position(start + EXEC_REPORT_LENGTH);
+        return message;
+    }
+
+    /**
+     * Client side copy of a decoded execution report
+     */
+    public static class ExecutionReportMessage {
+        public ExecType execType;
+        public Side side;
+        public long orderId;
+        public long execId;
+        public String clOrdId;
+        public String symbol;
+        public long price;
+        public long execQty;
+        public long cumQty;
+        public long leavesQty;
+        public long transactTime;
+
+        public ExecutionReportMessage copy() {
+            ExecutionReportMessage copy = new ExecutionReportMessage();
+            copy.execType = execType;
+            copy.side = side;
+            copy.orderId = orderId;
+            copy.execId = execId;
+            copy.clOrdId = clOrdId;
+            copy.symbol = symbol;
+            copy.price = price;
+            copy.execQty = execQty;
+            copy.cumQty = cumQty;
+            copy.leavesQty = leavesQty;
+            copy.transactTime = transactTime;
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            return "ExecutionReportMessage{" +
+                    "execType=" + execType +
+                    ", orderId=" + orderId +
+                    ", clOrdId=" + clOrdId +
+                    ", symbol=" + symbol +
+                    ", side=" + side +
+                    ", exec=" + execQty + "@" + price +
+                    ", cumQty=" + cumQty +
+                    ", leavesQty=" + leavesQty +
+                    '}';
+        }
+    }
+
+    private static ExecType execTypeOf(char fixValue) {
+        for (ExecType execType : EXEC_TYPES) {
+            if (execType.getFixValue().charAt(0) == fixValue) {
+                return execType;
+            }
+        }
+        throw new UnsupportedOperationException("Unsupported EXEC TYPE " + fixValue);
+    }
+
+    private static void putHeader(ByteBuffer buffer, int length, byte type) {
+        buffer.putShort((short) length);
+        buffer.put(type);
+        buffer.put((byte) 0);
+    }
+
+    private static void putAscii(ByteBuffer buffer, String str, int length) {
+        int strLength = null == str ? 0 : Math.min(str.length(), length);
+        for (int i = 0; i < length; i++) {
+            char c = i < strLength ? str.charAt(i) : 0;
+            buffer.put(c < 0x80 ? (byte) c : (byte) '?');
+        }
+    }
+
+    static String getAscii(ByteBuffer buffer, int start, int length) {
+        int end = 0;
+        while (end < length && buffer.get(start + end) != 0) {
+            end++;
+        }
+        byte[] bytes = new byte[end];
+        for (int i = 0; i < end; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return the 8 symbol bytes at the offset as one long, a lookup key free of any String allocation
+     */
+    public static long symbolKey(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset);
+    }
+}
@@ -0,0 +1,134 @@
+package com.sk.matching.gateway;
+
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.sk.matching.engine.BasicMatchingEngine;
+import com.sk.matching.exception.OrderCreationException;
+import com.sk.matching.exception.SymbolNotSupportedException;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import com.sk.matching.util.DateUtils;
+import lombok.extern.log4j.Log4j2;
+
+import java.nio.ByteBuffer;
+
+import static com.sk.matching.gateway.GatewayProtocol.*;
+
+/**
+ * Hands complete {@link GatewayProtocol} requests, read in place from the transport's buffer, to the engine.
+ *
+ * A request the engine can't accept (unknown symbol, invalid attributes, an order id the session does not own) is
+ * rejected on the spot through the session, it never reaches a shard ring.
+ * Not thread safe, one handler per transport thread.
+ */
+@Log4j2
+public class GatewayRequestHandler {
+
+    private final BasicMatchingEngine engine = BasicMatchingEngine.getInstance();
+    private final LongObjectHashMap<Symbol> symbols = new LongObjectHashMap<>();    //By symbol key
+
+    /**
+     * @param start offset of a whole request of the given type, already length checked with lengthOf
+     */
+    public void handle(ClientSession session, ByteBuffer in, int start, byte type) {
+        long symbolKey = symbolKey(in, start + SYMBOL_OFFSET);
+        Symbol symbol = symbolOf(symbolKey, in, start + SYMBOL_OFFSET);
+        switch (type) {
+            case TYPE_NEW:
+                handleNew(session, in, start, symbol, symbolKey);
+                break;
+            case TYPE_CANCEL:
+                handleCancel(session, in, start, symbol, symbolKey);
+                break;
+            case TYPE_AMEND:
+                handleAmend(session, in, start, symbol, symbolKey);
+                break;
+            default:
+                break;  //Length check already refused any other type
+        }
+    }
+
+    private void handleNew(ClientSession session, ByteBuffer in, int start, Symbol symbol, long symbolKey) {
+        long price = in.getLong(start + NEW_PRICE_OFFSET);
+        try {
+            if (null == symbol) {
+                throw new SymbolNotSupportedException("Unknown symbol " + getAscii(in, start + SYMBOL_OFFSET, SYMBOL_LENGTH));
+            }
+            Side side = Side.valueOf((int) in.get(start + NEW_SIDE_OFFSET));
+            OrderType orderType = OrderType.valueOf((int) in.get(start + NEW_ORDER_TYPE_OFFSET));
+            long qty = in.getLong(start + NEW_QTY_OFFSET);
+            long visibleQty = in.getLong(start + NEW_VISIBLE_QTY_OFFSET);
+            String clOrdId = getAscii(in, start + NEW_CL_ORD_ID_OFFSET, CL_ORD_ID_LENGTH);
+            GenOrder genOrder = new GenOrder.Builder(clOrdId, symbol, side, orderType)
+                    .with(builder -> {
+                        builder.setPriceUnits(price);
+                        builder.setQtyUnits(qty);
+                        builder.setVisibleQtyUnits(visibleQty);
+                        builder.setClientId(session.getClientId());
+                    })
+                    .buildPooled();
+            engine.addOrder(genOrder);
+        } catch (SymbolNotSupportedException | OrderCreationException | UnsupportedOperationException e) {
+            log.warn("Rejecting new order from client {}, {}", session, e.getMessage());
+            session.reject(in.get(start + NEW_SIDE_OFFSET), 0L, in, start + NEW_CL_ORD_ID_OFFSET, price, symbolKey,
+                    DateUtils.getEpochNanos());
+        }
+    }
+
+    private void handleCancel(ClientSession session, ByteBuffer in, int start, Symbol symbol, long symbolKey) {
+        long orderId = in.getLong(start + ORDER_ID_OFFSET);
+        OrderBook book = ownerBook(session, symbol, orderId);
+        if (null == book) {
+            session.reject((byte) 0, orderId, in, -1, 0L, symbolKey, DateUtils.getEpochNanos());
+            return;
+        }
+        book.processCancel(orderId);
+    }
+
+    private void handleAmend(ClientSession session, ByteBuffer in, int start, Symbol symbol, long symbolKey) {
+        long orderId = in.getLong(start + ORDER_ID_OFFSET);
+        long price = in.getLong(start + AMEND_PRICE_OFFSET);
+        OrderBook book = ownerBook(session, symbol, orderId);
+        if (null == book) {
+            session.reject((byte) 0, orderId, in, -1, price, symbolKey, DateUtils.getEpochNanos());
+            return;
+        }
+        book.processAmend(orderId, price, in.getLong(start + AMEND_QTY_OFFSET));
+    }
+
+    /**
+     * @return book of the order if it exists and was entered by the session, null otherwise
+     */
+    private OrderBook ownerBook(ClientSession session, Symbol symbol, long orderId) {
+        if (null == symbol) {
+            return null;
+        }
+        OrderBook book = OrderBook.getBook(symbol);
+        GenOrder genOrder = book.getOrder(orderId);
+        if (null == genOrder || genOrder.getClientId() != session.getClientId()) {
+            log.warn("Client {} does not own order id {} on {}", session, orderId, symbol.getName());
+            return null;
+        }
+        return book;
+    }
+
+    /**
+     * @return symbol of the request, null if unknown. Only the first request of a symbol decodes its name
+     */
+    private Symbol symbolOf(long symbolKey, ByteBuffer in, int offset) {
+        Symbol symbol = symbols.get(symbolKey);
+        if (null == symbol) {
+            try {
+                symbol = SymbolCache.get(getAscii(in, offset, SYMBOL_LENGTH));
+                symbols.put(symbolKey, symbol);
+            } catch (SymbolNotSupportedException e) {
+                return null;
+            }
+        }
+        return symbol;
+    }
+
+}
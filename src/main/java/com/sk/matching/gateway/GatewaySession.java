@@ -0,0 +1,162 @@
+package com.sk.matching.gateway;
+
+import com.sk.matching.exchange.executions.ExecutionReportListener;
+import com.sk.matching.exchange.executions.ExecutionReports;
+import com.sk.matching.exchange.executions.GenExecutionReport;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One client connection of the {@link OrderGateway}, also the client id its orders carry.
+ *
+ * Inbound bytes are only touched by the gateway thread. Execution reports are encoded straight into the outbound
+ * buffer on the report publisher thread and written to the socket by the gateway thread; the buffer is guarded by
+ * its own monitor. A client too slow to drain its reports overflows the buffer and is disconnected rather than
+ * ever blocking the publisher.
+ */
+@Log4j2
+class GatewaySession implements ClientSession, ExecutionReportListener {
+
+    private final OrderGateway gateway;
+    private final SocketChannel channel;
+    private final long clientId;
+    private final ByteBuffer inbound;
+    private final ByteBuffer outbound;      //Write mode, guarded by itself
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private SelectionKey key;
+    private boolean overflow;
+    private volatile boolean closed;
+
+    GatewaySession(OrderGateway gateway, SocketChannel channel, int inboundSize, int outboundSize) {
+        this.gateway = gateway;
+        this.channel = channel;
+        this.clientId = ExecutionReports.newClientId();
+        this.inbound = ByteBuffer.allocateDirect(inboundSize).order(ByteOrder.LITTLE_ENDIAN);
+        this.outbound = ByteBuffer.allocateDirect(outboundSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    @Override
+    public long getClientId() {
+        return clientId;
+    }
+
+    ByteBuffer getInbound() {
+        return inbound;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Publisher thread, copies the report into the outbound buffer
+     */
+    @Override
+    public void onExecutionReport(GenExecutionReport report) {
+        synchronized (outbound) {
+            if (closed || overflow) {
+                return;
+            }
+            if (outbound.remaining() < GatewayProtocol.EXEC_REPORT_LENGTH) {
+                overflow = true;
+            } else {
+                GatewayProtocol.encodeExecutionReport(outbound, report);
+            }
+        }
+        requestFlush();
+    }
+
+    /**
+     * Gateway thread
+     */
+    @Override
+    public void reject(byte side, long orderId, ByteBuffer request, int clOrdIdOffset, long price, long symbolKey,
+                       long transactTime) {
+        synchronized (outbound) {
+            if (outbound.remaining() < GatewayProtocol.EXEC_REPORT_LENGTH) {
+                overflow = true;
+            } else {
+                GatewayProtocol.encodeReject(outbound, side, orderId, request, clOrdIdOffset, price, symbolKey,
+                        transactTime);
+            }
+        }
+        requestFlush();
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            gateway.requestFlush(this);
+        }
+    }
+
+    /**
+     * Gateway thread, writes as much of the outbound buffer as the socket takes and waits for OP_WRITE if any is left
+     * @return false if the session has to be closed
+     */
+    boolean flush() {
+        flushRequested.set(false);
+        synchronized (outbound) {
+            if (overflow) {
+                log.warn("Client {} on {} is too slow to read its execution reports, disconnecting", clientId, this);
+                return false;
+            }
+            if (outbound.position() == 0) {
+                return true;
+            }
+            try {
+                outbound.flip();
+                channel.write(outbound);
+                outbound.compact();
+            } catch (IOException e) {
+                log.warn("Can't write to client {}, {}", clientId, e.getMessage());
+                return false;
+            }
+            if (key.isValid()) {
+                int ops = key.interestOps();
+                int newOps = outbound.position() > 0 ? ops | SelectionKey.OP_WRITE : ops & ~SelectionKey.OP_WRITE;
+                if (newOps != ops) {
+                    key.interestOps(newOps);
+                }
+            }
+            return true;
+        }
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ExecutionReports.unregister(clientId);
+        if (null != key) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Can't close client {} channel", clientId, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GatewaySession{" +
+                "clientId=" + clientId +
+                ", remote=" + channel.socket().getRemoteSocketAddress() +
+                '}';
+    }
+}
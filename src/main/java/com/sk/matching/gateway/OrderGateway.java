@@ -0,0 +1,222 @@
+package com.sk.matching.gateway;
+
+import com.sk.matching.exchange.executions.ExecutionReports;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.sk.matching.gateway.GatewayProtocol.*;
+
+/**
+ * Order entry over TCP: one selector thread accepts any number of client sessions, decodes the fixed layout
+ * {@link GatewayProtocol} requests in place from each session's direct buffer and hands them to the engine, i.e. to
+ * the shard rings. Execution reports of a session's orders are written back on the same connection.
+ *
+ * The gateway thread never waits for matching, see {@link GatewayRequestHandler}. A malformed frame closes the session.
+ */
+@Log4j2
+public class OrderGateway {
+
+    public static final int DEFAULT_SESSION_BUFFER_SIZE = 1 << 16;
+
+    private static final long SELECT_TIMEOUT_MILLIS = 100L;
+
+    private final InetSocketAddress bindAddress;
+    private final int sessionBufferSize;
+    private final GatewayRequestHandler requestHandler = new GatewayRequestHandler();
+    private final List<GatewaySession> sessions = new ArrayList<>();
+    private final Queue<GatewaySession> flushQueue = new ConcurrentLinkedQueue<>();
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread gatewayThread;
+    private volatile boolean running;
+
+    /**
+     * @param sessionBufferSize inbound and outbound buffer bytes per session, non positive keeps the default
+     */
+    public OrderGateway(InetSocketAddress bindAddress, int sessionBufferSize) {
+        this.bindAddress = bindAddress;
+        this.sessionBufferSize = sessionBufferSize > 0 ? sessionBufferSize : DEFAULT_SESSION_BUFFER_SIZE;
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(bindAddress);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        gatewayThread = new Thread(this::run, "order-gateway");
+        gatewayThread.setDaemon(true);
+        gatewayThread.start();
+        log.info("Order gateway listening on {}", getLocalAddress());
+    }
+
+    public void stop() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        selector.wakeup();
+        try {
+            gatewayThread.join(SELECT_TIMEOUT_MILLIS * 10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return bound address, e.g. to find the port picked for port 0
+     */
+    public InetSocketAddress getLocalAddress() {
+        try {
+            return (InetSocketAddress) serverChannel.getLocalAddress();
+        } catch (IOException e) {
+            throw new IllegalStateException("Gateway is not bound", e);
+        }
+    }
+
+    /**
+     * @return number of connected sessions, as last seen by the gateway thread
+     */
+    public synchronized int getSessionCount() {
+        return sessions.size();
+    }
+
+    void requestFlush(GatewaySession session) {
+        flushQueue.offer(session);
+        selector.wakeup();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select(SELECT_TIMEOUT_MILLIS);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    GatewaySession session = (GatewaySession) key.attachment();
+                    if (key.isReadable() && !read(session)) {
+                        close(session);
+                        continue;
+                    }
+                    if (key.isValid() && key.isWritable() && !session.flush()) {
+                        close(session);
+                    }
+                }
+                GatewaySession session;
+                while (null != (session = flushQueue.poll())) {
+                    if (!session.isClosed() && !session.flush()) {
+                        close(session);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Order gateway selector failed", e);
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while (null != (channel = serverChannel.accept())) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            GatewaySession session = new GatewaySession(this, channel, sessionBufferSize, sessionBufferSize);
+            session.setKey(channel.register(selector, SelectionKey.OP_READ, session));
+            ExecutionReports.register(session.getClientId(), session);
+            synchronized (this) {
+                sessions.add(session);
+            }
+            log.info("Client {} connected", session);
+        }
+    }
+
+    /**
+     * Reads what the socket has and handles every complete request, a partial one is kept for the next read
+     * @return false if the session has to be closed
+     */
+    private boolean read(GatewaySession session) {
+        ByteBuffer in = session.getInbound();
+        try {
+            if (session.getChannel().read(in) < 0) {
+                log.info("Client {} disconnected", session);
+                return false;
+            }
+        } catch (IOException e) {
+            log.warn("Can't read from client {}, {}", session, e.getMessage());
+            return false;
+        }
+        in.flip();
+        try {
+            while (in.remaining() >= HEADER_LENGTH) {
+                int start = in.position();
+                int length = in.getShort(start) & 0xFFFF;
+                byte type = in.get(start + 2);
+                if (length != lengthOf(type)) {
+                    log.error("Malformed request type {} length {} from client {}", type, length, session);
+                    return false;
+                }
+                if (in.remaining() < length) {
+                    break;
+                }
+                requestHandler.handle(session, in, start, type);
+                in.position(start + length);
+            }
+        } finally {
+            in.compact();
+        }
+        return true;
+    }
+
+    private void close(GatewaySession session) {
+        session.close();
+        synchronized (this) {
+            sessions.remove(session);
+        }
+    }
+
+    private void closeAll() {
+        List<GatewaySession> open;
+        synchronized (this) {
+            open = new ArrayList<>(sessions);
+        }
+        for (GatewaySession session : open) {
+            close(session);
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            log.warn("Can't close order gateway channels", e);
+        }
+        log.info("Order gateway on {} stopped", bindAddress);
+    }
+}
@@ -0,0 +1,149 @@
+package com.sk.matching.history;
+
+import com.sk.matching.symbols.Symbol;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Registry of the {@link PriceHistory} of every symbol, indexed by Symbol id, and importer of the historical
+ * Date,Open,High,Low,Close,Adj Close,Volume CSV files into them.
+ *
+ * A history remembers how many bytes of its CSV it has imported: a restart on an unchanged CSV parses nothing,
+ * rows appended to the CSV since (e.g. the day's bar) are parsed and appended, a CSV which shrank is imported
+ * again from scratch.
+ */
+@Log4j2
+public final class PriceHistories {
+
+    private static final String CSV_EXT = ".csv";
+
+    private static volatile PriceHistory[] historiesById = new PriceHistory[0];   //Copy on write
+
+    private PriceHistories() {
+    }
+
+    /**
+     * Opens, and brings up to date with its CSV in csvDir, the history of every symbol, in storeDir
+     * @return number of bars imported
+     */
+    public static synchronized long load(Path csvDir, Path storeDir, Collection<Symbol> symbols) throws IOException {
+        Files.createDirectories(storeDir);
+        long imported = 0;
+        for (Symbol symbol : symbols) {
+            if (symbol.getId() == Symbol.NO_ID) {
+                continue;
+            }
+            PriceHistory history = get(symbol);
+            if (null == history) {
+                Path file = storeDir.resolve(symbol.getName() + PriceHistory.FILE_SUFFIX);
+                try {
+                    history = PriceHistory.open(file, symbol.getPriceScale());
+                } catch (IOException e) {
+                    log.warn("Re-building the price history of {}, {}", symbol.getName(), e.getMessage());
+                    Files.delete(file);
+                    history = PriceHistory.open(file, symbol.getPriceScale());
+                }
+                register(symbol, history);
+            }
+            Path csv = csvDir.resolve(symbol.getName() + CSV_EXT);
+            if (!Files.exists(csv)) {
+                continue;
+            }
+            if (Files.size(csv) < history.getImportedBytes()) {
+                log.warn("{} shrank since it was imported, re-building the price history of {}", csv, symbol.getName());
+                Files.delete(history.getFile());
+                history = PriceHistory.open(history.getFile(), symbol.getPriceScale());
+                register(symbol, history);
+            }
+            imported += importCsv(symbol, history, csv);
+        }
+        return imported;
+    }
+
+    private static void register(Symbol symbol, PriceHistory history) {
+        PriceHistory[] histories = historiesById;
+        if (symbol.getId() >= histories.length) {
+            histories = Arrays.copyOf(histories, symbol.getId() + 1);
+        } else {
+            histories = histories.clone();
+        }
+        histories[symbol.getId()] = history;
+        historiesById = histories;
+    }
+
+    /**
+     * @return history of the symbol, null if it has none loaded
+     */
+    public static PriceHistory get(Symbol symbol) {
+        PriceHistory[] histories = historiesById;
+        int id = symbol.getId();
+        return id >= 0 && id < histories.length ? histories[id] : null;
+    }
+
+    /**
+     * Appends the CSV rows past the bytes already imported into the history
+     * @return number of bars imported
+     */
+    static long importCsv(Symbol symbol, PriceHistory history, Path csv) throws IOException {
+        long size = Files.size(csv);
+        long from = history.getImportedBytes();
+        if (size <= from) {
+            return 0;
+        }
+        String content;
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.allocate((int) (size - from));
+            while (bytes.hasRemaining() && channel.read(bytes, from + bytes.position()) >= 0) {
+                //Read the appended rows
+            }
+            content = new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8);
+        }
+        long imported = 0;
+        long skipped = 0;
+        for (String line : content.split("\r?\n")) {
+            if (line.isBlank() || line.startsWith("Date")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            try {
+                history.append((int) LocalDate.parse(fields[0].trim()).toEpochDay(),
+                        symbol.toPriceUnits(Double.parseDouble(fields[1])),
+                        symbol.toPriceUnits(Double.parseDouble(fields[2])),
+                        symbol.toPriceUnits(Double.parseDouble(fields[3])),
+                        symbol.toPriceUnits(Double.parseDouble(fields[4])),
+                        symbol.toPriceUnits(Double.parseDouble(fields[5])),
+                        Long.parseLong(fields[6].trim()));
+                imported++;
+            } catch (DateTimeParseException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                skipped++;  //e.g. null prices on a non trading day, or a row out of date order
+            }
+        }
+        history.setImportedBytes(size);
+        history.force();
+        log.info("Imported {} bars of {} from {}, {} rows skipped", imported, symbol.getName(), csv, skipped);
+        return imported;
+    }
+
+    /**
+     * Flushes and forgets every history, e.g. on shutdown
+     */
+    public static synchronized void closeAll() {
+        for (PriceHistory history : historiesById) {
+            if (null != history) {
+                history.close();
+            }
+        }
+        historiesById = new PriceHistory[0];
+    }
+}
@@ -0,0 +1,334 @@
+package com.sk.matching.history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Daily bars of one symbol in a memory mapped, columnar file: one primitive column per field, so a scan over a
+ * date range touches only the columns it reads. Prices are in Symbol price units, dates are epoch days.
+ *
+ * A single writer appends bars in date order, re-appending the last date replaces that bar (the day's bar being
+ * updated). Readers on any thread see every bar below size(): the columns are written before the bar count is
+ * released. A full file is copied into one of twice the capacity and renamed over the old one, readers still
+ * holding the old mapping keep reading valid bars from it.
+ * <pre>
+ * 0 magic(4) version(4) capacity(4) pad(4) priceScale(8) count(8) importedBytes(8) pad, 64 date int[capacity],
+ * then open, high, low, close, adjClose and volume long[capacity]
+ * </pre>
+ */
+public final class PriceHistory implements Closeable {
+
+    public static final String FILE_SUFFIX = ".hist";
+    public static final int DEFAULT_CAPACITY = 4096;     //About 16 years of trading days
+    public static final long NO_PRICE = Long.MIN_VALUE;
+
+    private static final int MAGIC = 0x48495354;
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 64;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int PRICE_SCALE_OFFSET = 16;
+    private static final int COUNT_OFFSET = 24;
+    private static final int IMPORTED_BYTES_OFFSET = 32;
+
+    private static final int OPEN = 0;
+    private static final int HIGH = 1;
+    private static final int LOW = 2;
+    private static final int CLOSE = 3;
+    private static final int ADJ_CLOSE = 4;
+    private static final int VOLUME = 5;
+    private static final int LONG_COLUMNS = 6;
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path file;
+    private final long priceScale;
+    private volatile MappedByteBuffer buffer;
+    private volatile int capacity;
+
+    private PriceHistory(Path file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = buffer.getInt(CAPACITY_OFFSET);
+        this.priceScale = buffer.getLong(PRICE_SCALE_OFFSET);
+    }
+
+    /**
+     * Maps the history file, creating an empty one if it does not exist
+     * @param priceScale of the symbol, an existing file written at another scale is refused
+     */
+    public static PriceHistory open(Path file, long priceScale) throws IOException {
+        if (!Files.exists(file)) {
+            create(file, priceScale, DEFAULT_CAPACITY);
+        }
+        MappedByteBuffer buffer = map(file);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a price history file " + file);
+        }
+        if (buffer.getLong(PRICE_SCALE_OFFSET) != priceScale) {
+            throw new IOException("Price history " + file + " is at price scale " + buffer.getLong(PRICE_SCALE_OFFSET)
+                    + ", not " + priceScale);
+        }
+        return new PriceHistory(file, buffer);
+    }
+
+    private static void create(Path file, long priceScale, int capacity) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, byteSize(capacity));
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(CAPACITY_OFFSET, capacity);
+            buffer.putLong(PRICE_SCALE_OFFSET, priceScale);
+            buffer.force();
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    private static long byteSize(int capacity) {
+        return HEADER_LENGTH + (long) capacity * (Integer.BYTES + LONG_COLUMNS * Long.BYTES);
+    }
+
+    /**
+     * Writer thread. Appends the bar of a new date or replaces the last bar if it is for the same date
+     * @throws IllegalArgumentException date is before the last bar's
+     */
+    public synchronized void append(int epochDay, long open, long high, long low, long close, long adjClose,
+                                    long volume) throws IOException {
+        int count = size();
+        int index = count;
+        if (count > 0) {
+            int lastDay = getDate(count - 1);
+            if (epochDay < lastDay) {
+                throw new IllegalArgumentException("Bar of epoch day " + epochDay + " is before the last bar "
+                        + lastDay + " in " + file);
+            }
+            if (epochDay == lastDay) {
+                index = count - 1;
+            }
+        }
+        if (index == capacity) {
+            grow();
+        }
+        MappedByteBuffer columns = buffer;
+        int cap = capacity;
+        columns.putInt(HEADER_LENGTH + index * Integer.BYTES, epochDay);
+        columns.putLong(longOffset(cap, OPEN, index), open);
+        columns.putLong(longOffset(cap, HIGH, index), high);
+        columns.putLong(longOffset(cap, LOW, index), low);
+        columns.putLong(longOffset(cap, CLOSE, index), close);
+        columns.putLong(longOffset(cap, ADJ_CLOSE, index), adjClose);
+        columns.putLong(longOffset(cap, VOLUME, index), volume);
+        LONG_VIEW.setRelease(columns, COUNT_OFFSET, (long) Math.max(count, index + 1));
+    }
+
+    /**
+     * Copies the bars into a file of twice the capacity and maps it in place of the current one
+     */
+    private void grow() throws IOException {
+        MappedByteBuffer old = buffer;
+        int oldCapacity = capacity;
+        int newCapacity = oldCapacity * 2;
+        int count = size();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer grown = channel.map(FileChannel.MapMode.READ_WRITE, 0, byteSize(newCapacity));
+            grown.order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < HEADER_LENGTH; i++) {
+                grown.put(i, old.get(i));
+            }
+            grown.putInt(CAPACITY_OFFSET, newCapacity);
+            for (int i = 0; i < count; i++) {
+                grown.putInt(HEADER_LENGTH + i * Integer.BYTES, old.getInt(HEADER_LENGTH + i * Integer.BYTES));
+                for (int column = 0; column < LONG_COLUMNS; column++) {
+                    grown.putLong(longOffset(newCapacity, column, i), old.getLong(longOffset(oldCapacity, column, i)));
+                }
+            }
+            grown.force();
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        MappedByteBuffer grown = map(file);
+        capacity = newCapacity;
+        buffer = grown;
+    }
+
+    private static int longOffset(int capacity, int column, int index) {
+        return HEADER_LENGTH + capacity * Integer.BYTES + (column * capacity + index) * Long.BYTES;
+    }
+
+    /**
+     * @return number of bars
+     */
+    public int size() {
+        return (int) (long) LONG_VIEW.getAcquire(buffer, COUNT_OFFSET);
+    }
+
+    public long getPriceScale() {
+        return priceScale;
+    }
+
+    /**
+     * @return bytes of the source CSV already imported, see PriceHistories
+     */
+    public long getImportedBytes() {
+        return buffer.getLong(IMPORTED_BYTES_OFFSET);
+    }
+
+    synchronized void setImportedBytes(long importedBytes) {
+        buffer.putLong(IMPORTED_BYTES_OFFSET, importedBytes);
+    }
+
+    public int getDate(int index) {
+        return buffer.getInt(HEADER_LENGTH + index * Integer.BYTES);
+    }
+
+    public long getOpen(int index) {
+        return getLong(OPEN, index);
+    }
+
+    public long getHigh(int index) {
+        return getLong(HIGH, index);
+    }
+
+    public long getLow(int index) {
+        return getLong(LOW, index);
+    }
+
+    public long getClose(int index) {
+        return getLong(CLOSE, index);
+    }
+
+    public long getAdjClose(int index) {
+        return getLong(ADJ_CLOSE, index);
+    }
+
+    public long getVolume(int index) {
+        return getLong(VOLUME, index);
+    }
+
+    private long getLong(int column, int index) {
+        MappedByteBuffer columns = buffer;
+        int cap = columns.getInt(CAPACITY_OFFSET);     //Of this mapping, the field may already be the grown one
+        return columns.getLong(longOffset(cap, column, index));
+    }
+
+    /**
+     * Binary search on the date column
+     * @return index of the first bar on or after the epoch day, size() if there is none
+     */
+    public int indexOf(int epochDay) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getDate(mid) < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Visits the bars with fromEpochDay <= date < toEpochDay in date order
+     */
+    public void scan(int fromEpochDay, int toEpochDay, BarConsumer consumer) {
+        int end = indexOf(toEpochDay);
+        for (int i = indexOf(fromEpochDay); i < end; i++) {
+            consumer.accept(i, getDate(i));
+        }
+    }
+
+    /**
+     * @return close of the last bar, the reference price, NO_PRICE if there is no bar
+     */
+    public long getLastClose() {
+        int count = size();
+        return count == 0 ? NO_PRICE : getClose(count - 1);
+    }
+
+    /**
+     * @return highest high with fromEpochDay <= date < toEpochDay, NO_PRICE if there is no bar
+     */
+    public long getHighest(int fromEpochDay, int toEpochDay) {
+        int end = indexOf(toEpochDay);
+        long highest = NO_PRICE;
+        for (int i = indexOf(fromEpochDay); i < end; i++) {
+            highest = Math.max(highest, getHigh(i));
+        }
+        return highest;
+    }
+
+    /**
+     * @return lowest low with fromEpochDay <= date < toEpochDay, NO_PRICE if there is no bar
+     */
+    public long getLowest(int fromEpochDay, int toEpochDay) {
+        int end = indexOf(toEpochDay);
+        long lowest = Long.MAX_VALUE;
+        for (int i = indexOf(fromEpochDay); i < end; i++) {
+            lowest = Math.min(lowest, getLow(i));
+        }
+        return lowest == Long.MAX_VALUE ? NO_PRICE : lowest;
+    }
+
+    /**
+     * @return standard deviation of the daily log returns of the last bars closes, not annualised, NaN with fewer
+     * than 3 bars
+     */
+    public double getVolatility(int bars) {
+        int end = size();
+        int start = Math.max(1, end - bars);
+        int n = end - start;
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double sum = 0.0d;
+        double sumOfSquares = 0.0d;
+        for (int i = start; i < end; i++) {
+            double logReturn = Math.log((double) getClose(i) / getClose(i - 1));
+            sum += logReturn;
+            sumOfSquares += logReturn * logReturn;
+        }
+        double mean = sum / n;
+        return Math.sqrt(Math.max(0.0d, (sumOfSquares - n * mean * mean) / (n - 1)));
+    }
+
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @FunctionalInterface
+    public interface BarConsumer {
+        /**
+         * @param index of the bar, to read the columns it needs
+         */
+        void accept(int index, int epochDay);
+    }
+}
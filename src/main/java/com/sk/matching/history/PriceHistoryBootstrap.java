@@ -0,0 +1,46 @@
+package com.sk.matching.history;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.symbols.SymbolCache;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Brings the {@link PriceHistories} of every symbol up to date in app-cfg.history-dir when
+ * app-cfg.history-enabled is set
+ */
+@Component
+@Log4j2
+public class PriceHistoryBootstrap {
+
+    private final AppCfg appCfg;
+
+    //SymbolCache is injected to load the histories once the symbols are
+    public PriceHistoryBootstrap(AppCfg appCfg, SymbolCache symbolCache) {
+        this.appCfg = appCfg;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!appCfg.isHistoryEnabled()) {
+            log.info("Price history store is disabled");
+            return;
+        }
+        long start = System.nanoTime();
+        Path historyDir = Paths.get(appCfg.getHistoryDir());
+        long imported = PriceHistories.load(Paths.get(appCfg.getDataDir()), historyDir, SymbolCache.getAllSymbols());
+        log.info("Price histories in {} ready in {} ms, {} bars imported", historyDir,
+                (System.nanoTime() - start) / 1_000_000, imported);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PriceHistories.closeAll();
+    }
+}
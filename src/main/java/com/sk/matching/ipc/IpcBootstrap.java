@@ -0,0 +1,48 @@
+package com.sk.matching.ipc;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Starts the {@link IpcServer} on app-cfg.aeron-driver-dir when app-cfg.ipc-enabled is set
+ */
+@Component
+@Log4j2
+public class IpcBootstrap {
+
+    private final AppCfg appCfg;
+    private IpcServer ipcServer;
+
+    //MatchingEngineBootstrap is injected to accept orders only once the books are recovered
+    public IpcBootstrap(AppCfg appCfg, MatchingEngineBootstrap matchingEngineBootstrap) {
+        this.appCfg = appCfg;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!appCfg.isIpcEnabled()) {
+            log.info("IPC transport is disabled");
+            return;
+        }
+        ipcServer = new IpcServer(Paths.get(appCfg.getAeronDriverDir()));
+        ipcServer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (null != ipcServer) {
+            ipcServer.stop();
+        }
+    }
+
+    public IpcServer getIpcServer() {
+        return ipcServer;
+    }
+}
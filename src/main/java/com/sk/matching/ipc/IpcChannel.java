@@ -0,0 +1,153 @@
+package com.sk.matching.ipc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One client process connection: a memory mapped file holding a request ring (client to engine) and an
+ * execution report ring (engine to client), see {@link IpcRing}.
+ *
+ * The client creates the file under a temporary name and renames it once initialised, so the engine only ever
+ * maps complete channels. Either side flags the channel closed in the header, the engine deletes the file.
+ * <pre>
+ * 0 magic(4) version(4) capacity(4) state(4) clientPid(8) pad, 128 request ring, report ring
+ * </pre>
+ */
+public final class IpcChannel implements Closeable {
+
+    public static final String FILE_SUFFIX = ".ipc";
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+
+    public static final int STATE_ACTIVE = 1;
+    public static final int STATE_CLIENT_CLOSED = 2;
+    public static final int STATE_SERVER_CLOSED = 3;
+
+    private static final int MAGIC = 0x4D454931;
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 128;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int STATE_OFFSET = 12;
+    private static final int PID_OFFSET = 16;
+
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path file;
+    private final FileChannel fileChannel;
+    private final MappedByteBuffer buffer;
+    private final IpcRing requests;
+    private final IpcRing reports;
+
+    private IpcChannel(Path file, FileChannel fileChannel, MappedByteBuffer buffer, int capacity) {
+        this.file = file;
+        this.fileChannel = fileChannel;
+        this.buffer = buffer;
+        this.requests = new IpcRing(buffer, HEADER_LENGTH, capacity);
+        this.reports = new IpcRing(buffer, HEADER_LENGTH + IpcRing.byteSize(capacity), capacity);
+    }
+
+    /**
+     * Client side, creates dir/name.ipc with both rings of the given capacity
+     */
+    public static IpcChannel create(Path dir, String name, int capacity) throws IOException {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Channel capacity must be a power of two " + capacity);
+        }
+        Files.createDirectories(dir);
+        Path file = dir.resolve(name + FILE_SUFFIX);
+        Path tmp = dir.resolve(name + FILE_SUFFIX + ".tmp");
+        int size = HEADER_LENGTH + 2 * IpcRing.byteSize(capacity);
+        FileChannel fileChannel = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+            buffer.putLong(PID_OFFSET, ProcessHandle.current().pid());
+            INT_VIEW.setRelease(buffer, STATE_OFFSET, STATE_ACTIVE);
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            return new IpcChannel(file, fileChannel, buffer, capacity);
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    /**
+     * Engine side, maps a channel created by a client
+     */
+    public static IpcChannel open(Path file) throws IOException {
+        FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, fileChannel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.capacity() < HEADER_LENGTH || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not an IPC channel " + file);
+            }
+            int capacity = buffer.getInt(CAPACITY_OFFSET);
+            if (buffer.capacity() != HEADER_LENGTH + 2 * IpcRing.byteSize(capacity)) {
+                throw new IOException("IPC channel " + file + " size does not match its capacity " + capacity);
+            }
+            return new IpcChannel(file, fileChannel, buffer, capacity);
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public IpcRing getRequests() {
+        return requests;
+    }
+
+    public IpcRing getReports() {
+        return reports;
+    }
+
+    public long getClientPid() {
+        return buffer.getLong(PID_OFFSET);
+    }
+
+    public int getState() {
+        return (int) INT_VIEW.getAcquire(buffer, STATE_OFFSET);
+    }
+
+    public void setState(int state) {
+        INT_VIEW.setRelease(buffer, STATE_OFFSET, state);
+    }
+
+    public boolean isActive() {
+        return getState() == STATE_ACTIVE;
+    }
+
+    /**
+     * Closes this side's file handle, the mapping stays valid until collected
+     */
+    @Override
+    public void close() throws IOException {
+        fileChannel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "IpcChannel{" +
+                "file=" + file +
+                ", clientPid=" + getClientPid() +
+                ", state=" + getState() +
+                '}';
+    }
+}
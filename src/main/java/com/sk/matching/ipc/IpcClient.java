@@ -0,0 +1,109 @@
+package com.sk.matching.ipc;
+
+import com.sk.matching.gateway.GatewayProtocol;
+import com.sk.matching.gateway.GatewayProtocol.ExecutionReportMessage;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Client process side of the shared memory transport, to be used by a single thread.
+ *
+ * Requests are encoded in place into the request ring, prices and quantities in Symbol units like the TCP gateway.
+ * The send methods never block: false means the ring is full (the engine is behind) or the channel is closed.
+ */
+public class IpcClient implements Closeable {
+
+    private final IpcChannel channel;
+    private final ByteBuffer requestView;
+    private final ByteBuffer reportView;
+    private final ExecutionReportMessage message = new ExecutionReportMessage();
+    private Consumer<ExecutionReportMessage> reportConsumer;
+
+    private IpcClient(IpcChannel channel) {
+        this.channel = channel;
+        this.requestView = channel.getRequests().getBuffer().duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.reportView = channel.getReports().getBuffer().duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Creates the channel file dir/name.ipc, picked up by the engine's IpcServer
+     * @param capacity messages buffered each way, power of two
+     */
+    public static IpcClient connect(Path dir, String name, int capacity) throws IOException {
+        return new IpcClient(IpcChannel.create(dir, name, capacity > 0 ? capacity : IpcChannel.DEFAULT_CAPACITY));
+    }
+
+    public boolean sendNew(String symbol, String clOrdId, Side side, OrderType orderType, long price, long qty,
+                           long visibleQty) {
+        int offset = claim();
+        if (offset < 0) {
+            return false;
+        }
+        requestView.position(offset);
+        GatewayProtocol.encodeNew(requestView, symbol, clOrdId, side, orderType, price, qty, visibleQty);
+        channel.getRequests().commit(GatewayProtocol.NEW_LENGTH);
+        return true;
+    }
+
+    public boolean sendCancel(String symbol, long orderId) {
+        int offset = claim();
+        if (offset < 0) {
+            return false;
+        }
+        requestView.position(offset);
+        GatewayProtocol.encodeCancel(requestView, symbol, orderId);
+        channel.getRequests().commit(GatewayProtocol.CANCEL_LENGTH);
+        return true;
+    }
+
+    public boolean sendAmend(String symbol, long orderId, long price, long qty) {
+        int offset = claim();
+        if (offset < 0) {
+            return false;
+        }
+        requestView.position(offset);
+        GatewayProtocol.encodeAmend(requestView, symbol, orderId, price, qty);
+        channel.getRequests().commit(GatewayProtocol.AMEND_LENGTH);
+        return true;
+    }
+
+    /**
+     * Hands the execution reports received so far to the consumer, decoded into one re-used message
+     * @return number of reports handled
+     */
+    public int pollReports(Consumer<ExecutionReportMessage> consumer, int limit) {
+        this.reportConsumer = consumer;
+        return channel.getReports().poll(this::onReport, limit);
+    }
+
+    private void onReport(ByteBuffer buffer, int offset, int length) {
+        reportView.position(offset);
+        reportConsumer.accept(GatewayProtocol.decodeExecutionReport(reportView, message));
+    }
+
+    private int claim() {
+        return channel.isActive() ? channel.getRequests().tryClaim() : -1;
+    }
+
+    /**
+     * @return false once either side closed the channel
+     */
+    public boolean isConnected() {
+        return channel.isActive();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel.isActive()) {
+            channel.setState(IpcChannel.STATE_CLIENT_CLOSED);
+        }
+        channel.close();
+    }
+}
@@ -0,0 +1,123 @@
+package com.sk.matching.ipc;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Single producer, single consumer ring of fixed size slots inside a memory mapped file shared by two processes.
+ *
+ * The producer writes a message in place in the next free slot and publishes it with a release store of its
+ * sequence; the consumer reads the published sequence with an acquire load, handles the messages straight from
+ * the mapping and releases the slots by storing its own sequence. The two sequences sit on their own cache lines,
+ * nothing else is shared and no system call is made on the hand-off.
+ * <pre>
+ * 0 producer sequence(8) pad, 64 consumer sequence(8) pad, 128 slots: length(4) pad(4) payload(SLOT_SIZE - 8)
+ * </pre>
+ */
+public class IpcRing {
+
+    public static final int SLOT_SIZE = 128;
+    public static final int MAX_MESSAGE_LENGTH = SLOT_SIZE - 8;
+
+    private static final int PRODUCER_SEQUENCE_OFFSET = 0;
+    private static final int CONSUMER_SEQUENCE_OFFSET = 64;
+    private static final int SLOTS_OFFSET = 128;
+    private static final int PAYLOAD_OFFSET = 8;
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Handles one message in place, the bytes are only valid during the call
+     */
+    @FunctionalInterface
+    public interface MessageHandler {
+        void onMessage(ByteBuffer buffer, int offset, int length);
+    }
+
+    private final ByteBuffer buffer;
+    private final int base;
+    private final int mask;
+    private long producerSequence;  //Producer side copy of the next sequence to publish
+    private long consumerCache;     //Producer side, last consumer sequence seen
+
+    IpcRing(ByteBuffer buffer, int base, int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two " + capacity);
+        }
+        this.buffer = buffer;
+        this.base = base;
+        this.mask = capacity - 1;
+        this.producerSequence = (long) LONG_VIEW.getAcquire(buffer, base + PRODUCER_SEQUENCE_OFFSET);
+        this.consumerCache = (long) LONG_VIEW.getAcquire(buffer, base + CONSUMER_SEQUENCE_OFFSET);
+    }
+
+    /**
+     * @return bytes taken in the file by a ring of that many slots
+     */
+    public static int byteSize(int capacity) {
+        return SLOTS_OFFSET + capacity * SLOT_SIZE;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Producer side
+     * @return offset in the buffer where the next message is written, -1 if the ring is full
+     */
+    public int tryClaim() {
+        if (producerSequence - consumerCache > mask) {
+            consumerCache = (long) LONG_VIEW.getAcquire(buffer, base + CONSUMER_SEQUENCE_OFFSET);
+            if (producerSequence - consumerCache > mask) {
+                return -1;
+            }
+        }
+        return slotOffset(producerSequence) + PAYLOAD_OFFSET;
+    }
+
+    /**
+     * Producer side, publishes the message written at the claimed offset
+     */
+    public void commit(int length) {
+        if (length < 0 || length > MAX_MESSAGE_LENGTH) {
+            throw new IllegalArgumentException("Invalid message length " + length);
+        }
+        buffer.putInt(slotOffset(producerSequence), length);
+        LONG_VIEW.setRelease(buffer, base + PRODUCER_SEQUENCE_OFFSET, ++producerSequence);
+    }
+
+    /**
+     * Consumer side, hands up to limit published messages to the handler in order
+     * @return number of messages handled
+     */
+    public int poll(MessageHandler handler, int limit) {
+        long consumerSequence = (long) LONG_VIEW.getOpaque(buffer, base + CONSUMER_SEQUENCE_OFFSET);
+        long available = (long) LONG_VIEW.getAcquire(buffer, base + PRODUCER_SEQUENCE_OFFSET) - consumerSequence;
+        int count = (int) Math.min(available, limit);
+        for (int i = 0; i < count; i++) {
+            int slot = slotOffset(consumerSequence);
+            handler.onMessage(buffer, slot + PAYLOAD_OFFSET, buffer.getInt(slot));
+            LONG_VIEW.setRelease(buffer, base + CONSUMER_SEQUENCE_OFFSET, ++consumerSequence);
+        }
+        return count;
+    }
+
+    /**
+     * @return messages published and not consumed yet
+     */
+    public long size() {
+        return (long) LONG_VIEW.getAcquire(buffer, base + PRODUCER_SEQUENCE_OFFSET)
+                - (long) LONG_VIEW.getAcquire(buffer, base + CONSUMER_SEQUENCE_OFFSET);
+    }
+
+    private int slotOffset(long sequence) {
+        return base + SLOTS_OFFSET + ((int) sequence & mask) * SLOT_SIZE;
+    }
+}
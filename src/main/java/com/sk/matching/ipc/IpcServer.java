@@ -0,0 +1,199 @@
+package com.sk.matching.ipc;
+
+import com.sk.matching.exchange.executions.ExecutionReports;
+import com.sk.matching.gateway.GatewayProtocol;
+import com.sk.matching.gateway.GatewayRequestHandler;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Engine side of the shared memory transport: one thread attaches the {@link IpcChannel} files client processes
+ * create under the directory (app-cfg.aeron-driver-dir) and busy polls their request rings, handing
+ * {@link GatewayProtocol} requests to the engine exactly like the TCP gateway does.
+ *
+ * While requests flow the thread spins, so a request is picked up within a fraction of a microsecond of being
+ * published; it backs off to yielding and then parking once every ring has been idle for a while.
+ * New channel files are looked for every SCAN_INTERVAL_MILLIS.
+ */
+@Log4j2
+public class IpcServer {
+
+    private static final int MAX_REQUESTS_PER_POLL = 256;
+    private static final long SCAN_INTERVAL_MILLIS = 100L;
+    private static final int SPIN_TRIES = 10_000;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 50_000L;
+
+    private final Path dir;
+    private final GatewayRequestHandler requestHandler = new GatewayRequestHandler();
+    private final List<IpcSession> sessions = new ArrayList<>();
+    private final Set<Path> attached = new HashSet<>();
+    private IpcSession polled;          //Session whose ring is being polled, read by the message handler
+    private boolean malformed;
+    private Thread serverThread;
+    private volatile boolean running;
+
+    public IpcServer(Path dir) {
+        this.dir = dir;
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        Files.createDirectories(dir);
+        running = true;
+        serverThread = new Thread(this::run, "ipc-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        log.info("IPC server polling channels under {}", dir);
+    }
+
+    public void stop() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        LockSupport.unpark(serverThread);
+        try {
+            serverThread.join(1_000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return number of attached client channels
+     */
+    public synchronized int getSessionCount() {
+        return sessions.size();
+    }
+
+    private void run() {
+        long nextScan = 0L;
+        int idle = 0;
+        try {
+            while (running) {
+                long now = System.currentTimeMillis();
+                if (now >= nextScan) {
+                    scan();
+                    nextScan = now + SCAN_INTERVAL_MILLIS;
+                }
+                int handled = 0;
+                for (int i = sessions.size() - 1; i >= 0; i--) {
+                    IpcSession session = sessions.get(i);
+                    if (!session.getChannel().isActive() || session.isOverflow()) {
+                        detach(session);
+                        continue;
+                    }
+                    handled += poll(session);
+                }
+                idle = handled > 0 ? 0 : idle(idle);
+            }
+        } finally {
+            for (int i = sessions.size() - 1; i >= 0; i--) {
+                detach(sessions.get(i));
+            }
+            log.info("IPC server on {} stopped", dir);
+        }
+    }
+
+    private int poll(IpcSession session) {
+        polled = session;
+        malformed = false;
+        int handled = session.getChannel().getRequests().poll(this::onRequest, MAX_REQUESTS_PER_POLL);
+        if (malformed) {
+            detach(session);
+        }
+        return handled;
+    }
+
+    private void onRequest(ByteBuffer buffer, int offset, int length) {
+        if (malformed) {
+            return;
+        }
+        byte type = buffer.get(offset + 2);
+        if (length < GatewayProtocol.HEADER_LENGTH || length != GatewayProtocol.lengthOf(type)
+                || (buffer.getShort(offset) & 0xFFFF) != length) {
+            log.error("Malformed request type {} length {} from client {}", type, length, polled);
+            malformed = true;
+            return;
+        }
+        requestHandler.handle(polled, buffer, offset, type);
+    }
+
+    private void scan() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + IpcChannel.FILE_SUFFIX)) {
+            for (Path file : files) {
+                if (!attached.contains(file)) {
+                    attach(file);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Can't scan IPC channels under {}", dir, e);
+        }
+    }
+
+    private void attach(Path file) {
+        try {
+            IpcChannel channel = IpcChannel.open(file);
+            if (!channel.isActive()) {
+                channel.close();
+                Files.deleteIfExists(file);     //Left over by a previous run
+                return;
+            }
+            IpcSession session = new IpcSession(channel);
+            ExecutionReports.register(session.getClientId(), session);
+            attached.add(file);
+            synchronized (this) {
+                sessions.add(session);
+            }
+            log.info("Client {} connected, pid {}", session, channel.getClientPid());
+        } catch (IOException e) {
+            log.error("Can't attach IPC channel {}", file, e);
+        }
+    }
+
+    private void detach(IpcSession session) {
+        ExecutionReports.unregister(session.getClientId());
+        IpcChannel channel = session.getChannel();
+        if (channel.isActive()) {
+            channel.setState(IpcChannel.STATE_SERVER_CLOSED);
+        }
+        synchronized (this) {
+            sessions.remove(session);
+        }
+        attached.remove(channel.getFile());
+        try {
+            channel.close();
+            Files.deleteIfExists(channel.getFile());
+        } catch (IOException e) {
+            log.warn("Can't remove IPC channel {}", channel.getFile(), e);
+        }
+        log.info("Client {} disconnected", session);
+    }
+
+    private static int idle(int idle) {
+        if (idle < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+            return idle;
+        }
+        return idle + 1;
+    }
+}
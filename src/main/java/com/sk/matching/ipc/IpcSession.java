@@ -0,0 +1,88 @@
+package com.sk.matching.ipc;
+
+import com.sk.matching.exchange.executions.ExecutionReportListener;
+import com.sk.matching.exchange.executions.ExecutionReports;
+import com.sk.matching.exchange.executions.GenExecutionReport;
+import com.sk.matching.gateway.ClientSession;
+import com.sk.matching.gateway.GatewayProtocol;
+import lombok.extern.log4j.Log4j2;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Engine side of an {@link IpcChannel}, also the client id its orders carry.
+ *
+ * Requests are consumed by the IPC server thread. Execution reports (publisher thread) and rejects (server thread)
+ * are both written into the report ring, the writers take turns on the session's monitor. A client too slow to
+ * drain its reports fills the ring and is disconnected rather than ever blocking the publisher.
+ */
+@Log4j2
+class IpcSession implements ClientSession, ExecutionReportListener {
+
+    private final IpcChannel channel;
+    private final long clientId;
+    private final ByteBuffer reportView;    //Own position over the mapping, guarded by this
+    private boolean overflow;
+
+    IpcSession(IpcChannel channel) {
+        this.channel = channel;
+        this.clientId = ExecutionReports.newClientId();
+        this.reportView = channel.getReports().getBuffer().duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    IpcChannel getChannel() {
+        return channel;
+    }
+
+    @Override
+    public long getClientId() {
+        return clientId;
+    }
+
+    synchronized boolean isOverflow() {
+        return overflow;
+    }
+
+    @Override
+    public synchronized void onExecutionReport(GenExecutionReport report) {
+        int offset = claim();
+        if (offset >= 0) {
+            reportView.position(offset);
+            GatewayProtocol.encodeExecutionReport(reportView, report);
+            channel.getReports().commit(GatewayProtocol.EXEC_REPORT_LENGTH);
+        }
+    }
+
+    @Override
+    public synchronized void reject(byte side, long orderId, ByteBuffer request, int clOrdIdOffset, long price,
+                                    long symbolKey, long transactTime) {
+        int offset = claim();
+        if (offset >= 0) {
+            reportView.position(offset);
+            GatewayProtocol.encodeReject(reportView, side, orderId, request, clOrdIdOffset, price, symbolKey,
+                    transactTime);
+            channel.getReports().commit(GatewayProtocol.EXEC_REPORT_LENGTH);
+        }
+    }
+
+    private int claim() {
+        if (overflow) {
+            return -1;
+        }
+        int offset = channel.getReports().tryClaim();
+        if (offset < 0) {
+            overflow = true;
+            log.warn("Client {} on {} is too slow to read its execution reports", clientId, channel);
+        }
+        return offset;
+    }
+
+    @Override
+    public String toString() {
+        return "IpcSession{" +
+                "clientId=" + clientId +
+                ", channel=" + channel.getFile() +
+                '}';
+    }
+}
@@ -0,0 +1,436 @@
+package com.sk.matching.journal;
+
+import com.sk.matching.exception.OrderCreationException;
+import com.sk.matching.exception.SymbolNotSupportedException;
+import com.sk.matching.exchange.executions.ExecutionReports;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.sequencer.MatchingShards;
+import com.sk.matching.exchange.sequencer.ShardSnapshotHandler;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import com.sk.matching.util.DateUtils;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Periodic binary snapshots of every order book, so a restart loads the latest snapshot and replays only the journal
+ * written after it.
+ *
+ * A snapshot point travels through each shard ring as an event. The shard's matching thread, between two events,
+ * encodes the resting orders of its books together with its journal position and the id counters into a buffer,
+ * which is a consistent point in time copy. A background thread writes the buffer to disk (temp file then atomic
+ * rename) so matching only pauses for the in memory copy. A snapshot is usable once every shard's file exists.
+ */
+@Log4j2
+public class BookSnapshots implements ShardSnapshotHandler {
+
+    static final int MAGIC = 0x4D455331;     //MES1
+    static final int VERSION = 2;           //2 keeps the client id of each order
+    static final String FILE_SUFFIX = ".snapshot";
+
+    private static final int INITIAL_BUFFER_SIZE = 1 << 16;
+
+    private final Path dir;
+    private final LongSupplier lastOrderId;
+    private final LongSupplier currentTradeId;
+    private final AtomicLong snapshotIds = new AtomicLong();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //Writer thread only
+    private final Map<Long, Integer> writtenShards = new HashMap<>();
+    private long lastCompleteSnapshotId;
+    private volatile long completeSnapshotId;
+
+    public BookSnapshots(Path dir, LongSupplier lastOrderId, LongSupplier currentTradeId) {
+        this.dir = dir;
+        this.lastOrderId = lastOrderId;
+        this.currentTradeId = currentTradeId;
+    }
+
+    /**
+     * Publishes a new snapshot point on every shard
+     * @return the snapshot id
+     */
+    public long requestSnapshot() {
+        long snapshotId = snapshotIds.incrementAndGet();
+        MatchingShards.requestSnapshot(snapshotId);
+        return snapshotId;
+    }
+
+    /**
+     * @return id of the latest snapshot written by every shard of this run, 0 if none yet
+     */
+    public long getCompleteSnapshotId() {
+        return completeSnapshotId;
+    }
+
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static String fileName(long generation, long snapshotId, int shard) {
+        return String.format("%012d-%012d-%04d%s", generation, snapshotId, shard, FILE_SUFFIX);
+    }
+
+    @Override
+    public void onSnapshot(int shard, int shardCount, long snapshotId, OrderJournal journal) {
+        if (null == journal) {
+            log.warn("Snapshot {} skipped on shard {}, journal is off", snapshotId, shard);
+            return;
+        }
+        long start = System.nanoTime();
+        Encoder encoder = new Encoder(INITIAL_BUFFER_SIZE);
+        List<OrderBook> books = new ArrayList<>();
+        for (OrderBook book : OrderBook.getBooks()) {
+            if (null != book.getSymbol() && MatchingShards.findShard(book.getSymbol()) == shard) {
+                books.add(book);
+            }
+        }
+        encoder.putInt(MAGIC);
+        encoder.putInt(VERSION);
+        encoder.putLong(journal.getGeneration());
+        encoder.putLong(snapshotId);
+        encoder.putInt(shard);
+        encoder.putInt(shardCount);
+        encoder.putInt(journal.getSegment());
+        encoder.putInt(journal.getPosition());
+        encoder.putLong(lastOrderId.getAsLong());
+        encoder.putLong(currentTradeId.getAsLong());
+        encoder.putLong(DateUtils.getCurrentNanos());
+        encoder.putInt(books.size());
+        for (OrderBook book : books) {
+            encoder.putString(book.getSymbol().getName());
+            int countPosition = encoder.reserveInt();
+            int[] count = new int[1];
+            book.forEachRestingOrder(genOrder -> {
+                encoder.putLong(genOrder.getOrderId());
+                encoder.putLong(genOrder.getClientId());
+                encoder.putByte((byte) genOrder.getSide().getFixSide());
+                encoder.putByte((byte) genOrder.getOrderType().getFixValue());
+                encoder.putLong(genOrder.getOrdPxUnits());
+                encoder.putLong(genOrder.getOrdQtyUnits());
+                encoder.putLong(genOrder.getVisibleQtyUnits());
+                encoder.putLong(genOrder.getCumQtyUnits());
+                encoder.putLong(genOrder.getLeavesQtyUnits());
+                encoder.putLong(genOrder.getCumNotionalUnits());
+                encoder.putLong(genOrder.getLastPriceUnits());
+                encoder.putLong(genOrder.getLastQtyUnits());
+                encoder.putLong(genOrder.getReceivedTS());
+                encoder.putString(genOrder.getClientOrderId());
+                encoder.putString(genOrder.getCurrency());
+                count[0]++;
+            });
+            encoder.putIntAt(countPosition, count[0]);
+        }
+        ByteBuffer snapshot = encoder.flip();
+        log.info("Snapshot {} of shard {} copied, {} books, {} bytes in {} us", snapshotId, shard, books.size(),
+                snapshot.remaining(), (System.nanoTime() - start) / 1_000);
+        long generation = journal.getGeneration();
+        writer.execute(() -> write(generation, snapshotId, shard, shardCount, snapshot));
+    }
+
+    private void write(long generation, long snapshotId, int shard, int shardCount, ByteBuffer snapshot) {
+        Path file = dir.resolve(fileName(generation, snapshotId, shard));
+        Path tmp = dir.resolve(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            log.error("Failed to write snapshot {}", file, e);
+            return;
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Failed to publish snapshot {}", file, e);
+            return;
+        }
+        int written = writtenShards.merge(snapshotId, 1, Integer::sum);
+        if (written == shardCount) {
+            writtenShards.remove(snapshotId);
+            log.info("Snapshot {} of generation {} complete", snapshotId, generation);
+            prune(generation, lastCompleteSnapshotId);
+            lastCompleteSnapshotId = snapshotId;
+            completeSnapshotId = snapshotId;
+        }
+    }
+
+    /**
+     * Keeps the previous complete snapshot as fall back, deletes everything older
+     */
+    private void prune(long generation, long keepFromSnapshotId) {
+        try {
+            for (Path file : snapshotFiles(dir)) {
+                long[] key = parse(file);
+                if (key[0] < generation || (key[0] == generation && key[1] < keepFromSnapshotId)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to prune old snapshots in {}", dir, e);
+        }
+    }
+
+    private static List<Path> snapshotFiles(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(FILE_SUFFIX)).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * @return generation, snapshot id and shard from the file name
+     */
+    private static long[] parse(Path file) {
+        String[] parts = file.getFileName().toString().replace(FILE_SUFFIX, "").split("-");
+        return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2])};
+    }
+
+    /**
+     * What a restart restored from the latest complete snapshot
+     */
+    public static class Restored {
+        public final long generation;
+        public final long snapshotId;
+        public final int[] journalSegments;     //Per shard, segment and offset the journal tail starts at
+        public final int[] journalOffsets;
+        public long lastOrderId;
+        public long currentTradeId;
+        public long orderCount;
+
+        Restored(long generation, long snapshotId, int shardCount) {
+            this.generation = generation;
+            this.snapshotId = snapshotId;
+            this.journalSegments = new int[shardCount];
+            this.journalOffsets = new int[shardCount];
+        }
+    }
+
+    /**
+     * Puts the resting orders of the latest complete snapshot back on their books, must run before any event is
+     * published to the books
+     * @return the restored snapshot, null if there is none
+     */
+    public static Restored restore(Path dir) throws IOException {
+        TreeMap<String, List<Path>> sets = new TreeMap<>();
+        for (Path file : snapshotFiles(dir)) {
+            long[] key = parse(file);
+            sets.computeIfAbsent(String.format("%012d-%012d", key[0], key[1]), k -> new ArrayList<>()).add(file);
+        }
+        for (String key : sets.descendingKeySet()) {
+            List<Path> files = sets.get(key);
+            files.sort(null);
+            ByteBuffer[] buffers = new ByteBuffer[files.size()];
+            int shardCount = -1;
+            boolean usable = true;
+            for (int i = 0; i < files.size() && usable; i++) {
+                buffers[i] = ByteBuffer.wrap(Files.readAllBytes(files.get(i))).order(ByteOrder.LITTLE_ENDIAN);
+                if (buffers[i].remaining() < 8 || buffers[i].getInt(0) != MAGIC
+                        || buffers[i].getInt(4) < 1 || buffers[i].getInt(4) > VERSION) {
+                    usable = false;
+                } else {
+                    shardCount = buffers[i].getInt(28);
+                }
+            }
+            if (!usable || shardCount != files.size()) {
+                log.warn("Snapshot {} is incomplete or unreadable, trying an older one", key);
+                continue;
+            }
+            Restored restored = null;
+            for (ByteBuffer buffer : buffers) {
+                restored = decode(buffer, restored);
+            }
+            log.info("Restored {} resting orders from snapshot {}", restored.orderCount, key);
+            return restored;
+        }
+        return null;
+    }
+
+    private static Restored decode(ByteBuffer buffer, Restored restored) {
+        int version = buffer.getInt(4);
+        buffer.position(8);
+        long generation = buffer.getLong();
+        long snapshotId = buffer.getLong();
+        int shard = buffer.getInt();
+        int shardCount = buffer.getInt();
+        if (null == restored) {
+            restored = new Restored(generation, snapshotId, shardCount);
+        }
+        restored.journalSegments[shard] = buffer.getInt();
+        restored.journalOffsets[shard] = buffer.getInt();
+        restored.lastOrderId = Math.max(restored.lastOrderId, buffer.getLong());
+        restored.currentTradeId = Math.max(restored.currentTradeId, buffer.getLong());
+        buffer.getLong();   //Snapshot time
+        int bookCount = buffer.getInt();
+        for (int b = 0; b < bookCount; b++) {
+            String symbolStr = getString(buffer);
+            int orderCount = buffer.getInt();
+            OrderBook book = null;
+            Symbol symbol = null;
+            try {
+                symbol = SymbolCache.get(symbolStr);
+                book = OrderBook.getBook(symbol);
+            } catch (SymbolNotSupportedException e) {
+                log.error("Snapshot book {} is no longer supported, its {} orders are dropped", symbolStr, orderCount);
+            }
+            for (int o = 0; o < orderCount; o++) {
+                long orderId = buffer.getLong();
+                long clientId = version >= 2 ? buffer.getLong() : 0L;   //Version 1 did not keep the client
+                Side side = Side.valueOf((int) buffer.get());
+                OrderType orderType = OrderType.valueOf((int) buffer.get());
+                long ordPx = buffer.getLong();
+                long ordQty = buffer.getLong();
+                long visibleQty = buffer.getLong();
+                long cumQty = buffer.getLong();
+                long leavesQty = buffer.getLong();
+                long cumNotional = buffer.getLong();
+                long lastPrice = buffer.getLong();
+                long lastQty = buffer.getLong();
+                long receivedTS = buffer.getLong();
+                String clOrdId = getString(buffer);
+                String currency = getString(buffer);
+                if (null == book) {
+                    continue;
+                }
+                try {
+                    GenOrder genOrder = new GenOrder.Builder(clOrdId, symbol, side, orderType)
+                            .with(builder -> {
+                                builder.setPriceUnits(ordPx);
+                                builder.setQtyUnits(ordQty);
+                                builder.setVisibleQtyUnits(visibleQty);
+                                builder.setCurrency(currency);
+                                builder.setClientId(clientId);
+                            })
+                            .buildPooled();
+                    genOrder.setOrderId(orderId);
+                    ExecutionReports.recoverClientId(clientId);
+                    genOrder.restore(cumQty, leavesQty, cumNotional, lastPrice, lastQty);
+                    genOrder.setReceivedTS(receivedTS);
+                    if (book.restoreOrder(genOrder)) {
+                        restored.orderCount++;
+                    } else {
+                        genOrder.release();
+                    }
+                } catch (OrderCreationException e) {
+                    log.error("Can't restore order id {}, clOrdId {} on {}", orderId, clOrdId, symbolStr, e);
+                }
+            }
+        }
+        return restored;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Growable little endian heap buffer, strings as 2 byte length and ASCII bytes, null as length -1
+     */
+    private static class Encoder {
+        private ByteBuffer buffer;
+
+        Encoder(int size) {
+            buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes))
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+
+        void putByte(byte value) {
+            ensure(1);
+            buffer.put(value);
+        }
+
+        void putInt(int value) {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        int reserveInt() {
+            ensure(4);
+            int position = buffer.position();
+            buffer.putInt(0);
+            return position;
+        }
+
+        void putIntAt(int position, int value) {
+            buffer.putInt(position, value);
+        }
+
+        void putLong(long value) {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putString(String str) {
+            if (null == str) {
+                ensure(2);
+                buffer.putShort((short) -1);
+                return;
+            }
+            int length = Math.min(str.length(), OrderJournal.MAX_STRING_LENGTH);
+            ensure(2 + length);
+            buffer.putShort((short) length);
+            for (int i = 0; i < length; i++) {
+                char c = str.charAt(i);
+                buffer.put(c < 0x80 ? (byte) c : (byte) '?');
+            }
+        }
+
+        ByteBuffer flip() {
+            buffer.flip();
+            return buffer;
+        }
+    }
+}
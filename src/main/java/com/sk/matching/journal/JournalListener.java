@@ -0,0 +1,20 @@
+package com.sk.matching.journal;
+
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+
+/**
+ * Receives the decoded records of the order journal in journal order, prices and quantities in Symbol units
+ */
+public interface JournalListener {
+
+    /**
+     * @param clientId client the execution reports of the order go to, 0 for none
+     */
+    void onNew(String symbol, long orderId, String clOrdId, Side side, OrderType orderType,
+               long price, long qty, long visibleQty, String currency, long clientId);
+
+    void onCancel(String symbol, long orderId);
+
+    void onAmend(String symbol, long orderId, long price, long qty);
+}
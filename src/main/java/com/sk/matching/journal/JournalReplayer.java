@@ -0,0 +1,170 @@
+package com.sk.matching.journal;
+
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.sk.matching.journal.OrderJournal.*;
+
+/**
+ * Reads back every journal segment of a directory in generation, shard, segment order.
+ *
+ * Within a generation a book only ever lives on one shard, so replaying shard by shard keeps each book's events in
+ * their original sequence; generations are engine starts and are replayed oldest first.
+ */
+@Log4j2
+public final class JournalReplayer {
+
+    private JournalReplayer() {
+    }
+
+    /**
+     * @return journal segment files of the directory in replay order, empty if the directory does not exist
+     */
+    public static List<Path> segments(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * @return generation the next engine start must journal into, one above the newest found
+     */
+    public static long nextGeneration(Path dir) throws IOException {
+        long last = 0L;
+        for (Path segment : segments(dir)) {
+            String name = segment.getFileName().toString();
+            last = Math.max(last, Long.parseLong(name.substring(0, name.indexOf('-'))));
+        }
+        return last + 1;
+    }
+
+    /**
+     * Decodes every record of every segment into the listener
+     * @return number of records replayed
+     */
+    public static long replay(Path dir, JournalListener listener) throws IOException {
+        long records = 0L;
+        for (Path segment : segments(dir)) {
+            records += replaySegment(segment, listener);
+        }
+        return records;
+    }
+
+    /**
+     * Decodes only the records journaled after a snapshot: generations before the snapshot's are skipped, in its
+     * generation each shard resumes at its snapshot position, later generations are replayed in full
+     * @return number of records replayed
+     */
+    public static long replay(Path dir, BookSnapshots.Restored snapshot, JournalListener listener) throws IOException {
+        long records = 0L;
+        for (Path segment : segments(dir)) {
+            String[] parts = segment.getFileName().toString().replace(FILE_SUFFIX, "").split("-");
+            long generation = Long.parseLong(parts[0]);
+            int shard = Integer.parseInt(parts[1]);
+            int segmentNo = Integer.parseInt(parts[2]);
+            if (generation < snapshot.generation) {
+                continue;
+            }
+            int offset = FILE_HEADER_LENGTH;
+            if (generation == snapshot.generation && shard < snapshot.journalSegments.length) {
+                if (segmentNo < snapshot.journalSegments[shard]) {
+                    continue;
+                }
+                if (segmentNo == snapshot.journalSegments[shard]) {
+                    offset = Math.max(offset, snapshot.journalOffsets[shard]);
+                }
+            }
+            records += replaySegment(segment, offset, listener);
+        }
+        return records;
+    }
+
+    private static long replaySegment(Path segment, JournalListener listener) throws IOException {
+        return replaySegment(segment, FILE_HEADER_LENGTH, listener);
+    }
+
+    private static long replaySegment(Path segment, int offset, JournalListener listener) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int version = buffer.remaining() < FILE_HEADER_LENGTH || buffer.getInt() != MAGIC ? 0 : buffer.getInt();
+        if (version < 1 || version > VERSION) {
+            log.error("Skipping journal segment {}, unknown format", segment);
+            return 0L;
+        }
+        buffer.position(Math.min(offset, buffer.limit()));
+        long records = 0L;
+        while (buffer.remaining() >= RECORD_HEADER_LENGTH) {
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            if (length == 0) {
+                break;  //End of written records, or a record cut by a crash
+            }
+            if (length < RECORD_HEADER_LENGTH || length > buffer.limit() - start) {
+                log.error("Corrupted journal record at {} of {}, length {}, rest of segment skipped", start, segment, length);
+                break;
+            }
+            byte type = buffer.get(start + 4);
+            long orderId = buffer.getLong(start + 8);
+            long price = buffer.getLong(start + 16);
+            long qty = buffer.getLong(start + 24);
+            buffer.position(start + RECORD_HEADER_LENGTH);
+            String symbol = getString(buffer);
+            switch (type) {
+                case TYPE_NEW:
+                    Side side = Side.valueOf((int) buffer.get(start + 5));
+                    OrderType orderType = OrderType.valueOf((int) buffer.get(start + 6));
+                    long visibleQty = buffer.getLong(start + 32);
+                    String clOrdId = getString(buffer);
+                    String currency = getString(buffer);
+                    long clientId = version >= 2 ? buffer.getLong() : 0L;   //Version 1 did not keep the client
+                    listener.onNew(symbol, orderId, clOrdId, side, orderType, price, qty, visibleQty, currency,
+                            clientId);
+                    break;
+                case TYPE_CANCEL:
+                    listener.onCancel(symbol, orderId);
+                    break;
+                case TYPE_AMEND:
+                    listener.onAmend(symbol, orderId, price, qty);
+                    break;
+                default:
+                    log.error("Unknown journal record type {} at {} of {}, skipped", type, start, segment);
+            }
+            buffer.position(start + length);
+            records++;
+        }
+        log.info("Replayed {} records from journal segment {}", records, segment);
+        return records;
+    }
+
+    private static String getString(MappedByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,215 @@
+package com.sk.matching.journal;
+
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.sequencer.OrderEvent;
+import com.sk.matching.exchange.sequencer.OrderEventType;
+import com.sk.matching.util.DateUtils;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append only binary journal of the events one matching shard accepted, written by that shard's matching thread
+ * right before the event is applied to the book.
+ *
+ * Records go into pre-sized memory mapped segment files, a write is a handful of buffer puts with no system call
+ * and no allocation. Each record is committed by writing its length last, a record cut by a crash reads as length 0
+ * and ends the segment on replay. Mapped pages survive a process crash; they reach the disk when the OS flushes
+ * them, on segment roll and on force().
+ *
+ * Files are named by generation (one per engine start), shard and segment so that the lexical order of the names is
+ * the replay order, see {@link JournalReplayer}.
+ */
+@Log4j2
+public class OrderJournal {
+
+    static final int MAGIC = 0x4D454A31;     //MEJ1
+    static final int VERSION = 2;            //2 appends the client id to NEW records
+    static final int FILE_HEADER_LENGTH = 8;
+    static final String FILE_SUFFIX = ".journal";
+
+    //length(4) type(1) side(1) orderType(1) pad(1) orderId(8) price(8) qty(8) visibleQty(8) timestamp(8)
+    static final int RECORD_HEADER_LENGTH = 48;
+    static final int MAX_STRING_LENGTH = Short.MAX_VALUE;
+
+    static final byte TYPE_NEW = 1;
+    static final byte TYPE_CANCEL = 2;
+    static final byte TYPE_AMEND = 3;
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    private final Path dir;
+    private final long generation;
+    private final int shard;
+    private final int segmentSize;
+
+    private int segment = -1;
+    private MappedByteBuffer buffer;
+    private long recordCount;
+
+    public OrderJournal(Path dir, long generation, int shard, int segmentSize) throws IOException {
+        if (segmentSize < FILE_HEADER_LENGTH + RECORD_HEADER_LENGTH + 3 * (2 + MAX_STRING_LENGTH) + 8) {
+            throw new IllegalArgumentException("Journal segment size too small " + segmentSize);
+        }
+        this.dir = dir;
+        this.generation = generation;
+        this.shard = shard;
+        this.segmentSize = segmentSize;
+        roll();
+    }
+
+    static String fileName(long generation, int shard, int segment) {
+        return String.format("%012d-%04d-%06d%s", generation, shard, segment, FILE_SUFFIX);
+    }
+
+    /**
+     * Journals a NEW, CANCEL or AMEND event, other event types are not journaled
+     */
+    public void append(OrderEvent orderEvent) {
+        OrderEventType type = orderEvent.getType();
+        if (type != OrderEventType.NEW && type != OrderEventType.CANCEL && type != OrderEventType.AMEND) {
+            return;
+        }
+        String symbol = orderEvent.getBook().getSymbol().getName();
+        switch (type) {
+            case NEW: {
+                GenOrder genOrder = orderEvent.getGenOrder();
+                int length = RECORD_HEADER_LENGTH + encodedLength(symbol) + encodedLength(genOrder.getClientOrderId())
+                        + encodedLength(genOrder.getCurrency()) + 8;
+                int start = reserve(length);
+                buffer.put(start + 4, TYPE_NEW);
+                buffer.put(start + 5, (byte) genOrder.getSide().getFixSide());
+                buffer.put(start + 6, (byte) genOrder.getOrderType().getFixValue());
+                putHeader(start, genOrder.getOrderId(), genOrder.getOrdPxUnits(), genOrder.getOrdQtyUnits(),
+                        genOrder.getVisibleQtyUnits());
+                buffer.position(start + RECORD_HEADER_LENGTH);
+                putString(symbol);
+                putString(genOrder.getClientOrderId());
+                putString(genOrder.getCurrency());
+                buffer.putLong(genOrder.getClientId());
+                commit(start, length);
+                break;
+            }
+            case CANCEL: {
+                int length = RECORD_HEADER_LENGTH + encodedLength(symbol);
+                int start = reserve(length);
+                buffer.put(start + 4, TYPE_CANCEL);
+                putHeader(start, orderEvent.getOrderId(), 0L, 0L, 0L);
+                buffer.position(start + RECORD_HEADER_LENGTH);
+                putString(symbol);
+                commit(start, length);
+                break;
+            }
+            case AMEND: {
+                int length = RECORD_HEADER_LENGTH + encodedLength(symbol);
+                int start = reserve(length);
+                buffer.put(start + 4, TYPE_AMEND);
+                putHeader(start, orderEvent.getOrderId(), orderEvent.getPrice(), orderEvent.getQty(), 0L);
+                buffer.position(start + RECORD_HEADER_LENGTH);
+                putString(symbol);
+                commit(start, length);
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    private void putHeader(int start, long orderId, long price, long qty, long visibleQty) {
+        buffer.putLong(start + 8, orderId);
+        buffer.putLong(start + 16, price);
+        buffer.putLong(start + 24, qty);
+        buffer.putLong(start + 32, visibleQty);
+        buffer.putLong(start + 40, DateUtils.getCurrentNanos());
+    }
+
+    private static int encodedLength(String str) {
+        return 2 + (null == str ? 0 : Math.min(str.length(), MAX_STRING_LENGTH));
+    }
+
+    /**
+     * Strings are journaled as 2 byte length and one byte per char, i.e. ASCII only, null as length -1
+     */
+    private void putString(String str) {
+        if (null == str) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        int length = Math.min(str.length(), MAX_STRING_LENGTH);
+        buffer.putShort((short) length);
+        for (int i = 0; i < length; i++) {
+            char c = str.charAt(i);
+            buffer.put(c < 0x80 ? (byte) c : (byte) '?');
+        }
+    }
+
+    private int reserve(int length) {
+        if (buffer.remaining() < length + 4) {   //Keep room for the zero length end marker
+            roll();
+        }
+        return buffer.position();
+    }
+
+    private void commit(int start, int length) {
+        buffer.position(start + length);
+        buffer.putInt(start, length);
+        recordCount++;
+    }
+
+    private void roll() {
+        if (null != buffer) {
+            buffer.force();
+        }
+        segment++;
+        Path file = dir.resolve(fileName(generation, shard, segment));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            //Mapping stays valid once the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to create journal segment " + file, e);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        log.info("Journal segment {} opened", file);
+    }
+
+    /**
+     * Flushes the mapped pages of the current segment to the storage device
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return index of the segment currently written
+     */
+    public int getSegment() {
+        return segment;
+    }
+
+    /**
+     * @return offset in the current segment right after the last committed record
+     */
+    public int getPosition() {
+        return buffer.position();
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+}
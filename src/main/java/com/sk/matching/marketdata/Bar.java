@@ -0,0 +1,28 @@
+package com.sk.matching.marketdata;
+
+/**
+ * Reader side copy of one OHLCV bar, re-usable by the caller to keep reading allocation free.
+ * Prices and volume are fixed point, in the Symbol's price / qty units.
+ */
+public class Bar {
+    public long startNanos;     //Epoch nanos the bar's interval starts at
+    public long open;
+    public long high;
+    public long low;
+    public long close;
+    public long volume;
+    public int trades;
+
+    @Override
+    public String toString() {
+        return "Bar{" +
+                "startNanos=" + startNanos +
+                ", open=" + open +
+                ", high=" + high +
+                ", low=" + low +
+                ", close=" + close +
+                ", volume=" + volume +
+                ", trades=" + trades +
+                '}';
+    }
+}
@@ -0,0 +1,261 @@
+package com.sk.matching.marketdata;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.exchange.executions.TradeStore;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * OHLCV bars of every symbol at the app-cfg.bar-intervals (e.g. 1s,1m,1d), app-cfg.bar-history-size bars each.
+ *
+ * One thread tails the {@link TradeStore} of every book, the column store the matching threads already append each
+ * execution to, and folds each match (its aggressive execution) into the {@link BarSeries} of the symbol in O(1).
+ * The matching threads neither wait for nor hand anything to the aggregator.
+ */
+@Component
+@Log4j2
+public class BarAggregator {
+
+    public static final String DEFAULT_INTERVALS = "1s,1m,1d";
+    public static final int DEFAULT_HISTORY_SIZE = 1 << 10;
+    public static final long DAY_NANOS = TimeUnit.DAYS.toNanos(1);
+
+    private static final int MAX_TRADES_PER_POLL = 1 << 12;
+    private static final long IDLE_PARK_NANOS = 100_000L;
+    private static final String CSV_HEADER = "Date,Open,High,Low,Close,Adj Close,Volume";
+
+    private final long[] intervalNanos;
+    private final int historySize;
+    private volatile SymbolBars[] barsById = new SymbolBars[0];    //Copy on write, by Symbol id
+    private volatile boolean running;
+    private Thread aggregationThread;
+
+    /**
+     * Bars of one symbol and how far its trade store has been read, aggregator thread only for the cursor
+     */
+    private static final class SymbolBars {
+        final BarSeries[] series;
+        int nextRow;
+        int resetCount;     //Trade store session the cursor is in
+
+        SymbolBars(long[] intervalNanos, int historySize) {
+            series = new BarSeries[intervalNanos.length];
+            for (int i = 0; i < intervalNanos.length; i++) {
+                series[i] = new BarSeries(intervalNanos[i], historySize);
+            }
+        }
+    }
+
+    public BarAggregator(AppCfg appCfg) {
+        String intervals = null == appCfg.getBarIntervals() || appCfg.getBarIntervals().isBlank()
+                ? DEFAULT_INTERVALS : appCfg.getBarIntervals();
+        this.intervalNanos = Arrays.stream(intervals.split(",")).mapToLong(BarAggregator::parseInterval).toArray();
+        this.historySize = appCfg.getBarHistorySize() > 0 ? appCfg.getBarHistorySize() : DEFAULT_HISTORY_SIZE;
+    }
+
+    /**
+     * @param interval a count and a unit, s, m, h or d, e.g. 5m
+     * @return interval in nanos
+     */
+    public static long parseInterval(String interval) {
+        String value = interval.trim();
+        if (value.length() < 2) {
+            throw new IllegalArgumentException("Invalid bar interval " + interval);
+        }
+        long count = Long.parseLong(value.substring(0, value.length() - 1));
+        TimeUnit unit;
+        switch (value.charAt(value.length() - 1)) {
+            case 's':
+                unit = TimeUnit.SECONDS;
+                break;
+            case 'm':
+                unit = TimeUnit.MINUTES;
+                break;
+            case 'h':
+                unit = TimeUnit.HOURS;
+                break;
+            case 'd':
+                unit = TimeUnit.DAYS;
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid bar interval unit " + interval);
+        }
+        if (count <= 0) {
+            throw new IllegalArgumentException("Invalid bar interval " + interval);
+        }
+        return unit.toNanos(count);
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        aggregationThread = new Thread(this::aggregate, "bar-aggregator");
+        aggregationThread.setDaemon(true);
+        aggregationThread.start();
+        log.info("Bar aggregation started, intervals {} nanos, {} bars each", Arrays.toString(intervalNanos),
+                historySize);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (null != aggregationThread) {
+            LockSupport.unpark(aggregationThread);
+        }
+    }
+
+    private void aggregate() {
+        while (running) {
+            if (!poll()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Folds the trades stored since the last poll into the bars, aggregator thread only
+     * @return true if any trade was read
+     */
+    boolean poll() {
+        int symbolCount = SymbolCache.getSymbolCount();
+        SymbolBars[] bars = barsById;
+        if (bars.length < symbolCount) {
+            int known = bars.length;
+            bars = Arrays.copyOf(bars, symbolCount);
+            for (int id = known; id < symbolCount; id++) {
+                bars[id] = new SymbolBars(intervalNanos, historySize);
+            }
+            barsById = bars;
+        }
+        boolean busy = false;
+        for (int id = 0; id < bars.length; id++) {
+            OrderBook book = OrderBook.getBook(id);
+            if (null != book) {
+                busy |= poll(book.getTradeStore(), bars[id]);
+            }
+        }
+        return busy;
+    }
+
+    private static boolean poll(TradeStore tradeStore, SymbolBars bars) {
+        int resetCount = tradeStore.getResetCount();
+        if (resetCount != bars.resetCount) {
+            bars.resetCount = resetCount;   //New session, its trades start over at row 0
+            bars.nextRow = 0;
+        }
+        int row = bars.nextRow;
+        int end = Math.min(tradeStore.size(), row + MAX_TRADES_PER_POLL);
+        if (row >= end) {
+            return false;
+        }
+        for (; row < end; row++) {
+            if (!tradeStore.isAggressive(row)) {
+                continue;   //Same match as the aggressive row
+            }
+            long time = tradeStore.getTime(row);
+            long price = tradeStore.getPrice(row);
+            long qty = tradeStore.getQty(row);
+            for (BarSeries series : bars.series) {
+                series.onTrade(time, price, qty);
+            }
+        }
+        bars.nextRow = row;
+        return true;
+    }
+
+    /**
+     * @param intervalNanos one of the configured intervals
+     * @return bars of the symbol, null if the interval is not configured or the symbol not aggregated yet
+     */
+    public BarSeries getBars(Symbol symbol, long intervalNanos) {
+        SymbolBars[] bars = barsById;
+        int id = symbol.getId();
+        if (id < 0 || id >= bars.length) {
+            return null;
+        }
+        for (BarSeries series : bars[id].series) {
+            if (series.getIntervalNanos() == intervalNanos) {
+                return series;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Appends the current daily bar of the symbol to a Date,Open,High,Low,Close,Adj Close,Volume CSV, the format of
+     * the data dir price files, creating the file with its header if needed. Adj Close is the close.
+     * @return false if the symbol has no daily bar yet
+     * @throws IllegalStateException 1d is not a configured interval
+     */
+    public boolean appendDailyBar(Symbol symbol, Path csvFile) throws IOException {
+        boolean configured = Arrays.stream(intervalNanos).anyMatch(interval -> interval == DAY_NANOS);
+        if (!configured) {
+            throw new IllegalStateException("Daily bars are not aggregated, intervals " + Arrays.toString(intervalNanos));
+        }
+        BarSeries daily = getBars(symbol, DAY_NANOS);
+        Bar bar = new Bar();
+        if (null == daily || !daily.read(0, bar)) {
+            return false;
+        }
+        String row = toCsvRow(symbol, bar);
+        boolean exists = Files.exists(csvFile) && Files.size(csvFile) > 0;
+        StringBuilder text = new StringBuilder();
+        if (!exists) {
+            text.append(CSV_HEADER).append('\n');
+        } else if (!endsWithNewLine(csvFile)) {
+            text.append('\n');
+        }
+        text.append(row).append('\n');
+        Files.write(csvFile, text.toString().getBytes(StandardCharsets.US_ASCII), StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        return true;
+    }
+
+    static String toCsvRow(Symbol symbol, Bar bar) {
+        String close = formatPrice(symbol, bar.close);
+        return LocalDate.ofEpochDay(Math.floorDiv(bar.startNanos, DAY_NANOS)) + ","
+                + formatPrice(symbol, bar.open) + ","
+                + formatPrice(symbol, bar.high) + ","
+                + formatPrice(symbol, bar.low) + ","
+                + close + ","
+                + close + ","
+                + Math.round(symbol.toQty(bar.volume));
+    }
+
+    private static String formatPrice(Symbol symbol, long priceUnits) {
+        return String.format(Locale.ROOT, "%.6f", symbol.toPrice(priceUnits));
+    }
+
+    private static boolean endsWithNewLine(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    public long[] getIntervalNanos() {
+        return intervalNanos.clone();
+    }
+}
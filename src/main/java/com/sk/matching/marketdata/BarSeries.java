@@ -0,0 +1,123 @@
+package com.sk.matching.marketdata;
+
+import com.sk.matching.util.SeqLock;
+
+/**
+ * The last bars of one symbol at one interval, kept in a power of two ring of primitive columns by the
+ * {@link BarAggregator} thread and published to readers through a {@link SeqLock}, as {@link ConflatedBook} is.
+ *
+ * A trade updates the current bar or starts the next one in O(1), the oldest bar is overwritten once the ring is
+ * full. Intervals without trades have no bar. Bars start on multiples of the interval since the epoch, so 1d bars
+ * are UTC days.
+ */
+public class BarSeries {
+
+    private final SeqLock seqLock = new SeqLock();     //Written by the aggregator thread
+
+    private final long intervalNanos;
+    private final int mask;
+    private final long[] start;
+    private final long[] open;
+    private final long[] high;
+    private final long[] low;
+    private final long[] close;
+    private final long[] volume;
+    private final int[] trades;
+    private long count;     //Bars started so far
+
+    /**
+     * @param capacity bars kept, power of two
+     */
+    public BarSeries(long intervalNanos, int capacity) {
+        if (intervalNanos <= 0) {
+            throw new IllegalArgumentException("Bar interval must be positive " + intervalNanos);
+        }
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Bar series capacity must be a power of two " + capacity);
+        }
+        this.intervalNanos = intervalNanos;
+        this.mask = capacity - 1;
+        this.start = new long[capacity];
+        this.open = new long[capacity];
+        this.high = new long[capacity];
+        this.low = new long[capacity];
+        this.close = new long[capacity];
+        this.volume = new long[capacity];
+        this.trades = new int[capacity];
+    }
+
+    /**
+     * Aggregator thread only
+     * @param timeNanos epoch nanos, not before the trades already aggregated
+     */
+    void onTrade(long timeNanos, long price, long qty) {
+        long barStart = timeNanos - Math.floorMod(timeNanos, intervalNanos);
+        seqLock.beginWrite();
+        int idx = (int) (count - 1) & mask;
+        if (count == 0 || barStart > start[idx]) {
+            idx = (int) count++ & mask;
+            start[idx] = barStart;
+            open[idx] = price;
+            high[idx] = price;
+            low[idx] = price;
+            volume[idx] = 0L;
+            trades[idx] = 0;
+        } else {
+            high[idx] = Math.max(high[idx], price);
+            low[idx] = Math.min(low[idx], price);
+        }
+        close[idx] = price;
+        volume[idx] += qty;
+        trades[idx]++;
+        seqLock.endWrite();
+    }
+
+    /**
+     * Copies a consistent bar, never blocks the aggregator thread
+     * @param ago 0 for the current bar, 1 for the one before and so on
+     * @return false if there is no such bar (yet or any more), the bar is left untouched
+     */
+    public boolean read(int ago, Bar bar) {
+        long v;
+        do {
+            v = seqLock.beginRead();
+            long bars = count;
+            if (ago < 0 || ago >= Math.min(bars, mask + 1)) {
+                if (seqLock.validate(v)) {
+                    return false;
+                }
+                continue;   //Re-checks the version, which moved
+            }
+            int idx = (int) (bars - 1 - ago) & mask;
+            bar.startNanos = start[idx];
+            bar.open = open[idx];
+            bar.high = high[idx];
+            bar.low = low[idx];
+            bar.close = close[idx];
+            bar.volume = volume[idx];
+            bar.trades = trades[idx];
+        } while (!seqLock.validate(v));
+        return true;
+    }
+
+    /**
+     * @return number of bars readable, at most the capacity
+     */
+    public int size() {
+        long v;
+        long bars;
+        do {
+            v = seqLock.beginRead();
+            bars = count;
+        } while (!seqLock.validate(v));
+        return (int) Math.min(bars, mask + 1);
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,112 @@
+package com.sk.matching.marketdata;
+
+import com.sk.matching.exchange.orderbook.L2Feed;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.util.DateUtils;
+import com.sk.matching.util.SeqLock;
+
+import java.util.Iterator;
+import java.util.NavigableMap;
+
+/**
+ * Latest top N depth of one book, kept by the conflation thread from an {@link L2MirrorBook} and published to
+ * subscribers through a seqlock, the same way {@link com.sk.matching.exchange.orderbook.TopOfBook} is.
+ *
+ * However many L2 updates arrived, only the depth after the last one is kept, subscribers copy it at their own pace
+ * and never block the conflation thread nor each other.
+ */
+public class ConflatedBook {
+
+    private final SeqLock seqLock = new SeqLock();     //Written by the conflation thread
+
+    private final Symbol symbol;
+    private final L2MirrorBook mirror;
+    private final DepthSnapshot latest;    //Written by the conflation thread only
+
+    ConflatedBook(Symbol symbol, L2Feed feed, int maxDepth) {
+        this.symbol = symbol;
+        this.mirror = new L2MirrorBook(feed);
+        this.latest = new DepthSnapshot(maxDepth);
+        this.latest.symbol = symbol;
+    }
+
+    /**
+     * Applies the pending L2 updates and publishes the resulting depth, conflation thread only
+     * @return true if any update was read
+     */
+    boolean conflate(int maxUpdates) {
+        if (mirror.poll(maxUpdates) == 0) {
+            return false;
+        }
+        if (mirror.isSynced()) {
+            publish();
+        }
+        return true;
+    }
+
+    private void publish() {
+        seqLock.beginWrite();
+        latest.bidLevels = copyLevels(mirror.getBids(), latest.bidPx, latest.bidQty, latest.bidOrders);
+        latest.askLevels = copyLevels(mirror.getAsks(), latest.askPx, latest.askQty, latest.askOrders);
+        latest.sequence = mirror.getLastSequence();
+        latest.timestamp = DateUtils.getCurrentNanos();
+        seqLock.endWrite();
+    }
+
+    private static int copyLevels(NavigableMap<Long, L2MirrorBook.Level> levels, long[] px, long[] qty, int[] orders) {
+        int count = 0;
+        Iterator<L2MirrorBook.Level> it = levels.values().iterator();
+        while (count < px.length && it.hasNext()) {
+            L2MirrorBook.Level level = it.next();
+            px[count] = level.getPrice();
+            qty[count] = level.getQty();
+            orders[count] = level.getOrderCount();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Copies a consistent depth, as many levels as the snapshot holds, never blocks the conflation thread
+     * @return the snapshot passed in
+     */
+    public DepthSnapshot read(DepthSnapshot snapshot) {
+        long v;
+        do {
+            v = seqLock.beginRead();
+            snapshot.bidLevels = copy(latest.bidLevels, latest.bidPx, latest.bidQty, latest.bidOrders,
+                    snapshot.bidPx, snapshot.bidQty, snapshot.bidOrders);
+            snapshot.askLevels = copy(latest.askLevels, latest.askPx, latest.askQty, latest.askOrders,
+                    snapshot.askPx, snapshot.askQty, snapshot.askOrders);
+            snapshot.sequence = latest.sequence;
+            snapshot.timestamp = latest.timestamp;
+        } while (!seqLock.validate(v));
+        snapshot.symbol = symbol;
+        snapshot.version = v >>> 1;
+        return snapshot;
+    }
+
+    private static int copy(int levels, long[] px, long[] qty, int[] orders,
+                            long[] toPx, long[] toQty, int[] toOrders) {
+        int count = Math.min(Math.min(levels, toPx.length), px.length);
+        System.arraycopy(px, 0, toPx, 0, count);
+        System.arraycopy(qty, 0, toQty, 0, count);
+        System.arraycopy(orders, 0, toOrders, 0, count);
+        return count;
+    }
+
+    /**
+     * @return number of conflated updates published so far
+     */
+    public long getVersion() {
+        return seqLock.getVersion() >>> 1;
+    }
+
+    public Symbol getSymbol() {
+        return symbol;
+    }
+
+    public int getMaxDepth() {
+        return latest.getDepth();
+    }
+}
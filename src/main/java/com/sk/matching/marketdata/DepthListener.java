@@ -0,0 +1,10 @@
+package com.sk.matching.marketdata;
+
+/**
+ * Receives the conflated depth of a push subscription, on the subscription's own thread.
+ * The snapshot is re-used, it is only valid until the call returns.
+ */
+@FunctionalInterface
+public interface DepthListener {
+    void onDepth(DepthSnapshot snapshot);
+}
@@ -0,0 +1,54 @@
+package com.sk.matching.marketdata;
+
+import com.sk.matching.symbols.Symbol;
+
+/**
+ * Top N levels of both sides of one book at one point in time, pre-sized and re-used by its subscription so
+ * delivering a snapshot allocates nothing. Prices and sizes are fixed point, in the Symbol's price / qty units,
+ * index 0 is the best level.
+ */
+public class DepthSnapshot {
+    public Symbol symbol;
+    public long version;        //Changes with every conflated update, 0 before the book was first in sync
+    public long sequence;       //Last L2 feed sequence included
+    public long timestamp;      //Nanos when conflated, see DateUtils
+
+    public final long[] bidPx;
+    public final long[] bidQty;
+    public final int[] bidOrders;
+    public int bidLevels;
+    public final long[] askPx;
+    public final long[] askQty;
+    public final int[] askOrders;
+    public int askLevels;
+
+    public DepthSnapshot(int depth) {
+        bidPx = new long[depth];
+        bidQty = new long[depth];
+        bidOrders = new int[depth];
+        askPx = new long[depth];
+        askQty = new long[depth];
+        askOrders = new int[depth];
+    }
+
+    public int getDepth() {
+        return bidPx.length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DepthSnapshot{")
+                .append("symbol=").append(null != symbol ? symbol.getName() : null)
+                .append(", version=").append(version)
+                .append(", sequence=").append(sequence)
+                .append(", bids=[");
+        for (int i = 0; i < bidLevels; i++) {
+            sb.append(i > 0 ? ", " : "").append(bidQty[i]).append('@').append(bidPx[i]).append('(').append(bidOrders[i]).append(')');
+        }
+        sb.append("], asks=[");
+        for (int i = 0; i < askLevels; i++) {
+            sb.append(i > 0 ? ", " : "").append(askQty[i]).append('@').append(askPx[i]).append('(').append(askOrders[i]).append(')');
+        }
+        return sb.append("]}").toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.sk.matching.marketdata;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One subscriber's view of a {@link ConflatedBook}, with its own depth, rate and re-used snapshot.
+ *
+ * Pull subscriptions are polled by the subscriber whenever it wants. Push subscriptions are a periodic task on the
+ * conflator's shared scheduler which samples the book at the requested interval and calls the listener only when the
+ * depth changed; runs of one subscription never overlap, so a slow listener only delays itself and simply sees fewer,
+ * more conflated, snapshots.
+ */
+@Log4j2
+public class DepthSubscription implements AutoCloseable {
+
+    private final ConflatedBook book;
+    private final DepthSnapshot snapshot;
+    private final ScheduledFuture<?> pushTask;     //Null for a pull subscription
+    private long deliveredVersion;
+
+    DepthSubscription(ConflatedBook book, int depth) {
+        this.book = book;
+        this.snapshot = new DepthSnapshot(Math.min(depth, book.getMaxDepth()));
+        this.pushTask = null;
+    }
+
+    DepthSubscription(ConflatedBook book, int depth, ScheduledExecutorService scheduler, long intervalMillis,
+                      DepthListener listener) {
+        this.book = book;
+        this.snapshot = new DepthSnapshot(Math.min(depth, book.getMaxDepth()));
+        this.pushTask = scheduler.scheduleAtFixedRate(() -> push(listener), 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void push(DepthListener listener) {
+        try {
+            if (poll()) {
+                listener.onDepth(snapshot);
+            }
+        } catch (Exception e) {
+            log.error("Depth listener failed on {}", book.getSymbol().getName(), e);
+        }
+    }
+
+    /**
+     * Copies the latest depth into the subscription's snapshot
+     * @return true if it changed since the previous successful poll
+     */
+    public boolean poll() {
+        book.read(snapshot);
+        if (snapshot.version == 0 || snapshot.version == deliveredVersion) {
+            return false;
+        }
+        deliveredVersion = snapshot.version;
+        return true;
+    }
+
+    /**
+     * @return the re-used snapshot filled by the last poll
+     */
+    public DepthSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public void close() {
+        if (null != pushTask) {
+            pushTask.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.sk.matching.marketdata;
+
+import com.sk.matching.exchange.orderbook.L2Feed;
+import com.sk.matching.exchange.orderbook.L2Update;
+import com.sk.matching.exchange.orderbook.PollResult;
+import com.sk.matching.types.Side;
+
+import java.util.Collections;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Price level copy of one order book maintained from its {@link L2Feed}, never touching the book or its locks.
+ *
+ * Incremental updates are only applied once a full refresh has been seen; after a gap the mirror drops its levels
+ * and waits for the next refresh, which the feed reader requests on detecting the gap.
+ * Confined to the consuming thread, not thread safe.
+ */
+public class L2MirrorBook {
+
+    /**
+     * Aggregate of one price level, Symbol price / qty units
+     */
+    public static class Level {
+        private final long price;
+        private long qty;
+        private int orderCount;
+
+        Level(long price) {
+            this.price = price;
+        }
+
+        public long getPrice() {
+            return price;
+        }
+
+        public long getQty() {
+            return qty;
+        }
+
+        public int getOrderCount() {
+            return orderCount;
+        }
+
+        @Override
+        public String toString() {
+            return qty + "@" + price + "(" + orderCount + ")";
+        }
+    }
+
+    private final L2Feed.Reader reader;
+    private final L2Update update = new L2Update();
+
+    private final NavigableMap<Long, Level> bids = new TreeMap<>(Collections.reverseOrder());
+    private final NavigableMap<Long, Level> asks = new TreeMap<>();
+    private boolean synced;
+    private long lastSequence;
+    private long gaps;
+
+    public L2MirrorBook(L2Feed feed) {
+        this.reader = feed.newReader();
+        feed.requestRefresh();
+    }
+
+    /**
+     * Applies at most maxUpdates pending updates
+     * @return number of updates read
+     */
+    public int poll(int maxUpdates) {
+        int read = 0;
+        while (read < maxUpdates) {
+            PollResult result = reader.poll(update);
+            if (result == PollResult.NONE) {
+                break;
+            }
+            if (result == PollResult.GAP) {
+                gaps++;
+                synced = false;
+                bids.clear();
+                asks.clear();
+                continue;
+            }
+            apply(update);
+            read++;
+        }
+        return read;
+    }
+
+    private void apply(L2Update l2Update) {
+        lastSequence = l2Update.sequence;
+        switch (l2Update.action) {
+            case SNAPSHOT_START:
+                synced = false;
+                bids.clear();
+                asks.clear();
+                break;
+            case SNAPSHOT_LEVEL:
+                put(l2Update);
+                break;
+            case SNAPSHOT_END:
+                synced = true;
+                break;
+            case ADD:
+            case CHANGE:
+                if (synced) {
+                    put(l2Update);
+                }
+                break;
+            case DELETE:
+                if (synced) {
+                    sideOf(l2Update.side).remove(l2Update.price);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void put(L2Update l2Update) {
+        Level level = sideOf(l2Update.side).computeIfAbsent(l2Update.price, Level::new);
+        level.qty = l2Update.qty;
+        level.orderCount = l2Update.orderCount;
+    }
+
+    private NavigableMap<Long, Level> sideOf(Side side) {
+        return side == Side.BUY ? bids : asks;
+    }
+
+    /**
+     * @return true once a full refresh was applied and no gap has been seen since
+     */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * @return bid levels, best (highest) first
+     */
+    public NavigableMap<Long, Level> getBids() {
+        return Collections.unmodifiableNavigableMap(bids);
+    }
+
+    /**
+     * @return ask levels, best (lowest) first
+     */
+    public NavigableMap<Long, Level> getAsks() {
+        return Collections.unmodifiableNavigableMap(asks);
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public long getGaps() {
+        return gaps;
+    }
+}
@@ -0,0 +1,126 @@
+package com.sk.matching.marketdata;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.symbols.Symbol;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Conflation stage between the books' L2 feeds and slow market data consumers.
+ *
+ * One thread drains the L2 feed of every subscribed symbol into a {@link ConflatedBook} holding only the latest
+ * top N depth; subscribers pull or are pushed that depth at their own rate (app-cfg.market-data-depth levels at most).
+ * Push subscriptions share one scheduler of app-cfg.market-data-push-threads threads, a listener slower than its
+ * interval holds one of them at a time and only delays itself.
+ * The matching threads never buffer for a subscriber and subscribers never wait for one another.
+ */
+@Component
+@Log4j2
+public class MarketDataConflator {
+
+    public static final int DEFAULT_DEPTH = 10;
+    public static final int DEFAULT_PUSH_THREADS = 2;
+
+    private static final int MAX_UPDATES_PER_POLL = 1 << 10;
+    private static final long IDLE_PARK_NANOS = 100_000L;
+
+    private final int maxDepth;
+    private final int pushThreads;
+    private final Map<Symbol, ConflatedBook> books = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private Thread conflationThread;
+    private volatile ScheduledExecutorService pushScheduler;
+
+    public MarketDataConflator(AppCfg appCfg) {
+        this.maxDepth = appCfg.getMarketDataDepth() > 0 ? appCfg.getMarketDataDepth() : DEFAULT_DEPTH;
+        this.pushThreads = appCfg.getMarketDataPushThreads() > 0 ? appCfg.getMarketDataPushThreads()
+                : DEFAULT_PUSH_THREADS;
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        conflationThread = new Thread(this::conflate, "md-conflator");
+        conflationThread.setDaemon(true);
+        conflationThread.start();
+        AtomicInteger pusherCount = new AtomicInteger();
+        pushScheduler = Executors.newScheduledThreadPool(pushThreads, r -> {
+            Thread thread = new Thread(r, "md-pusher-" + pusherCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Market data conflation started, {} levels deep, {} push threads", maxDepth, pushThreads);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (null != conflationThread) {
+            LockSupport.unpark(conflationThread);
+        }
+        if (null != pushScheduler) {
+            pushScheduler.shutdownNow();
+        }
+    }
+
+    private void conflate() {
+        while (running) {
+            boolean busy = false;
+            for (ConflatedBook book : books.values()) {
+                busy |= book.conflate(MAX_UPDATES_PER_POLL);
+            }
+            if (!busy) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * @return conflated depth of the symbol, conflated from now on if it was not yet
+     */
+    public ConflatedBook getBook(Symbol symbol) {
+        return books.computeIfAbsent(symbol, s -> {
+            OrderBook orderBook = OrderBook.getBook(s);
+            ConflatedBook book = new ConflatedBook(s, orderBook.getL2Feed(), maxDepth);
+            orderBook.publishL2Refresh();   //Brings the new mirror in sync without waiting for book activity
+            return book;
+        });
+    }
+
+    /**
+     * Subscription polled by the caller, at most depth levels per side
+     */
+    public DepthSubscription subscribe(Symbol symbol, int depth) {
+        return new DepthSubscription(getBook(symbol), depth);
+    }
+
+    /**
+     * Subscription pushing the depth to the listener every intervalMillis when it changed, from the shared push
+     * scheduler
+     * @throws IllegalStateException the conflator is not started
+     */
+    public DepthSubscription subscribe(Symbol symbol, int depth, long intervalMillis, DepthListener listener) {
+        ScheduledExecutorService scheduler = pushScheduler;
+        if (!running || null == scheduler) {
+            throw new IllegalStateException("Market data conflation is not started");
+        }
+        return new DepthSubscription(getBook(symbol), depth, scheduler, intervalMillis, listener);
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+}
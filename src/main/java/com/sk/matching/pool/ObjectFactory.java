@@ -0,0 +1,31 @@
+package com.sk.matching.pool;
+
+/**
+ * Life cycle callbacks of the objects held by an {@link ObjectPool}
+ */
+public interface ObjectFactory<T> {
+
+    /**
+     * @return a new instance, only called while the pool is below PoolConfig.maxSize
+     */
+    T create();
+
+    /**
+     * Called on borrow, an object failing validation is destroyed and never handed out
+     */
+    default boolean validate(T t) {
+        return true;
+    }
+
+    /**
+     * Called on return, clears the state of the previous user so the next borrower starts clean
+     */
+    default void reset(T t) {
+    }
+
+    /**
+     * Called when an object leaves the pool for good (failed validation, pool full on return)
+     */
+    default void destroy(T t) {
+    }
+}
@@ -0,0 +1,167 @@
+package com.sk.matching.pool;
+
+import com.sk.matching.exception.PoolExhaustedException;
+import com.sk.matching.exception.PoolInvalidObjectException;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of re-usable objects.
+ *
+ * Idle objects sit in a pre-sized array queue so borrow and return allocate nothing once the pool is warm.
+ * PoolConfig.minSize objects are created up front, more are created on demand up to PoolConfig.maxSize, beyond
+ * that a borrower waits for a return. Objects are handed out as is, no wrapper, so the caller must return exactly
+ * the instance it borrowed and must not touch it afterwards.
+ */
+@Log4j2
+public class ObjectPool<T> {
+
+    private static final int VALIDATION_TRIES = 3;
+
+    private final String name;
+    private final PoolConfig config;
+    private final ObjectFactory<T> factory;
+    private final BlockingQueue<T> idleObjects;
+    private final AtomicInteger totalCount = new AtomicInteger();
+
+    public ObjectPool(String name, PoolConfig config, ObjectFactory<T> factory) {
+        config.validate();
+        this.name = name;
+        this.config = config;
+        this.factory = factory;
+        this.idleObjects = new ArrayBlockingQueue<>(config.getMaxSize());
+        for (int i = 0; i < config.getMinSize(); i++) {
+            idleObjects.add(factory.create());
+        }
+        totalCount.set(config.getMinSize());
+        log.info("Object pool {} started with {} objects, max {}", name, config.getMinSize(), config.getMaxSize());
+    }
+
+    /**
+     * Borrows on the non blocking path, waiting at most PoolConfig.maxWaitMilliseconds when exhausted
+     */
+    public T borrowObject() {
+        return borrowObject(false);
+    }
+
+    /**
+     * @param blocking true to wait for a return as long as it takes when the pool is exhausted
+     * @throws PoolExhaustedException non blocking borrow only, nothing was returned within maxWaitMilliseconds
+     * @throws PoolInvalidObjectException no object passed factory.validate in a few tries
+     */
+    public T borrowObject(boolean blocking) {
+        for (int i = 0; i < VALIDATION_TRIES; i++) {
+            T t = getObject(blocking);
+            if (factory.validate(t)) {
+                return t;
+            }
+            log.warn("Object pool {} dropping invalid object {}", name, t);
+            destroy(t);
+        }
+        throw new PoolInvalidObjectException();
+    }
+
+    /**
+     * Borrows without ever waiting, for a borrower which can't wait for returns, e.g. one that makes them itself
+     * @return null when the pool is exhausted
+     * @throws PoolInvalidObjectException no object passed factory.validate in a few tries
+     */
+    public T tryBorrowObject() {
+        for (int i = 0; i < VALIDATION_TRIES; i++) {
+            T t = idleObjects.poll();
+            if (null == t) {
+                t = tryCreate();
+            }
+            if (null == t) {
+                return null;
+            }
+            if (factory.validate(t)) {
+                return t;
+            }
+            log.warn("Object pool {} dropping invalid object {}", name, t);
+            destroy(t);
+        }
+        throw new PoolInvalidObjectException();
+    }
+
+    /**
+     * Hands the object back for re-use, state is cleared through factory.reset
+     */
+    public void returnObject(T t) {
+        factory.reset(t);
+        if (!idleObjects.offer(t)) {
+            //Only when more objects are returned than were borrowed, i.e. a double return
+            log.error("Object pool {} is full on return, dropping {}", name, t);
+            destroy(t);
+        }
+    }
+
+    private T getObject(boolean blocking) {
+        T t = idleObjects.poll();
+        if (null != t) {
+            return t;
+        }
+        t = tryCreate();
+        if (null != t) {
+            return t;
+        }
+        try {
+            if (blocking) {
+                t = idleObjects.take();
+            } else {
+                t = idleObjects.poll(config.getMaxWaitMilliseconds(), TimeUnit.MILLISECONDS);
+                if (null == t) {
+                    throw new PoolExhaustedException();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PoolExhaustedException();
+        }
+        return t;
+    }
+
+    private T tryCreate() {
+        int count;
+        do {
+            count = totalCount.get();
+            if (count >= config.getMaxSize()) {
+                return null;
+            }
+        } while (!totalCount.compareAndSet(count, count + 1));
+        try {
+            return factory.create();
+        } catch (RuntimeException e) {
+            totalCount.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void destroy(T t) {
+        totalCount.decrementAndGet();
+        factory.destroy(t);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return objects currently owned by the pool, idle or borrowed
+     */
+    public int getSize() {
+        return totalCount.get();
+    }
+
+    public int getIdleCount() {
+        return idleObjects.size();
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+}
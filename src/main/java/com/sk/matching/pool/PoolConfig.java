@@ -0,0 +1,38 @@
+package com.sk.matching.pool;
+
+import lombok.Data;
+
+/**
+ * Sizing of an {@link ObjectPool}.
+ * minSize objects are created up front, the pool grows on demand up to maxSize and then borrowers wait
+ * for a return, at most maxWaitMilliseconds on the non blocking path.
+ */
+@Data
+public class PoolConfig {
+
+    public static final int DEFAULT_MIN_SIZE = 1 << 10;
+    public static final int DEFAULT_MAX_SIZE = 1 << 16;
+    public static final long DEFAULT_MAX_WAIT_MILLISECONDS = 5_000L;
+
+    private int minSize = DEFAULT_MIN_SIZE;
+    private int maxSize = DEFAULT_MAX_SIZE;
+    private long maxWaitMilliseconds = DEFAULT_MAX_WAIT_MILLISECONDS;
+
+    public PoolConfig() {
+    }
+
+    public PoolConfig(int minSize, int maxSize, long maxWaitMilliseconds) {
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.maxWaitMilliseconds = maxWaitMilliseconds;
+    }
+
+    void validate() {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size min " + minSize + ", max " + maxSize);
+        }
+        if (maxWaitMilliseconds < 0) {
+            throw new IllegalArgumentException("Invalid pool max wait " + maxWaitMilliseconds);
+        }
+    }
+}
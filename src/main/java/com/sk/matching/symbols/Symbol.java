@@ -15,13 +15,100 @@ public class Symbol implements Serializable { /// when extended with more attrib
 
     private static final long serialVersionUID = 2405172041950251807L;
 
+    public static final int NO_ID = -1;     //Symbol not loaded by the SymbolCache
+
     private final String name;
 
+    //Dense id assigned by the SymbolCache in load order, indexes per symbol arrays such as the book registry
+    private final int id;
+
+    public static final double DEFAULT_TICK_SIZE = 0.01d;
+    public static final long DEFAULT_PRICE_SCALE = 10_000L;    //4 decimals
+    public static final long DEFAULT_QTY_SCALE = 100L;         //2 decimals
+
     private double openingPx = 0.0d;
 
+    private final double tickSize;   //Minimum price increment, used to normalise prices to long ticks on the book ladder
+
+    //Fixed point: the engine stores and compares prices as price * priceScale and quantities as qty * qtyScale in longs,
+    //doubles only exist at the edges (order entry, display)
+    private final long priceScale;
+    private final long qtyScale;
+    private final long tickUnits;    //Tick size in price units
+
     public Symbol(String name, Double openingPx ) {
+        this(name, openingPx, DEFAULT_TICK_SIZE);
+    }
+
+    public Symbol(String name, Double openingPx, double tickSize) {
+        this(name, openingPx, tickSize, DEFAULT_PRICE_SCALE, DEFAULT_QTY_SCALE);
+    }
+
+    public Symbol(String name, Double openingPx, double tickSize, long priceScale, long qtyScale) {
+        this(NO_ID, name, openingPx, tickSize, priceScale, qtyScale);
+    }
+
+    public Symbol(int id, String name, Double openingPx, double tickSize, long priceScale, long qtyScale) {
+        if (tickSize <= 0.0d || Double.isNaN(tickSize)) {
+            throw new IllegalArgumentException("Invalid tick size " + tickSize + " for symbol " + name);
+        }
+        if (priceScale <= 0 || qtyScale <= 0) {
+            throw new IllegalArgumentException("Invalid price scale " + priceScale + " or qty scale " + qtyScale
+                    + " for symbol " + name);
+        }
+        long units = Math.round(tickSize * priceScale);
+        if (units < 1 || Math.abs(units - tickSize * priceScale) > 1e-6) {
+            throw new IllegalArgumentException("Tick size " + tickSize + " is not a whole number of price units at scale "
+                    + priceScale + " for symbol " + name);
+        }
+        this.id = id;
         this.name = name;
         this.openingPx = openingPx;
+        this.tickSize = tickSize;
+        this.priceScale = priceScale;
+        this.qtyScale = qtyScale;
+        this.tickUnits = units;
+    }
+
+    /**
+     * Normalises a price to the number of ticks, rounding to the nearest tick
+     * @param price in symbol currency
+     * @return price expressed in whole ticks
+     */
+    public long toTicks(double price) {
+        return Math.round(price / tickSize);
+    }
+
+    /**
+     * @param priceUnits fixed point price
+     * @return true if the price is a whole number of ticks, the only prices the book accepts
+     */
+    public boolean isOnTick(long priceUnits) {
+        return priceUnits % tickUnits == 0L;
+    }
+
+    /**
+     * @param priceUnits fixed point price, on the tick (see isOnTick) for a price of the book
+     * @return price expressed in whole ticks, rounding to the nearest tick
+     */
+    public long unitsToTicks(long priceUnits) {
+        return Math.floorDiv(priceUnits + tickUnits / 2, tickUnits);
+    }
+
+    public long toPriceUnits(double price) {
+        return Math.round(price * priceScale);
+    }
+
+    public double toPrice(long priceUnits) {
+        return (double) priceUnits / priceScale;
+    }
+
+    public long toQtyUnits(double qty) {
+        return Math.round(qty * qtyScale);
+    }
+
+    public double toQty(long qtyUnits) {
+        return (double) qtyUnits / qtyScale;
     }
 
     public Double getOpeningPx() {
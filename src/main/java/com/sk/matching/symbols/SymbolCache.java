@@ -14,10 +14,14 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Stream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Component
 @Log4j2
@@ -33,6 +37,7 @@ public class SymbolCache {
 
     private static final String SYMBOL_FILE_EXT = ".csv";
     private static final Map<String, Symbol> symbolMap = new ConcurrentHashMap<>();
+    private static volatile Symbol[] symbolsById = new Symbol[0];     //Copy on write, by Symbol id
 
     /**
      * KISS => Keeping it Super Simple [for demo]
@@ -47,38 +52,115 @@ public class SymbolCache {
         String symbolFilename = appCfg.getSymbolFile();
         String separator = appCfg.getSymbolFileContentSeparator();
         Path symbolFilePath = dataPathDir.resolve(symbolFilename);
-        try ( Stream<String> lines = Files.lines(symbolFilePath) ) {
-            lines.forEach(ln -> {
-                log.info("Symbol details {}", ln);
-                String []symbolAttributes = ln.split(separator);
-                if ( symbolAttributes.length > 2 ) {
-                    String sy = symbolAttributes[1];
-                    Path syPxFile = dataPathDir.resolve(String.format("%s%s",sy,SYMBOL_FILE_EXT) );
-                    log.info("Loading last price from {}", syPxFile);
-                    if ( Files.exists(syPxFile) ) {
-                        String lastClosingLine = FileUtils.getLastLineOf(syPxFile);
-                        if(null != lastClosingLine && !lastClosingLine.isBlank()) {
-
-                            String[] lastClosingDetails = lastClosingLine.split(separator);
-                            Double lastPx = Double.valueOf(lastClosingDetails[4]);
-
-                            symbolMap.computeIfAbsent(sy, s->new Symbol(sy, lastPx));
-
-                        }
-                    } else {
-                        log.error("There is no historical data file found in data dir {} for symbol {}",
-                                dataPathDir, sy);
-                    }
-                } else {
-                    log.warn("Empty or unexpected line format {}", ln);
+        String imageFilename = appCfg.getSymbolImageFile();
+        Path imagePath = null == imageFilename || imageFilename.isBlank() ? null : dataPathDir.resolve(imageFilename);
+
+        List<SymbolImage.Entry> entries = null == imagePath ? null
+                : SymbolImage.read(imagePath, symbolFilePath, separator, sy -> historyFileOf(dataPathDir, sy));
+        if (null != entries) {
+            log.info("Loaded {} symbols from the symbol image {}", entries.size(), imagePath);
+        } else {
+            entries = loadSources(dataPathDir, symbolFilePath, separator);
+            if (null != entries && null != imagePath) {
+                try {
+                    SymbolImage.write(imagePath, symbolFilePath, separator, entries);
+                } catch (IOException e) {
+                    log.warn("Failed to write the symbol image {}", imagePath, e);
                 }
-            });
+            }
+        }
+
+        for (SymbolImage.Entry entry : null == entries ? List.<SymbolImage.Entry>of() : entries) {
+            if (entry.isTradable()) {
+                symbolMap.computeIfAbsent(entry.name, s -> register(entry.name, entry.lastPx,
+                        entry.tickSize, entry.priceScale, entry.qtyScale));
+            } else if (entry.historySize == SymbolImage.NO_FILE) {
+                log.error("There is no historical data file found in data dir {} for symbol {}",
+                        dataPathDir, entry.name);
+            }
+        }
+
+    }
 
+    /**
+     * Loads every line of the symbol file on the loader threads, each finds its last close by reading its
+     * historical price file backwards from the end
+     * @return entries in symbol file order, null if the symbol file can't be read
+     */
+    private List<SymbolImage.Entry> loadSources(Path dataPathDir, Path symbolFilePath, String separator) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(symbolFilePath);
         } catch (IOException e) {
             log.error("Failed to initialize Equity Symbols from file/s {}", dataPathDir, e );
+            return null;
         }
+        int threads = appCfg.getSymbolLoaderThreads() > 0
+                ? appCfg.getSymbolLoaderThreads() : Runtime.getRuntime().availableProcessors();
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, lines.size())));
+        try {
+            List<Future<SymbolImage.Entry>> futures = new ArrayList<>(lines.size());
+            for (String ln : lines) {
+                futures.add(executorService.submit(() -> loadEntry(dataPathDir, ln, separator)));
+            }
+            List<SymbolImage.Entry> entries = new ArrayList<>(lines.size());
+            for (Future<SymbolImage.Entry> future : futures) {
+                SymbolImage.Entry entry = future.get();
+                if (null != entry) {
+                    entries.add(entry);
+                }
+            }
+            return entries;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while loading the symbols of {}", symbolFilePath);
+            return null;
+        } catch (ExecutionException e) {
+            log.error("Failed to initialize Equity Symbols from file/s {}", dataPathDir, e.getCause());
+            return null;
+        } finally {
+            executorService.shutdown();
+        }
+    }
 
+    /**
+     * @return the symbol of one symbol file line, null if the line is not a symbol
+     */
+    private static SymbolImage.Entry loadEntry(Path dataPathDir, String ln, String separator) throws IOException {
+        log.info("Symbol details {}", ln);
+        String []symbolAttributes = ln.split(separator);
+        if ( symbolAttributes.length <= 2 ) {
+            log.warn("Empty or unexpected line format {}", ln);
+            return null;
+        }
+        String sy = symbolAttributes[1];
+        Path syPxFile = historyFileOf(dataPathDir, sy);
+        long[] stamp = SymbolImage.stamp(syPxFile);   //Before reading, a later change invalidates the image
+        double lastPx = Double.NaN;
+        if (stamp[0] != SymbolImage.NO_FILE) {
+            log.info("Loading last price from {}", syPxFile);
+            String lastClosingLine = FileUtils.getLastLineOf(syPxFile);
+            if(null != lastClosingLine && !lastClosingLine.isBlank()) {
+                String[] lastClosingDetails = lastClosingLine.split(separator);
+                lastPx = Double.parseDouble(lastClosingDetails[4]);
+            }
+        }
+        //Optional 4th column carries the tick size, defaults to a cent
+        double tickSize = symbolAttributes.length > 3 && !symbolAttributes[3].isBlank()
+                ? Double.parseDouble(symbolAttributes[3].trim())
+                : Symbol.DEFAULT_TICK_SIZE;
+        //Optional 5th and 6th columns carry the fixed point price and qty scales
+        long priceScale = symbolAttributes.length > 4 && !symbolAttributes[4].isBlank()
+                ? Long.parseLong(symbolAttributes[4].trim())
+                : Symbol.DEFAULT_PRICE_SCALE;
+        long qtyScale = symbolAttributes.length > 5 && !symbolAttributes[5].isBlank()
+                ? Long.parseLong(symbolAttributes[5].trim())
+                : Symbol.DEFAULT_QTY_SCALE;
+        return new SymbolImage.Entry(sy, stamp[0], stamp[1], lastPx, tickSize, priceScale, qtyScale);
+    }
 
+    private static Path historyFileOf(Path dataPathDir, String sy) {
+        return dataPathDir.resolve(String.format("%s%s",sy,SYMBOL_FILE_EXT));
     }
 
     public static Symbol get(String symbolStr) throws SymbolNotSupportedException {
@@ -97,6 +179,38 @@ public class SymbolCache {
     }
 
 
+    /**
+     * Creates a symbol with the next dense id, ids are never re-used so a symbol keeps its id across re-loads
+     */
+    private static synchronized Symbol register(String name, Double lastPx, double tickSize, long priceScale,
+                                                long qtyScale) {
+        Symbol[] symbols = symbolsById;
+        Symbol symbol = new Symbol(symbols.length, name, lastPx, tickSize, priceScale, qtyScale);
+        Symbol[] grown = Arrays.copyOf(symbols, symbols.length + 1);
+        grown[symbol.getId()] = symbol;
+        symbolsById = grown;
+        return symbol;
+    }
+
+    /**
+     * Resolves a symbol id, e.g. carried by a binary message, with an array load
+     * @throws SymbolNotSupportedException no symbol loaded with this id
+     */
+    public static Symbol get(int symbolId) throws SymbolNotSupportedException {
+        Symbol[] symbols = symbolsById;
+        if (symbolId < 0 || symbolId >= symbols.length) {
+            throw new SymbolNotSupportedException(String.format("Symbol id not supported %d ", symbolId));
+        }
+        return symbols[symbolId];
+    }
+
+    /**
+     * @return number of symbol ids assigned so far, ids run from 0 to getSymbolCount() - 1
+     */
+    public static int getSymbolCount() {
+        return symbolsById.length;
+    }
+
     public static List<Symbol> getAllSymbols() {
         List<Symbol> result = new ArrayList<>();
         if(isInitialized())
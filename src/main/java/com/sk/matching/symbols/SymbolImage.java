@@ -0,0 +1,162 @@
+package com.sk.matching.symbols;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Compact binary image of the reference data loaded by the {@link SymbolCache}, so a restart on unchanged source
+ * files memory maps one small file instead of parsing the symbol file and every historical price file.
+ *
+ * The image records the size and modification time of every file it was built from; it is only used while all
+ * of them still match, otherwise the sources are loaded again and the image re-written. It is written under a
+ * temporary name and renamed, a reader never sees a partial image.
+ * <pre>
+ * magic(4) version(4) symbolFileSize(8) symbolFileModified(8) separatorLength(2) separator count(4), then per entry
+ * nameLength(2) name historySize(8) historyModified(8) lastPx(8) tickSize(8) priceScale(8) qtyScale(8)
+ * </pre>
+ */
+@Log4j2
+final class SymbolImage {
+
+    private static final int MAGIC = 0x53594D31;
+    private static final int VERSION = 1;
+    static final long NO_FILE = -1L;
+
+    private SymbolImage() {
+    }
+
+    /**
+     * One line of the symbol file with what was loaded from its historical price file
+     */
+    static final class Entry {
+        final String name;
+        final long historySize;         //NO_FILE if there was no historical price file
+        final long historyModified;
+        final double lastPx;            //NaN if there was no closing price, the symbol is not tradable
+        final double tickSize;
+        final long priceScale;
+        final long qtyScale;
+
+        Entry(String name, long historySize, long historyModified, double lastPx, double tickSize, long priceScale,
+              long qtyScale) {
+            this.name = name;
+            this.historySize = historySize;
+            this.historyModified = historyModified;
+            this.lastPx = lastPx;
+            this.tickSize = tickSize;
+            this.priceScale = priceScale;
+            this.qtyScale = qtyScale;
+        }
+
+        boolean isTradable() {
+            return !Double.isNaN(lastPx);
+        }
+    }
+
+    /**
+     * @return size and modification millis of the file, size NO_FILE if it does not exist
+     */
+    static long[] stamp(Path file) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new long[]{attributes.size(), attributes.lastModifiedTime().toMillis()};
+        } catch (NoSuchFileException e) {
+            return new long[]{NO_FILE, 0L};
+        }
+    }
+
+    /**
+     * @param historyFileOf resolves a symbol name to its historical price file
+     * @return entries in symbol file order, null if there is no image, it is corrupt or any source file changed
+     */
+    static List<Entry> read(Path image, Path symbolFile, String separator,
+                            Function<String, Path> historyFileOf) {
+        if (!Files.exists(image)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(image, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.warn("Symbol image {} has an unknown format, ignoring it", image);
+                return null;
+            }
+            long[] symbolFileStamp = stamp(symbolFile);
+            if (buffer.getLong() != symbolFileStamp[0] || buffer.getLong() != symbolFileStamp[1]
+                    || !separator.equals(getString(buffer))) {
+                log.info("Symbol file {} changed since the symbol image was written", symbolFile);
+                return null;
+            }
+            int count = buffer.getInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Entry entry = new Entry(getString(buffer), buffer.getLong(), buffer.getLong(), buffer.getDouble(),
+                        buffer.getDouble(), buffer.getLong(), buffer.getLong());
+                long[] historyStamp = stamp(historyFileOf.apply(entry.name));
+                if (historyStamp[0] != entry.historySize
+                        || entry.historySize != NO_FILE && historyStamp[1] != entry.historyModified) {
+                    log.info("Historical prices of {} changed since the symbol image was written", entry.name);
+                    return null;
+                }
+                entries.add(entry);
+            }
+            return entries;
+        } catch (IOException | BufferUnderflowException e) {
+            log.warn("Can't read symbol image {}, {}", image, e.toString());
+            return null;
+        }
+    }
+
+    static void write(Path image, Path symbolFile, String separator, List<Entry> entries) throws IOException {
+        byte[] separatorBytes = separator.getBytes(StandardCharsets.UTF_8);
+        int length = 30 + separatorBytes.length;
+        List<byte[]> names = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            length += 2 + name.length + 48;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        long[] symbolFileStamp = stamp(symbolFile);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(symbolFileStamp[0]).putLong(symbolFileStamp[1]);
+        buffer.putShort((short) separatorBytes.length).put(separatorBytes);
+        buffer.putInt(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            buffer.putShort((short) names.get(i).length).put(names.get(i));
+            buffer.putLong(entry.historySize).putLong(entry.historyModified).putDouble(entry.lastPx)
+                    .putDouble(entry.tickSize).putLong(entry.priceScale).putLong(entry.qtyScale);
+        }
+        buffer.flip();
+        Path tmp = image.resolveSibling(image.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(tmp, image, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -10,4 +10,13 @@ public enum OrderType {//FixTag#40
 
     public int getFixValue(){return fixValue;}
 
+    public static OrderType valueOf(int ordTyp) {
+        if (ordTyp == 1) {
+            return MARKET;
+        } else if (ordTyp == 2) {
+            return LIMIT;
+        }
+        throw new UnsupportedOperationException("Unsupported ORDER TYPE " + ordTyp);
+    }
+
 }
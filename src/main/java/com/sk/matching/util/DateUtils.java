@@ -19,5 +19,13 @@ public interface DateUtils {
         return instant.getEpochSecond() * 100000000L + instant.getNano();
     }
 
+    /**
+     * @return wall clock time as nanos since the epoch
+     */
+    static long getEpochNanos() {
+        Instant instant = Instant.now();
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
 
 }
@@ -1,25 +1,75 @@
 package com.sk.matching.util;
 
-import lombok.extern.log4j.Log4j2;
-
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-
-import java.util.stream.Stream;
+import java.nio.file.StandardOpenOption;
 
 public interface FileUtils {
 
+    int LAST_LINE_CHUNK_SIZE = 4096;
 
+    /**
+     * Reads backwards from the end of the file in chunks, so the cost is the length of the last line whatever
+     * the size of the file. A trailing line terminator does not start a new line, as with Files.lines
+     * @return last line, null if the file is empty or can't be read
+     */
     static String getLastLineOf(Path filePath) {
-        try (Stream<String> stream = Files.lines(filePath) ) {
-            return stream.reduce( (f, s)-> s ).orElse(null);
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long end = channel.size();
+            if (end == 0) {
+                return null;
+            }
+            ByteBuffer chunk = ByteBuffer.allocate(LAST_LINE_CHUNK_SIZE);
+            byte last = readChunk(channel, chunk, end - 1, 1).get(0);
+            if (last == '\n') {
+                end--;
+                if (end > 0 && readChunk(channel, chunk, end - 1, 1).get(0) == '\r') {
+                    end--;
+                }
+            } else if (last == '\r') {
+                end--;
+            }
+            long start = end;
+            boolean found = false;
+            while (start > 0 && !found) {
+                int length = (int) Math.min(LAST_LINE_CHUNK_SIZE, start);
+                long chunkStart = start - length;
+                readChunk(channel, chunk, chunkStart, length);
+                for (int i = length - 1; i >= 0; i--) {
+                    byte b = chunk.get(i);
+                    if (b == '\n' || b == '\r') {
+                        found = true;
+                        break;
+                    }
+                    start = chunkStart + i;
+                }
+            }
+            byte[] line = new byte[(int) (end - start)];
+            ByteBuffer lineBuffer = ByteBuffer.wrap(line);
+            while (lineBuffer.hasRemaining()) {
+                if (channel.read(lineBuffer, start + lineBuffer.position()) < 0) {
+                    break;
+                }
+            }
+            return new String(line, StandardCharsets.UTF_8);
         } catch (IOException e) {
             e.printStackTrace();
         }
         return null;
     }
 
-
+    private static ByteBuffer readChunk(FileChannel channel, ByteBuffer chunk, long position, int length)
+            throws IOException {
+        chunk.clear().limit(length);
+        while (chunk.hasRemaining()) {
+            if (channel.read(chunk, position + chunk.position()) < 0) {
+                throw new IOException("File truncated while reading its last line");
+            }
+        }
+        return chunk;
+    }
 
 }
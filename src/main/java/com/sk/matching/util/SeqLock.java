@@ -0,0 +1,76 @@
+package com.sk.matching.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Sequence lock publishing plain fields from a single writer to readers on any thread without locking.
+ *
+ * The writer bumps the version to odd, stores its fields and bumps it back to even. A reader takes the version
+ * with beginRead, copies the fields and keeps the copy only if validate confirms nothing was written meanwhile,
+ * otherwise it reads again:
+ * <pre>
+ *     long v;
+ *     do {
+ *         v = seqLock.beginRead();
+ *         copy = field;
+ *     } while (!seqLock.validate(v));
+ * </pre>
+ * Readers never block the writer. A single writer at a time is required.
+ */
+public final class SeqLock {
+
+    private static final VarHandle VERSION;
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(SeqLock.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private long version;   //Even when stable, odd while the writer is storing
+
+    /**
+     * Writer only, the stores after it are not seen by readers as consistent until endWrite
+     */
+    public void beginWrite() {
+        long v = (long) VERSION.getOpaque(this);
+        VERSION.setOpaque(this, v + 1);
+        VarHandle.storeStoreFence();
+    }
+
+    public void endWrite() {
+        long v = (long) VERSION.getOpaque(this);
+        VERSION.setRelease(this, v + 1);
+    }
+
+    /**
+     * Waits out a write in progress
+     * @return version to validate the fields read afterwards with
+     */
+    public long beginRead() {
+        long v = (long) VERSION.getAcquire(this);
+        while ((v & 1L) != 0) {
+            Thread.onSpinWait();
+            v = (long) VERSION.getAcquire(this);
+        }
+        return v;
+    }
+
+    /**
+     * @param version returned by beginRead
+     * @return true if nothing was written since, i.e. the fields read in between are consistent
+     */
+    public boolean validate(long version) {
+        VarHandle.loadLoadFence();
+        return version == (long) VERSION.getOpaque(this);
+    }
+
+    /**
+     * @return twice the number of writes, odd while one is in progress
+     */
+    public long getVersion() {
+        return (long) VERSION.getAcquire(this);
+    }
+}
@@ -3,6 +3,7 @@ package com.sk.matching;
 import com.sk.matching.client.ClientWorker;
 import com.sk.matching.config.AppCfg;
 import com.sk.matching.engine.BasicMatchingEngine;
+import com.sk.matching.engine.MatchingEngineBootstrap;
 import com.sk.matching.exception.SymbolNotSupportedException;
 import com.sk.matching.exchange.orderbook.OrderBook;
 import com.sk.matching.symbols.Symbol;
@@ -51,6 +52,7 @@ class BitMexWithIceBergTest {
         Mockito.lenient().when(appCfg.getOrderPrefixBuy()).thenReturn("S");
         symbolCache = new SymbolCache(appCfg);
         symbolCache.init();
+        MatchingEngineBootstrap.configure(appCfg);
     }
 
     @AfterAll
@@ -0,0 +1,95 @@
+package com.sk.matching.benchmark;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.orderbook.PriceLadder;
+import com.sk.matching.exchange.orderbook.PriceLevel;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Cost of removing an arbitrary resting order from a price level as the level depth grows,
+ * intrusive level queue against the ArrayList + removeIf scan it replaced.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.sk.matching.benchmark.PriceLevelRemovalBenchmark
+ * (or straight from the IDE). Not a unit test, surefire does not pick it up.
+ */
+public class PriceLevelRemovalBenchmark {
+
+    private static final int[] DEPTHS = {10, 100, 1_000, 10_000, 100_000};
+    private static final int REMOVALS = 2_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+
+        System.out.printf("%10s %22s %22s%n", "depth", "intrusive ns/remove", "arraylist ns/remove");
+        for (int depth : DEPTHS) {
+            GenOrder[] orders = newOrders(depth);
+            long intrusive = Long.MAX_VALUE;
+            long arrayList = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) { //Best of the rounds, first ones are JIT warm up
+                intrusive = Math.min(intrusive, intrusiveRemoval(orders));
+                arrayList = Math.min(arrayList, arrayListRemoval(orders));
+            }
+            System.out.printf("%10d %22d %22d%n", depth, intrusive / REMOVALS, arrayList / REMOVALS);
+        }
+    }
+
+    private static GenOrder[] newOrders(int depth) throws Exception {
+        GenOrder[] orders = new GenOrder[depth];
+        for (int i = 0; i < depth; i++) {
+            GenOrder.Builder builder = new GenOrder.Builder("BM" + i, "BAC", Side.BUY, OrderType.LIMIT);
+            builder.setPrice(30.00);
+            builder.setQty(100);
+            orders[i] = builder.build();
+        }
+        return orders;
+    }
+
+    /**
+     * Removes a random resting order and appends it back at the tail, so the depth stays constant
+     * @return elapsed nanos for all removals
+     */
+    private static long intrusiveRemoval(GenOrder[] orders) {
+        PriceLevel level = new PriceLadder(Side.BUY, 64).getOrCreate(3000, 300000L);
+        for (GenOrder order : orders) {
+            level.append(order);
+        }
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        for (int i = 0; i < REMOVALS; i++) {
+            GenOrder order = orders[random.nextInt(orders.length)];
+            level.remove(order);
+            level.append(order);
+        }
+        long elapsed = System.nanoTime() - start;
+        while (null != level.pollHead()) {
+            //drain so the orders can be re-used by the next round
+        }
+        return elapsed;
+    }
+
+    private static long arrayListRemoval(GenOrder[] orders) {
+        List<GenOrder> level = new ArrayList<>(List.of(orders));
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        for (int i = 0; i < REMOVALS; i++) {
+            GenOrder order = orders[random.nextInt(orders.length)];
+            level.removeIf(o -> o.equals(order));
+            level.add(order);
+        }
+        return System.nanoTime() - start;
+    }
+}
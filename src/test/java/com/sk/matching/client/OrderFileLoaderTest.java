@@ -0,0 +1,102 @@
+package com.sk.matching.client;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.sequencer.MatchingShards;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+class OrderFileLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    private Symbol symbol;
+    private OrderBook book;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+        symbol = SymbolCache.get("IBM");
+        book = OrderBook.getBook(symbol);
+        book.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        book.reset();
+    }
+
+    @Test
+    void testLoadAcrossWindows() throws Exception {
+        Path file = dir.resolve("orders.txt");
+        Files.write(file, ("L1,B,99.5,100\r\n"
+                + "L2,S,101,50,10\n"
+                + "\n"
+                + "L3,X,100,1\n"
+                + "L4,B,abc,1\n"
+                + "L5,S,100.25,20").getBytes(StandardCharsets.US_ASCII));
+        OrderFileLoader loader = new OrderFileLoader(symbol, 24);   //Lines straddle the mapped windows
+
+        Assertions.assertEquals(3, loader.load(file));
+        Assertions.assertEquals(2, loader.getSkipped());
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+
+        Map<String, GenOrder> orders = book.getOrderHistory().stream()
+                .collect(Collectors.toMap(GenOrder::getClientOrderId, Function.identity()));
+        Assertions.assertEquals(3, orders.size(), orders::toString);
+        Assertions.assertEquals(99.5, orders.get("L1").getOrdPx());
+        Assertions.assertEquals(100.0, orders.get("L1").getOrdQty());
+        Assertions.assertEquals(10.0, orders.get("L2").getVisibleQty());
+        Assertions.assertEquals(50.0, orders.get("L2").getOrdQty());
+        Assertions.assertEquals(100.25, orders.get("L5").getOrdPx());
+        Assertions.assertTrue(Double.isNaN(orders.get("L5").getVisibleQty()));
+        Assertions.assertEquals(loader.getClientId(), orders.get("L5").getClientId());
+        Assertions.assertEquals(99.5, book.getBestBidPrice());
+        Assertions.assertEquals(100.25, book.getBestAskPrice());
+    }
+
+    @Test
+    void testOverflowingDecimalsSkipped() throws Exception {
+        Path file = dir.resolve("overflow.txt");
+        Files.write(file, ("O1,B,99999999999999999999,10\n"
+                + "O2,S,101,92233720368547758070\n"
+                + "O3,S,101,50,92233720368547759\n"
+                + "O4,B,99.5,100\n").getBytes(StandardCharsets.US_ASCII));
+        OrderFileLoader loader = new OrderFileLoader(symbol);
+
+        Assertions.assertEquals(1, loader.load(file));
+        Assertions.assertEquals(3, loader.getSkipped());
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        Assertions.assertEquals(1, book.getOrderHistory().size());
+        Assertions.assertEquals(99.5, book.getBestBidPrice());
+        Assertions.assertTrue(Double.isNaN(book.getBestAskPrice()));
+    }
+
+    @Test
+    void testLineLongerThanWindow() throws Exception {
+        Path file = dir.resolve("long.txt");
+        Files.write(file, "LONG-CL-ORD-ID,B,99,10\n".getBytes(StandardCharsets.US_ASCII));
+        Assertions.assertThrows(IOException.class, () -> new OrderFileLoader(symbol, 8).load(file));
+    }
+}
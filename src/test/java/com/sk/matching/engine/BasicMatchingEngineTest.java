@@ -5,12 +5,15 @@ import com.sk.matching.exception.OrderCreationException;
 import com.sk.matching.exception.SymbolNotSupportedException;
 import com.sk.matching.exchange.order.Order;
 import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.sequencer.MatchingShards;
 import com.sk.matching.exchange.order.GenOrder;
 import com.sk.matching.exchange.order.Trade;
 import com.sk.matching.symbols.Symbol;
 import com.sk.matching.symbols.SymbolCache;
 import com.sk.matching.types.OrderType;
 import com.sk.matching.types.Side;
+import com.sk.matching.util.DateUtils;
+import com.sk.matching.util.ThreadUtils;
 import lombok.extern.log4j.Log4j2;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,6 +23,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Log4j2
@@ -49,6 +53,7 @@ class BasicMatchingEngineTest {
         Mockito.lenient().when(appCfg.getOrderPrefixBuy()).thenReturn("S");
         symbolCache = new SymbolCache(appCfg);
         symbolCache.init();
+        MatchingEngineBootstrap.configure(appCfg);
     }
 
     @Test
@@ -85,6 +90,30 @@ class BasicMatchingEngineTest {
         }
     }
 
+    @Test
+    void testGetTradesFromTradeStore() throws Exception {
+        Symbol fb = SymbolCache.get("FB");
+        int tradesBefore = basicMatchingEngine.getTrades(fb).size();
+        long from = DateUtils.getEpochNanos();
+        GenOrder.Builder buy = new GenOrder.Builder("TS-B1", "FB", Side.BUY, OrderType.LIMIT);
+        buy.setPrice(250.00);
+        buy.setQty(40);
+        basicMatchingEngine.addOrder(buy.build());
+        GenOrder.Builder sell = new GenOrder.Builder("TS-S1", "FB", Side.SELL, OrderType.LIMIT);
+        sell.setPrice(250.00);
+        sell.setQty(40);
+        basicMatchingEngine.addOrder(sell.build());
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+
+        List<Trade> trades = basicMatchingEngine.getTrades(fb);
+        Assertions.assertEquals(tradesBefore + 2, trades.size());
+        List<Trade> recent = basicMatchingEngine.getTrades(fb, from, Long.MAX_VALUE, 10);
+        Assertions.assertEquals(2, recent.size());
+        Assertions.assertEquals(Side.SELL, recent.get(0).tradeSide);    //Aggressive execution first
+        Assertions.assertEquals(40.0, recent.get(1).getTradeQty());
+        Assertions.assertEquals("TS-S1", recent.get(1).counterClOrdIdId);
+    }
+
     @Test
     void testAddOrder() {
         Assertions.assertThrows(NullPointerException.class, ()-> basicMatchingEngine.addOrder(null));
@@ -126,13 +155,83 @@ class BasicMatchingEngineTest {
     }
 
     @Test
-    void testCancelOrder() {
-        Assertions.assertThrows(UnsupportedOperationException.class, ()-> basicMatchingEngine.cancelOrder(null));
+    void testCancelOrder() throws SymbolNotSupportedException, OrderCreationException {
+        Assertions.assertThrows(NullPointerException.class, ()-> basicMatchingEngine.cancelOrder(null));
+
+        GenOrder.Builder ordBuilder = new GenOrder.Builder("CLOrdIdCxl", BAC, Side.BUY, OrderType.LIMIT);
+        ordBuilder.setPrice(1.00);  //Far below anything resting, never crosses
+        ordBuilder.setQty(100);
+        GenOrder genOrder = ordBuilder.build();
+        basicMatchingEngine.addOrder(genOrder);
+        ThreadUtils.pause(200);
+        OrderBook orderBook = basicMatchingEngine.getOrderBook(genOrder.getSymbol());
+        Assertions.assertNotNull(genOrder.getLevel());
+        Assertions.assertSame(genOrder, orderBook.getOrder(genOrder.getOrderId()));
+
+        basicMatchingEngine.cancelOrder(genOrder);
+        ThreadUtils.pause(200);
+        Assertions.assertNull(genOrder.getLevel());
+        Assertions.assertTrue(genOrder.isClosed());
+        Assertions.assertEquals(0.0d, genOrder.getLeavesQty());
     }
 
     @Test
-    void testAmendOrder() {
-        Assertions.assertThrows(UnsupportedOperationException.class, ()-> basicMatchingEngine.amendOrder(null) );
+    void testAmendOrder() throws SymbolNotSupportedException, OrderCreationException {
+        Assertions.assertThrows(NullPointerException.class, ()-> basicMatchingEngine.amendOrder(null) );
+
+        GenOrder.Builder ordBuilder = new GenOrder.Builder("CLOrdIdAmd", BAC, Side.BUY, OrderType.LIMIT);
+        ordBuilder.setPrice(1.00);
+        ordBuilder.setQty(100);
+        GenOrder genOrder = ordBuilder.build();
+        basicMatchingEngine.addOrder(genOrder);
+        ThreadUtils.pause(200);
+
+        GenOrder.Builder amendBuilder = new GenOrder.Builder("CLOrdIdAmd", BAC, Side.BUY, OrderType.LIMIT);
+        amendBuilder.setPrice(2.00);
+        amendBuilder.setQty(50);
+        GenOrder amendment = amendBuilder.build();
+        amendment.setOrderId(genOrder.getOrderId());
+        basicMatchingEngine.amendOrder(amendment);
+        ThreadUtils.pause(200);
+
+        Assertions.assertEquals(2.00, genOrder.getOrdPx());
+        Assertions.assertEquals(50, genOrder.getLeavesQty());
+        Assertions.assertNotNull(genOrder.getLevel());
+        Assertions.assertEquals(genOrder.getSymbol().toPriceUnits(2.00), genOrder.getLevel().getPrice());
+
+        basicMatchingEngine.cancelOrder(genOrder);
+        ThreadUtils.pause(200);
+        Assertions.assertTrue(genOrder.isClosed());
     }
-}
 
+    @Test
+    void testAddAndCancelOrdersBatch() throws SymbolNotSupportedException, OrderCreationException {
+        List<GenOrder> quotes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String symbol = i < 60 ? BAC : "FB";
+            GenOrder.Builder builder = new GenOrder.Builder("CLOrdIdBatch" + i, symbol, Side.BUY, OrderType.LIMIT);
+            builder.setPrice(1.00 + i * 0.01);   //Far below anything resting, never crosses
+            builder.setQty(10);
+            quotes.add(builder.build());
+        }
+        basicMatchingEngine.addOrders(quotes);
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+
+        long firstOrderId = quotes.get(0).getOrderId();
+        Assertions.assertEquals(firstOrderId + quotes.size() - 1, quotes.get(quotes.size() - 1).getOrderId());
+        for (int i = 0; i < quotes.size(); i++) {
+            GenOrder quote = quotes.get(i);
+            Assertions.assertEquals(firstOrderId + i, quote.getOrderId());
+            Assertions.assertSame(quote, basicMatchingEngine.getOrderBook(quote.getSymbol()).getOrder(quote.getOrderId()));
+            Assertions.assertNotNull(quote.getLevel());
+        }
+
+        basicMatchingEngine.cancelOrders(quotes);
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        for (GenOrder quote : quotes) {
+            Assertions.assertTrue(quote.isClosed());
+            Assertions.assertNull(quote.getLevel());
+        }
+        Assertions.assertThrows(NullPointerException.class, ()-> basicMatchingEngine.cancelOrders(null));
+    }
+}
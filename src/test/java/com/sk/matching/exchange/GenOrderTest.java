@@ -0,0 +1,98 @@
+package com.sk.matching.exchange;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exception.OrderCreationException;
+import com.sk.matching.exception.SymbolNotSupportedException;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GenOrderTest {
+
+    @BeforeEach
+    void setUp() {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+    }
+
+    private static GenOrder newOrder(double px, double qty) throws SymbolNotSupportedException, OrderCreationException {
+        GenOrder.Builder builder = new GenOrder.Builder("FP1", "BAC", Side.BUY, OrderType.LIMIT);
+        builder.setPrice(px);
+        builder.setQty(qty);
+        return builder.build();
+    }
+
+    @Test
+    void testBuildStoresFixedPoint() throws Exception {
+        GenOrder genOrder = newOrder(20.15, 12.5);
+        Symbol symbol = genOrder.getSymbol();
+        Assertions.assertEquals(20.15 * symbol.getPriceScale(), genOrder.getOrdPxUnits(), 0.0);
+        Assertions.assertEquals(12.5 * symbol.getQtyScale(), genOrder.getLeavesQtyUnits(), 0.0);
+        Assertions.assertEquals(20.15, genOrder.getOrdPx());
+        Assertions.assertEquals(12.5, genOrder.getLeavesQty());
+        Assertions.assertTrue(Double.isNaN(genOrder.getVisibleQty()));
+    }
+
+    @Test
+    void testBuildFromUnits() throws Exception {
+        GenOrder.Builder builder = new GenOrder.Builder("FP2", "BAC", Side.SELL, OrderType.LIMIT);
+        builder.setPriceUnits(201_503L);
+        builder.setQtyUnits(1_250L);
+        builder.setVisibleQtyUnits(250L);
+        GenOrder genOrder = builder.build();
+        Assertions.assertEquals(201_503L, genOrder.getOrdPxUnits(), "Units are kept as is, even off the tick");
+        Assertions.assertEquals(1_250L, genOrder.getOrdQtyUnits());
+        Assertions.assertEquals(1_250L, genOrder.getLeavesQtyUnits());
+        Assertions.assertEquals(250L, genOrder.getVisibleQtyUnits());
+
+        GenOrder.Builder noQty = new GenOrder.Builder("FP3", "BAC", Side.SELL, OrderType.LIMIT);
+        noQty.setPriceUnits(201_500L);
+        noQty.setQtyUnits(0L);
+        Assertions.assertThrows(OrderCreationException.class, noQty::build);
+        GenOrder.Builder noPrice = new GenOrder.Builder("FP4", "BAC", Side.SELL, OrderType.LIMIT);
+        noPrice.setQtyUnits(100L);
+        Assertions.assertThrows(OrderCreationException.class, noPrice::build);
+    }
+
+    @Test
+    void testAvgPxDoesNotDriftOverPartialFills() throws Exception {
+        int fills = 10_000;
+        GenOrder genOrder = newOrder(20.03, fills);
+        Symbol symbol = genOrder.getSymbol();
+        long one = symbol.toQtyUnits(1);
+        for (int i = 0; i < fills; i++) {
+            long px = symbol.toPriceUnits(i % 2 == 0 ? 20.01 : 20.02);
+            Assertions.assertNotNull(genOrder.execute(i, px, one, "CTR" + i));
+        }
+        Assertions.assertEquals(20.015, genOrder.getAvgPx());
+        Assertions.assertEquals(fills, genOrder.getCumQty());
+        Assertions.assertEquals(0L, genOrder.getLeavesQtyUnits());
+        Assertions.assertTrue(genOrder.isClosed());
+    }
+
+    @Test
+    void testQtyBelowScaleIsRejected() {
+        Assertions.assertThrows(OrderCreationException.class, () -> newOrder(20.00, 0.001));
+    }
+
+    @Test
+    void testSymbolScales() {
+        Symbol symbol = new Symbol("FP", 10.0, 0.05, 100, 1);
+        Assertions.assertEquals(1005L, symbol.toPriceUnits(10.05));
+        Assertions.assertEquals(201L, symbol.unitsToTicks(1005L));
+        Assertions.assertEquals(10.05, symbol.toPrice(1005L));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Symbol("FP", 10.0, 0.001, 100, 1),
+                "Tick below one price unit");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Symbol("FP", 10.0, 0.01, 0, 1));
+    }
+}
@@ -1,10 +1,14 @@
 package com.sk.matching.exchange;
 
 import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
 import com.sk.matching.exception.OrderCreationException;
 import com.sk.matching.exception.SymbolNotSupportedException;
 import com.sk.matching.exchange.order.GenOrder;
 import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.orderbook.TopOfBook;
+import com.sk.matching.exchange.sequencer.MatchingShards;
+import com.sk.matching.symbols.Symbol;
 import com.sk.matching.symbols.SymbolCache;
 import com.sk.matching.types.OrderType;
 import com.sk.matching.types.Side;
@@ -16,6 +20,8 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Log4j2
 class OrderBookTest {
@@ -64,6 +70,7 @@ class OrderBookTest {
         Mockito.lenient().when(appCfg.getOrderPrefixBuy()).thenReturn("S");
         symbolCache = new SymbolCache(appCfg);
         symbolCache.init();
+        MatchingEngineBootstrap.configure(appCfg);
         try {
             orderBook = OrderBook.getBook(SymbolCache.get(symbolStr));
         } catch (SymbolNotSupportedException e) {
@@ -164,6 +171,22 @@ class OrderBookTest {
         Assertions.assertEquals(buyOrder.getOrdPx(), result);
     }
 
+    @Test
+    void testGetQuote() {
+        orderBook.reset();
+        orderBook.setOrder(buyOrder);
+        TopOfBook.Quote quote = orderBook.getQuote(new TopOfBook.Quote());
+        Assertions.assertEquals(buyOrder.getOrdPxUnits(), quote.bidPx);
+        Assertions.assertEquals(buyOrder.getLeavesQtyUnits(), quote.bidQty);
+        Assertions.assertEquals(1, quote.bidOrders);
+        Assertions.assertEquals(TopOfBook.NO_PRICE, quote.askPx);
+
+        orderBook.removeOrder(buyOrder);
+        orderBook.getQuote(quote);
+        Assertions.assertEquals(TopOfBook.NO_PRICE, quote.bidPx);
+        Assertions.assertEquals(0, quote.bidOrders);
+    }
+
     @Test
     void testRemoveAsk() {
         Assertions.assertThrows(NullPointerException.class, ()->orderBook.removeAsk(null));
@@ -180,6 +203,39 @@ class OrderBookTest {
         Assertions.assertTrue(result);
     }
 
+    @Test
+    void testCancelOrder() {
+        orderBook.reset();
+        buyOrder.setOrderId(42L);
+        orderBook.setOrder(buyOrder);
+        Assertions.assertSame(buyOrder, orderBook.getOrder(42L));
+
+        Assertions.assertSame(buyOrder, orderBook.cancelOrder(42L));
+        Assertions.assertTrue(buyOrder.isClosed());
+        Assertions.assertTrue(orderBook.getBestBid().isEmpty());
+        Assertions.assertTrue(Double.isNaN(orderBook.getBestBidPrice()));
+
+        Assertions.assertNull(orderBook.cancelOrder(42L), "Already cancelled");
+        Assertions.assertNull(orderBook.cancelOrder(43L), "Unknown order id");
+    }
+
+    @Test
+    void testPurgeClosedOrders() {
+        orderBook.reset();
+        buyOrder.setOrderId(42L);
+        sellOrder.setOrderId(43L);
+        orderBook.setOrder(buyOrder);
+        orderBook.setOrder(sellOrder);
+        orderBook.cancelOrder(42L);
+
+        Assertions.assertEquals(1, orderBook.purgeClosedOrders(), "Only the cancelled order is released");
+        Assertions.assertNull(orderBook.getOrder(42L));
+        Assertions.assertSame(sellOrder, orderBook.getOrder(43L));
+        Assertions.assertEquals(42L, buyOrder.getOrderId(), "Orders built for clients are never recycled");
+        Assertions.assertTrue(buyOrder.isClosed());
+        Assertions.assertEquals(0, orderBook.purgeClosedOrders());
+    }
+
     @Test
     void testGetOrderHistory() {
         orderBook.reset();
@@ -202,6 +258,47 @@ class OrderBookTest {
         String result = orderBook.toString();
         Assertions.assertTrue( result.contains(symbolStr));
     }
+
+    @Test
+    void testResetOnTheMatchingThread() throws Exception {
+        orderBook.reset();
+        Assertions.assertTrue(orderBook.setOrder(buyOrder));
+        CompletableFuture<Boolean> reset = new CompletableFuture<>();
+        //Snapshot handlers run on the matching thread of each shard, a reset there must not wait for itself
+        MatchingShards.setSnapshotHandler((shard, shardCount, snapshotId, journal) -> {
+            if (MatchingShards.ringFor(orderBook.getSymbol()).isMatchingThread()) {
+                orderBook.reset();
+                reset.complete(orderBook.getOrderHistory().isEmpty());
+            }
+        });
+        try {
+            MatchingShards.requestSnapshot(1L);
+            Assertions.assertTrue(reset.get(5, TimeUnit.SECONDS));
+        } finally {
+            MatchingShards.setSnapshotHandler(null);
+        }
+    }
+
+    @Test
+    void testBookRegistryBySymbolId() throws SymbolNotSupportedException {
+        List<Symbol> symbols = SymbolCache.getAllSymbols();
+        Assertions.assertEquals(symbols.size(), SymbolCache.getSymbolCount());
+        Set<Integer> ids = new HashSet<>();
+        for (Symbol symbol : symbols) {
+            Assertions.assertTrue(symbol.getId() >= 0 && symbol.getId() < symbols.size());
+            Assertions.assertTrue(ids.add(symbol.getId()));
+            Assertions.assertSame(symbol, SymbolCache.get(symbol.getId()));
+            OrderBook book = OrderBook.getBook(symbol);
+            Assertions.assertSame(book, OrderBook.getBook(symbol.getId()));
+            Assertions.assertSame(book, OrderBook.getBook(SymbolCache.get(symbol.getName())));
+        }
+        Assertions.assertThrows(SymbolNotSupportedException.class, () -> SymbolCache.get(symbols.size()));
+        Assertions.assertNull(OrderBook.getBook(Symbol.NO_ID));
+
+        Symbol adHoc = new Symbol("REGISTRY_TEST", 10.0);
+        Assertions.assertEquals(Symbol.NO_ID, adHoc.getId());
+        Assertions.assertSame(OrderBook.getBook(adHoc), OrderBook.getBook(adHoc));
+    }
 }
 
 //Generated with love by TestMe :) Please report issues and submit feature requests at: http://weirddev.com/forum#!/testme
\ No newline at end of file
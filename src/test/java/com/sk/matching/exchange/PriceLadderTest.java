@@ -0,0 +1,118 @@
+package com.sk.matching.exchange;
+
+import com.sk.matching.exchange.orderbook.PriceLadder;
+import com.sk.matching.exchange.orderbook.PriceLevel;
+import com.sk.matching.types.Side;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class PriceLadderTest {
+
+    @Test
+    void testBestBidTracksHighestTick() {
+        PriceLadder ladder = new PriceLadder(Side.BUY, 64);
+        Assertions.assertTrue(ladder.isEmpty());
+        ladder.getOrCreate(1000, 100000L);
+        ladder.getOrCreate(1002, 100200L);
+        ladder.getOrCreate(999, 99900L);
+        Assertions.assertEquals(1002, ladder.best().getTick());
+
+        ladder.remove(ladder.best());
+        Assertions.assertEquals(1000, ladder.best().getTick());
+        ladder.remove(ladder.best());
+        Assertions.assertEquals(999, ladder.best().getTick());
+        ladder.remove(ladder.best());
+        Assertions.assertTrue(ladder.isEmpty());
+    }
+
+    @Test
+    void testBestAskTracksLowestTick() {
+        PriceLadder ladder = new PriceLadder(Side.SELL, 64);
+        ladder.getOrCreate(1005, 100500L);
+        ladder.getOrCreate(1001, 100100L);
+        ladder.getOrCreate(1003, 100300L);
+        Assertions.assertEquals(1001, ladder.best().getTick());
+        Assertions.assertSame(ladder.get(1003), ladder.getOrCreate(1003, 100300L));
+        Assertions.assertEquals(3, ladder.levelCount());
+
+        ladder.remove(ladder.get(1003));
+        Assertions.assertEquals(1001, ladder.best().getTick());
+        ladder.remove(ladder.best());
+        Assertions.assertEquals(1005, ladder.best().getTick());
+    }
+
+    @Test
+    void testFarLevelsOutsideWindow() {
+        PriceLadder ladder = new PriceLadder(Side.SELL, 64);
+        ladder.getOrCreate(1000, 100000L);
+        ladder.getOrCreate(5000, 500000L);   //far above window
+        ladder.getOrCreate(10, 1000L);      //far below window, becomes best
+        Assertions.assertEquals(10, ladder.best().getTick());
+        Assertions.assertEquals(3, ladder.levelCount());
+
+        ladder.remove(ladder.best());
+        Assertions.assertEquals(1000, ladder.best().getTick());
+        ladder.remove(ladder.best());
+        Assertions.assertEquals(5000, ladder.best().getTick());
+
+        //Window followed the best price, the remaining far level was pulled in
+        Assertions.assertEquals(0, ladder.farLevelCount());
+        PriceLevel level = ladder.getOrCreate(5001, 500100L);
+        Assertions.assertEquals(5000, ladder.best().getTick());
+        Assertions.assertSame(level, ladder.get(5001));
+        Assertions.assertEquals(2, ladder.levelCount());
+    }
+
+    @Test
+    void testWindowFollowsDriftingBest() {
+        PriceLadder ladder = new PriceLadder(Side.SELL, 64);
+        //Asks walk down 1000 ticks, five levels resting behind the touch at any time
+        for (long tick = 2000; tick > 1000; tick--) {
+            ladder.getOrCreate(tick, tick * 100L);
+            PriceLevel behind = ladder.get(tick + 5);
+            if (behind != null) {
+                ladder.remove(behind);
+            }
+            Assertions.assertEquals(tick, ladder.best().getTick());
+            Assertions.assertEquals(0, ladder.farLevelCount(), "Touch left on the sorted map at tick " + tick);
+        }
+        Assertions.assertEquals(5, ladder.levelCount());
+
+        //Far levels left behind when the market gaps away are kept and come back into the window on the way back
+        ladder.getOrCreate(100, 10000L);
+        Assertions.assertEquals(100, ladder.best().getTick());
+        Assertions.assertEquals(5, ladder.farLevelCount());
+        ladder.remove(ladder.best());
+        Assertions.assertEquals(1001, ladder.best().getTick());
+        Assertions.assertEquals(0, ladder.farLevelCount());
+        List<Long> ticks = new ArrayList<>();
+        ladder.forEachLevel(level -> ticks.add(level.getTick()));
+        Assertions.assertEquals(List.of(1001L, 1002L, 1003L, 1004L, 1005L), ticks);
+        Assertions.assertSame(ladder.best(), ladder.get(1001));
+    }
+
+    @Test
+    void testForEachLevelAndClear() {
+        PriceLadder ladder = new PriceLadder(Side.BUY, 128);
+        for (int tick = 900; tick < 1100; tick += 7) {
+            ladder.getOrCreate(tick, tick * 100L);
+        }
+        List<Long> ticks = new ArrayList<>();
+        ladder.forEachLevel(level -> ticks.add(level.getTick()));
+        Assertions.assertEquals(ladder.levelCount(), ticks.size());
+        Assertions.assertEquals(1096, ladder.best().getTick());
+
+        ladder.clear();
+        Assertions.assertTrue(ladder.isEmpty());
+        Assertions.assertEquals(0, ladder.levelCount());
+        Assertions.assertNull(ladder.get(1096));
+    }
+
+    @Test
+    void testInvalidWindow() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new PriceLadder(Side.BUY, 100));
+    }
+}
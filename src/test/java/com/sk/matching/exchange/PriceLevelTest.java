@@ -0,0 +1,81 @@
+package com.sk.matching.exchange;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exception.OrderCreationException;
+import com.sk.matching.exception.SymbolNotSupportedException;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.orderbook.PriceLadder;
+import com.sk.matching.exchange.orderbook.PriceLevel;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class PriceLevelTest {
+
+    private PriceLevel level;
+
+    @BeforeEach
+    void setUp() {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+        level = new PriceLadder(Side.BUY, 64).getOrCreate(3000, 300000L);
+    }
+
+    private static GenOrder newOrder(String clOrdId) throws SymbolNotSupportedException, OrderCreationException {
+        GenOrder.Builder builder = new GenOrder.Builder(clOrdId, "BAC", Side.BUY, OrderType.LIMIT);
+        builder.setPrice(30.00);
+        builder.setQty(100);
+        return builder.build();
+    }
+
+    @Test
+    void testAppendKeepsTimePriority() throws Exception {
+        GenOrder first = newOrder("L1");
+        GenOrder second = newOrder("L2");
+        GenOrder third = newOrder("L3");
+        Assertions.assertTrue(level.append(first));
+        Assertions.assertTrue(level.append(second));
+        Assertions.assertTrue(level.append(third));
+        Assertions.assertFalse(level.append(second), "Order already resting must be rejected");
+
+        Assertions.assertEquals(3, level.size());
+        Assertions.assertSame(first, level.head());
+        Assertions.assertEquals(List.of(first, second, third), level.getOrders());
+    }
+
+    @Test
+    void testRemoveFromAnyPosition() throws Exception {
+        GenOrder first = newOrder("L1");
+        GenOrder second = newOrder("L2");
+        GenOrder third = newOrder("L3");
+        level.append(first);
+        level.append(second);
+        level.append(third);
+
+        Assertions.assertTrue(level.remove(second));
+        Assertions.assertNull(second.getLevel());
+        Assertions.assertEquals(List.of(first, third), level.getOrders());
+        Assertions.assertFalse(level.remove(second));
+
+        Assertions.assertTrue(level.remove(third));
+        Assertions.assertEquals(List.of(first), level.getOrders());
+
+        Assertions.assertSame(first, level.pollHead());
+        Assertions.assertTrue(level.isEmpty());
+        Assertions.assertEquals(0, level.size());
+        Assertions.assertNull(level.pollHead());
+
+        Assertions.assertTrue(level.append(second), "Removed order can rest again");
+        Assertions.assertSame(second, level.head());
+    }
+}
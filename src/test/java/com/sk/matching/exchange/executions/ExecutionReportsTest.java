@@ -0,0 +1,274 @@
+package com.sk.matching.exchange.executions;
+
+import com.sk.matching.client.ClientWorker;
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.orderbook.TopOfBook;
+import com.sk.matching.exchange.sequencer.MatchingShards;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.ExecType;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import com.sk.matching.util.ThreadUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+class ExecutionReportsTest {
+
+    private OrderBook book;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+        book = OrderBook.getBook(SymbolCache.get("IBM"));
+        book.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        book.reset();
+    }
+
+    @Test
+    void testReportsPushedToTheirClient() throws Exception {
+        ClientWorker buyer = new ClientWorker();
+        ClientWorker seller = new ClientWorker();
+        List<GenExecutionReport> buyerReports = new CopyOnWriteArrayList<>();
+        List<GenExecutionReport> sellerReports = new CopyOnWriteArrayList<>();
+        buyer.setExecutionReportListener(report -> buyerReports.add(report.copy()));
+        seller.setExecutionReportListener(report -> sellerReports.add(report.copy()));
+
+        buyer.createAndSubmitOrder("IBM", Side.BUY, 140.00, 100, OrderType.LIMIT, "ER-B1");
+        seller.createAndSubmitOrder("IBM", Side.SELL, 140.00, 60, OrderType.LIMIT, "ER-S1");
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        GenOrder buy = buyer.getClientOrders().get(0);
+        buyer.cancelOrder(buy);
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        Assertions.assertTrue(ExecutionReports.awaitDelivered(5_000));
+
+        Assertions.assertEquals(3, buyerReports.size(), buyerReports::toString);
+        Assertions.assertEquals(ExecType.NEW, buyerReports.get(0).getExecType());
+        Assertions.assertEquals("ER-B1", buyerReports.get(0).getClientOrderId());
+        GenExecutionReport fill = buyerReports.get(1);
+        Assertions.assertEquals(ExecType.FILL, fill.getExecType());
+        Assertions.assertEquals(60.0, fill.getExecQty());
+        Assertions.assertEquals(140.0, fill.getExecPrice());
+        Assertions.assertEquals(40.0, fill.getLeavesQty());
+        Assertions.assertEquals(buyer.getClientId(), fill.getClientId());
+        Assertions.assertEquals(ExecType.CANCEL, buyerReports.get(2).getExecType());
+        Assertions.assertTrue(buyerReports.get(1).getSequence() > buyerReports.get(0).getSequence());
+
+        Assertions.assertEquals(2, sellerReports.size(), sellerReports::toString);
+        Assertions.assertEquals(ExecType.NEW, sellerReports.get(0).getExecType());
+        Assertions.assertEquals(ExecType.FILL, sellerReports.get(1).getExecType());
+        Assertions.assertEquals(0.0, sellerReports.get(1).getLeavesQty());
+
+        ExecutionReports.unregister(buyer.getClientId());
+        ExecutionReports.unregister(seller.getClientId());
+    }
+
+    @Test
+    void testNoReportsWhileRecovering() throws Exception {
+        ClientWorker buyer = new ClientWorker();
+        ClientWorker seller = new ClientWorker();
+        List<GenExecutionReport> reports = new CopyOnWriteArrayList<>();
+        buyer.setExecutionReportListener(report -> reports.add(report.copy()));
+        seller.setExecutionReportListener(report -> reports.add(report.copy()));
+
+        ExecutionReports.setRecovering(true);
+        try {
+            buyer.createAndSubmitOrder("IBM", Side.BUY, 140.00, 100, OrderType.LIMIT, "ER-RB1");
+            seller.createAndSubmitOrder("IBM", Side.SELL, 140.00, 60, OrderType.LIMIT, "ER-RS1");
+            Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        } finally {
+            ExecutionReports.setRecovering(false);
+        }
+        seller.createAndSubmitOrder("IBM", Side.SELL, 140.00, 40, OrderType.LIMIT, "ER-RS2");
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        Assertions.assertTrue(ExecutionReports.awaitDelivered(5_000));
+
+        Assertions.assertTrue(Double.isNaN(book.getBestBidPrice()), "Recovered orders still match");
+        Assertions.assertEquals(3, reports.size(), reports::toString);  //Only the live order: NEW and both FILLs
+        Assertions.assertEquals("ER-RS2", reports.get(0).getClientOrderId());
+        Assertions.assertEquals(ExecType.NEW, reports.get(0).getExecType());
+        Assertions.assertEquals(ExecType.FILL, reports.get(2).getExecType());
+
+        ExecutionReports.unregister(buyer.getClientId());
+        ExecutionReports.unregister(seller.getClientId());
+    }
+
+    @Test
+    void testOffTickPricesRejected() throws Exception {
+        ClientWorker buyer = new ClientWorker();
+        ClientWorker seller = new ClientWorker();
+        List<GenExecutionReport> buyerReports = new CopyOnWriteArrayList<>();
+        List<GenExecutionReport> sellerReports = new CopyOnWriteArrayList<>();
+        buyer.setExecutionReportListener(report -> buyerReports.add(report.copy()));
+        seller.setExecutionReportListener(report -> sellerReports.add(report.copy()));
+
+        buyer.createAndSubmitOrder("IBM", Side.BUY, 10.001, 1, OrderType.LIMIT, "TICK-B1");
+        buyer.createAndSubmitOrder("IBM", Side.BUY, 10.004, 1, OrderType.LIMIT, "TICK-B2");
+        seller.createAndSubmitOrder("IBM", Side.SELL, 10.003, 1, OrderType.LIMIT, "TICK-S1");
+        buyer.createAndSubmitOrder("IBM", Side.BUY, 10.00, 1, OrderType.LIMIT, "TICK-B3");
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        GenOrder resting = buyer.getClientOrders().get(2);
+        GenOrder amend = new GenOrder.Builder("TICK-B3", "IBM", Side.BUY, OrderType.LIMIT)
+                .with(builder -> {
+                    builder.setPrice(10.005);
+                    builder.setQty(1);
+                }).build();
+        amend.setOrderId(resting.getOrderId());
+        buyer.replaceOrder(amend);
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        Assertions.assertTrue(ExecutionReports.awaitDelivered(5_000));
+
+        Assertions.assertEquals(10.00, book.getBestBidPrice());
+        Assertions.assertTrue(Double.isNaN(book.getBestAskPrice()));
+        Assertions.assertEquals(1, book.getOrderHistory().size(), "Only the on tick order reached the book");
+        Assertions.assertEquals(symbol().toPriceUnits(10.00), resting.getOrdPxUnits());
+        Assertions.assertEquals(4, buyerReports.size(), buyerReports::toString);
+        Assertions.assertEquals(ExecType.REJECTED, buyerReports.get(0).getExecType());
+        Assertions.assertEquals(ExecType.REJECTED, buyerReports.get(1).getExecType());
+        Assertions.assertEquals(ExecType.NEW, buyerReports.get(2).getExecType());
+        Assertions.assertEquals(ExecType.REJECTED, buyerReports.get(3).getExecType());
+        Assertions.assertEquals(1, sellerReports.size(), sellerReports::toString);
+        Assertions.assertEquals(ExecType.REJECTED, sellerReports.get(0).getExecType());
+
+        ExecutionReports.unregister(buyer.getClientId());
+        ExecutionReports.unregister(seller.getClientId());
+    }
+
+    @Test
+    void testAmendInPlaceOrLosingPriority() throws Exception {
+        Symbol symbol = symbol();
+        ClientWorker buyer = new ClientWorker();
+        ClientWorker seller = new ClientWorker();
+        List<GenExecutionReport> buyerReports = new CopyOnWriteArrayList<>();
+        buyer.setExecutionReportListener(report -> buyerReports.add(report.copy()));
+
+        buyer.createAndSubmitOrder("IBM", Side.BUY, 140.00, 100, OrderType.LIMIT, "AMD-B1");
+        buyer.createAndSubmitOrder("IBM", Side.BUY, 140.00, 50, OrderType.LIMIT, "AMD-B2");
+        seller.createAndSubmitOrder("IBM", Side.SELL, 140.00, 30, OrderType.LIMIT, "AMD-S1");
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        GenOrder first = book.getOrder(buyer.getClientOrders().get(0).getOrderId());
+        long px = symbol.toPriceUnits(140.00);
+
+        book.processAmend(first.getOrderId(), px, symbol.toQtyUnits(80));   //Qty down, keeps priority
+        book.processAmend(first.getOrderId(), px, symbol.toQtyUnits(30));   //At cumQty, refused in place
+        book.processAmend(first.getOrderId(), px, symbol.toQtyUnits(20));   //Below cumQty, refused in place
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        Assertions.assertSame(first, book.getBestBid().get(0), "Amended in place, still first in the level");
+        Assertions.assertEquals(symbol.toQtyUnits(80), first.getOrdQtyUnits());
+        Assertions.assertEquals(symbol.toQtyUnits(50), first.getLeavesQtyUnits());
+
+        book.processAmend(first.getOrderId(), symbol.toPriceUnits(139.00), symbol.toQtyUnits(30));  //Refused, stays
+        book.processAmend(first.getOrderId(), px, symbol.toQtyUnits(120));  //Qty up, loses priority
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        Assertions.assertTrue(ExecutionReports.awaitDelivered(5_000));
+        Assertions.assertEquals("AMD-B2", book.getBestBid().get(0).getClientOrderId());
+        Assertions.assertSame(first, book.getBestBid().get(1));
+        Assertions.assertEquals(symbol.toQtyUnits(90), first.getLeavesQtyUnits());
+        Assertions.assertEquals(px, first.getOrdPxUnits());
+
+        //NEW, NEW, FILL then the amends in order
+        Assertions.assertEquals(8, buyerReports.size(), buyerReports::toString);
+        Assertions.assertEquals(ExecType.REPLACE, buyerReports.get(3).getExecType());
+        Assertions.assertEquals(50.0, buyerReports.get(3).getLeavesQty());
+        Assertions.assertEquals(ExecType.REJECTED, buyerReports.get(4).getExecType());
+        Assertions.assertEquals(ExecType.REJECTED, buyerReports.get(5).getExecType());
+        Assertions.assertEquals(ExecType.REJECTED, buyerReports.get(6).getExecType());
+        Assertions.assertEquals(ExecType.REPLACE, buyerReports.get(7).getExecType());
+        Assertions.assertEquals(90.0, buyerReports.get(7).getLeavesQty());
+
+        ExecutionReports.unregister(buyer.getClientId());
+        ExecutionReports.unregister(seller.getClientId());
+    }
+
+    @Test
+    void testOverflowingMatchAppliedToNeitherSide() throws Exception {
+        Symbol symbol = symbol();
+        GenOrder passive = new GenOrder.Builder("OVF-S1", symbol, Side.SELL, OrderType.LIMIT)
+                .with(builder -> {
+                    builder.setPrice(140.00);
+                    builder.setQty(100);
+                }).build();
+        passive.setOrderId(9_200_001L);
+        //Executed notional already next to the long limit, any further fill of it overflows
+        passive.restore(symbol.toQtyUnits(50), symbol.toQtyUnits(50), Long.MAX_VALUE - 1, 0L, 0L);
+        Assertions.assertTrue(book.restoreOrder(passive));
+        int tradesBefore = book.getTradeStore().size();
+        long matchesBefore = book.getTradeStatistics().getTradeCount();
+
+        ClientWorker buyer = new ClientWorker();
+        List<GenExecutionReport> buyerReports = new CopyOnWriteArrayList<>();
+        buyer.setExecutionReportListener(report -> buyerReports.add(report.copy()));
+        buyer.createAndSubmitOrder("IBM", Side.BUY, 140.00, 10, OrderType.LIMIT, "OVF-B1");
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        Assertions.assertTrue(ExecutionReports.awaitDelivered(5_000));
+
+        Assertions.assertEquals(symbol.toQtyUnits(50), passive.getLeavesQtyUnits(), "Passive side untouched");
+        Assertions.assertEquals(Long.MAX_VALUE - 1, passive.getCumNotionalUnits());
+        Assertions.assertEquals(0, passive.getTradeCount());
+        Assertions.assertEquals(symbol.toQtyUnits(50), book.getBestAsk().get(0).getLeavesQtyUnits());
+        Assertions.assertEquals(symbol.toQtyUnits(50), book.getTopOfBook().read(new TopOfBook.Quote()).askQty);
+        Assertions.assertTrue(Double.isNaN(book.getBestBidPrice()), "Aggressive rest cancelled, not booked");
+        Assertions.assertEquals(tradesBefore, book.getTradeStore().size());
+        Assertions.assertEquals(matchesBefore, book.getTradeStatistics().getTradeCount());
+        Assertions.assertEquals(2, buyerReports.size(), buyerReports::toString);
+        Assertions.assertEquals(ExecType.NEW, buyerReports.get(0).getExecType());
+        Assertions.assertEquals(ExecType.REJECTED, buyerReports.get(1).getExecType());
+        Assertions.assertEquals(0.0, buyerReports.get(1).getCumQty());
+
+        ExecutionReports.unregister(buyer.getClientId());
+    }
+
+    private static Symbol symbol() throws Exception {
+        return SymbolCache.get("IBM");
+    }
+
+    @Test
+    void testFullRingDropsInsteadOfBlocking() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutionReportRing ring = new ExecutionReportRing(4, report -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        GenOrder.Builder builder = new GenOrder.Builder("ER-D1", "IBM", Side.BUY, OrderType.LIMIT);
+        builder.setPrice(1.0);
+        builder.setQty(1);
+        GenOrder genOrder = builder.build();
+
+        int published = 0;
+        for (int i = 0; i < 10; i++) {
+            if (ring.publish(ExecType.NEW, genOrder, 0L, 0L, 0L, null, 0L)) {
+                published++;
+            }
+        }
+        Assertions.assertTrue(published <= 5, "Publisher holds one slot, ring holds four");
+        Assertions.assertEquals(10 - published, ring.getDroppedCount());
+        release.countDown();
+        while (ring.getConsumedSequence() < published - 1) {
+            ThreadUtils.pause(1);
+        }
+        Assertions.assertTrue(ring.publish(ExecType.NEW, genOrder, 0L, 0L, 0L, null, 0L));
+        ring.halt();
+        genOrder.release();
+    }
+}
@@ -0,0 +1,135 @@
+package com.sk.matching.exchange.executions;
+
+import com.sk.matching.client.ClientWorker;
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.BasicMatchingEngine;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.sequencer.MatchingShards;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+class TradeStatisticsTest {
+
+    private final Symbol symbol = new Symbol("STS", 10.0);
+
+    @Test
+    void testRunningTotalsAndReset() {
+        TradeStatistics statistics = new TradeStatistics(symbol);
+        TradeStatistics.Stats stats = statistics.read(new TradeStatistics.Stats());
+        Assertions.assertEquals(TradeStatistics.NO_PRICE, stats.lastPx);
+        Assertions.assertTrue(Double.isNaN(stats.getVwapUnits()));
+        Assertions.assertTrue(Double.isNaN(statistics.getVwap()));
+        Assertions.assertTrue(Double.isNaN(statistics.getLastPrice()));
+
+        statistics.onMatch(symbol.toPriceUnits(10.0), symbol.toQtyUnits(100), 1L);
+        statistics.onMatch(symbol.toPriceUnits(12.0), symbol.toQtyUnits(50), 2L);
+        statistics.onMatch(symbol.toPriceUnits(9.0), symbol.toQtyUnits(50), 3L);
+        statistics.read(stats);
+        Assertions.assertEquals(symbol.toPriceUnits(9.0), stats.lastPx);
+        Assertions.assertEquals(symbol.toQtyUnits(50), stats.lastQty);
+        Assertions.assertEquals(3L, stats.lastTime);
+        Assertions.assertEquals(symbol.toPriceUnits(12.0), stats.highPx);
+        Assertions.assertEquals(symbol.toPriceUnits(9.0), stats.lowPx);
+        Assertions.assertEquals(symbol.toQtyUnits(200), stats.volume);
+        Assertions.assertEquals(3L, stats.tradeCount);
+        Assertions.assertEquals(10.25, statistics.getVwap(), 1e-9);   //(10 * 100 + 12 * 50 + 9 * 50) / 200
+        Assertions.assertEquals(9.0, statistics.getLastPrice(), 1e-9);
+        Assertions.assertEquals(200.0, statistics.getVolume(), 1e-9);
+        Assertions.assertEquals(3L, statistics.getTradeCount());
+
+        statistics.reset();
+        statistics.read(stats);
+        Assertions.assertEquals(TradeStatistics.NO_PRICE, stats.highPx);
+        Assertions.assertEquals(0L, stats.volume);
+        Assertions.assertEquals(0L, statistics.getTradeCount());
+        Assertions.assertEquals(8L, statistics.getVersion());
+    }
+
+    @Test
+    void testTurnoverStaysExactPastLongRange() {
+        TradeStatistics statistics = new TradeStatistics(symbol);
+        long price = 3_000_000_000_001L;
+        long qty = 5_000_000_003L;
+        for (int i = 0; i < 1_000; i++) {
+            statistics.onMatch(price, qty, i);
+        }
+        TradeStatistics.Stats stats = statistics.read(new TradeStatistics.Stats());
+        BigInteger expected = BigInteger.valueOf(price).multiply(BigInteger.valueOf(qty))
+                .multiply(BigInteger.valueOf(1_000));
+        Assertions.assertTrue(expected.bitLength() > Long.SIZE);
+        Assertions.assertEquals(expected, stats.getTurnover());
+        Assertions.assertEquals(price, stats.getVwapUnits(), 1.0);
+    }
+
+    @Test
+    void testReadersNeverSeeTornStats() throws InterruptedException {
+        TradeStatistics statistics = new TradeStatistics(symbol);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong torn = new AtomicLong();
+        AtomicLong reads = new AtomicLong();
+
+        Thread reader = new Thread(() -> {
+            TradeStatistics.Stats stats = new TradeStatistics.Stats();
+            while (running.get()) {
+                statistics.read(stats);
+                //Writer matches qty 1 at a price equal to the trade number
+                if (stats.volume != stats.tradeCount || (stats.tradeCount > 0 && stats.lastPx != stats.tradeCount)) {
+                    torn.incrementAndGet();
+                }
+                reads.incrementAndGet();
+            }
+        });
+        reader.start();
+        for (long i = 1; i <= 200_000; i++) {
+            statistics.onMatch(i, 1L, i);
+        }
+        running.set(false);
+        reader.join();
+        Assertions.assertTrue(reads.get() > 0);
+        Assertions.assertEquals(0, torn.get());
+        Assertions.assertEquals(200_000L, statistics.getTradeCount());
+    }
+
+    @Test
+    void testMatchesCountedOncePerFill() throws Exception {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+        Symbol ibm = SymbolCache.get("IBM");
+        OrderBook book = OrderBook.getBook(ibm);
+        book.reset();
+        try {
+            ClientWorker buyer = new ClientWorker();
+            ClientWorker seller = new ClientWorker();
+            buyer.createAndSubmitOrder("IBM", Side.BUY, 140.50, 40, OrderType.LIMIT, "STS-B1");
+            buyer.createAndSubmitOrder("IBM", Side.BUY, 140.00, 60, OrderType.LIMIT, "STS-B2");
+            seller.createAndSubmitOrder("IBM", Side.SELL, 139.00, 100, OrderType.LIMIT, "STS-S1");
+            Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+
+            TradeStatistics statistics = BasicMatchingEngine.getInstance().getTradeStatistics(ibm);
+            TradeStatistics.Stats stats = statistics.read(new TradeStatistics.Stats());
+            Assertions.assertEquals(2L, stats.tradeCount);
+            Assertions.assertEquals(ibm.toQtyUnits(100), stats.volume);
+            Assertions.assertEquals(ibm.toPriceUnits(140.50), stats.highPx);
+            Assertions.assertEquals(ibm.toPriceUnits(140.00), stats.lowPx);
+            Assertions.assertEquals(ibm.toPriceUnits(140.00), stats.lastPx);
+            Assertions.assertEquals(140.20, statistics.getVwap(), 1e-9);
+        } finally {
+            book.reset();
+        }
+        Assertions.assertEquals(0L, book.getTradeStatistics().getTradeCount());
+        Assertions.assertEquals(0, book.getTradeStore().size(), "Reset starts a new session of the trade store too");
+    }
+}
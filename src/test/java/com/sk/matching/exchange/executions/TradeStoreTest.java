@@ -0,0 +1,66 @@
+package com.sk.matching.exchange.executions;
+
+import com.sk.matching.exchange.order.Trade;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.types.Side;
+import com.sk.matching.util.DateUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class TradeStoreTest {
+
+    private final Symbol symbol = new Symbol("TRD", 10.0);
+
+    private static Trade trade(long tradeId, Side side) {
+        return new Trade(tradeId * 10, null, 100_000L + tradeId, 100L, side, tradeId, "C" + tradeId);
+    }
+
+    @Test
+    void testAppendAcrossChunksAndLookup() {
+        TradeStore store = new TradeStore(symbol);
+        int count = TradeStore.CHUNK_SIZE * 2 + 5;
+        for (long id = 1; id <= count; id++) {
+            store.append(trade(id, id % 2 == 0 ? Side.BUY : Side.SELL));
+        }
+        Assertions.assertEquals(count, store.size());
+
+        Trade trade = store.getTrade(TradeStore.CHUNK_SIZE + 3);
+        Assertions.assertEquals(TradeStore.CHUNK_SIZE + 3, trade.tradeId);
+        Assertions.assertEquals((TradeStore.CHUNK_SIZE + 3) * 10L, trade.orderId);
+        Assertions.assertEquals(Side.SELL, trade.tradeSide);
+        Assertions.assertEquals("C" + (TradeStore.CHUNK_SIZE + 3), trade.counterClOrdIdId);
+        Assertions.assertSame(symbol, trade.symbol);
+        Assertions.assertNull(store.getTrade(-1L));
+
+        List<Trade> page = store.getTrades(count - 3, 10);
+        Assertions.assertEquals(3, page.size());
+        Assertions.assertEquals(count, page.get(2).tradeId);
+        Assertions.assertTrue(store.getTrades(count, 10).isEmpty());
+    }
+
+    @Test
+    void testTimeRangeAndPaging() {
+        TradeStore store = new TradeStore(symbol);
+        long before = DateUtils.getEpochNanos();
+        for (long id = 1; id <= 100; id++) {
+            store.append(trade(id, Side.BUY));
+        }
+        Assertions.assertEquals(0, store.rowAtOrAfter(before));
+        Assertions.assertEquals(100, store.rowAtOrAfter(Long.MAX_VALUE));
+
+        long from = store.getTrade(40).tradeTime;
+        long to = store.getTrade(60).tradeTime;
+        List<Trade> range = store.getTradesBetween(from, to, Integer.MAX_VALUE);
+        Assertions.assertEquals(20, range.size());
+        Assertions.assertEquals(40, range.get(0).tradeId);
+        Assertions.assertEquals(59, range.get(19).tradeId);
+
+        //Trade times are unique, a page continues one nano after the last trade returned
+        List<Trade> firstPage = store.getTradesBetween(before, Long.MAX_VALUE, 30);
+        List<Trade> secondPage = store.getTradesBetween(firstPage.get(29).tradeTime + 1, Long.MAX_VALUE, 30);
+        Assertions.assertEquals(30, firstPage.get(29).tradeId);
+        Assertions.assertEquals(31, secondPage.get(0).tradeId);
+    }
+}
@@ -0,0 +1,174 @@
+package com.sk.matching.exchange.order;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.BasicMatchingEngine;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.sequencer.MatchingShards;
+import com.sk.matching.pool.PoolConfig;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class OrderPoolsTest {
+
+    private static final int ORDER_POOL_MAX = 64;
+
+    private Symbol symbol;
+    private OrderBook book;
+    private PoolConfig orderConfig;
+    private PoolConfig tradeConfig;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+        symbol = SymbolCache.get("IBM");
+        book = OrderBook.getBook(symbol);
+        book.reset();
+        //Orders of the other books go back to the current pools before they are swapped for small ones
+        for (OrderBook other : OrderBook.getBooks()) {
+            other.processPurge();
+        }
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        orderConfig = OrderPools.getOrderPoolConfig();
+        tradeConfig = OrderPools.getTradePoolConfig();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MatchingShards.schedulePurge(0);
+        book.reset();
+        OrderPools.restart(orderConfig, tradeConfig);
+    }
+
+    @Test
+    void testMoreOrdersThanThePoolHoldsRunThroughTheEngine() throws Exception {
+        OrderPools.restart(new PoolConfig(16, ORDER_POOL_MAX, 5_000), new PoolConfig(32, ORDER_POOL_MAX * 2, 5_000));
+        MatchingShards.schedulePurge(10);
+        BasicMatchingEngine engine = BasicMatchingEngine.getInstance();
+        int tradesBefore = book.getTradeStore().size();
+
+        int pairs = ORDER_POOL_MAX * 4;
+        for (int i = 0; i < pairs; i++) {
+            engine.addOrder(new GenOrder.Builder("POOL-B" + i, symbol, Side.BUY, OrderType.LIMIT)
+                    .with(builder -> {
+                        builder.setPrice(140.0);
+                        builder.setQty(10);
+                    }).buildPooled());
+            engine.addOrder(new GenOrder.Builder("POOL-S" + i, symbol, Side.SELL, OrderType.LIMIT)
+                    .with(builder -> {
+                        builder.setPrice(140.0);
+                        builder.setQty(10);
+                    }).buildPooled());
+        }
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+
+        Assertions.assertEquals(pairs * 2, book.getTradeStore().size() - tradesBefore, "Every match has its trades");
+        Assertions.assertEquals(pairs, book.getTradeStatistics().getTradeCount());
+        Assertions.assertTrue(OrderPools.getOrderPool().getSize() <= ORDER_POOL_MAX);
+        Assertions.assertTrue(Double.isNaN(book.getBestBidPrice()));
+        Assertions.assertTrue(Double.isNaN(book.getBestAskPrice()));
+    }
+
+    @Test
+    void testExecuteLeavesTheOrderUnchangedWithoutTrade() throws Exception {
+        OrderPools.restart(new PoolConfig(1, 4, 20), new PoolConfig(0, 2, 20));
+        GenOrder genOrder = new GenOrder.Builder("POOL-X", symbol, Side.BUY, OrderType.LIMIT)
+                .with(builder -> {
+                    builder.setPrice(140.0);
+                    builder.setQty(10);
+                }).buildPooled();
+        List<Trade> borrowed = new ArrayList<>();
+        for (Trade trade = OrderPools.tryBorrowTrade(); null != trade; trade = OrderPools.tryBorrowTrade()) {
+            borrowed.add(trade);
+        }
+        Assertions.assertEquals(2, borrowed.size());
+
+        long leavesQty = genOrder.getLeavesQtyUnits();
+        Assertions.assertNull(genOrder.execute(1L, symbol.toPriceUnits(140.0), symbol.toQtyUnits(4), "C1"));
+        Assertions.assertEquals(leavesQty, genOrder.getLeavesQtyUnits());
+        Assertions.assertEquals(0L, genOrder.getCumQtyUnits());
+        Assertions.assertEquals(0, genOrder.getTradeCount());
+
+        OrderPools.releaseTrade(borrowed.remove(0));
+        Assertions.assertNotNull(genOrder.execute(1L, symbol.toPriceUnits(140.0), symbol.toQtyUnits(4), "C1"));
+        Assertions.assertEquals(symbol.toQtyUnits(4), genOrder.getCumQtyUnits());
+        genOrder.cancel();
+        genOrder.release();
+        borrowed.forEach(OrderPools::releaseTrade);
+    }
+
+    @Test
+    void testClientOrdersAreNeverRecycled() throws Exception {
+        BasicMatchingEngine engine = BasicMatchingEngine.getInstance();
+        GenOrder buy = new GenOrder.Builder("POOL-CB", symbol, Side.BUY, OrderType.LIMIT)
+                .with(builder -> {
+                    builder.setPrice(140.0);
+                    builder.setQty(10);
+                }).build();
+        GenOrder sell = new GenOrder.Builder("POOL-CS", symbol, Side.SELL, OrderType.LIMIT)
+                .with(builder -> {
+                    builder.setPrice(140.0);
+                    builder.setQty(10);
+                }).build();
+        Assertions.assertFalse(buy.isPooled());
+        engine.addOrder(buy);
+        engine.addOrder(sell);
+        book.processPurge();
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        Assertions.assertNull(book.getOrder(buy.getOrderId()), "Purged from the book");
+
+        //The client still reads its own final state, the order was not handed to anyone else
+        Assertions.assertTrue(buy.isClosed());
+        Assertions.assertEquals("POOL-CB", buy.getClientOrderId());
+        Assertions.assertEquals(symbol.toQtyUnits(10), buy.getCumQtyUnits());
+        Assertions.assertEquals(1, buy.getTradeCount());
+        Assertions.assertEquals(buy.getOrderId(), buy.getTrades().iterator().next().orderId);
+    }
+
+    @Test
+    void testRejectedOrdersAndAmendCarriersGoBackToThePool() throws Exception {
+        OrderPools.restart(new PoolConfig(0, 4, 20), tradeConfig);
+        BasicMatchingEngine engine = BasicMatchingEngine.getInstance();
+        GenOrder resting = new GenOrder.Builder("POOL-R", symbol, Side.BUY, OrderType.LIMIT)
+                .with(builder -> {
+                    builder.setPrice(100.0);
+                    builder.setQty(10);
+                }).build();
+        engine.addOrder(resting);
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+
+        for (int i = 0; i < 4 * 4; i++) {   //Would exhaust the pool within the first 5 if they leaked
+            engine.addOrder(new GenOrder.Builder("POOL-OFF" + i, symbol, Side.BUY, OrderType.LIMIT)
+                    .with(builder -> {
+                        builder.setPrice(100.001);
+                        builder.setQty(10);
+                    }).buildPooled());
+            int qty = 20 + i;
+            GenOrder amend = new GenOrder.Builder("POOL-R", symbol, Side.BUY, OrderType.LIMIT)
+                    .with(builder -> {
+                        builder.setPrice(100.0);
+                        builder.setQty(qty);
+                    }).buildPooled();
+            amend.setOrderId(resting.getOrderId());
+            engine.amendOrder(amend);
+        }
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        Assertions.assertEquals(symbol.toQtyUnits(35), resting.getLeavesQtyUnits());
+        Assertions.assertEquals(OrderPools.getOrderPool().getSize(), OrderPools.getOrderPool().getIdleCount(),
+                "Every pooled order is back");
+    }
+}
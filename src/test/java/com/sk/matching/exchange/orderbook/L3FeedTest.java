@@ -0,0 +1,108 @@
+package com.sk.matching.exchange.orderbook;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.sequencer.MatchingShards;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+class L3FeedTest {
+
+    private OrderBook book;
+    private Symbol symbol;
+    private long nextOrderId = 9_300_000L;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+        symbol = SymbolCache.get("IBM");
+        book = OrderBook.getBook(symbol);
+        book.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        book.reset();
+    }
+
+    private GenOrder newOrder(Side side, double px, double qty, double visibleQty) throws Exception {
+        GenOrder.Builder builder = new GenOrder.Builder("L3-" + nextOrderId, "IBM", side, OrderType.LIMIT);
+        builder.setPrice(px);
+        builder.setQty(qty);
+        builder.setVisibleQty(visibleQty);
+        GenOrder genOrder = builder.build();
+        genOrder.setOrderId(nextOrderId++);
+        return genOrder;
+    }
+
+    private void assertNext(L3Feed.Reader reader, L3Update update, L3EventType type, long orderId, long displayQty) {
+        Assertions.assertEquals(PollResult.UPDATE, reader.poll(update));
+        Assertions.assertEquals(type, update.type, update::toString);
+        Assertions.assertEquals(orderId, update.orderId, update::toString);
+        Assertions.assertEquals(displayQty, update.displayQty, update::toString);
+    }
+
+    @Test
+    void testOrderLifecycleEvents() throws Exception {
+        L3Feed.Reader reader = book.getL3Feed().newReader();
+        GenOrder iceberg = newOrder(Side.SELL, 50.00, 100, 20);
+        book.processOrder(iceberg);
+        GenOrder buy = newOrder(Side.BUY, 50.00, 90, Double.NaN);
+        book.processOrder(buy);
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+
+        L3Update update = new L3Update();
+        assertNext(reader, update, L3EventType.ADD, iceberg.getOrderId(), symbol.toQtyUnits(20));
+        Assertions.assertEquals(Side.SELL, update.side);
+        Assertions.assertEquals(symbol.toPriceUnits(50.00), update.price);
+        long sequence = update.sequence;
+        //Aggressive order joins the book before it crosses
+        assertNext(reader, update, L3EventType.ADD, buy.getOrderId(), symbol.toQtyUnits(90));
+        Assertions.assertEquals(sequence + 1, update.sequence);
+        assertNext(reader, update, L3EventType.EXECUTE, buy.getOrderId(), 0L);
+        Assertions.assertEquals(symbol.toQtyUnits(90), update.execQty);
+        assertNext(reader, update, L3EventType.EXECUTE, iceberg.getOrderId(), symbol.toQtyUnits(10));
+        Assertions.assertEquals(symbol.toPriceUnits(50.00), update.price);
+        assertNext(reader, update, L3EventType.DELETE, buy.getOrderId(), 0L);
+        Assertions.assertEquals(PollResult.NONE, reader.poll(update));
+    }
+
+    @Test
+    void testRawRecordAndRefreshAfterGap() throws Exception {
+        GenOrder resting = newOrder(Side.BUY, 40.00, 10, Double.NaN);
+        book.setOrder(resting);
+        L3Feed.Reader reader = book.getL3Feed().newReader();
+        book.amendInPlace(resting, resting.getOrdPxUnits(), symbol.toQtyUnits(8));
+
+        ByteBuffer record = ByteBuffer.allocate(L3Feed.RECORD_LENGTH);
+        Assertions.assertEquals(PollResult.UPDATE, reader.pollRecord(record));
+        Assertions.assertEquals(L3Feed.RECORD_LENGTH, record.position());
+        L3Update update = L3Feed.decode(record, 0, new L3Update());
+        Assertions.assertEquals(L3EventType.MODIFY, update.type);
+        Assertions.assertEquals(symbol.toQtyUnits(8), update.displayQty);
+
+        for (int i = 0; i <= book.getL3Feed().getCapacity(); i++) {
+            book.onFill(resting, 0L);
+        }
+        Assertions.assertEquals(PollResult.GAP, reader.poll(update));
+        book.onFill(resting, 0L);   //Carries the refresh requested on the gap
+        assertNext(reader, update, L3EventType.EXECUTE, resting.getOrderId(), symbol.toQtyUnits(8));
+        assertNext(reader, update, L3EventType.SNAPSHOT_START, 0L, 0L);
+        assertNext(reader, update, L3EventType.SNAPSHOT_ORDER, resting.getOrderId(), symbol.toQtyUnits(8));
+        assertNext(reader, update, L3EventType.SNAPSHOT_END, 0L, 0L);
+    }
+}
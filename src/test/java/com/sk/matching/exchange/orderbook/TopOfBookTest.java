@@ -0,0 +1,84 @@
+package com.sk.matching.exchange.orderbook;
+
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+class TopOfBookTest {
+
+    @Test
+    void testEmptyBook() {
+        TopOfBook topOfBook = new TopOfBook();
+        TopOfBook.Quote quote = topOfBook.read(new TopOfBook.Quote());
+        Assertions.assertEquals(TopOfBook.NO_PRICE, quote.bidPx);
+        Assertions.assertEquals(TopOfBook.NO_PRICE, quote.askPx);
+        Assertions.assertEquals(0, quote.version);
+    }
+
+    @Test
+    void testIcebergReserveNotQuoted() throws Exception {
+        Symbol symbol = new Symbol("TOB", 100.0, 0.01);
+        PriceLadder asks = new PriceLadder(Side.SELL, 1024);
+        PriceLevel level = asks.getOrCreate(100, symbol.toPriceUnits(1.00));
+        GenOrder.Builder builder = new GenOrder.Builder("TOB-1", symbol, Side.SELL, OrderType.LIMIT);
+        builder.setPrice(1.00);
+        builder.setQty(100);
+        builder.setVisibleQty(20);
+        level.append(builder.build());
+        TopOfBook topOfBook = new TopOfBook();
+        topOfBook.publish(null, level);
+
+        TopOfBook.Quote quote = topOfBook.read(new TopOfBook.Quote());
+        Assertions.assertEquals(symbol.toQtyUnits(20), quote.askQty);
+        Assertions.assertEquals(1, quote.askOrders);
+        Assertions.assertEquals(symbol.toQtyUnits(100), level.getTotalQty());
+    }
+
+    @Test
+    void testReadersNeverSeeTornQuote() throws InterruptedException {
+        TopOfBook topOfBook = new TopOfBook();
+        PriceLadder bids = new PriceLadder(Side.BUY, 1024);
+        PriceLadder asks = new PriceLadder(Side.SELL, 1024);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong torn = new AtomicLong();
+        AtomicLong reads = new AtomicLong();
+
+        Thread[] readers = new Thread[2];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                TopOfBook.Quote quote = new TopOfBook.Quote();
+                while (running.get()) {
+                    topOfBook.read(quote);
+                    //Writer always publishes ask = bid + 1 tick on both price and order count
+                    if (quote.bidPx != TopOfBook.NO_PRICE && (quote.askPx != quote.bidPx + 1 || quote.askOrders != quote.bidOrders)) {
+                        torn.incrementAndGet();
+                    }
+                    reads.incrementAndGet();
+                }
+            });
+            readers[r].start();
+        }
+
+        for (int i = 1; i <= 200_000; i++) {
+            int tick = 100 + (i % 500);
+            PriceLevel bid = bids.getOrCreate(tick, tick);
+            PriceLevel ask = asks.getOrCreate(tick + 1, tick + 1);
+            topOfBook.publish(bid, ask);
+            bids.remove(bid);
+            asks.remove(ask);
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        Assertions.assertTrue(reads.get() > 0);
+        Assertions.assertEquals(0, torn.get());
+        Assertions.assertEquals(400_000, topOfBook.getVersion());
+    }
+}
@@ -0,0 +1,42 @@
+package com.sk.matching.exchange.sequencer;
+
+import com.sk.matching.symbols.Symbol;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class MatchingShardsTest {
+
+    @Test
+    void testRoundRobinAssignment() {
+        int shardCount = MatchingShards.getShardCount();
+        List<Symbol> symbols = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            symbols.add(new Symbol("SHARD_TEST_" + i, 10.0));
+        }
+        MatchingShards.assign(symbols);
+
+        Set<Integer> shards = new HashSet<>();
+        for (Symbol symbol : symbols) {
+            shards.add(MatchingShards.shardOf(symbol));
+        }
+        Assertions.assertEquals(shardCount, shards.size(), "Consecutive symbols spread over every shard");
+
+        //Assignment is sticky
+        Assertions.assertEquals(MatchingShards.shardOf(symbols.get(0)), MatchingShards.shardOf(symbols.get(0)));
+        Assertions.assertSame(MatchingShards.ringFor(symbols.get(0)), MatchingShards.ringFor(symbols.get(0)));
+    }
+
+    @Test
+    void testConfigureIgnoredOnceStarted() {
+        Symbol symbol = new Symbol("SHARD_TEST_STARTED", 10.0);
+        MatchingShards.ringFor(symbol);
+        int shardCount = MatchingShards.getShardCount();
+        MatchingShards.configure(shardCount + 1, 1024);
+        Assertions.assertEquals(shardCount, MatchingShards.getShardCount());
+    }
+}
@@ -0,0 +1,111 @@
+package com.sk.matching.exchange.sequencer;
+
+import com.sk.matching.util.ThreadUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class OrderEventRingTest {
+
+    @Test
+    void testSingleProducerOrderingAcrossWrap() throws InterruptedException {
+        int events = 10_000;
+        long[] consumed = new long[events];
+        CountDownLatch done = new CountDownLatch(events);
+        int[] count = {0};
+        OrderEventRing ring = new OrderEventRing("test-spsc", 64, e -> {
+            consumed[count[0]++] = e.getOrderId();
+            done.countDown();
+        });
+        for (long i = 0; i < events; i++) {
+            ring.publishCancel(null, i);
+        }
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < events; i++) {
+            Assertions.assertEquals(i, consumed[i]);
+        }
+        Assertions.assertEquals(events - 1, ring.getConsumedSequence());
+        ring.halt();
+    }
+
+    @Test
+    void testMultipleProducersKeepPerProducerOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 5_000;
+        long[] lastSeen = new long[producers];
+        Arrays.fill(lastSeen, -1L);
+        boolean[] outOfOrder = {false};
+        CountDownLatch done = new CountDownLatch(producers * perProducer);
+        OrderEventRing ring = new OrderEventRing("test-mpsc", 128, e -> {
+            int producer = (int) (e.getOrderId() / perProducer);
+            long seq = e.getOrderId() % perProducer;
+            if (seq != lastSeen[producer] + 1) outOfOrder[0] = true;
+            lastSeen[producer] = seq;
+            done.countDown();
+        });
+        ExecutorService executorService = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            executorService.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    ring.publishAmend(null, base + i, 100_000L, 10_000L);
+                }
+            });
+        }
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assertions.assertFalse(outOfOrder[0]);
+        executorService.shutdown();
+        ring.halt();
+    }
+
+    @Test
+    void testBatchesLargerThanTheRingKeepOrder() throws InterruptedException {
+        int events = 1_000;
+        long[] consumed = new long[events];
+        CountDownLatch done = new CountDownLatch(events);
+        int[] count = {0};
+        OrderEventRing ring = new OrderEventRing("test-batch", 64, e -> {
+            consumed[count[0]++] = e.getOrderId();
+            done.countDown();
+        });
+        long[] orderIds = new long[events];
+        for (int i = 0; i < events; i++) {
+            orderIds[i] = i;
+        }
+        ring.publishCancelBatch(null, orderIds, 0, 150);
+        ring.publishCancel(null, 150);
+        ring.publishCancelBatch(null, orderIds, 151, events);
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < events; i++) {
+            Assertions.assertEquals(i, consumed[i]);
+        }
+        Assertions.assertEquals(events - 1, ring.getClaimedSequence());
+        ring.halt();
+    }
+
+    @Test
+    void testHandlerFailureDoesNotStopRing() {
+        int[] handled = {0};
+        OrderEventRing ring = new OrderEventRing("test-failure", 8, e -> {
+            handled[0]++;
+            if (e.getOrderId() == 1) throw new IllegalStateException("test failure");
+        });
+        for (long i = 0; i < 3; i++) {
+            ring.publishCancel(null, i);
+        }
+        ThreadUtils.pause(200);
+        Assertions.assertEquals(2, ring.getConsumedSequence());
+        Assertions.assertEquals(3, handled[0]);
+        ring.halt();
+    }
+
+    @Test
+    void testInvalidSize() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new OrderEventRing("bad", 100, e -> { }));
+    }
+}
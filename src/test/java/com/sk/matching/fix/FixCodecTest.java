@@ -0,0 +1,179 @@
+package com.sk.matching.fix;
+
+import com.sk.matching.client.ClientWorker;
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exchange.executions.ExecutionReports;
+import com.sk.matching.exchange.executions.GenExecutionReport;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.sequencer.MatchingShards;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.ExecType;
+import com.sk.matching.types.MsgType;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.sk.matching.fix.FixTags.*;
+
+class FixCodecTest {
+
+    private Symbol symbol;
+    private OrderBook book;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+        symbol = SymbolCache.get("IBM");
+        book = OrderBook.getBook(symbol);
+        book.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        book.reset();
+    }
+
+    @Test
+    void testDecodeNewOrderSingle() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(512);
+        buffer.put(fix("35=D|49=MEMBER1|56=EXCH|34=12|52=20240102-09:30:00.000|11=ORD-1|55=IBM|54=1|40=2"
+                + "|44=140.125|38=100|111=20|60=20240102-09:30:00.000|"));
+        FixDecoder decoder = new FixDecoder();
+
+        int length = decoder.decode(buffer, 0, buffer.position());
+        Assertions.assertEquals(buffer.position(), length, decoder::getError);
+        Assertions.assertTrue(decoder.isMsgType(MsgType.NOS));
+        Assertions.assertFalse(decoder.isMsgType(MsgType.CANCEL_REQ));
+        Assertions.assertEquals(12L, decoder.getLong(MSG_SEQ_NUM));
+        Assertions.assertEquals("ORD-1", decoder.getString(CL_ORD_ID));
+        Assertions.assertTrue(decoder.equals(SYMBOL, "IBM"));
+        Assertions.assertEquals('I' | 'B' << 8 | 'M' << 16, decoder.getAsciiKey(SYMBOL));
+        Assertions.assertEquals(Side.BUY, decoder.getSide());
+        Assertions.assertEquals(OrderType.LIMIT, decoder.getOrderType());
+        Assertions.assertEquals(symbol.toPriceUnits(140.125), decoder.getDecimal(PRICE, symbol.getPriceScale()));
+        Assertions.assertEquals(symbol.toQtyUnits(100), decoder.getDecimal(ORDER_QTY, symbol.getQtyScale()));
+        Assertions.assertEquals(symbol.toQtyUnits(20), decoder.getDecimal(MAX_FLOOR, symbol.getQtyScale()));
+        Assertions.assertFalse(decoder.has(ORIG_CL_ORD_ID));
+        Assertions.assertEquals(FixDecoder.NO_VALUE, decoder.getLong(ORDER_ID));
+    }
+
+    @Test
+    void testDecodeBackToBackAndPartialMessages() {
+        byte[] cancel = fix("35=F|49=MEMBER1|56=EXCH|34=13|11=CXL-1|41=ORD-1|37=42|55=IBM|54=1|");
+        byte[] replace = fix("35=G|49=MEMBER1|56=EXCH|34=14|11=RPL-1|41=ORD-1|37=42|55=IBM|54=1|40=2|44=139.5|38=80|");
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+        buffer.put(cancel).put(replace);
+        FixDecoder decoder = new FixDecoder();
+
+        Assertions.assertEquals(cancel.length, decoder.decode(buffer, 0, buffer.position()));
+        Assertions.assertTrue(decoder.isMsgType(MsgType.CANCEL_REQ));
+        Assertions.assertEquals(42L, decoder.getLong(ORDER_ID));
+        Assertions.assertEquals(replace.length, decoder.decode(buffer, cancel.length, buffer.position()));
+        Assertions.assertTrue(decoder.isMsgType(MsgType.CANCEL_REPLACE));
+        Assertions.assertEquals(14L, decoder.getLong(MSG_SEQ_NUM));
+        Assertions.assertEquals(symbol.toPriceUnits(139.5), decoder.getDecimal(PRICE, symbol.getPriceScale()));
+
+        for (int end = 1; end < cancel.length; end += 7) {
+            Assertions.assertEquals(FixDecoder.INCOMPLETE, decoder.decode(buffer, 0, end));
+        }
+    }
+
+    @Test
+    void testDecodeMalformed() {
+        byte[] message = fix("35=D|11=ORD-2|55=IBM|");
+        ByteBuffer buffer = ByteBuffer.wrap(message.clone());
+        buffer.put(message.length - 2, (byte) (message[message.length - 2] == '0' ? '1' : '0'));
+        FixDecoder decoder = new FixDecoder();
+        Assertions.assertEquals(FixDecoder.MALFORMED, decoder.decode(buffer, 0, buffer.limit()));
+        Assertions.assertEquals("CheckSum mismatch", decoder.getError());
+
+        ByteBuffer fix42 = ByteBuffer.wrap("8=FIX.4.2\u00019=5\u0001".getBytes(StandardCharsets.US_ASCII));
+        Assertions.assertEquals(FixDecoder.MALFORMED, decoder.decode(fix42, 0, fix42.limit()));
+    }
+
+    @Test
+    void testDecimalRounding() {
+        ByteBuffer buffer = ByteBuffer.wrap(fix("35=D|44=12.345|38=-0.5|31=7|32=1.004|"));
+        FixDecoder decoder = new FixDecoder();
+        Assertions.assertTrue(decoder.decode(buffer, 0, buffer.limit()) > 0, decoder::getError);
+        Assertions.assertEquals(1235L, decoder.getDecimal(PRICE, 100L));
+        Assertions.assertEquals(-50L, decoder.getDecimal(ORDER_QTY, 100L));
+        Assertions.assertEquals(700L, decoder.getDecimal(LAST_PX, 100L));
+        Assertions.assertEquals(100L, decoder.getDecimal(LAST_QTY, 100L));
+    }
+
+    @Test
+    void testEncodeExecutionReportsRoundTrip() throws Exception {
+        ClientWorker buyer = new ClientWorker();
+        ClientWorker seller = new ClientWorker();
+        List<GenExecutionReport> reports = new CopyOnWriteArrayList<>();
+        buyer.setExecutionReportListener(report -> reports.add(report.copy()));
+        buyer.createAndSubmitOrder("IBM", Side.BUY, 140.25, 100, OrderType.LIMIT, "FIX-B1");
+        seller.createAndSubmitOrder("IBM", Side.SELL, 140.25, 30, OrderType.LIMIT, "FIX-S1");
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        Assertions.assertTrue(ExecutionReports.awaitDelivered(5_000));
+        Assertions.assertEquals(2, reports.size(), reports::toString);
+
+        FixEncoder encoder = new FixEncoder("EXCH", "MEMBER1");
+        FixDecoder decoder = new FixDecoder();
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        long sendingTime = 1_704_187_800_123L;     //2024-01-02 09:30:00.123 UTC
+        int newLength = encoder.encodeExecutionReport(buffer, reports.get(0), 7, sendingTime);
+        int fillLength = encoder.encodeExecutionReport(buffer, reports.get(1), 8, sendingTime);
+
+        Assertions.assertEquals(newLength, decoder.decode(buffer, 0, buffer.position()), decoder::getError);
+        Assertions.assertTrue(decoder.isMsgType(MsgType.EXEC_REPORT));
+        Assertions.assertTrue(decoder.equals(SENDER_COMP_ID, "EXCH"));
+        Assertions.assertTrue(decoder.equals(TARGET_COMP_ID, "MEMBER1"));
+        Assertions.assertTrue(decoder.equals(SENDING_TIME, "20240102-09:30:00.123"));
+        Assertions.assertTrue(decoder.equals(EXEC_TYPE, ExecType.NEW.getFixValue()));
+        Assertions.assertEquals('0', decoder.getChar(ORD_STATUS));
+        Assertions.assertTrue(decoder.equals(CL_ORD_ID, "FIX-B1"));
+        Assertions.assertTrue(decoder.equals(PRICE, "140.25"));
+        Assertions.assertTrue(decoder.equals(ORDER_QTY, "100"));
+
+        Assertions.assertEquals(fillLength, decoder.decode(buffer, newLength, buffer.position()), decoder::getError);
+        Assertions.assertEquals(8L, decoder.getLong(MSG_SEQ_NUM));
+        Assertions.assertTrue(decoder.equals(EXEC_TYPE, ExecType.FILL.getFixValue()));
+        Assertions.assertEquals('1', decoder.getChar(ORD_STATUS));
+        Assertions.assertEquals(reports.get(0).getOrderId(), decoder.getLong(ORDER_ID));
+        Assertions.assertEquals(reports.get(1).getSequence(), decoder.getLong(EXEC_ID));
+        Assertions.assertEquals(reports.get(1).getExecId(), decoder.getLong(TRD_MATCH_ID));
+        Assertions.assertTrue(decoder.equals(LAST_QTY, "30"));
+        Assertions.assertTrue(decoder.equals(LAST_PX, "140.25"));
+        Assertions.assertTrue(decoder.equals(LEAVES_QTY, "70"));
+        Assertions.assertTrue(decoder.equals(CUM_QTY, "30"));
+        Assertions.assertTrue(decoder.equals(AVG_PX, "140.25"));
+        Assertions.assertEquals(Side.BUY, decoder.getSide());
+        Assertions.assertEquals(21, decoder.getValueLength(TRANSACT_TIME));
+    }
+
+    /**
+     * Frames a body written with | as field separator
+     */
+    private static byte[] fix(String body) {
+        String soh = "\u0001";
+        String bodyBytes = body.replace("|", soh);
+        String message = "8=FIX.4.4" + soh + "9=" + bodyBytes.length() + soh + bodyBytes;
+        int sum = 0;
+        for (byte b : message.getBytes(StandardCharsets.US_ASCII)) {
+            sum += b;
+        }
+        return (message + String.format("10=%03d", sum & 0xFF) + soh).getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,196 @@
+package com.sk.matching.gateway;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.sequencer.MatchingShards;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.ExecType;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static com.sk.matching.gateway.GatewayProtocol.ExecutionReportMessage;
+
+class OrderGatewayTest {
+
+    private OrderBook book;
+    private Symbol symbol;
+    private OrderGateway gateway;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+        symbol = SymbolCache.get("IBM");
+        book = OrderBook.getBook(symbol);
+        book.reset();
+        gateway = new OrderGateway(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        gateway.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gateway.stop();
+        MatchingShards.awaitDrained(5_000);
+        book.reset();
+    }
+
+    @Test
+    void testOrdersMatchedAndReportedOnTheirSession() throws Exception {
+        try (Socket buyer = connect(); Socket seller = connect()) {
+            send(buyer, newOrder("GW-B1", Side.BUY, 140.00, 100));
+            ExecutionReportMessage buyAck = receive(buyer);
+            Assertions.assertEquals(ExecType.NEW, buyAck.execType);
+            Assertions.assertEquals("GW-B1", buyAck.clOrdId);
+            Assertions.assertEquals("IBM", buyAck.symbol);
+            Assertions.assertEquals(Side.BUY, buyAck.side);
+            Assertions.assertTrue(buyAck.orderId > 0);
+
+            send(seller, newOrder("GW-S1", Side.SELL, 140.00, 60));
+            Assertions.assertEquals(ExecType.NEW, receive(seller).execType);
+            ExecutionReportMessage sellFill = receive(seller);
+            Assertions.assertEquals(ExecType.FILL, sellFill.execType);
+            Assertions.assertEquals(symbol.toQtyUnits(60), sellFill.execQty);
+            Assertions.assertEquals(0L, sellFill.leavesQty);
+
+            ExecutionReportMessage buyFill = receive(buyer);
+            Assertions.assertEquals(ExecType.FILL, buyFill.execType);
+            Assertions.assertEquals(buyAck.orderId, buyFill.orderId);
+            Assertions.assertEquals(symbol.toPriceUnits(140.00), buyFill.price);
+            Assertions.assertEquals(symbol.toQtyUnits(40), buyFill.leavesQty);
+
+            ByteBuffer amend = buffer();
+            GatewayProtocol.encodeAmend(amend, "IBM", buyAck.orderId, symbol.toPriceUnits(139.50),
+                    symbol.toQtyUnits(80));
+            send(buyer, amend);
+            ExecutionReportMessage replaced = receive(buyer);
+            Assertions.assertEquals(ExecType.REPLACE, replaced.execType);
+            Assertions.assertEquals(symbol.toPriceUnits(139.50), replaced.price);
+
+            ByteBuffer cancel = buffer();
+            GatewayProtocol.encodeCancel(cancel, "IBM", buyAck.orderId);
+            send(buyer, cancel);
+            ExecutionReportMessage cancelled = receive(buyer);
+            Assertions.assertEquals(ExecType.CANCEL, cancelled.execType);
+            Assertions.assertEquals(0L, cancelled.leavesQty);
+            Assertions.assertEquals(2, gateway.getSessionCount());
+        }
+    }
+
+    @Test
+    void testCancelOfAnotherSessionsOrderRejected() throws Exception {
+        try (Socket owner = connect(); Socket other = connect()) {
+            send(owner, newOrder("GW-B2", Side.BUY, 139.00, 10));
+            long orderId = receive(owner).orderId;
+
+            ByteBuffer cancel = buffer();
+            GatewayProtocol.encodeCancel(cancel, "IBM", orderId);
+            send(other, cancel);
+            ExecutionReportMessage reject = receive(other);
+            Assertions.assertEquals(ExecType.REJECTED, reject.execType);
+            Assertions.assertEquals(orderId, reject.orderId);
+            Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+            Assertions.assertTrue(book.getOrder(orderId).isOpen());
+        }
+    }
+
+    @Test
+    void testUnknownSymbolRejected() throws Exception {
+        try (Socket client = connect()) {
+            ByteBuffer order = buffer();
+            GatewayProtocol.encodeNew(order, "NOPE", "GW-X1", Side.BUY, OrderType.LIMIT, 100L, 100L,
+                    GenOrder.NO_QTY);
+            send(client, order);
+            ExecutionReportMessage reject = receive(client);
+            Assertions.assertEquals(ExecType.REJECTED, reject.execType);
+            Assertions.assertEquals("GW-X1", reject.clOrdId);
+            Assertions.assertEquals("NOPE", reject.symbol);
+            Assertions.assertEquals(0L, reject.orderId);
+        }
+    }
+
+    @Test
+    void testRequestsSplitAcrossReads() throws Exception {
+        try (Socket client = connect()) {
+            ByteBuffer orders = buffer();
+            orders.put(newOrder("GW-B3", Side.BUY, 138.00, 10));
+            orders.put(newOrder("GW-B4", Side.BUY, 137.00, 10));
+            orders.flip();
+            byte[] bytes = new byte[orders.remaining()];
+            orders.get(bytes);
+            OutputStream out = client.getOutputStream();
+            out.write(bytes, 0, 30);        //Half of the first request
+            out.flush();
+            Thread.sleep(50);
+            out.write(bytes, 30, bytes.length - 30);
+            out.flush();
+
+            Assertions.assertEquals("GW-B3", receive(client).clOrdId);
+            Assertions.assertEquals("GW-B4", receive(client).clOrdId);
+        }
+    }
+
+    @Test
+    void testMalformedRequestClosesSession() throws Exception {
+        try (Socket client = connect()) {
+            ByteBuffer garbage = buffer();
+            garbage.putShort((short) 12).put((byte) 'Z').put((byte) 0).putLong(0L);
+            send(client, garbage);
+            Assertions.assertEquals(-1, client.getInputStream().read());
+        }
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), gateway.getLocalAddress().getPort());
+        socket.setSoTimeout(5_000);
+        socket.setTcpNoDelay(true);
+        return socket;
+    }
+
+    private ByteBuffer newOrder(String clOrdId, Side side, double price, double qty) {
+        ByteBuffer order = buffer();
+        GatewayProtocol.encodeNew(order, "IBM", clOrdId, side, OrderType.LIMIT, symbol.toPriceUnits(price),
+                symbol.toQtyUnits(qty), GenOrder.NO_QTY);
+        order.flip();
+        return order;
+    }
+
+    private static ByteBuffer buffer() {
+        return ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void send(Socket socket, ByteBuffer message) throws IOException {
+        if (message.position() > 0) {
+            message.flip();
+        }
+        byte[] bytes = new byte[message.remaining()];
+        message.get(bytes);
+        socket.getOutputStream().write(bytes);
+        socket.getOutputStream().flush();
+    }
+
+    private static ExecutionReportMessage receive(Socket socket) throws IOException {
+        byte[] bytes = new byte[GatewayProtocol.EXEC_REPORT_LENGTH];
+        new DataInputStream(socket.getInputStream()).readFully(bytes);
+        return GatewayProtocol.decodeExecutionReport(ByteBuffer.wrap(bytes), new ExecutionReportMessage());
+    }
+}
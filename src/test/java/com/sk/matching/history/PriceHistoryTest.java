@@ -0,0 +1,111 @@
+package com.sk.matching.history;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+class PriceHistoryTest {
+
+    @BeforeEach
+    void setUp() {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        PriceHistories.closeAll();
+    }
+
+    @Test
+    void testImportAndIncrementalAppendOfCsv(@TempDir Path dir) throws Exception {
+        Path csvDir = Files.createDirectory(dir.resolve("data"));
+        Path storeDir = dir.resolve("history");
+        Files.copy(Paths.get("./data/BAC.csv"), csvDir.resolve("BAC.csv"));
+        Symbol bac = SymbolCache.get("BAC");
+
+        Assertions.assertEquals(253, PriceHistories.load(csvDir, storeDir, List.of(bac)));
+        PriceHistory history = PriceHistories.get(bac);
+        Assertions.assertEquals(253, history.size());
+        Assertions.assertEquals(bac.toPriceUnits(bac.getOpeningPx()), history.getLastClose());
+        int first = (int) LocalDate.of(2020, 7, 23).toEpochDay();
+        Assertions.assertEquals(first, history.getDate(0));
+        Assertions.assertEquals(bac.toPriceUnits(24.52), history.getOpen(0));
+        Assertions.assertEquals(61_047_600L, history.getVolume(0));
+
+        int to = (int) LocalDate.of(2020, 8, 1).toEpochDay();
+        List<Integer> days = new ArrayList<>();
+        history.scan(first, to, (index, epochDay) -> days.add(epochDay));
+        Assertions.assertEquals(List.of(first, first + 1, first + 4, first + 5, first + 6, first + 7, first + 8), days);
+        Assertions.assertEquals(bac.toPriceUnits(24.83), history.getHighest(first, first + 2));
+        Assertions.assertEquals(bac.toPriceUnits(24.11), history.getLowest(first, first + 2));
+        Assertions.assertEquals(PriceHistory.NO_PRICE, history.getHighest(first - 10, first));
+        double volatility = history.getVolatility(20);
+        Assertions.assertTrue(volatility > 0.0d && volatility < 0.2d, "volatility " + volatility);
+
+        PriceHistories.closeAll();
+        Assertions.assertEquals(0, PriceHistories.load(csvDir, storeDir, List.of(bac)));     //Nothing to parse
+        Assertions.assertEquals(253, PriceHistories.get(bac).size());
+        Files.writeString(csvDir.resolve("BAC.csv"), "\n2021-07-26,38.0,38.5,37.5,38.25,38.25,1000\n",
+                StandardOpenOption.APPEND);
+        Assertions.assertEquals(1, PriceHistories.load(csvDir, storeDir, List.of(bac)));
+        Assertions.assertEquals(254, PriceHistories.get(bac).size());
+        Assertions.assertEquals(bac.toPriceUnits(38.25), PriceHistories.get(bac).getLastClose());
+    }
+
+    @Test
+    void testBootstrapOnlyWritesTheConfiguredDir(@TempDir Path dir) throws Exception {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setHistoryDir(dir.resolve("history").toString());
+        new PriceHistoryBootstrap(appCfg, null).init();
+        Assertions.assertFalse(Files.exists(dir.resolve("history")), "Disabled unless a deployment enables it");
+
+        appCfg.setHistoryEnabled(true);
+        new PriceHistoryBootstrap(appCfg, null).init();
+        Assertions.assertTrue(Files.exists(dir.resolve("history").resolve("BAC.hist")));
+        Assertions.assertTrue(PriceHistories.get(SymbolCache.get("BAC")).size() > 0);
+    }
+
+    @Test
+    void testAppendGrowsAndReplacesTheDaysBar(@TempDir Path dir) throws Exception {
+        try (PriceHistory history = PriceHistory.open(dir.resolve("T.hist"), 100L)) {
+            int bars = PriceHistory.DEFAULT_CAPACITY + 10;
+            for (int day = 0; day < bars; day++) {
+                history.append(day, 1_000L, 1_100L, 900L, 1_000L + day, 1_000L + day, day);
+            }
+            Assertions.assertEquals(bars, history.size());
+            Assertions.assertEquals(1_000L + bars - 1, history.getLastClose());
+            Assertions.assertEquals(5L, history.getVolume(5));
+            Assertions.assertEquals(100, history.indexOf(100));
+
+            history.append(bars - 1, 1_000L, 1_200L, 800L, 1_150L, 1_150L, 7L);
+            Assertions.assertEquals(bars, history.size());
+            Assertions.assertEquals(1_150L, history.getLastClose());
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> history.append(3, 1L, 1L, 1L, 1L, 1L, 1L));
+        }
+        try (PriceHistory reopened = PriceHistory.open(dir.resolve("T.hist"), 100L)) {
+            Assertions.assertEquals(PriceHistory.DEFAULT_CAPACITY + 10, reopened.size());
+            Assertions.assertEquals(1_150L, reopened.getLastClose());
+        }
+        Assertions.assertThrows(IOException.class, () -> PriceHistory.open(dir.resolve("T.hist"), 10_000L));
+    }
+}
@@ -0,0 +1,144 @@
+package com.sk.matching.ipc;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.sequencer.MatchingShards;
+import com.sk.matching.gateway.GatewayProtocol.ExecutionReportMessage;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.ExecType;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+class IpcTransportTest {
+
+    @TempDir
+    Path dir;
+
+    private Symbol symbol;
+    private OrderBook book;
+    private IpcServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+        symbol = SymbolCache.get("IBM");
+        book = OrderBook.getBook(symbol);
+        book.reset();
+        server = new IpcServer(dir);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+        MatchingShards.awaitDrained(5_000);
+        book.reset();
+    }
+
+    @Test
+    void testRingWrapsAndReportsFull() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(IpcRing.byteSize(4)).order(ByteOrder.LITTLE_ENDIAN);
+        IpcRing ring = new IpcRing(buffer, 0, 4);
+        List<Long> received = new ArrayList<>();
+        for (long round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                int offset = ring.tryClaim();
+                Assertions.assertTrue(offset >= 0);
+                buffer.putLong(offset, round * 10 + i);
+                ring.commit(Long.BYTES);
+            }
+            Assertions.assertEquals(-1, ring.tryClaim());
+            Assertions.assertEquals(4, ring.size());
+            Assertions.assertEquals(3, ring.poll((b, offset, length) -> received.add(b.getLong(offset)), 3));
+            Assertions.assertEquals(1, ring.poll((b, offset, length) -> received.add(b.getLong(offset)), 10));
+        }
+        Assertions.assertEquals(List.of(0L, 1L, 2L, 3L, 10L, 11L, 12L, 13L, 20L, 21L, 22L, 23L), received);
+    }
+
+    @Test
+    void testOrdersAndReportsOverSharedMemory() throws Exception {
+        try (IpcClient buyer = IpcClient.connect(dir, "buyer", 64);
+             IpcClient seller = IpcClient.connect(dir, "seller", 64)) {
+            awaitTrue(() -> server.getSessionCount() == 2);
+
+            Assertions.assertTrue(buyer.sendNew("IBM", "IPC-B1", Side.BUY, OrderType.LIMIT,
+                    symbol.toPriceUnits(140.00), symbol.toQtyUnits(100), GenOrder.NO_QTY));
+            List<ExecutionReportMessage> buyerReports = awaitReports(buyer, 1);
+            Assertions.assertEquals(ExecType.NEW, buyerReports.get(0).execType);
+            Assertions.assertEquals("IPC-B1", buyerReports.get(0).clOrdId);
+            long orderId = buyerReports.get(0).orderId;
+
+            Assertions.assertTrue(seller.sendNew("IBM", "IPC-S1", Side.SELL, OrderType.LIMIT,
+                    symbol.toPriceUnits(140.00), symbol.toQtyUnits(60), GenOrder.NO_QTY));
+            List<ExecutionReportMessage> sellerReports = awaitReports(seller, 2);
+            Assertions.assertEquals(ExecType.FILL, sellerReports.get(1).execType);
+            Assertions.assertEquals(symbol.toQtyUnits(60), sellerReports.get(1).execQty);
+
+            Assertions.assertTrue(seller.sendCancel("IBM", orderId));
+            Assertions.assertEquals(ExecType.REJECTED, awaitReports(seller, 1).get(0).execType);
+
+            Assertions.assertTrue(buyer.sendCancel("IBM", orderId));
+            buyerReports = awaitReports(buyer, 2);
+            Assertions.assertEquals(ExecType.FILL, buyerReports.get(0).execType);
+            Assertions.assertEquals(symbol.toQtyUnits(40), buyerReports.get(0).leavesQty);
+            Assertions.assertEquals(ExecType.CANCEL, buyerReports.get(1).execType);
+        }
+        awaitTrue(() -> server.getSessionCount() == 0);
+        Assertions.assertFalse(Files.exists(dir.resolve("buyer" + IpcChannel.FILE_SUFFIX)));
+    }
+
+    @Test
+    void testMalformedRequestClosesChannel() throws Exception {
+        try (IpcClient client = IpcClient.connect(dir, "garbage", 16);
+             IpcChannel channel = IpcChannel.open(dir.resolve("garbage" + IpcChannel.FILE_SUFFIX))) {
+            awaitTrue(() -> server.getSessionCount() == 1);
+            IpcRing requests = channel.getRequests();
+            int offset = requests.tryClaim();
+            requests.getBuffer().putShort(offset, (short) 12).put(offset + 2, (byte) 'Z');
+            requests.commit(12);
+            awaitTrue(() -> !client.isConnected());
+            Assertions.assertFalse(client.sendCancel("IBM", 1L));
+        }
+    }
+
+    private static List<ExecutionReportMessage> awaitReports(IpcClient client, int count) throws InterruptedException {
+        List<ExecutionReportMessage> reports = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (reports.size() < count && System.currentTimeMillis() < deadline) {
+            if (client.pollReports(message -> reports.add(message.copy()), count - reports.size()) == 0) {
+                Thread.sleep(1);
+            }
+        }
+        Assertions.assertEquals(count, reports.size(), reports::toString);
+        return reports;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assertions.assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,148 @@
+package com.sk.matching.journal;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exchange.executions.ExecutionReports;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.orderbook.TopOfBook;
+import com.sk.matching.exchange.sequencer.MatchingShards;
+import com.sk.matching.exchange.sequencer.OrderEventRing;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import com.sk.matching.util.ThreadUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+class BookSnapshotsTest {
+
+    private static final long CLIENT_ID = 1L << 40;
+
+    @TempDir
+    Path snapshotDir;
+
+    private OrderBook book;
+    private Symbol symbol;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+        symbol = SymbolCache.get("IBM");
+        book = OrderBook.getBook(symbol);
+        book.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        book.reset();
+    }
+
+    private GenOrder newOrder(long orderId, String clOrdId, double px, double qty) throws Exception {
+        GenOrder.Builder builder = new GenOrder.Builder(clOrdId, "IBM", Side.BUY, OrderType.LIMIT);
+        builder.setPrice(px);
+        builder.setQty(qty);
+        builder.setCurrency("USD");
+        builder.setClientId(CLIENT_ID);
+        GenOrder genOrder = builder.build();
+        genOrder.setOrderId(orderId);
+        return genOrder;
+    }
+
+    private static class CancelRecorder implements JournalListener {
+        final List<String> records = new ArrayList<>();
+
+        @Override
+        public void onNew(String symbol, long orderId, String clOrdId, Side side, OrderType orderType,
+                          long price, long qty, long visibleQty, String currency, long clientId) {
+            records.add("NEW " + symbol + " " + orderId);
+        }
+
+        @Override
+        public void onCancel(String symbol, long orderId) {
+            records.add("CANCEL " + symbol + " " + orderId);
+        }
+
+        @Override
+        public void onAmend(String symbol, long orderId, long price, long qty) {
+            records.add("AMEND " + symbol + " " + orderId);
+        }
+    }
+
+    @Test
+    void testSnapshotRestoreAndTailReplay() throws Exception {
+        book.processOrder(newOrder(9_100_001L, "S1", 120.50, 100));
+        book.processOrder(newOrder(9_100_002L, "S2", 120.50, 50));
+        book.processOrder(newOrder(9_100_003L, "S3", 119.75, 25));
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+
+        OrderJournal journal = new OrderJournal(snapshotDir, 5, 0, 1 << 20);
+        OrderEventRing ring = new OrderEventRing("snapshot-test", 64, journal::append);
+        ring.publishCancel(book, 1L);   //Before the snapshot, covered by it
+        while (ring.getConsumedSequence() < 0) {
+            ThreadUtils.pause(1);
+        }
+
+        BookSnapshots snapshots = new BookSnapshots(snapshotDir, () -> 9_100_003L, () -> 42L);
+        int shardCount = MatchingShards.getShardCount();
+        for (int shard = 0; shard < shardCount; shard++) {
+            snapshots.onSnapshot(shard, shardCount, 1, journal);
+        }
+        for (int i = 0; i < 5_000 && snapshots.getCompleteSnapshotId() != 1; i++) {
+            ThreadUtils.pause(1);
+        }
+        Assertions.assertEquals(1, snapshots.getCompleteSnapshotId());
+
+        ring.publishCancel(book, 2L);   //Journal tail
+        while (ring.getConsumedSequence() < 1) {
+            ThreadUtils.pause(1);
+        }
+        ring.halt();
+        snapshots.shutdown();
+
+        book.reset();
+        BookSnapshots.Restored restored = BookSnapshots.restore(snapshotDir);
+        Assertions.assertNotNull(restored);
+        Assertions.assertEquals(5, restored.generation);
+        Assertions.assertEquals(1, restored.snapshotId);
+        Assertions.assertEquals(3, restored.orderCount);
+        Assertions.assertEquals(9_100_003L, restored.lastOrderId);
+        Assertions.assertEquals(42L, restored.currentTradeId);
+
+        GenOrder first = book.getOrder(9_100_001L);
+        Assertions.assertEquals("S1", first.getClientOrderId());
+        Assertions.assertEquals(CLIENT_ID, first.getClientId(), "Reports of restored orders still reach their client");
+        Assertions.assertTrue(ExecutionReports.newClientId() > CLIENT_ID, "Restored client ids are never handed out");
+        Assertions.assertEquals(symbol.toPriceUnits(120.50), first.getOrdPxUnits());
+        Assertions.assertEquals(symbol.toQtyUnits(100), first.getLeavesQtyUnits());
+        Assertions.assertSame(first, book.getBestBid().get(0), "Time priority kept within the level");
+        Assertions.assertEquals(symbol.toQtyUnits(150), book.getTopOfBook().read(new TopOfBook.Quote()).bidQty);
+        Assertions.assertNotNull(book.getOrder(9_100_003L).getLevel());
+
+        Assertions.assertEquals(0, BookSnapshots.restore(snapshotDir).orderCount, "Orders already on the book");
+
+        CancelRecorder recorder = new CancelRecorder();
+        Assertions.assertEquals(1, JournalReplayer.replay(snapshotDir, restored, recorder));
+        Assertions.assertEquals(List.of("CANCEL IBM 2"), recorder.records);
+        Assertions.assertEquals(2, JournalReplayer.replay(snapshotDir, recorder));
+    }
+
+    @Test
+    void testNoSnapshot() throws Exception {
+        Assertions.assertNull(BookSnapshots.restore(snapshotDir));
+        Assertions.assertNull(BookSnapshots.restore(snapshotDir.resolve("missing")));
+    }
+}
@@ -0,0 +1,125 @@
+package com.sk.matching.journal;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.sequencer.OrderEventRing;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import com.sk.matching.util.ThreadUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+class OrderJournalTest {
+
+    @TempDir
+    Path journalDir;
+
+    private OrderBook book;
+    private Symbol symbol;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+        symbol = SymbolCache.get("BAC");
+        book = OrderBook.getBook(symbol);
+    }
+
+    private GenOrder newOrder(String clOrdId, double px, double qty) throws Exception {
+        GenOrder.Builder builder = new GenOrder.Builder(clOrdId, "BAC", Side.SELL, OrderType.LIMIT);
+        builder.setPrice(px);
+        builder.setQty(qty);
+        builder.setVisibleQty(10);
+        builder.setCurrency("USD");
+        builder.setClientId(11L);
+        return builder.build();
+    }
+
+    private static class Recorder implements JournalListener {
+        final List<String> records = new ArrayList<>();
+
+        @Override
+        public void onNew(String symbol, long orderId, String clOrdId, Side side, OrderType orderType,
+                          long price, long qty, long visibleQty, String currency, long clientId) {
+            records.add("NEW " + symbol + " " + orderId + " " + clOrdId + " " + side + " " + orderType + " "
+                    + price + " " + qty + " " + visibleQty + " " + currency + " " + clientId);
+        }
+
+        @Override
+        public void onCancel(String symbol, long orderId) {
+            records.add("CANCEL " + symbol + " " + orderId);
+        }
+
+        @Override
+        public void onAmend(String symbol, long orderId, long price, long qty) {
+            records.add("AMEND " + symbol + " " + orderId + " " + price + " " + qty);
+        }
+    }
+
+    @Test
+    void testAppendAndReplay() throws Exception {
+        OrderJournal journal = new OrderJournal(journalDir, 1, 0, 1 << 20);
+        OrderEventRing ring = new OrderEventRing("journal-test", 64, journal::append);
+        GenOrder genOrder = newOrder("J1", 20.25, 300);
+        genOrder.setOrderId(7L);
+        ring.publishNew(book, genOrder);
+        ring.publishAmend(book, 7L, symbol.toPriceUnits(20.30), symbol.toQtyUnits(200));
+        ring.publishPurge(book);    //Housekeeping, not journaled
+        ring.publishCancel(book, 7L);
+        while (ring.getConsumedSequence() < 3) {
+            ThreadUtils.pause(1);
+        }
+        ring.halt();
+        Assertions.assertEquals(3, journal.getRecordCount());
+
+        Recorder recorder = new Recorder();
+        Assertions.assertEquals(3, JournalReplayer.replay(journalDir, recorder));
+        Assertions.assertEquals(List.of(
+                "NEW BAC 7 J1 SELL LIMIT 202500 30000 1000 USD 11",
+                "AMEND BAC 7 203000 20000",
+                "CANCEL BAC 7"), recorder.records);
+        Assertions.assertEquals(2, JournalReplayer.nextGeneration(journalDir));
+    }
+
+    @Test
+    void testSegmentsRollAndReplayInOrder() throws Exception {
+        OrderJournal journal = new OrderJournal(journalDir, 3, 0, 128 << 10);
+        OrderEventRing ring = new OrderEventRing("journal-roll-test", 1024, journal::append);
+        int records = 5_000;
+        for (int i = 0; i < records; i++) {
+            ring.publishCancel(book, i);
+        }
+        while (ring.getConsumedSequence() < records - 1) {
+            ThreadUtils.pause(1);
+        }
+        ring.halt();
+
+        Assertions.assertTrue(JournalReplayer.segments(journalDir).size() > 1, "Journal rolled to a new segment");
+        Recorder recorder = new Recorder();
+        Assertions.assertEquals(records, JournalReplayer.replay(journalDir, recorder));
+        for (int i = 0; i < records; i++) {
+            Assertions.assertEquals("CANCEL BAC " + i, recorder.records.get(i));
+        }
+        Assertions.assertEquals(4, JournalReplayer.nextGeneration(journalDir));
+    }
+
+    @Test
+    void testEmptyDirectory() throws Exception {
+        Assertions.assertEquals(0, JournalReplayer.replay(journalDir.resolve("missing"), new Recorder()));
+        Assertions.assertEquals(1, JournalReplayer.nextGeneration(journalDir.resolve("missing")));
+    }
+}
@@ -0,0 +1,130 @@
+package com.sk.matching.marketdata;
+
+import com.sk.matching.client.ClientWorker;
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.sequencer.MatchingShards;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class BarAggregatorTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private AppCfg appCfg;
+    private Symbol symbol;
+    private OrderBook book;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+        symbol = SymbolCache.get("IBM");
+        book = OrderBook.getBook(symbol);
+        book.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        book.reset();
+    }
+
+    @Test
+    void testBarSeriesRollsAndWraps() {
+        BarSeries series = new BarSeries(SECOND, 4);
+        Bar bar = new Bar();
+        Assertions.assertFalse(series.read(0, bar));
+
+        series.onTrade(10 * SECOND + 1, 1_000L, 5L);
+        series.onTrade(10 * SECOND + 2, 1_200L, 1L);
+        series.onTrade(10 * SECOND + 3, 900L, 2L);
+        series.onTrade(11 * SECOND, 950L, 3L);
+        Assertions.assertEquals(2, series.size());
+        Assertions.assertTrue(series.read(1, bar));
+        Assertions.assertEquals(10 * SECOND, bar.startNanos);
+        Assertions.assertEquals(1_000L, bar.open);
+        Assertions.assertEquals(1_200L, bar.high);
+        Assertions.assertEquals(900L, bar.low);
+        Assertions.assertEquals(900L, bar.close);
+        Assertions.assertEquals(8L, bar.volume);
+        Assertions.assertEquals(3, bar.trades);
+        Assertions.assertTrue(series.read(0, bar));
+        Assertions.assertEquals(11 * SECOND, bar.startNanos);
+        Assertions.assertEquals(950L, bar.open);
+
+        for (long s = 12; s < 20; s += 2) {     //Idle seconds have no bar
+            series.onTrade(s * SECOND, s, 1L);
+        }
+        Assertions.assertEquals(4, series.size());
+        Assertions.assertTrue(series.read(3, bar));
+        Assertions.assertEquals(12 * SECOND, bar.startNanos);
+        Assertions.assertFalse(series.read(4, bar));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BarSeries(SECOND, 3));
+    }
+
+    @Test
+    void testParseInterval() {
+        Assertions.assertEquals(SECOND, BarAggregator.parseInterval("1s"));
+        Assertions.assertEquals(TimeUnit.MINUTES.toNanos(5), BarAggregator.parseInterval(" 5m"));
+        Assertions.assertEquals(BarAggregator.DAY_NANOS, BarAggregator.parseInterval("1d"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BarAggregator.parseInterval("1w"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BarAggregator.parseInterval("0s"));
+    }
+
+    @Test
+    void testAggregatesMatchesIntoBarsAndDailyCsv(@TempDir Path dir) throws Exception {
+        BarAggregator aggregator = new BarAggregator(appCfg);
+        aggregator.poll();      //Catches up with the trades of earlier tests
+        BarSeries daily = aggregator.getBars(symbol, BarAggregator.DAY_NANOS);
+        Assertions.assertNotNull(daily);
+        Assertions.assertNull(aggregator.getBars(symbol, TimeUnit.HOURS.toNanos(1)));
+        Bar before = new Bar();
+        long volumeBefore = daily.read(0, before)
+                && before.startNanos / BarAggregator.DAY_NANOS == LocalDate.now(ZoneOffset.UTC).toEpochDay()
+                ? before.volume : 0L;
+
+        ClientWorker buyer = new ClientWorker();
+        ClientWorker seller = new ClientWorker();
+        buyer.createAndSubmitOrder("IBM", Side.BUY, 140.25, 100, OrderType.LIMIT, "BAR-B1");
+        seller.createAndSubmitOrder("IBM", Side.SELL, 140.25, 30, OrderType.LIMIT, "BAR-S1");
+        seller.createAndSubmitOrder("IBM", Side.SELL, 140.00, 20, OrderType.LIMIT, "BAR-S2");
+        Assertions.assertTrue(MatchingShards.awaitDrained(5_000));
+        Assertions.assertTrue(aggregator.poll());
+        Assertions.assertFalse(aggregator.poll());
+
+        Bar bar = new Bar();
+        Assertions.assertTrue(daily.read(0, bar));
+        Assertions.assertEquals(volumeBefore + symbol.toQtyUnits(50), bar.volume);
+        Assertions.assertEquals(symbol.toPriceUnits(140.25), bar.close);
+        Assertions.assertTrue(aggregator.getBars(symbol, SECOND).read(0, bar));
+        Assertions.assertEquals(symbol.toPriceUnits(140.25), bar.close);
+
+        Path csv = dir.resolve("IBM.csv");
+        Assertions.assertTrue(aggregator.appendDailyBar(symbol, csv));
+        Assertions.assertTrue(aggregator.appendDailyBar(symbol, csv));
+        List<String> lines = Files.readAllLines(csv);
+        Assertions.assertEquals(3, lines.size());
+        Assertions.assertEquals("Date,Open,High,Low,Close,Adj Close,Volume", lines.get(0));
+        Assertions.assertTrue(lines.get(1).startsWith(LocalDate.now(ZoneOffset.UTC) + ","), lines.get(1));
+        Assertions.assertTrue(lines.get(1).contains(",140.250000,140.250000,"), lines.get(1));
+    }
+}
@@ -0,0 +1,170 @@
+package com.sk.matching.marketdata;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.orderbook.L2Action;
+import com.sk.matching.exchange.orderbook.L2Feed;
+import com.sk.matching.exchange.orderbook.L2Update;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.exchange.orderbook.PollResult;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class L2MirrorBookTest {
+
+    private OrderBook book;
+    private Symbol symbol;
+    private long nextOrderId = 9_200_000L;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+        symbol = SymbolCache.get("IBM");
+        book = OrderBook.getBook(symbol);
+        book.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        book.reset();
+    }
+
+    private GenOrder rest(Side side, double px, double qty) throws Exception {
+        return rest(side, px, qty, Double.NaN);
+    }
+
+    private GenOrder rest(Side side, double px, double qty, double visibleQty) throws Exception {
+        GenOrder.Builder builder = new GenOrder.Builder("L2-" + nextOrderId, "IBM", side, OrderType.LIMIT);
+        builder.setPrice(px);
+        builder.setQty(qty);
+        builder.setVisibleQty(visibleQty);
+        GenOrder genOrder = builder.build();
+        genOrder.setOrderId(nextOrderId++);
+        book.setOrder(genOrder);
+        return genOrder;
+    }
+
+    @Test
+    void testIncrementalUpdates() throws Exception {
+        L2Feed.Reader reader = book.getL2Feed().newReader();
+        GenOrder first = rest(Side.BUY, 100.00, 10);
+        rest(Side.BUY, 100.00, 5);
+        book.removeBid(first);
+        book.removeBid(book.getBestBid().get(0));
+
+        L2Update update = new L2Update();
+        long price = symbol.toPriceUnits(100.00);
+        Assertions.assertEquals(PollResult.UPDATE, reader.poll(update));
+        Assertions.assertEquals(L2Action.ADD, update.action);
+        Assertions.assertEquals(Side.BUY, update.side);
+        Assertions.assertEquals(price, update.price);
+        Assertions.assertEquals(symbol.toQtyUnits(10), update.qty);
+        Assertions.assertEquals(1, update.orderCount);
+        long sequence = update.sequence;
+
+        Assertions.assertEquals(PollResult.UPDATE, reader.poll(update));
+        Assertions.assertEquals(L2Action.CHANGE, update.action);
+        Assertions.assertEquals(symbol.toQtyUnits(15), update.qty);
+        Assertions.assertEquals(2, update.orderCount);
+        Assertions.assertEquals(sequence + 1, update.sequence);
+
+        Assertions.assertEquals(PollResult.UPDATE, reader.poll(update));
+        Assertions.assertEquals(L2Action.CHANGE, update.action);
+        Assertions.assertEquals(symbol.toQtyUnits(5), update.qty);
+
+        Assertions.assertEquals(PollResult.UPDATE, reader.poll(update));
+        Assertions.assertEquals(L2Action.DELETE, update.action);
+        Assertions.assertEquals(price, update.price);
+        Assertions.assertEquals(PollResult.NONE, reader.poll(update));
+    }
+
+    @Test
+    void testIcebergReserveNotPublished() throws Exception {
+        L2Feed.Reader reader = book.getL2Feed().newReader();
+        GenOrder iceberg = rest(Side.SELL, 101.00, 100, 20);
+        rest(Side.SELL, 101.00, 5);
+        book.onFill(iceberg, symbol.toQtyUnits(50));     //Reserve of 30 still hidden
+        book.getL2Feed().requestRefresh();
+        rest(Side.BUY, 99.00, 1);
+
+        L2Update update = new L2Update();
+        Assertions.assertEquals(PollResult.UPDATE, reader.poll(update));
+        Assertions.assertEquals(L2Action.ADD, update.action);
+        Assertions.assertEquals(symbol.toQtyUnits(20), update.qty);
+        Assertions.assertEquals(PollResult.UPDATE, reader.poll(update));
+        Assertions.assertEquals(symbol.toQtyUnits(25), update.qty);
+        Assertions.assertEquals(PollResult.UPDATE, reader.poll(update));
+        Assertions.assertEquals(L2Action.CHANGE, update.action);
+        Assertions.assertEquals(symbol.toQtyUnits(25), update.qty);
+        Assertions.assertEquals(PollResult.UPDATE, reader.poll(update));
+        Assertions.assertEquals(L2Action.ADD, update.action);
+        Assertions.assertEquals(Side.BUY, update.side);
+        Assertions.assertEquals(PollResult.UPDATE, reader.poll(update));
+        Assertions.assertEquals(L2Action.SNAPSHOT_START, update.action);
+        Assertions.assertEquals(PollResult.UPDATE, reader.poll(update));
+        Assertions.assertEquals(Side.BUY, update.side);
+        Assertions.assertEquals(PollResult.UPDATE, reader.poll(update));
+        Assertions.assertEquals(L2Action.SNAPSHOT_LEVEL, update.action);
+        Assertions.assertEquals(Side.SELL, update.side);
+        Assertions.assertEquals(symbol.toQtyUnits(25), update.qty);
+        Assertions.assertEquals(symbol.toQtyUnits(55), iceberg.getLevel().getTotalQty());
+    }
+
+    @Test
+    void testMirrorFollowsBook() throws Exception {
+        rest(Side.BUY, 99.50, 10);
+        L2MirrorBook mirror = new L2MirrorBook(book.getL2Feed());
+        Assertions.assertFalse(mirror.isSynced());
+
+        rest(Side.SELL, 100.50, 7);     //Carries the requested refresh
+        mirror.poll(Integer.MAX_VALUE);
+        Assertions.assertTrue(mirror.isSynced());
+        Assertions.assertEquals(symbol.toQtyUnits(10), mirror.getBids().get(symbol.toPriceUnits(99.50)).getQty());
+        Assertions.assertEquals(symbol.toQtyUnits(7), mirror.getAsks().firstEntry().getValue().getQty());
+
+        GenOrder bid = rest(Side.BUY, 99.75, 3);
+        rest(Side.SELL, 100.25, 4);
+        book.onFill(bid, symbol.toQtyUnits(1));
+        mirror.poll(Integer.MAX_VALUE);
+        Assertions.assertEquals(symbol.toPriceUnits(99.75), (long) mirror.getBids().firstKey());
+        Assertions.assertEquals(symbol.toQtyUnits(2), mirror.getBids().firstEntry().getValue().getQty());
+        Assertions.assertEquals(symbol.toPriceUnits(100.25), (long) mirror.getAsks().firstKey());
+        Assertions.assertEquals(2, mirror.getAsks().size());
+
+        book.removeBid(bid);
+        mirror.poll(Integer.MAX_VALUE);
+        Assertions.assertEquals(symbol.toPriceUnits(99.50), (long) mirror.getBids().firstKey());
+        Assertions.assertEquals(book.getL2Feed().getSequence(), mirror.getLastSequence());
+    }
+
+    @Test
+    void testSlowMirrorResyncsAfterGap() throws Exception {
+        L2MirrorBook mirror = new L2MirrorBook(book.getL2Feed());
+        rest(Side.BUY, 99.00, 1);
+        int capacity = book.getL2Feed().getCapacity();
+        for (int i = 0; i < capacity; i++) {
+            book.onFill(book.getBestBid().get(0), 0);
+        }
+        mirror.poll(Integer.MAX_VALUE);
+        Assertions.assertTrue(mirror.getGaps() > 0);
+        Assertions.assertFalse(mirror.isSynced());
+
+        rest(Side.SELL, 101.00, 2);     //Carries the refresh requested on the gap
+        mirror.poll(Integer.MAX_VALUE);
+        Assertions.assertTrue(mirror.isSynced());
+        Assertions.assertEquals(1, mirror.getBids().size());
+        Assertions.assertEquals(1, mirror.getAsks().size());
+    }
+}
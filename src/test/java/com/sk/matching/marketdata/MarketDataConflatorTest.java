@@ -0,0 +1,148 @@
+package com.sk.matching.marketdata;
+
+import com.sk.matching.config.AppCfg;
+import com.sk.matching.engine.MatchingEngineBootstrap;
+import com.sk.matching.exchange.order.GenOrder;
+import com.sk.matching.exchange.orderbook.OrderBook;
+import com.sk.matching.symbols.Symbol;
+import com.sk.matching.symbols.SymbolCache;
+import com.sk.matching.types.OrderType;
+import com.sk.matching.types.Side;
+import com.sk.matching.util.ThreadUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+class MarketDataConflatorTest {
+
+    private OrderBook book;
+    private Symbol symbol;
+    private MarketDataConflator conflator;
+    private long nextOrderId = 9_400_000L;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir("./data");
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        appCfg.setMarketDataDepth(3);
+        new SymbolCache(appCfg).init();
+        MatchingEngineBootstrap.configure(appCfg);
+        symbol = SymbolCache.get("IBM");
+        book = OrderBook.getBook(symbol);
+        book.reset();
+        conflator = new MarketDataConflator(appCfg);
+        conflator.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        conflator.stop();
+        book.reset();
+    }
+
+    private void rest(Side side, double px, double qty) throws Exception {
+        GenOrder.Builder builder = new GenOrder.Builder("MD-" + nextOrderId, "IBM", side, OrderType.LIMIT);
+        builder.setPrice(px);
+        builder.setQty(qty);
+        GenOrder genOrder = builder.build();
+        genOrder.setOrderId(nextOrderId++);
+        book.setOrder(genOrder);
+    }
+
+    private static boolean pollWithin(DepthSubscription subscription, long millis) {
+        for (long i = 0; i < millis; i++) {
+            if (subscription.poll()) {
+                return true;
+            }
+            ThreadUtils.pause(1);
+        }
+        return false;
+    }
+
+    @Test
+    void testPullTopN() throws Exception {
+        rest(Side.BUY, 10.00, 1);
+        rest(Side.BUY, 10.10, 2);
+        rest(Side.BUY, 10.20, 3);
+        rest(Side.BUY, 10.30, 4);
+        rest(Side.SELL, 10.50, 5);
+
+        DepthSubscription subscription = conflator.subscribe(symbol, 2);
+        Assertions.assertTrue(pollWithin(subscription, 5_000), "Quiet book is refreshed for a new subscriber");
+        DepthSnapshot snapshot = subscription.getSnapshot();
+        Assertions.assertEquals(2, snapshot.bidLevels);
+        Assertions.assertEquals(symbol.toPriceUnits(10.30), snapshot.bidPx[0]);
+        Assertions.assertEquals(symbol.toQtyUnits(4), snapshot.bidQty[0]);
+        Assertions.assertEquals(symbol.toPriceUnits(10.20), snapshot.bidPx[1]);
+        Assertions.assertEquals(1, snapshot.askLevels);
+        Assertions.assertEquals(symbol.toPriceUnits(10.50), snapshot.askPx[0]);
+        Assertions.assertFalse(subscription.poll(), "Nothing changed since the last poll");
+
+        rest(Side.SELL, 10.40, 6);
+        Assertions.assertTrue(pollWithin(subscription, 5_000));
+        Assertions.assertEquals(symbol.toPriceUnits(10.40), subscription.getSnapshot().askPx[0]);
+        Assertions.assertEquals(2, subscription.getSnapshot().askLevels);
+        Assertions.assertSame(snapshot, subscription.getSnapshot(), "Snapshot buffer is re-used");
+        Assertions.assertEquals(3, conflator.getBook(symbol).getMaxDepth());
+    }
+
+    @Test
+    void testSlowSubscriberDoesNotSlowFastOne() throws Exception {
+        AtomicInteger fastDeliveries = new AtomicInteger();
+        AtomicInteger slowDeliveries = new AtomicInteger();
+        AtomicLong fastLastPx = new AtomicLong();
+        try (DepthSubscription fast = conflator.subscribe(symbol, 1, 5, snapshot -> {
+                 fastDeliveries.incrementAndGet();
+                 fastLastPx.set(snapshot.bidPx[0]);
+             });
+             DepthSubscription slow = conflator.subscribe(symbol, 1, 5, snapshot -> {
+                 slowDeliveries.incrementAndGet();
+                 ThreadUtils.pause(1_000);
+             })) {
+            for (int i = 0; i < 20; i++) {
+                rest(Side.BUY, 20.00 + i / 100.0, 1);
+                ThreadUtils.pause(20);
+            }
+            ThreadUtils.pause(100);
+            Assertions.assertTrue(fastDeliveries.get() > 5, "Fast subscriber kept up " + fastDeliveries.get());
+            Assertions.assertTrue(slowDeliveries.get() <= 2, "Slow subscriber was conflated " + slowDeliveries.get());
+            Assertions.assertEquals(symbol.toPriceUnits(20.19), fastLastPx.get());
+        }
+    }
+
+    @Test
+    void testPushSubscriptionsShareTheScheduler() throws Exception {
+        long pushersBefore = pusherThreads();    //Scheduler threads are started by the first subscriptions
+        AtomicLongArray deliveredPx = new AtomicLongArray(16);
+        List<DepthSubscription> subscriptions = new ArrayList<>();
+        for (int i = 0; i < deliveredPx.length(); i++) {
+            int idx = i;
+            subscriptions.add(conflator.subscribe(symbol, 1, 5, snapshot -> deliveredPx.set(idx, snapshot.bidPx[0])));
+        }
+        rest(Side.BUY, 30.00, 1);
+        long px = symbol.toPriceUnits(30.00);
+        for (int i = 0; i < deliveredPx.length(); i++) {
+            for (int wait = 0; wait < 5_000 && deliveredPx.get(i) != px; wait++) {
+                ThreadUtils.pause(1);
+            }
+            Assertions.assertEquals(px, deliveredPx.get(i), "Subscription " + i);
+        }
+        long pushers = pusherThreads() - pushersBefore;
+        Assertions.assertTrue(pushers <= MarketDataConflator.DEFAULT_PUSH_THREADS, "Push threads " + pushers);
+        subscriptions.forEach(DepthSubscription::close);
+    }
+
+    private static long pusherThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("md-pusher-")).count();
+    }
+}
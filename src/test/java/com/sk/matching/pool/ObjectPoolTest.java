@@ -0,0 +1,118 @@
+package com.sk.matching.pool;
+
+import com.sk.matching.exception.PoolExhaustedException;
+import com.sk.matching.exception.PoolInvalidObjectException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ObjectPoolTest {
+
+    private static class Counter {
+        int value;
+    }
+
+    private static class CounterFactory implements ObjectFactory<Counter> {
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicBoolean valid = new AtomicBoolean(true);
+
+        @Override
+        public Counter create() {
+            created.incrementAndGet();
+            return new Counter();
+        }
+
+        @Override
+        public boolean validate(Counter counter) {
+            return valid.get();
+        }
+
+        @Override
+        public void reset(Counter counter) {
+            counter.value = 0;
+        }
+    }
+
+    @Test
+    void testPreAllocatesAndGrowsUpToMax() {
+        CounterFactory factory = new CounterFactory();
+        ObjectPool<Counter> pool = new ObjectPool<>("test", new PoolConfig(2, 4, 10), factory);
+        Assertions.assertEquals(2, factory.created.get());
+        Assertions.assertEquals(2, pool.getIdleCount());
+
+        for (int i = 0; i < 4; i++) {
+            pool.borrowObject();
+        }
+        Assertions.assertEquals(4, factory.created.get());
+        Assertions.assertEquals(4, pool.getSize());
+        Assertions.assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    void testReturnResetsAndReUses() {
+        CounterFactory factory = new CounterFactory();
+        ObjectPool<Counter> pool = new ObjectPool<>("test", new PoolConfig(1, 1, 10), factory);
+        Counter counter = pool.borrowObject();
+        counter.value = 42;
+        pool.returnObject(counter);
+
+        Counter again = pool.borrowObject();
+        Assertions.assertSame(counter, again);
+        Assertions.assertEquals(0, again.value);
+        Assertions.assertEquals(1, factory.created.get());
+    }
+
+    @Test
+    void testExhaustedAfterMaxWait() {
+        ObjectPool<Counter> pool = new ObjectPool<>("test", new PoolConfig(0, 1, 50), new CounterFactory());
+        pool.borrowObject();
+        long start = System.nanoTime();
+        Assertions.assertThrows(PoolExhaustedException.class, pool::borrowObject);
+        Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+    }
+
+    @Test
+    void testTryBorrowNeverWaits() {
+        ObjectPool<Counter> pool = new ObjectPool<>("test", new PoolConfig(0, 1, 60_000), new CounterFactory());
+        Counter counter = pool.tryBorrowObject();
+        Assertions.assertNotNull(counter);
+        Assertions.assertNull(pool.tryBorrowObject());
+
+        pool.returnObject(counter);
+        Assertions.assertSame(counter, pool.tryBorrowObject());
+    }
+
+    @Test
+    void testBlockingBorrowWaitsForReturn() throws Exception {
+        ObjectPool<Counter> pool = new ObjectPool<>("test", new PoolConfig(1, 1, 10), new CounterFactory());
+        Counter counter = pool.borrowObject();
+        CompletableFuture<Counter> waiting = CompletableFuture.supplyAsync(() -> pool.borrowObject(true));
+        Thread.sleep(50);
+        Assertions.assertFalse(waiting.isDone());
+
+        pool.returnObject(counter);
+        Assertions.assertSame(counter, waiting.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testInvalidObjectsAreDropped() {
+        CounterFactory factory = new CounterFactory();
+        ObjectPool<Counter> pool = new ObjectPool<>("test", new PoolConfig(2, 8, 10), factory);
+        factory.valid.set(false);
+        Assertions.assertThrows(PoolInvalidObjectException.class, pool::borrowObject);
+        Assertions.assertEquals(0, pool.getSize(), "Every invalid object is destroyed");
+
+        factory.valid.set(true);
+        Assertions.assertNotNull(pool.borrowObject());
+    }
+
+    @Test
+    void testInvalidConfig() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new ObjectPool<>("test", new PoolConfig(4, 2, 10), new CounterFactory()));
+    }
+}
@@ -0,0 +1,71 @@
+package com.sk.matching.symbols;
+
+import com.sk.matching.config.AppCfg;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+class SymbolImageTest {
+
+    @Test
+    void testImageWrittenOnLoadAndReadBack(@TempDir Path dir) throws Exception {
+        for (String file : new String[]{"Symbols.csv", "BAC.csv", "FB.csv", "IBM.csv"}) {
+            Files.copy(Paths.get("./data").resolve(file), dir.resolve(file));
+        }
+        AppCfg appCfg = new AppCfg();
+        appCfg.setDataDir(dir.toString());
+        appCfg.setSymbolFile("Symbols.csv");
+        appCfg.setSymbolFileContentSeparator(",");
+        appCfg.setSymbolImageFile("Symbols.img");
+        appCfg.setSymbolLoaderThreads(2);
+        new SymbolCache(appCfg).init();
+
+        Path image = dir.resolve("Symbols.img");
+        Path symbolFile = dir.resolve("Symbols.csv");
+        Assertions.assertTrue(Files.exists(image));
+        List<SymbolImage.Entry> entries = SymbolImage.read(image, symbolFile, ",", sy -> dir.resolve(sy + ".csv"));
+        Assertions.assertNotNull(entries);
+        Assertions.assertEquals(3, entries.size());
+        Assertions.assertEquals("BAC", entries.get(0).name);
+        Assertions.assertEquals("IBM", entries.get(2).name);
+        for (SymbolImage.Entry entry : entries) {
+            Symbol symbol = SymbolCache.get(entry.name);
+            Assertions.assertTrue(entry.isTradable());
+            Assertions.assertEquals(symbol.getOpeningPx(), entry.lastPx);
+            Assertions.assertEquals(symbol.getPriceScale(), entry.priceScale);
+        }
+        new SymbolCache(appCfg).init();     //Re-load through the image keeps the same symbols and ids
+        Assertions.assertSame(SymbolCache.get("FB"), SymbolCache.get(SymbolCache.get("FB").getId()));
+
+        Assertions.assertNull(SymbolImage.read(image, symbolFile, ";", sy -> dir.resolve(sy + ".csv")));
+        Files.writeString(dir.resolve("FB.csv"), "2024-06-12,1,2,3,4,5\n", StandardOpenOption.APPEND);
+        Assertions.assertNull(SymbolImage.read(image, symbolFile, ",", sy -> dir.resolve(sy + ".csv")));
+    }
+
+    @Test
+    void testMissingOrCorruptImage(@TempDir Path dir) throws Exception {
+        Path image = dir.resolve("Symbols.img");
+        Path symbolFile = dir.resolve("Symbols.csv");
+        Files.writeString(symbolFile, "1,ABC,Abc Corp\n");
+        Assertions.assertNull(SymbolImage.read(image, symbolFile, ",", sy -> dir.resolve(sy + ".csv")));
+
+        SymbolImage.write(image, symbolFile, ",", List.of(
+                new SymbolImage.Entry("ABC", SymbolImage.NO_FILE, 0L, Double.NaN, 0.01, 10_000L, 100L)));
+        List<SymbolImage.Entry> entries = SymbolImage.read(image, symbolFile, ",", sy -> dir.resolve(sy + ".csv"));
+        Assertions.assertNotNull(entries);
+        Assertions.assertFalse(entries.get(0).isTradable());
+
+        byte[] bytes = Files.readAllBytes(image);
+        Files.write(image, Arrays.copyOf(bytes, bytes.length - 5));
+        Assertions.assertNull(SymbolImage.read(image, symbolFile, ",", sy -> dir.resolve(sy + ".csv")));
+        Files.writeString(image, "not an image");
+        Assertions.assertNull(SymbolImage.read(image, symbolFile, ",", sy -> dir.resolve(sy + ".csv")));
+    }
+}
@@ -4,6 +4,7 @@ import lombok.extern.log4j.Log4j2;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
@@ -39,7 +40,27 @@ class FileUtilsTest {
         }
     }
 
+    @Test
+    void testGetLastLineOfSeeksFromTheEnd(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("history.csv");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2_000; i++) {
+            content.append("2020-01-01,").append(i).append(",1.0,2.0,3.0\n");
+        }
+        String longLine = "x".repeat(FileUtils.LAST_LINE_CHUNK_SIZE * 2 + 17);
+        Files.writeString(file, content + longLine + "\n");
+        Assertions.assertEquals(longLine, FileUtils.getLastLineOf(file));
 
+        Files.writeString(file, content + "LAST,1,2\r\n");
+        Assertions.assertEquals("LAST,1,2", FileUtils.getLastLineOf(file));
+        Files.writeString(file, "ONLY LINE");
+        Assertions.assertEquals("ONLY LINE", FileUtils.getLastLineOf(file));
+        Files.writeString(file, "FIRST\n\n");
+        Assertions.assertEquals("", FileUtils.getLastLineOf(file));
+        Files.writeString(file, "");
+        Assertions.assertNull(FileUtils.getLastLineOf(file));
+        Assertions.assertNull(FileUtils.getLastLineOf(dir.resolve("missing.csv")));
+    }
 
 }
 